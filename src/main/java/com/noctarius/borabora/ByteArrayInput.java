@@ -16,6 +16,8 @@
  */
 package com.noctarius.borabora;
 
+import com.noctarius.borabora.spi.io.WordScanner;
+
 import java.util.Objects;
 
 final class ByteArrayInput
@@ -62,9 +64,74 @@ final class ByteArrayInput
         return l;
     }
 
+    @Override
+    public boolean equals(long offset, byte[] bytes, int from, int length)
+            throws NoSuchByteException {
+
+        Objects.requireNonNull(bytes, "bytes must not be null");
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ByteArrayInput can only handle offsets up to Integer.MAX_VALUE");
+        }
+        if (offset < 0 || length < 0 || offset + length > this.bytes.length) {
+            throw new NoSuchByteException(offset, "Offset " + offset + " outside of available data");
+        }
+        if (from < 0 || from + length > bytes.length) {
+            throw new NoSuchByteException(offset, "Length " + length + " larger than comparable data");
+        }
+
+        byte[] data = this.bytes;
+        int position = (int) offset;
+        for (int i = 0; i < length; i++) {
+            if (data[position + i] != bytes[from + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int scanOneByteItems(long offset, int maxLength) {
+        if (offset < 0 || maxLength <= 0) {
+            return 0;
+        }
+
+        int count = 0;
+        long available = Math.min(maxLength, bytes.length - offset);
+        while (count < available) {
+            if (available - count >= WordScanner.WORD_SIZE) {
+                long mask = WordScanner.nonSmallItems(readWord(offset + count));
+                if (mask == 0) {
+                    count += WordScanner.WORD_SIZE;
+                    continue;
+                }
+                // Marked bytes might still be empty strings or containers
+                count += WordScanner.firstMarkedByte(mask);
+            }
+            if (!WordScanner.isOneByteItem((short) (bytes[(int) (offset + count)] & 0xFF))) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
     @Override
     public boolean offsetValid(long offset) {
         return offset < bytes.length;
     }
 
+    private long readWord(long offset) {
+        // Big endian, the first byte ends up in the most significant position
+        byte[] data = bytes;
+        int position = (int) offset;
+        return ((long) data[position] & 0xFF) << 56 //
+                | ((long) data[position + 1] & 0xFF) << 48 //
+                | ((long) data[position + 2] & 0xFF) << 40 //
+                | ((long) data[position + 3] & 0xFF) << 32 //
+                | ((long) data[position + 4] & 0xFF) << 24 //
+                | ((long) data[position + 5] & 0xFF) << 16 //
+                | ((long) data[position + 6] & 0xFF) << 8 //
+                | ((long) data[position + 7] & 0xFF);
+    }
+
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora;
+
+/**
+ * The <tt>CborReader</tt> is a forward-only, pull based reader over an {@link Input} instance.
+ * Instead of materializing {@link Value} instances, the reader returns a {@link CborToken} per
+ * data item and offers primitive getters to read the current item's content. Apart from the
+ * getters returning arrays or strings, walking the stream does not allocate per token.
+ * <p>A CborReader instance is retrieved using {@link Parser#newReader(Input)} and is <b>not</b>
+ * thread-safe. It is meant to be used by a single thread.</p>
+ * <pre>
+ * CborReader reader = Parser.newReader( input );
+ * CborToken token;
+ * while ( (token = reader.next()) != null ) {
+ *     ...
+ * }
+ * </pre>
+ */
+public interface CborReader {
+
+    /**
+     * Moves the reader to the next data item and returns its token, or <tt>null</tt> if the end
+     * of the input is reached.
+     *
+     * @return the token of the next data item or null if the end of input was reached
+     * @throws IllegalStateException is thrown whenever malformed data was found
+     */
+    CborToken next();
+
+    /**
+     * Returns the token of the current data item, or <tt>null</tt> if {@link #next()} was not
+     * called yet or the end of input was reached.
+     *
+     * @return the current token
+     */
+    CborToken currentToken();
+
+    /**
+     * Returns the {@link MajorType} of the current data item. For {@link CborToken#EndSequence}
+     * and {@link CborToken#EndDictionary} the major type of the closed container is returned.
+     *
+     * @return the major type of the current data item
+     */
+    MajorType majorType();
+
+    /**
+     * Returns the offset of the current data item inside the input.
+     *
+     * @return the offset of the current data item
+     */
+    long offset();
+
+    /**
+     * Returns the current nesting depth, <tt>0</tt> describes the top level.
+     *
+     * @return the current nesting depth
+     */
+    int depth();
+
+    /**
+     * Returns the current integer value, or the tag id if the current token is
+     * {@link CborToken#SemanticTag}.
+     *
+     * @return the current integer value
+     * @throws WrongTypeException    is thrown if the current data item is not an integer or semantic tag
+     * @throws IllegalStateException is thrown if the value does not fit into a long
+     */
+    long getLong();
+
+    /**
+     * Returns the current floating point or integer value as double.
+     *
+     * @return the current value as double
+     * @throws WrongTypeException is thrown if the current data item is not a number
+     */
+    double getDouble();
+
+    /**
+     * Returns the current boolean value.
+     *
+     * @return the current boolean value
+     * @throws WrongTypeException is thrown if the current data item is not a boolean
+     */
+    boolean getBoolean();
+
+    /**
+     * Returns the payload bytes of the current byte or text string. Indefinite strings are
+     * concatenated.
+     *
+     * @return the string's payload bytes
+     * @throws WrongTypeException is thrown if the current data item is not a string
+     */
+    byte[] getStringBytes();
+
+    /**
+     * Returns the current byte or text string decoded as UTF-8.
+     *
+     * @return the current string value
+     * @throws WrongTypeException is thrown if the current data item is not a string
+     */
+    String getString();
+
+    /**
+     * Skips the children of the current data item. If the current token is
+     * {@link CborToken#StartSequence} or {@link CborToken#StartDictionary}, the reader moves to
+     * the matching end token without visiting the contained elements. If the current token is
+     * {@link CborToken#SemanticTag}, the tagged data item is skipped. For all other tokens this
+     * method does nothing.
+     */
+    void skipChildren();
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora;
+
+/**
+ * The <tt>CborToken</tt> enum defines the events returned by a {@link CborReader} while walking
+ * a CBOR data stream.
+ *
+ * @see CborReader
+ */
+public enum CborToken {
+
+    /**
+     * <tt>StartSequence</tt> marks the beginning of a {@link MajorType#Sequence}, definite
+     * or indefinite.
+     */
+    StartSequence,
+
+    /**
+     * <tt>EndSequence</tt> marks the end of a {@link MajorType#Sequence}.
+     */
+    EndSequence,
+
+    /**
+     * <tt>StartDictionary</tt> marks the beginning of a {@link MajorType#Dictionary}, definite
+     * or indefinite.
+     */
+    StartDictionary,
+
+    /**
+     * <tt>EndDictionary</tt> marks the end of a {@link MajorType#Dictionary}.
+     */
+    EndDictionary,
+
+    /**
+     * <tt>Key</tt> describes a scalar data item in key position of a {@link MajorType#Dictionary}.
+     * The actual type is available from {@link CborReader#majorType()}.
+     */
+    Key,
+
+    /**
+     * <tt>Int</tt> describes an unsigned or negative integer.
+     */
+    Int,
+
+    /**
+     * <tt>Float</tt> describes a half, single or double precision floating point value.
+     */
+    Float,
+
+    /**
+     * <tt>ByteString</tt> describes a definite or indefinite byte string.
+     */
+    ByteString,
+
+    /**
+     * <tt>TextString</tt> describes a definite or indefinite UTF-8 text string.
+     */
+    TextString,
+
+    /**
+     * <tt>Bool</tt> describes a <tt>true</tt> or <tt>false</tt> value.
+     */
+    Bool,
+
+    /**
+     * <tt>Null</tt> describes a <tt>null</tt> value.
+     */
+    Null,
+
+    /**
+     * <tt>Undefined</tt> describes an <tt>undefined</tt> value.
+     */
+    Undefined,
+
+    /**
+     * <tt>Simple</tt> describes any other simple value.
+     */
+    Simple,
+
+    /**
+     * <tt>SemanticTag</tt> describes a semantic tag, the next token is the tagged data item.
+     */
+    SemanticTag
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora;
+
+import java.util.Objects;
+
+/**
+ * The <tt>ComparisonOperator</tt> enum defines the operators available to the comparison
+ * predicates provided by {@link Predicates}. Every operator has a symbol which is also
+ * used by the query language, e.g. <tt>#(? &gt;= 18)</tt>.
+ *
+ * @see Predicates#compareInt(ComparisonOperator, long)
+ * @see Predicates#compareFloat(ComparisonOperator, double)
+ * @see Predicates#compareString(ComparisonOperator, String)
+ */
+public enum ComparisonOperator {
+
+    /**
+     * <tt>Equal</tt> matches values equal to the given value, symbol <tt>==</tt>.
+     */
+    Equal("=="),
+
+    /**
+     * <tt>GreaterThan</tt> matches values greater than the given value, symbol <tt>&gt;</tt>.
+     */
+    GreaterThan(">"),
+
+    /**
+     * <tt>GreaterThanOrEqual</tt> matches values greater than or equal to the given value,
+     * symbol <tt>&gt;=</tt>.
+     */
+    GreaterThanOrEqual(">="),
+
+    /**
+     * <tt>LessThan</tt> matches values less than the given value, symbol <tt>&lt;</tt>.
+     */
+    LessThan("<"),
+
+    /**
+     * <tt>LessThanOrEqual</tt> matches values less than or equal to the given value,
+     * symbol <tt>&lt;=</tt>.
+     */
+    LessThanOrEqual("<=");
+
+    private final String symbol;
+
+    ComparisonOperator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Returns the symbol of this operator as used by the query language.
+     *
+     * @return the symbol of this operator
+     */
+    public String symbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the result of a comparison, as returned by
+     * {@link Comparable#compareTo(Object)}, of a value against the given value is accepted
+     * by this operator, otherwise <tt>false</tt>.
+     *
+     * @param comparison the comparison result
+     * @return true if the comparison result is accepted, otherwise false
+     */
+    public boolean test(int comparison) {
+        switch (this) {
+            case Equal:
+                return comparison == 0;
+            case GreaterThan:
+                return comparison > 0;
+            case GreaterThanOrEqual:
+                return comparison >= 0;
+            case LessThan:
+                return comparison < 0;
+            default:
+                return comparison <= 0;
+        }
+    }
+
+    /**
+     * Returns the operator for the given <tt>symbol</tt>.
+     *
+     * @param symbol the symbol of the operator
+     * @return the operator for the given symbol
+     * @throws IllegalArgumentException if the symbol is not a known operator
+     */
+    public static ComparisonOperator fromSymbol(String symbol) {
+        Objects.requireNonNull(symbol, "symbol must not be null");
+        for (ComparisonOperator operator : values()) {
+            if (operator.symbol.equals(symbol)) {
+                return operator;
+            }
+        }
+        throw new IllegalArgumentException("Unknown comparison operator: " + symbol);
+    }
+
+}
@@ -17,6 +17,9 @@
 package com.noctarius.borabora;
 
 import com.noctarius.borabora.spi.io.CompositeBuffer;
+import com.noctarius.borabora.spi.io.WordScanner;
+
+import java.util.Objects;
 
 /**
  * An <tt>Input</tt> instance represents a source for readable data. Input implementations are
@@ -73,6 +76,65 @@ public interface Input {
      */
     boolean offsetValid(long offset);
 
+    /**
+     * Compares <tt>length</tt> bytes of the readable area, starting at the given <tt>offset</tt>,
+     * against the given byte-array (<tt>bytes</tt>), starting at <tt>from</tt>. The comparison is
+     * executed in place, without copying data out of the underlying stream. Returns <tt>true</tt>
+     * if all bytes are equal, otherwise <tt>false</tt>. If <tt>offset</tt> or <tt>offset</tt> plus
+     * <tt>length</tt> results in an offset outside of the readable area, or <tt>from</tt> plus
+     * <tt>length</tt> is larger than the given byte-array's length, a {@link NoSuchByteException}
+     * is thrown.
+     * <p>The default implementation compares byte by byte using {@link #read(long)}, implementations
+     * are encouraged to provide faster, bulk based comparisons.</p>
+     *
+     * @param offset the offset to start comparing
+     * @param bytes  the byte-array to compare against
+     * @param from   the first index inside the byte-array to compare
+     * @param length the number of bytes to compare
+     * @return true if all bytes in the given range are equal, otherwise false
+     * @throws NoSuchByteException if offset, offset+length is outside the readable area or
+     *                             from+length is larger than the provided byte array
+     */
+    default boolean equals(long offset, byte[] bytes, int from, int length)
+            throws NoSuchByteException {
+
+        Objects.requireNonNull(bytes, "bytes must not be null");
+        if (offset < 0 || length < 0 || (length > 0 && !offsetValid(offset + length - 1))) {
+            throw new NoSuchByteException(offset, "Offset " + offset + " outside of available data");
+        }
+        if (from < 0 || from + length > bytes.length) {
+            throw new NoSuchByteException(offset, "Length " + length + " larger than comparable data");
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (read(offset + i) != bytes[from + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of consecutive bytes, starting at the given <tt>offset</tt>, which each
+     * form a complete CBOR data item of exactly one byte (small integers, simple values, empty
+     * strings and empty containers). Scanning stops at the first other byte, after
+     * <tt>maxLength</tt> bytes or at the end of the readable area.
+     * <p>The default implementation tests byte by byte using {@link #read(long)}, implementations
+     * are encouraged to test multiple bytes at once, see {@link WordScanner}.</p>
+     *
+     * @param offset    the offset to start scanning
+     * @param maxLength the maximum number of bytes to scan
+     * @return the number of consecutive single byte data items
+     */
+    default int scanOneByteItems(long offset, int maxLength) {
+        int count = 0;
+        while (count < maxLength && offsetValid(offset + count) //
+                && WordScanner.isOneByteItem((short) (read(offset + count) & 0xFF))) {
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Returns an <tt>Input</tt> instance backed by the provided <tt>bytes</tt> byte-array. The instance
      * returned <b>does not</b> handle offsets larger than {@link Integer#MAX_VALUE} due to the limitation
@@ -16,6 +16,8 @@
  */
 package com.noctarius.borabora;
 
+import com.noctarius.borabora.spi.io.HeadTables;
+
 import static com.noctarius.borabora.spi.io.Constants.MT_BYTESTRING;
 import static com.noctarius.borabora.spi.io.Constants.MT_DICTIONARY;
 import static com.noctarius.borabora.spi.io.Constants.MT_FLOAT_SIMPLE;
@@ -159,24 +161,7 @@ public enum MajorType {
      * @return the MajorType matching the given header byte
      */
     public static MajorType findMajorType(short head) {
-        switch ((head & 0xff) >>> 5) {
-            case MT_UNSINGED_INT:
-                return UnsignedInteger;
-            case MT_NEGATIVE_INT:
-                return NegativeInteger;
-            case MT_BYTESTRING:
-                return ByteString;
-            case MT_TEXTSTRING:
-                return TextString;
-            case MT_SEQUENCE:
-                return Sequence;
-            case MT_DICTIONARY:
-                return Dictionary;
-            case MT_SEMANTIC_TAG:
-                return SemanticTag;
-            default: // Always MT_FLOAT_SIMPLE
-                return FloatingPointOrSimple;
-        }
+        return HeadTables.majorType(head);
     }
 
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora;
+
+import java.util.List;
+
+/**
+ * The <tt>MultiConsumer</tt> interface receives the results of
+ * {@link Parser#readAll(Input, List, MultiConsumer)}, each result is passed together with the
+ * index of the query (inside the given list of queries) it was found by.
+ */
+@FunctionalInterface
+public interface MultiConsumer {
+
+    /**
+     * Accepts a result of the query at position <tt>queryIndex</tt>.
+     *
+     * @param queryIndex the index of the query inside the given list of queries
+     * @param value      the matched value
+     */
+    void accept(int queryIndex, Value value);
+
+}
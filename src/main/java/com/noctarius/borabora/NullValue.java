@@ -16,6 +16,8 @@
  */
 package com.noctarius.borabora;
 
+import java.io.InputStream;
+
 import static com.noctarius.borabora.spi.io.Constants.EMPTY_BYTE_ARRAY;
 
 final class NullValue
@@ -44,6 +46,16 @@ final class NullValue
         return null;
     }
 
+    @Override
+    public long unscaledLong() {
+        throw new WrongTypeException("Null is not a decimal fraction");
+    }
+
+    @Override
+    public int scale() {
+        throw new WrongTypeException("Null is not a decimal fraction");
+    }
+
     @Override
     public Sequence sequence() {
         return null;
@@ -59,6 +71,11 @@ final class NullValue
         return null;
     }
 
+    @Override
+    public CharSequence charSequence() {
+        return null;
+    }
+
     @Override
     public Boolean bool() {
         return null;
@@ -69,6 +86,11 @@ final class NullValue
         return null;
     }
 
+    @Override
+    public InputStream openStream() {
+        return null;
+    }
+
     @Override
     public byte[] raw() {
         return EMPTY_BYTE_ARRAY;
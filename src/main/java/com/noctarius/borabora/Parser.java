@@ -19,8 +19,13 @@ package com.noctarius.borabora;
 import com.noctarius.borabora.builder.ParserBuilder;
 import com.noctarius.borabora.builder.query.QueryBuilder;
 import com.noctarius.borabora.builder.query.StreamQueryBuilder;
+import com.noctarius.borabora.impl.CborReaderImpl;
 import com.noctarius.borabora.impl.ParserBuilderImpl;
+import com.noctarius.borabora.spi.query.QueryCache;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 /**
@@ -191,6 +196,62 @@ public interface Parser {
      */
     byte[] extract(Input input, long offset);
 
+    /**
+     * <p>Evaluates all given {@link Query} instances against the given {@link Input} instance in a
+     * single pass. Navigation steps common to multiple queries, like the stream element, dictionary
+     * key or sequence index lookups, are evaluated only once, no matter how many queries share them.
+     * Every match is passed to the given {@link MultiConsumer} together with the index of the query
+     * inside the given list.</p>
+     * <p>The values of each query are passed in the same order as by {@link #read(Input, Query, Consumer)},
+     * however the values of different queries may be interleaved. Queries not finding any matching
+     * element do not produce any value. Parameterized queries are evaluated separately.</p>
+     * <p>The method is completely thread-safe and the same parser instance can be used concurrently
+     * from multiple threads.</p>
+     *
+     * @param input    the input stream instance to parse
+     * @param queries  the query instances to execute against the input stream
+     * @param consumer the consumer to be called for every matched value
+     * @throws IllegalStateException is thrown whenever an illegal state has occurred while parsing
+     * @throws WrongTypeException    is thrown whenever an unexpected type was found while parsing
+     */
+    void readAll(Input input, List<Query> queries, MultiConsumer consumer);
+
+    /**
+     * <p>Evaluates the given multi stream {@link Query} (<tt>$</tt>) against the given {@link Input}
+     * instance using the {@link ForkJoinPool#commonPool()}. The top-level stream elements are
+     * partitioned into ranges which are evaluated in parallel, see
+     * {@link #readParallel(Input, Query, Consumer, Executor, boolean)} for details.</p>
+     *
+     * @param input    the input stream instance to parse
+     * @param query    the query instance to execute against the input stream
+     * @param consumer the consumer to be called for every matched value
+     * @param ordered  true to pass the values in stream order, otherwise false
+     * @throws IllegalStateException is thrown whenever an illegal state has occurred while parsing
+     * @throws WrongTypeException    is thrown whenever an unexpected type was found while parsing
+     */
+    void readParallel(Input input, Query query, Consumer<Value> consumer, boolean ordered);
+
+    /**
+     * <p>Evaluates the given multi stream {@link Query} (<tt>$</tt>) against the given {@link Input}
+     * instance on the given {@link Executor}. The top-level stream elements are partitioned into
+     * ranges which are evaluated in parallel, each with its own query context. Queries not starting
+     * with a multi stream element are evaluated on the calling thread.</p>
+     * <p>If <tt>ordered</tt> is set, values are passed in the same order as by
+     * {@link #read(Input, Query, Consumer)} from the calling thread. Otherwise values are passed in
+     * no specific order from the executing threads as soon as they are found and the consumer must
+     * be thread-safe. The input must support concurrent reads, which is true for all built-in
+     * input implementations. The method returns after all values have been passed.</p>
+     *
+     * @param input    the input stream instance to parse
+     * @param query    the query instance to execute against the input stream
+     * @param consumer the consumer to be called for every matched value
+     * @param executor the executor to evaluate the stream ranges on
+     * @param ordered  true to pass the values in stream order, otherwise false
+     * @throws IllegalStateException is thrown whenever an illegal state has occurred while parsing
+     * @throws WrongTypeException    is thrown whenever an unexpected type was found while parsing
+     */
+    void readParallel(Input input, Query query, Consumer<Value> consumer, Executor executor, boolean ordered);
+
     /**
      * Parses and prepares a given query string into a {@link Query} instance. The returned query
      * instance is fully thread-safe and stateless and can be stored and shared by multiple threads.
@@ -204,6 +265,16 @@ public interface Parser {
      */
     Query prepareQuery(String query);
 
+    /**
+     * Returns the {@link QueryCache} used to reuse prepared queries of query strings, including the
+     * ones passed to {@link #read(Input, String)}, {@link #extract(Input, String)} and
+     * {@link #prepareQuery(String)}. The cache also provides hit and miss statistics.
+     *
+     * @return the configured query cache if available, otherwise null
+     * @see com.noctarius.borabora.builder.ParserBuilder#withQueryCache(int)
+     */
+    QueryCache queryCache();
+
     /**
      * Returns a new {@link QueryBuilder} instance to configure a {@link Query} instance. The eventually
      * build query instance is fully thread-safe and stateless and can be stored and shared by multiple
@@ -213,6 +284,18 @@ public interface Parser {
      */
     StreamQueryBuilder newQueryBuilder();
 
+    /**
+     * Creates a new {@link CborReader} instance to walk the given {@link Input} token by token.
+     * The reader does not evaluate queries or semantic tag strategies and is therefore independent
+     * from any parser configuration. CborReader instances are <b>not</b> thread-safe.
+     *
+     * @param input the input stream instance to read
+     * @return a new <tt>CborReader</tt> instance bound to the given input
+     */
+    static CborReader newReader(Input input) {
+        return new CborReaderImpl(input);
+    }
+
     /**
      * Creates a new {@link ParserBuilder} instance to fluently configure and create a {@link Parser}
      * instance.
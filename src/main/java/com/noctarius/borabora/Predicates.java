@@ -17,19 +17,19 @@
 package com.noctarius.borabora;
 
 import com.noctarius.borabora.builder.query.QueryTokenBuilder;
+import com.noctarius.borabora.spi.io.ByteSizes;
 import com.noctarius.borabora.spi.io.Decoder;
-import com.noctarius.borabora.spi.io.Encoder;
-import com.noctarius.borabora.spi.query.QueryContext;
 import com.noctarius.borabora.spi.query.QueryContextAware;
 
-import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.Arrays;
 import java.util.Objects;
 import java.util.function.Predicate;
 
-import static com.noctarius.borabora.spi.io.Constants.MATCH_STRING_FAST_PATH_TRESHOLD;
+import static com.noctarius.borabora.spi.io.Constants.ADD_INFO_INDEFINITE;
+import static com.noctarius.borabora.spi.io.Constants.ASCII;
+import static com.noctarius.borabora.spi.io.Constants.OPCODE_BREAK_MASK;
+import static com.noctarius.borabora.spi.io.Constants.UTF8;
 
 /**
  * The <tt>Predicates</tt> class contains parsing optimized utility methods to provide {@link Predicate}
@@ -41,6 +41,8 @@ import static com.noctarius.borabora.spi.io.Constants.MATCH_STRING_FAST_PATH_TRE
  * <li>{@link QueryTokenBuilder#dictionary(Predicate)}</li>
  * <li>{@link QueryTokenBuilder#sequenceMatch(Predicate)}</li>
  * </ul>
+ * The comparison predicates, e.g. {@link #compareInt(ComparisonOperator, long)}, are also
+ * used by the comparison filters of the query language, like <tt>#(? &gt;= 18)</tt>.
  *
  * @see Dictionary
  * @see Sequence
@@ -64,32 +66,67 @@ public final class Predicates {
     }
 
     /**
-     * Matches strings against the provided <tt>value</tt> with ignored case sensitivity. Anyhow
-     * as an optimization, the given value at first is tried to be matched in a case sensitive mode
-     * in case the stream actually matches directly (see {@link #matchString(String)} for further
-     * details). Only afterwards the string from the stream is actually deserialized and matched
-     * using {@link String#equalsIgnoreCase(String)}.
+     * Matches strings against the provided <tt>value</tt> with ignored case sensitivity. As an
+     * optimization, ASCII only values are matched in place against the CBOR data stream, without
+     * deserializing the string itself. Strings with a different length in the CBOR stream are
+     * rejected based on the string's header only. Only in cases the in-place matching is not
+     * possible, the string from the stream is actually deserialized and matched using
+     * {@link String#equalsIgnoreCase(String)}.
      *
      * @param value the value to match
      * @return true is the value in the CBOR stream matches the given value, otherwise false
      */
     public static Predicate<Value> matchStringIgnoreCase(String value) {
         Objects.requireNonNull(value, "value must not be null");
+        Predicate<Value> slowPathPredicate = matchStringIgnoreCase0(value);
+
+        // Case folding of non-ASCII characters may change the number of bytes
+        if (!isAscii(value)) {
+            return slowPathPredicate;
+        }
+
+        // Pre-encode matching value
+        byte[] expected = value.getBytes(ASCII);
+
         return (v) -> {
             if (!v.valueType().matches(ValueTypes.String)) {
                 return false;
             }
 
-            return v.string().equalsIgnoreCase(value);
+            // Stream values can be tried to match them in place
+            if (v instanceof QueryContextAware) {
+                Input input = ((QueryContextAware) v).queryContext().input();
+                long offset = stringOffset(v, input);
+                if (offset != -1 && Decoder.additionalInfo(input, offset) != ADD_INFO_INDEFINITE) {
+                    long dataSize = ByteSizes.stringDataSize(input, offset);
+
+                    // Less bytes always mean less characters
+                    if (dataSize < expected.length) {
+                        return false;
+                    }
+
+                    // More bytes may still match, e.g. the Kelvin sign, slow path it is
+                    if (dataSize == expected.length) {
+                        long position = offset + ByteSizes.headByteSize(input, offset);
+                        return equalsIgnoreAsciiCase(input, position, expected);
+                    }
+                }
+            }
+
+            // Match ObjectValue instances, indefinite or multi-byte encoded strings
+            return slowPathPredicate.test(v);
         };
     }
 
     /**
      * Matches strings against the provided <tt>value</tt> with case sensitivity. As an optimization,
-     * the given value is serialized into a CBOR encoded value and is tried to be matched on a
-     * byte-array level, without actually deserializing the CBOR data stream string itself. That
-     * provides the query matcher with way better performance. Only in case the byte-array based
-     * matching the string is deserialized and matched using {@link String#equals(Object)}}.
+     * the given value is pre-encoded into its UTF-8 byte representation and is matched in place against
+     * the CBOR data stream using {@link Input#equals(long, byte[], int, int)}, without actually
+     * deserializing the CBOR data stream string itself. Strings with a different length in the CBOR
+     * stream are rejected based on the string's header only. That provides the query matcher with way
+     * better performance. Only in case the string cannot be matched in place (e.g. {@link Value}
+     * instances not backed by a CBOR stream) the string is deserialized and matched using
+     * {@link String#equals(Object)}}.
      *
      * @param value the value to match
      * @return true is the value in the CBOR stream matches the given value, otherwise false
@@ -98,35 +135,8 @@ public final class Predicates {
         Objects.requireNonNull(value, "value must not be null");
         Predicate<Value> slowPathPredicate = matchString0(value);
 
-        // For more than 1024 chars we use the slow path for now
-        if (value.length() > MATCH_STRING_FAST_PATH_TRESHOLD) {
-            return slowPathPredicate;
-        }
-
-        // Predefine both possible matchers
-        Predicate<Value> byteStringMatcher;
-        Predicate<Value> asciiStringMatcher;
-        Predicate<Value> textStringMatcher;
-
-        // Pre-encode matching value
-        byte[] expected = buildStringMatcherByteArray(value, Encoder::putAsciiString);
-
-        MajorType currentMajorType = MajorType.findMajorType((short) (expected[0] & 0xFF));
-        switch (currentMajorType) {
-            case SemanticTag:
-                byteStringMatcher = buildStringMatcher(expected);
-
-                // Encode specifically as TextString
-                expected = buildStringMatcherByteArray(value, Encoder::putTextString);
-                textStringMatcher = buildStringMatcher(expected);
-                break;
-
-            default: // Always TextString
-                // If the matcher string must be a TextString the matched string
-                // can never match if a ByteString (only ASCII)
-                byteStringMatcher = (v) -> false;
-                textStringMatcher = buildStringMatcher(expected);
-        }
+        // Pre-encode matching value, for ASCII only strings the UTF-8 representation is identical
+        byte[] expected = value.getBytes(UTF8);
 
         return (v) -> {
             if (!v.valueType().matches(ValueTypes.String)
@@ -134,15 +144,12 @@ public final class Predicates {
                 return false;
             }
 
-            // Stream values can be tried to match them on an array level
+            // Stream values can be tried to match them in place
             if (v instanceof QueryContextAware) {
-                MajorType majorType = v.majorType();
-
-                switch (majorType) {
-                    case ByteString:
-                        return byteStringMatcher.test(v);
-                    case TextString:
-                        return textStringMatcher.test(v);
+                Input input = ((QueryContextAware) v).queryContext().input();
+                long offset = stringOffset(v, input);
+                if (offset != -1) {
+                    return equalsStringBytes(input, offset, expected);
                 }
             }
 
@@ -193,44 +200,277 @@ public final class Predicates {
         };
     }
 
-    private static byte[] buildStringMatcherByteArray(String value, StringPreencoder preencoder) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(value.length() * 2);
-        preencoder.apply(value, 0, Output.toOutputStream(baos));
-        return baos.toByteArray();
+    /**
+     * Compares any kind of number data type against the provided integer <tt>value</tt> using the
+     * given <tt>operator</tt>, e.g. <tt>compareInt(GreaterThanOrEqual, 18)</tt> matches all numbers
+     * greater than or equal to 18. As an optimization, integers and floating point values of the
+     * CBOR data stream are compared in place against their encoded bytes, without deserializing
+     * them into boxed numbers. Floating point values are compared as <tt>double</tt> values,
+     * <tt>NaN</tt> never matches. Values which are not numbers never match.
+     *
+     * @param operator the comparison operator
+     * @param value    the value to compare against
+     * @return true if the value in the CBOR stream compares as requested, otherwise false
+     */
+    public static Predicate<Value> compareInt(ComparisonOperator operator, long value) {
+        Objects.requireNonNull(operator, "operator must not be null");
+        return (v) -> {
+            if (!v.valueType().matches(ValueTypes.Number)) {
+                return false;
+            }
+
+            // Stream values can be compared in place
+            if (v instanceof QueryContextAware) {
+                Input input = ((QueryContextAware) v).queryContext().input();
+                long offset = v.offset();
+                switch (v.majorType()) {
+                    case UnsignedInteger:
+                        // Negative values are always less than unsigned integers
+                        long argument = Decoder.readIntArgument(input, offset);
+                        return operator.test(value < 0 ? 1 : Long.compareUnsigned(argument, value));
+                    case NegativeInteger:
+                        return operator.test(compareNegativeInt(input, offset, value));
+                    case FloatingPointOrSimple:
+                        return compareDouble(operator, Decoder.readDouble(input, offset), value);
+                    default:
+                }
+            }
+
+            // Match ObjectValue instances, bignums and fractions
+            return compareNumber(operator, v.number(), value);
+        };
     }
 
-    private static Predicate<Value> buildStringMatcher(byte[] expected) {
-        int expectedLength = expected.length;
+    /**
+     * Compares any kind of number data type against the provided floating point <tt>value</tt>
+     * using the given <tt>operator</tt>. As an optimization, integers and floating point values
+     * of the CBOR data stream are compared in place against their encoded bytes, without
+     * deserializing them into boxed numbers. Values are compared as <tt>double</tt> values,
+     * <tt>NaN</tt> never matches. Values which are not numbers never match.
+     *
+     * @param operator the comparison operator
+     * @param value    the value to compare against
+     * @return true if the value in the CBOR stream compares as requested, otherwise false
+     */
+    public static Predicate<Value> compareFloat(ComparisonOperator operator, double value) {
+        Objects.requireNonNull(operator, "operator must not be null");
         return (v) -> {
-            QueryContext queryContext = ((QueryContextAware) v).queryContext();
+            if (!v.valueType().matches(ValueTypes.Number)) {
+                return false;
+            }
+
+            // Stream values can be compared in place
+            if (v instanceof QueryContextAware) {
+                Input input = ((QueryContextAware) v).queryContext().input();
+                long offset = v.offset();
+                switch (v.majorType()) {
+                    case UnsignedInteger:
+                        double unsigned = unsignedToDouble(Decoder.readIntArgument(input, offset));
+                        return compareDouble(operator, unsigned, value);
+                    case NegativeInteger:
+                        double negative = -1d - unsignedToDouble(Decoder.readIntArgument(input, offset));
+                        return compareDouble(operator, negative, value);
+                    case FloatingPointOrSimple:
+                        return compareDouble(operator, Decoder.readDouble(input, offset), value);
+                    default:
+                }
+            }
+
+            // Match ObjectValue instances, bignums and fractions
+            return compareDouble(operator, v.number().doubleValue(), value);
+        };
+    }
+
+    /**
+     * Compares strings against the provided <tt>value</tt> using the given <tt>operator</tt>.
+     * Strings are ordered by their Unicode code points, which is the order of their UTF-8
+     * encoded bytes. As an optimization, the given value is pre-encoded into its UTF-8 byte
+     * representation and definite length strings of the CBOR data stream are compared in place
+     * against their encoded bytes, without deserializing them. Values which are not strings
+     * never match.
+     *
+     * @param operator the comparison operator
+     * @param value    the value to compare against
+     * @return true if the value in the CBOR stream compares as requested, otherwise false
+     */
+    public static Predicate<Value> compareString(ComparisonOperator operator, String value) {
+        Objects.requireNonNull(operator, "operator must not be null");
+        Objects.requireNonNull(value, "value must not be null");
 
-            MajorType majorType = v.majorType();
-            long offset = v.offset();
+        // Pre-encode comparing value
+        byte[] expected = value.getBytes(UTF8);
 
-            Input input = queryContext.input();
-            long length = Decoder.length(input, majorType, offset);
-            if (length != expectedLength) {
+        return (v) -> {
+            if (!v.valueType().matches(ValueTypes.String)) {
                 return false;
             }
 
-            byte[] data = new byte[expectedLength];
-            input.read(data, offset, expectedLength);
-            return Arrays.equals(expected, data);
+            // Stream values can be compared in place
+            if (v instanceof QueryContextAware) {
+                Input input = ((QueryContextAware) v).queryContext().input();
+                long offset = stringOffset(v, input);
+                if (offset != -1 && Decoder.additionalInfo(input, offset) != ADD_INFO_INDEFINITE) {
+                    long dataSize = ByteSizes.stringDataSize(input, offset);
+                    long position = offset + ByteSizes.headByteSize(input, offset);
+                    return operator.test(compareBytes(input, position, dataSize, expected));
+                }
+            }
+
+            // Match ObjectValue instances and indefinite strings
+            byte[] actual = v.string().getBytes(UTF8);
+            return operator.test(compareBytes(Input.fromByteArray(actual), 0, actual.length, expected));
         };
     }
 
-    private static Predicate<Value> matchString0(String value) {
+    private static int compareNegativeInt(Input input, long offset, long value) {
+        long argument = Decoder.readIntArgument(input, offset);
+
+        // Arguments above Long.MAX_VALUE encode values below Long.MIN_VALUE
+        if (argument < 0) {
+            return -1;
+        }
+        return Long.compare(-1 - argument, value);
+    }
+
+    private static boolean compareNumber(ComparisonOperator operator, Number number, long value) {
+        if (number instanceof BigInteger) {
+            return operator.test(((BigInteger) number).compareTo(BigInteger.valueOf(value)));
+        }
+        if (number instanceof BigDecimal) {
+            return operator.test(((BigDecimal) number).compareTo(BigDecimal.valueOf(value)));
+        }
+        if (number instanceof Double || number instanceof Float || number instanceof HalfPrecisionFloat) {
+            return compareDouble(operator, number.doubleValue(), value);
+        }
+        return operator.test(Long.compare(number.longValue(), value));
+    }
+
+    private static boolean compareDouble(ComparisonOperator operator, double actual, double value) {
+        // NaN is neither less, equal nor greater than any other value
+        if (Double.isNaN(actual) || Double.isNaN(value)) {
+            return false;
+        }
+        return operator.test(actual < value ? -1 : (actual > value ? 1 : 0));
+    }
+
+    private static double unsignedToDouble(long value) {
+        if (value >= 0) {
+            return value;
+        }
+        // Halve the value (keeping the lowest bit for rounding) to stay in the signed range
+        return ((value >>> 1) | (value & 1)) * 2d;
+    }
+
+    private static int compareBytes(Input input, long offset, long length, byte[] expected) {
+        long common = Math.min(length, expected.length);
+        for (int i = 0; i < common; i++) {
+            int b = input.read(offset + i) & 0xff;
+            int e = expected[i] & 0xff;
+            if (b != e) {
+                return b < e ? -1 : 1;
+            }
+        }
+        return Long.compare(length, expected.length);
+    }
+
+    private static long stringOffset(Value value, Input input) {
+        long offset = value.offset();
+        switch (value.majorType()) {
+            case ByteString:
+            case TextString:
+                return offset;
+            case SemanticTag:
+                // ASCII strings are encoded as a semantic tag and a ByteString
+                return value.valueType() == ValueTypes.ASCII ? offset + ByteSizes.intByteSize(input, offset) : -1;
+            default:
+                return -1;
+        }
+    }
+
+    private static boolean equalsStringBytes(Input input, long offset, byte[] expected) {
+        if (Decoder.additionalInfo(input, offset) == ADD_INFO_INDEFINITE) {
+            return equalsIndefiniteStringBytes(input, offset + 1, expected);
+        }
+
+        // Reject by the header's length before touching any data
+        long dataSize = ByteSizes.stringDataSize(input, offset);
+        if (dataSize != expected.length) {
+            return false;
+        }
+
+        long position = offset + ByteSizes.headByteSize(input, offset);
+        return input.equals(position, expected, 0, expected.length);
+    }
+
+    private static boolean equalsIndefiniteStringBytes(Input input, long offset, byte[] expected) {
+        int index = 0;
+        while (true) {
+            short head = Decoder.readUInt8(input, offset);
+            if ((head & OPCODE_BREAK_MASK) == OPCODE_BREAK_MASK) {
+                return index == expected.length;
+            }
+
+            // Chunks are always definite length strings
+            long dataSize = ByteSizes.stringDataSize(input, offset);
+            if (dataSize > expected.length - index) {
+                return false;
+            }
+
+            int headByteSize = ByteSizes.headByteSize(input, offset);
+            if (!input.equals(offset + headByteSize, expected, index, (int) dataSize)) {
+                return false;
+            }
+
+            index += dataSize;
+            offset += headByteSize + dataSize;
+        }
+    }
+
+    private static boolean equalsIgnoreAsciiCase(Input input, long offset, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            byte b = input.read(offset + i);
+            if (b == expected[i]) {
+                continue;
+            }
+            // Non-ASCII bytes can never match an ASCII character of the same byte length
+            if (b < 0 || toLowerAscii(b) != toLowerAscii(expected[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toLowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Predicate<Value> matchStringIgnoreCase0(String value) {
         return (v) -> {
             if (!v.valueType().matches(ValueTypes.String)) {
                 return false;
             }
 
-            return v.string().equals(value);
+            return v.string().equalsIgnoreCase(value);
         };
     }
 
-    private interface StringPreencoder {
-        void apply(String value, int offset, Output output);
+    private static Predicate<Value> matchString0(String value) {
+        return (v) -> {
+            if (!v.valueType().matches(ValueTypes.String)) {
+                return false;
+            }
+
+            return v.string().equals(value);
+        };
     }
 
 }
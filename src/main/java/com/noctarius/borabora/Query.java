@@ -17,6 +17,7 @@
 package com.noctarius.borabora;
 
 import com.noctarius.borabora.builder.query.QueryBuilder;
+import com.noctarius.borabora.spi.query.QueryParameters;
 import com.noctarius.borabora.spi.query.pipeline.QueryPipeline;
 
 /**
@@ -38,6 +39,14 @@ import com.noctarius.borabora.spi.query.pipeline.QueryPipeline;
  *     Value value = parser.read( input, query );
  * </pre>
  *
+ * <p>Queries might contain placeholders (<tt>$1</tt>, <tt>$2</tt>, ...) for dictionary keys and
+ * sequence indexes. Those queries have to be bound using {@link #bind(Object...)} before execution,
+ * binding creates a lightweight query instance sharing the prepared execution plan:</p>
+ * <pre>
+ *     Query query = parser.prepareQuery( "#{$1}($2)" );
+ *     Value value = parser.read( input, query.bind( "user-123", 2 ) );
+ * </pre>
+ *
  * @see Parser
  * @see QueryBuilder
  * @see Input
@@ -60,4 +69,42 @@ public interface Query {
      */
     void printQueryGraph();
 
+    /**
+     * Returns the number of placeholders of this query, defined by the highest used placeholder index.
+     *
+     * @return the number of placeholders
+     */
+    default int parameterCount() {
+        return 0;
+    }
+
+    /**
+     * Returns a new Query instance with the given <tt>arguments</tt> bound to the placeholders of this
+     * query, the first argument is bound to <tt>$1</tt>. The returned query shares the execution plan
+     * with this query, and the arguments are prepared only once, at bind time. Already bound queries
+     * can be bound again, replacing all arguments.
+     *
+     * @param arguments the arguments to bind
+     * @return the bound query instance
+     * @throws IllegalArgumentException if the number of arguments does not match {@link #parameterCount()}
+     *                                  or an argument is not supported by its placeholder
+     */
+    default Query bind(Object... arguments) {
+        if (arguments.length != parameterCount()) {
+            throw new IllegalArgumentException(
+                    "Query expects " + parameterCount() + " parameters but " + arguments.length + " were given");
+        }
+        return this;
+    }
+
+    /**
+     * Returns the prepared values of the bound arguments, or {@link QueryParameters#EMPTY} if the query is
+     * not bound.
+     *
+     * @return the bound query parameters
+     */
+    default QueryParameters queryParameters() {
+        return QueryParameters.EMPTY;
+    }
+
 }
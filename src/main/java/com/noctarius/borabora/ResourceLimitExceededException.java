@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora;
+
+/**
+ * The <tt>ResourceLimitExceededException</tt> signals that a data item exceeds one of the
+ * configured resource limits of the {@link Parser}, such as the maximum nesting depth or the
+ * maximum string length.
+ */
+public class ResourceLimitExceededException
+        extends RuntimeException {
+
+    private final long offset;
+
+    /**
+     * Returns a new exception instance representing the <tt>offset</tt> of the data item
+     * which exceeded the limit, as well as the a more detailed exception message.
+     *
+     * @param offset  the offset of the stream where the limit was exceeded
+     * @param message the detailed exception message
+     */
+    public ResourceLimitExceededException(long offset, String message) {
+        super(message);
+        this.offset = offset;
+    }
+
+    /**
+     * Returns the offset inside the stream where the limit was exceeded.
+     *
+     * @return the offset inside the stream
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+}
@@ -16,14 +16,17 @@
  */
 package com.noctarius.borabora;
 
+import com.noctarius.borabora.spi.io.WordScanner;
 import sun.misc.Unsafe;
 
+import java.nio.ByteOrder;
 import java.util.Objects;
 
 final class UnsafeByteInput
         implements Input {
 
     private static final Unsafe UNSAFE = UnsafeUtils.getUnsafe();
+    private static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
 
     private final long size;
     private final long address;
@@ -58,9 +61,70 @@ final class UnsafeByteInput
         return l;
     }
 
+    @Override
+    public boolean equals(long offset, byte[] bytes, int from, int length)
+            throws NoSuchByteException {
+
+        Objects.requireNonNull(bytes, "bytes must not be null");
+        if (offset < 0 || length < 0 || offset + length > size) {
+            throw new NoSuchByteException(offset, "Offset " + offset + " outside of available data");
+        }
+        if (from < 0 || from + length > bytes.length) {
+            throw new NoSuchByteException(offset, "Length " + length + " larger than comparable data");
+        }
+
+        long position = address + offset;
+        long arrayPosition = Unsafe.ARRAY_BYTE_BASE_OFFSET + from;
+
+        // Compare word-wise, byte order does not matter for equality
+        int i = 0;
+        for (; i <= length - 8; i += 8) {
+            if (UNSAFE.getLong(position + i) != UNSAFE.getLong(bytes, arrayPosition + i)) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (UNSAFE.getByte(position + i) != bytes[from + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int scanOneByteItems(long offset, int maxLength) {
+        if (offset < 0 || maxLength <= 0) {
+            return 0;
+        }
+
+        int count = 0;
+        long available = Math.min(maxLength, size - offset);
+        while (count < available) {
+            if (available - count >= WordScanner.WORD_SIZE) {
+                long mask = WordScanner.nonSmallItems(readWord(address + offset + count));
+                if (mask == 0) {
+                    count += WordScanner.WORD_SIZE;
+                    continue;
+                }
+                // Marked bytes might still be empty strings or containers
+                count += WordScanner.firstMarkedByte(mask);
+            }
+            if (!WordScanner.isOneByteItem((short) (UNSAFE.getByte(address + offset + count) & 0xFF))) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
     @Override
     public boolean offsetValid(long offset) {
         return offset < size;
     }
 
+    private static long readWord(long address) {
+        long word = UNSAFE.getLong(address);
+        return BIG_ENDIAN ? word : Long.reverseBytes(word);
+    }
+
 }
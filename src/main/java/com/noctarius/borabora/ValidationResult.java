@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora;
+
+/**
+ * The <tt>ValidationResult</tt> class represents the outcome of {@link Validator#validate(Input)}.
+ * A failed validation reports the offset and a description of the first error found.
+ */
+public final class ValidationResult {
+
+    private final long length;
+    private final long errorOffset;
+    private final String errorMessage;
+
+    ValidationResult(long length, long errorOffset, String errorMessage) {
+        this.length = length;
+        this.errorOffset = errorOffset;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the input is well-formed, otherwise <tt>false</tt>.
+     *
+     * @return true if the input is well-formed, otherwise false
+     */
+    public boolean valid() {
+        return errorOffset == -1;
+    }
+
+    /**
+     * Returns the number of validated bytes. For a well-formed input this is the length of the
+     * input, otherwise the offset the validation stopped at.
+     *
+     * @return the number of validated bytes
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns the offset of the first error or <tt>-1</tt> if the input is well-formed.
+     *
+     * @return the offset of the first error, otherwise -1
+     */
+    public long errorOffset() {
+        return errorOffset;
+    }
+
+    /**
+     * Returns the description of the first error or <tt>null</tt> if the input is well-formed.
+     *
+     * @return the description of the first error, otherwise null
+     */
+    public String errorMessage() {
+        return errorMessage;
+    }
+
+    @Override
+    public String toString() {
+        if (valid()) {
+            return "ValidationResult{valid=true, length=" + length + '}';
+        }
+        return "ValidationResult{valid=false, errorOffset=" + errorOffset + ", errorMessage='" + errorMessage + "'}";
+    }
+
+}
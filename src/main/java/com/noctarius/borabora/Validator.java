@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora;
+
+import com.noctarius.borabora.spi.io.Bytes;
+import com.noctarius.borabora.spi.io.Constants;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The <tt>Validator</tt> class checks an untrusted {@link Input} for well-formedness in a single
+ * linear pass, before handing it to {@link Parser#read(Input, Query)}. Validated are:
+ * <ul>
+ * <li>header bytes (no reserved additional information, no indefinite length integers or tags)</li>
+ * <li>lengths and arguments being in range of the available input</li>
+ * <li>nesting of indefinite length containers and strings and the position of break codes</li>
+ * <li>chunks of indefinite length strings being definite strings of the same major type</li>
+ * <li>dictionaries containing an even number of data items</li>
+ * <li>TextStrings being valid UTF-8 (with an ASCII fast path)</li>
+ * </ul>
+ * <p>Validation stops at the first error, its offset and description are reported in the
+ * {@link ValidationResult}.</p>
+ */
+public final class Validator {
+
+    private static final int INITIAL_STACK_SIZE = 16;
+    private static final int BUFFER_SIZE = 1024;
+    private static final long INDEFINITE = -1;
+    private static final short BREAK_CODE = 0xff;
+
+    private Validator() {
+    }
+
+    /**
+     * Validates all data items of the given <tt>input</tt>, starting at offset <tt>0</tt> until
+     * the end of the input.
+     *
+     * @param input the input to validate
+     * @return the result of the validation
+     * @throws NullPointerException if input is null
+     */
+    public static ValidationResult validate(Input input) {
+        Objects.requireNonNull(input, "input must not be null");
+        return new Pass(input).run();
+    }
+
+    private static final class Pass {
+
+        private final Input input;
+
+        // Open containers, strings and semantic tags, remaining items or INDEFINITE
+        private short[] majorTypes = new short[INITIAL_STACK_SIZE];
+        private long[] remaining = new long[INITIAL_STACK_SIZE];
+        private boolean[] oddItems = new boolean[INITIAL_STACK_SIZE];
+        private int depth;
+
+        private byte[] buffer;
+
+        private Pass(Input input) {
+            this.input = input;
+        }
+
+        private ValidationResult run() {
+            long position = 0;
+            while (true) {
+                if (!input.offsetValid(position)) {
+                    if (depth == 0) {
+                        return new ValidationResult(position, -1, null);
+                    }
+                    return error(position, "Unexpected end of input, " + depth + " data item(s) incomplete");
+                }
+
+                long offset = position;
+                short head = Bytes.readUInt8(input, position);
+                if (head == BREAK_CODE) {
+                    int top = depth - 1;
+                    if (depth == 0 || remaining[top] != INDEFINITE) {
+                        return error(offset, "Unexpected break code");
+                    }
+                    if (oddItems[top]) {
+                        return error(offset, "Dictionary without value for the last key");
+                    }
+                    position++;
+                    depth--;
+                    itemComplete(position);
+                    continue;
+                }
+
+                short majorType = (short) (head >>> 5);
+                int addInfo = head & Constants.ADDITIONAL_INFORMATION_MASK;
+
+                boolean chunk = depth > 0 && remaining[depth - 1] == INDEFINITE //
+                        && (majorTypes[depth - 1] == Constants.MT_BYTESTRING || majorTypes[depth - 1] == Constants.MT_TEXTSTRING);
+                if (chunk && (majorType != majorTypes[depth - 1] || addInfo == Constants.ADD_INFO_INDEFINITE)) {
+                    return error(offset, "Indefinite length string chunk must be a definite string of the same major type");
+                }
+
+                long argument = 0;
+                boolean indefinite = false;
+                if (addInfo < Constants.ADD_INFO_ONE_BYTE) {
+                    argument = addInfo;
+                    position++;
+
+                } else if (addInfo <= Constants.ADD_INFO_EIGHT_BYTES) {
+                    int argumentSize = 1 << (addInfo - Constants.ADD_INFO_ONE_BYTE);
+                    if (!input.offsetValid(position + argumentSize)) {
+                        return error(offset, "Unexpected end of input inside of the header");
+                    }
+                    argument = readArgument(position + 1, argumentSize);
+                    position += argumentSize + 1;
+
+                } else if (addInfo == Constants.ADD_INFO_INDEFINITE) {
+                    indefinite = true;
+                    position++;
+
+                } else {
+                    return error(offset, "Reserved additional information " + addInfo);
+                }
+
+                switch (majorType) {
+                    case Constants.MT_UNSINGED_INT:
+                    case Constants.MT_NEGATIVE_INT:
+                        if (indefinite) {
+                            return error(offset, "Indefinite length not allowed for integers");
+                        }
+                        break;
+
+                    case Constants.MT_BYTESTRING:
+                    case Constants.MT_TEXTSTRING:
+                        if (indefinite) {
+                            push(majorType, INDEFINITE);
+                            continue;
+                        }
+                        if (argument < 0 || !available(position, argument)) {
+                            return error(offset, "String length exceeds the available input");
+                        }
+                        if (majorType == Constants.MT_TEXTSTRING) {
+                            long invalid = validateUtf8(position, argument);
+                            if (invalid != -1) {
+                                return error(invalid, "Illegal UTF-8 sequence in TextString");
+                            }
+                        }
+                        position += argument;
+                        if (chunk) {
+                            continue;
+                        }
+                        break;
+
+                    case Constants.MT_SEQUENCE:
+                    case Constants.MT_DICTIONARY:
+                        if (indefinite) {
+                            push(majorType, INDEFINITE);
+                            continue;
+                        }
+                        if (argument < 0 || (majorType == Constants.MT_DICTIONARY && argument > Long.MAX_VALUE / 2)) {
+                            return error(offset, "Container length out of range");
+                        }
+                        long items = majorType == Constants.MT_DICTIONARY ? argument * 2 : argument;
+                        if (items == 0) {
+                            break;
+                        }
+                        // Every data item takes at least one byte
+                        if (!available(position, items)) {
+                            return error(offset, "Container length exceeds the available input");
+                        }
+                        push(majorType, items);
+                        continue;
+
+                    case Constants.MT_SEMANTIC_TAG:
+                        if (indefinite) {
+                            return error(offset, "Indefinite length not allowed for semantic tags");
+                        }
+                        push(majorType, 1);
+                        continue;
+
+                    default:
+                        if (addInfo == Constants.ADD_INFO_ONE_BYTE && argument < 32) {
+                            return error(offset, "Illegal two byte encoding of simple value " + argument);
+                        }
+                }
+
+                itemComplete(position);
+            }
+        }
+
+        private void itemComplete(long position) {
+            while (depth > 0) {
+                int top = depth - 1;
+                if (remaining[top] == INDEFINITE) {
+                    oddItems[top] = majorTypes[top] == Constants.MT_DICTIONARY && !oddItems[top];
+                    return;
+                }
+                if (--remaining[top] > 0) {
+                    return;
+                }
+                depth--;
+            }
+        }
+
+        private boolean available(long offset, long length) {
+            if (length == 0) {
+                return true;
+            }
+            // Lengths near Long.MAX_VALUE would overflow the last offset and wrap around to negative
+            if (length - 1 > Long.MAX_VALUE - offset) {
+                return false;
+            }
+            return input.offsetValid(offset + length - 1);
+        }
+
+        private long readArgument(long offset, int argumentSize) {
+            switch (argumentSize) {
+                case 1:
+                    return Bytes.readUInt8(input, offset);
+                case 2:
+                    return Bytes.readUInt16(input, offset);
+                case 4:
+                    return Bytes.readUInt32(input, offset);
+                default:
+                    // Values larger Long.MAX_VALUE become negative and are reported as out of range
+                    return Bytes.readUInt64Long(input, offset);
+            }
+        }
+
+        private long validateUtf8(long offset, long length) {
+            if (buffer == null) {
+                buffer = new byte[BUFFER_SIZE];
+            }
+            byte[] buffer = this.buffer;
+
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                int available = (int) Math.min(buffer.length, end - position);
+                input.read(buffer, position, available);
+
+                int index = 0;
+                while (index < available) {
+                    // ASCII fast path, eight bytes at once
+                    while (index + 8 <= available && (buffer[index] | buffer[index + 1] | buffer[index + 2] | buffer[index + 3]
+                            | buffer[index + 4] | buffer[index + 5] | buffer[index + 6] | buffer[index + 7]) >= 0) {
+                        index += 8;
+                    }
+                    if (index == available) {
+                        break;
+                    }
+                    int lead = buffer[index] & 0xff;
+                    if (lead < 0x80) {
+                        index++;
+                        continue;
+                    }
+
+                    int sequenceLength = sequenceLength(lead);
+                    if (sequenceLength == -1 || position + index + sequenceLength > end) {
+                        return position + index;
+                    }
+                    if (index + sequenceLength > available) {
+                        // Sequence crosses the buffer, refill starting at the lead byte
+                        break;
+                    }
+                    if (!validSequence(buffer, index, lead, sequenceLength)) {
+                        return position + index;
+                    }
+                    index += sequenceLength;
+                }
+                position += index;
+            }
+            return -1;
+        }
+
+        private void push(short majorType, long items) {
+            if (depth == remaining.length) {
+                int size = depth * 2;
+                majorTypes = Arrays.copyOf(majorTypes, size);
+                remaining = Arrays.copyOf(remaining, size);
+                oddItems = Arrays.copyOf(oddItems, size);
+            }
+            majorTypes[depth] = majorType;
+            remaining[depth] = items;
+            oddItems[depth] = false;
+            depth++;
+        }
+
+        private ValidationResult error(long offset, String message) {
+            return new ValidationResult(offset, offset, message);
+        }
+
+        private static int sequenceLength(int lead) {
+            if (lead >= 0xc2 && lead <= 0xdf) {
+                return 2;
+            } else if (lead >= 0xe0 && lead <= 0xef) {
+                return 3;
+            } else if (lead >= 0xf0 && lead <= 0xf4) {
+                return 4;
+            }
+            // Continuation bytes, overlong 2-byte leads (0xc0, 0xc1) and leads beyond U+10FFFF
+            return -1;
+        }
+
+        private static boolean validSequence(byte[] buffer, int index, int lead, int sequenceLength) {
+            int second = buffer[index + 1] & 0xff;
+            // Overlong encodings, surrogates and code points beyond U+10FFFF
+            int min = 0x80;
+            int max = 0xbf;
+            switch (lead) {
+                case 0xe0:
+                    min = 0xa0;
+                    break;
+                case 0xed:
+                    max = 0x9f;
+                    break;
+                case 0xf0:
+                    min = 0x90;
+                    break;
+                case 0xf4:
+                    max = 0x8f;
+                    break;
+            }
+            if (second < min || second > max) {
+                return false;
+            }
+            for (int i = 2; i < sequenceLength; i++) {
+                if ((buffer[index + i] & 0xc0) != 0x80) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
@@ -16,6 +16,11 @@
  */
 package com.noctarius.borabora;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
 /**
  * A <tt>Value</tt> represents a known or unknown data item in borabora. While CBOR is type-safe in terms
  * of data items, it is schema-less overall, or better said the schema is defined by the elements inside
@@ -77,6 +82,45 @@ public interface Value {
      */
     Number number();
 
+    /**
+     * Extracts the unscaled value of a decimal fraction ({@link ValueTypes#Fraction}) as a <tt>long</tt>.
+     * In contrast to <tt>((BigDecimal) tag()).unscaledValue()</tt>, stream backed values read the unscaled
+     * value without creating a {@link java.math.BigInteger} or {@link BigDecimal} instance. If
+     * the represented value is not a decimal fraction a {@link WrongTypeException} is thrown, if the
+     * unscaled value doesn't fit into a long an {@link ArithmeticException} is thrown.
+     * <p>The default implementation reads the unscaled value from the {@link BigDecimal} returned by
+     * {@link #tag()}.</p>
+     *
+     * @return the extracted unscaled value
+     * @see #scale()
+     */
+    default long unscaledLong() {
+        if (!valueType().matches(ValueTypes.Fraction)) {
+            throw new WrongTypeException(offset(), "Requested value type does not match the read value: "
+                    + ValueTypes.Fraction + " != " + valueType());
+        }
+        BigDecimal fraction = tag();
+        return fraction.unscaledValue().longValueExact();
+    }
+
+    /**
+     * Extracts the scale of a decimal fraction ({@link ValueTypes#Fraction}). If the represented value
+     * is not a decimal fraction a {@link WrongTypeException} is thrown.
+     * <p>The default implementation reads the scale from the {@link BigDecimal} returned by
+     * {@link #tag()}.</p>
+     *
+     * @return the extracted scale
+     * @see #unscaledLong()
+     */
+    default int scale() {
+        if (!valueType().matches(ValueTypes.Fraction)) {
+            throw new WrongTypeException(offset(), "Requested value type does not match the read value: "
+                    + ValueTypes.Fraction + " != " + valueType());
+        }
+        BigDecimal fraction = tag();
+        return fraction.scale();
+    }
+
     /**
      * Extracts the given Value as a {@link Sequence} instance. If the represented value is not possible to be
      * represented as sequence, a {@link WrongTypeException} is thrown.
@@ -101,6 +145,19 @@ public interface Value {
      */
     String string();
 
+    /**
+     * Extracts the given Value as a {@link CharSequence} instance. In contrast to {@link #string()}, for
+     * stream backed values the returned CharSequence lazily decodes characters directly from the underlying
+     * {@link Input} without copying the string's data. If the represented value is not possible to be
+     * represented as string, a {@link WrongTypeException} is thrown.
+     * <p>The default implementation returns the result of {@link #string()}.</p>
+     *
+     * @return the extracted value
+     */
+    default CharSequence charSequence() {
+        return string();
+    }
+
     /**
      * Extracts the given Value as a <tt>boolean</tt>. If the represented value is not possible to be
      * represented as a boolean, a {@link WrongTypeException} is thrown.
@@ -117,6 +174,29 @@ public interface Value {
      */
     byte[] bytes();
 
+    /**
+     * Returns an {@link InputStream} over the payload of the given Value. Stream backed values read
+     * the payload in place, chunks of indefinite length strings included, without materializing it
+     * into a byte-array. This makes it possible to read strings with 64 bit lengths, e.g. from memory
+     * mapped files, using constant memory. A {@link java.nio.channels.ReadableByteChannel} can be
+     * created using {@link java.nio.channels.Channels#newChannel(InputStream)}. If the represented
+     * value is not a ByteString (MajorType 2) or TextString (MajorType 3), a {@link WrongTypeException}
+     * is thrown.
+     * <p>The default implementation streams the byte-array returned by {@link #bytes()} for
+     * ByteStrings, otherwise the UTF-8 encoded result of {@link #string()}.</p>
+     *
+     * @return the input stream over the value's payload
+     */
+    default InputStream openStream() {
+        if (majorType() == MajorType.ByteString) {
+            byte[] bytes = bytes();
+            return bytes == null ? null : new ByteArrayInputStream(bytes);
+        }
+        // Values other than strings fail with a WrongTypeException
+        String string = string();
+        return string == null ? null : new ByteArrayInputStream(string.getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * Extracts the given Value as a CBOR encoded byte-array. This doesn't transform the value in any way
      * but returns the actual value stream itself.
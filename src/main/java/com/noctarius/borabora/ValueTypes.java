@@ -18,8 +18,8 @@ package com.noctarius.borabora;
 
 import com.noctarius.borabora.spi.ValueValidators;
 import com.noctarius.borabora.spi.codec.TagStrategies;
-import com.noctarius.borabora.spi.io.Constants;
 import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.io.HeadTables;
 import com.noctarius.borabora.spi.io.StringEncoders;
 
 import java.math.BigDecimal;
@@ -222,30 +222,8 @@ public enum ValueTypes
     public static ValueTypes valueType(Input input, long offset) {
         short head = Decoder.readUInt8(input, offset);
 
-        // Read major type first
-        MajorType majorType = MajorType.findMajorType(head);
-
-        // Simple major types are assigned directly
-        switch (majorType) {
-            case UnsignedInteger:
-                return UInt;
-            case NegativeInteger:
-                return NInt;
-            case ByteString:
-                return ByteString;
-            case TextString:
-                return TextString;
-            case Sequence:
-                return Sequence;
-            case Dictionary:
-                return Dictionary;
-            case FloatingPointOrSimple:
-                return floatNullOrBool(head);
-            case SemanticTag:
-
-            default: // Always a semantic tag
-                return Unknown;
-        }
+        // Semantic tags are always Unknown on this level
+        return HeadTables.valueType(head);
     }
 
     public static ValueType valueType(Object value) {
@@ -280,19 +258,4 @@ public enum ValueTypes
         return TagStrategies.valueType(value);
     }
 
-    private static ValueTypes floatNullOrBool(short head) {
-        int addInfo = head & Constants.ADDITIONAL_INFORMATION_MASK;
-        switch (addInfo) {
-            case Constants.FP_VALUE_NULL:
-                return Null;
-            case Constants.FP_VALUE_TRUE:
-            case Constants.FP_VALUE_FALSE:
-                return Bool;
-            case Constants.FP_VALUE_UNDEF:
-                return Undefined;
-            default:
-                return Float;
-        }
-    }
-
 }
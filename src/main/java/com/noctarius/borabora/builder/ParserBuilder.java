@@ -18,7 +18,10 @@ package com.noctarius.borabora.builder;
 
 import com.noctarius.borabora.Parser;
 import com.noctarius.borabora.spi.codec.TagStrategy;
+import com.noctarius.borabora.spi.io.ResourceLimits;
+import com.noctarius.borabora.spi.io.StringCache;
 import com.noctarius.borabora.spi.query.ProjectionStrategy;
+import com.noctarius.borabora.spi.query.QueryCache;
 import com.noctarius.borabora.spi.query.QueryContextFactory;
 import com.noctarius.borabora.spi.query.optimizer.QueryOptimizer;
 import com.noctarius.borabora.spi.query.optimizer.QueryOptimizerStrategyFactory;
@@ -172,6 +175,142 @@ public interface ParserBuilder {
      */
     ParserBuilder withQueryOptimizerStrategyFactory(QueryOptimizerStrategyFactory queryOptimizerStrategyFactory);
 
+    /**
+     * Configures if the built-in {@link QueryOptimizer}s are applied to queries prepared by the new
+     * {@link Parser} instance. The built-in optimizers remove redundant type matches and fuse chains
+     * of stages, like a dictionary lookup directly consuming the found value, into single stages.
+     * They are applied after all optimizers added to the configuration. By default the built-in
+     * optimizers are enabled.
+     *
+     * @param enabled true to apply the built-in optimizers, otherwise false
+     * @return this builder instance
+     */
+    ParserBuilder withDefaultQueryOptimizers(boolean enabled);
+
+    /**
+     * Configures the {@link Parser} configuration to use a {@link StringCache} with default settings
+     * to canonicalize short strings, commonly dictionary keys, read from CBOR streams. The cache is
+     * shared by all queries executed by the new parser instance. By default no string cache is used.
+     *
+     * @return this builder instance
+     * @see StringCache#newStringCache()
+     */
+    ParserBuilder withStringCache();
+
+    /**
+     * Configures the {@link Parser} configuration to use a {@link StringCache} with the given number
+     * of slots (<tt>capacity</tt>), caching strings up to <tt>maxStringLength</tt> bytes. The cache
+     * is shared by all queries executed by the new parser instance. By default no string cache is used.
+     *
+     * @param capacity        the number of slots of the cache
+     * @param maxStringLength the maximum data length of cached strings in bytes
+     * @return this builder instance
+     * @throws IllegalArgumentException if capacity or maxStringLength are less than 1
+     * @see StringCache#newStringCache(int, int)
+     */
+    ParserBuilder withStringCache(int capacity, int maxStringLength);
+
+    /**
+     * Configures the {@link Parser} configuration to use a {@link QueryCache} with default settings
+     * to reuse prepared queries of query strings passed to the parser. The cache is shared by all
+     * threads using the new parser instance. By default no query cache is used.
+     *
+     * @return this builder instance
+     * @see QueryCache#newQueryCache()
+     */
+    ParserBuilder withQueryCache();
+
+    /**
+     * Configures the {@link Parser} configuration to use a {@link QueryCache} holding up to
+     * <tt>capacity</tt> prepared queries of query strings passed to the parser. The cache is shared
+     * by all threads using the new parser instance. By default no query cache is used.
+     *
+     * @param capacity the maximum number of cached queries
+     * @return this builder instance
+     * @throws IllegalArgumentException if capacity is less than 1
+     * @see QueryCache#newQueryCache(int)
+     */
+    ParserBuilder withQueryCache(int capacity);
+
+    /**
+     * Configures the {@link Parser} configuration to test the elements of sequences with at least
+     * 65536 elements concurrently for all sequence matches (<tt>(?)</tt>) of prepared queries. By
+     * default sequences are matched sequentially, unless requested per query using
+     * <tt>parallelSequenceMatch</tt> on the query builder.
+     *
+     * @return this builder instance
+     */
+    ParserBuilder withParallelSequenceMatch();
+
+    /**
+     * Configures the {@link Parser} configuration to test the elements of sequences with at least
+     * <tt>threshold</tt> elements concurrently for all sequence matches (<tt>(?)</tt>) of prepared
+     * queries. Predicates are tested on the {@link java.util.concurrent.ForkJoinPool#commonPool()}
+     * and must be thread-safe. By default sequences are matched sequentially.
+     *
+     * @param threshold the minimum number of sequence elements to test concurrently
+     * @return this builder instance
+     * @throws IllegalArgumentException if threshold is negative
+     */
+    ParserBuilder withParallelSequenceMatch(long threshold);
+
+    /**
+     * Configures the {@link Parser} configuration to reject sequences and dictionaries nested deeper
+     * than <tt>maxNestingDepth</tt> levels. By default the nesting depth is unlimited.
+     *
+     * @param maxNestingDepth the maximum nesting depth
+     * @return this builder instance
+     * @throws IllegalArgumentException if maxNestingDepth is less than 1
+     * @see ResourceLimits#maxNestingDepth()
+     */
+    ParserBuilder withMaxNestingDepth(int maxNestingDepth);
+
+    /**
+     * Configures the {@link Parser} configuration to reject sequences with more than
+     * <tt>maxContainerElements</tt> elements and dictionaries with more than <tt>maxContainerElements</tt>
+     * key-value pairs. By default the container element count is unlimited.
+     *
+     * @param maxContainerElements the maximum element count of a single container
+     * @return this builder instance
+     * @throws IllegalArgumentException if maxContainerElements is negative
+     * @see ResourceLimits#maxContainerElements()
+     */
+    ParserBuilder withMaxContainerElements(long maxContainerElements);
+
+    /**
+     * Configures the {@link Parser} configuration to reject byte and text strings with more than
+     * <tt>maxStringLength</tt> bytes of data. By default the string length is unlimited.
+     *
+     * @param maxStringLength the maximum data length of a single string in bytes
+     * @return this builder instance
+     * @throws IllegalArgumentException if maxStringLength is negative
+     * @see ResourceLimits#maxStringLength()
+     */
+    ParserBuilder withMaxStringLength(long maxStringLength);
+
+    /**
+     * Configures the {@link Parser} configuration to abort queries which skip over more than
+     * <tt>maxBytesScanned</tt> bytes of the stream. By default the number of scanned bytes is unlimited.
+     *
+     * @param maxBytesScanned the maximum number of bytes scanned per query
+     * @return this builder instance
+     * @throws IllegalArgumentException if maxBytesScanned is less than 1
+     * @see ResourceLimits#maxBytesScanned()
+     */
+    ParserBuilder withMaxBytesScanned(long maxBytesScanned);
+
+    /**
+     * Configures the {@link Parser} configuration to abort queries, including the values returned by
+     * them, which materialize the element indexes of more than <tt>maxMaterializedElements</tt> sequence
+     * or dictionary elements. By default the number of materialized elements is unlimited.
+     *
+     * @param maxMaterializedElements the maximum number of materialized elements per query
+     * @return this builder instance
+     * @throws IllegalArgumentException if maxMaterializedElements is negative
+     * @see ResourceLimits#maxMaterializedElements()
+     */
+    ParserBuilder withMaxMaterializedElements(long maxMaterializedElements);
+
     /**
      * Returns a new {@link Parser} instance based on the internal configuration. The returned parser
      * is fully thread-safe and stateless and can be stored and shared by multiple threads.
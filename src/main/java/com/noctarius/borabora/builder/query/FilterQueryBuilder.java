@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.builder.query;
+
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.spi.builder.BuilderStackPop;
+
+import java.util.function.Predicate;
+
+/**
+ * The <tt>FilterQueryBuilder</tt> interface is used to define a filter of a sequence match
+ * based on a nested path inside of each sequence element, e.g. all elements whose
+ * <tt>status</tt> key equals <tt>active</tt>. The path is evaluated in place for every element
+ * and the element is selected if the value found at the path matches the given predicate.
+ * Elements without the path, or of a different type than expected by the path, never match.
+ *
+ * @param <T> the parent's builder type
+ */
+public interface FilterQueryBuilder<T> {
+
+    /**
+     * Descends into the value of the dictionary entry whose key matches the given
+     * <tt>predicate</tt>.
+     *
+     * @param predicate the predicate to match the key
+     * @return this builder instance
+     */
+    FilterQueryBuilder<T> dictionary(Predicate<Value> predicate);
+
+    /**
+     * Descends into the value of the dictionary entry with the given <tt>string</tt> typed
+     * <tt>key</tt>.
+     *
+     * @param key the key of the dictionary entry
+     * @return this builder instance
+     */
+    FilterQueryBuilder<T> dictionary(String key);
+
+    /**
+     * Descends into the value of the dictionary entry with the given <tt>double</tt> typed
+     * <tt>key</tt>.
+     *
+     * @param key the key of the dictionary entry
+     * @return this builder instance
+     */
+    FilterQueryBuilder<T> dictionary(double key);
+
+    /**
+     * Descends into the value of the dictionary entry with the given <tt>long</tt> typed
+     * <tt>key</tt>.
+     *
+     * @param key the key of the dictionary entry
+     * @return this builder instance
+     */
+    FilterQueryBuilder<T> dictionary(long key);
+
+    /**
+     * Descends into the sequence element at the given <tt>index</tt>.
+     *
+     * @param index the index of the sequence element
+     * @return this builder instance
+     * @throws IllegalArgumentException if index is negative
+     */
+    FilterQueryBuilder<T> sequence(long index);
+
+    /**
+     * Finalizes the filter by matching the value found at the path against the given
+     * <tt>predicate</tt> and returns to the parent builder.
+     *
+     * @param predicate the predicate to match the value found at the path
+     * @return the parent builder instance
+     */
+    @BuilderStackPop
+    T matches(Predicate<Value> predicate);
+
+}
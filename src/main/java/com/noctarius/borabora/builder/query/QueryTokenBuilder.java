@@ -25,8 +25,14 @@ public interface QueryTokenBuilder<T extends QueryTokenBuilder<T>> {
 
     T sequence(long index);
 
+    T sequenceParameter(int parameterIndex);
+
     T sequenceMatch(Predicate<Value> predicate);
 
+    T parallelSequenceMatch(Predicate<Value> predicate);
+
+    FilterQueryBuilder<T> sequenceFilter();
+
     T dictionary(Predicate<Value> predicate);
 
     T dictionary(String key);
@@ -35,8 +41,14 @@ public interface QueryTokenBuilder<T extends QueryTokenBuilder<T>> {
 
     T dictionary(long key);
 
+    T dictionaryParameter(int parameterIndex);
+
     T nullOrType(TypeSpec typeSpec);
 
     T requireType(TypeSpec typeSpec);
 
+    T filter(Predicate<Value> predicate);
+
+    T embeddedCbor();
+
 }
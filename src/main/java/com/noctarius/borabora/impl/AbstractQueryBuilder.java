@@ -18,9 +18,14 @@ package com.noctarius.borabora.impl;
 
 import com.noctarius.borabora.Value;
 import com.noctarius.borabora.impl.query.stages.DictionaryLookupQueryStage;
+import com.noctarius.borabora.impl.query.stages.DictionaryParameterLookupQueryStage;
+import com.noctarius.borabora.impl.query.stages.EmbeddedCborQueryStage;
+import com.noctarius.borabora.impl.query.stages.ParallelSequenceMatcherQueryStage;
 import com.noctarius.borabora.impl.query.stages.SequenceIndexQueryStage;
 import com.noctarius.borabora.impl.query.stages.SequenceMatcherQueryStage;
+import com.noctarius.borabora.impl.query.stages.SequenceParameterIndexQueryStage;
 import com.noctarius.borabora.impl.query.stages.TypeMatcherQueryStage;
+import com.noctarius.borabora.impl.query.stages.ValueFilterQueryStage;
 import com.noctarius.borabora.spi.query.TypeSpec;
 
 import java.util.Objects;
@@ -44,6 +49,12 @@ abstract class AbstractQueryBuilder {
         currentTreeNode = currentTreeNode.pushChild(new SequenceMatcherQueryStage(predicate));
     }
 
+    protected void parallelSequenceMatch0(Predicate<Value> predicate) {
+        Tracer.traceInfo("AbstractQueryBuilder#parallelSequenceMatch0", this);
+        Objects.requireNonNull(predicate, "predicate must not be null");
+        currentTreeNode = currentTreeNode.pushChild(new ParallelSequenceMatcherQueryStage(predicate));
+    }
+
     protected void sequence0(long index) {
         Tracer.traceInfo("AbstractQueryBuilder#sequence0", this);
         if (index < 0) {
@@ -52,6 +63,11 @@ abstract class AbstractQueryBuilder {
         currentTreeNode = currentTreeNode.pushChild(new SequenceIndexQueryStage(index));
     }
 
+    protected void sequenceParameter0(int parameterIndex) {
+        Tracer.traceInfo("AbstractQueryBuilder#sequenceParameter0", this);
+        currentTreeNode = currentTreeNode.pushChild(new SequenceParameterIndexQueryStage(parameterIndex));
+    }
+
     protected void dictionary0(Predicate<Value> predicate) {
         Tracer.traceInfo("AbstractQueryBuilder#dictionary0-predicate", this);
         Objects.requireNonNull(predicate, "predicate must not be null");
@@ -74,6 +90,11 @@ abstract class AbstractQueryBuilder {
         currentTreeNode = currentTreeNode.pushChild(DictionaryLookupQueryStage.intMatcher(key));
     }
 
+    protected void dictionaryParameter0(int parameterIndex) {
+        Tracer.traceInfo("AbstractQueryBuilder#dictionaryParameter0", this);
+        currentTreeNode = currentTreeNode.pushChild(new DictionaryParameterLookupQueryStage(parameterIndex));
+    }
+
     protected void nullOrType0(TypeSpec typeSpec) {
         Tracer.traceInfo("AbstractQueryBuilder#nullOrType0", this);
         Objects.requireNonNull(typeSpec, "typeSpec must not be null");
@@ -86,4 +107,15 @@ abstract class AbstractQueryBuilder {
         currentTreeNode = currentTreeNode.pushChild(new TypeMatcherQueryStage(typeSpec, true));
     }
 
+    protected void filter0(Predicate<Value> predicate) {
+        Tracer.traceInfo("AbstractQueryBuilder#filter0", this);
+        Objects.requireNonNull(predicate, "predicate must not be null");
+        currentTreeNode = currentTreeNode.pushChild(new ValueFilterQueryStage(predicate));
+    }
+
+    protected void embeddedCbor0() {
+        Tracer.traceInfo("AbstractQueryBuilder#embeddedCbor0", this);
+        currentTreeNode = currentTreeNode.pushChild(EmbeddedCborQueryStage.INSTANCE);
+    }
+
 }
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl;
+
+import com.noctarius.borabora.CborReader;
+import com.noctarius.borabora.CborToken;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.WrongTypeException;
+import com.noctarius.borabora.spi.io.ByteSizes;
+import com.noctarius.borabora.spi.io.Bytes;
+import com.noctarius.borabora.spi.io.Constants;
+import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.io.ElementCounts;
+import com.noctarius.borabora.spi.io.HeadTables;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public final class CborReaderImpl
+        implements CborReader, Constants {
+
+    private static final int INITIAL_STACK_SIZE = 16;
+    private static final short BREAK_CODE = 0xff;
+    private static final long INDEFINITE = -1;
+
+    private final Input input;
+
+    // Container stack, elements and limits count data items, dictionaries two per entry
+    private boolean[] dictionaries = new boolean[INITIAL_STACK_SIZE];
+    private long[] elements = new long[INITIAL_STACK_SIZE];
+    private long[] limits = new long[INITIAL_STACK_SIZE];
+    private long[] starts = new long[INITIAL_STACK_SIZE];
+    private int depth;
+
+    // Pending semantic tag, the tagged item does not count as a container element
+    private boolean tagged;
+    private boolean taggedKey;
+
+    private long position;
+    private long offset = -1;
+    private short head;
+    private CborToken token;
+
+    public CborReaderImpl(Input input) {
+        Objects.requireNonNull(input, "input must not be null");
+        this.input = input;
+    }
+
+    @Override
+    public CborToken next() {
+        if (depth > 0 && !tagged) {
+            int top = depth - 1;
+            if (limits[top] == INDEFINITE) {
+                if (Bytes.readUInt8(input, position) == BREAK_CODE) {
+                    position++;
+                    return pop();
+                }
+            } else if (elements[top] == limits[top]) {
+                return pop();
+            }
+        }
+
+        if (depth == 0 && !tagged && !input.offsetValid(position)) {
+            offset = -1;
+            token = null;
+            return null;
+        }
+
+        boolean key;
+        if (tagged) {
+            key = taggedKey;
+            tagged = false;
+        } else if (depth > 0) {
+            int top = depth - 1;
+            key = dictionaries[top] && (elements[top] & 1) == 0;
+            elements[top]++;
+        } else {
+            key = false;
+        }
+
+        short head = Bytes.readUInt8(input, position);
+        this.head = head;
+        this.offset = position;
+
+        MajorType majorType = HeadTables.majorType(head);
+        switch (majorType) {
+            case Sequence:
+                push(false, elementLimit(false, head));
+                token = CborToken.StartSequence;
+                break;
+
+            case Dictionary:
+                push(true, elementLimit(true, head));
+                token = CborToken.StartDictionary;
+                break;
+
+            case SemanticTag:
+                position += ByteSizes.headByteSize(input, position);
+                tagged = true;
+                taggedKey = key;
+                token = CborToken.SemanticTag;
+                break;
+
+            default:
+                CborToken scalarToken = scalarToken(majorType, head);
+                position += ByteSizes.byteSizeByHead(input, position, head);
+                token = key ? CborToken.Key : scalarToken;
+        }
+        return token;
+    }
+
+    @Override
+    public CborToken currentToken() {
+        return token;
+    }
+
+    @Override
+    public MajorType majorType() {
+        if (token == null) {
+            return null;
+        }
+        switch (token) {
+            case EndSequence:
+                return MajorType.Sequence;
+            case EndDictionary:
+                return MajorType.Dictionary;
+            default:
+                return HeadTables.majorType(head);
+        }
+    }
+
+    @Override
+    public long offset() {
+        return offset;
+    }
+
+    @Override
+    public int depth() {
+        return depth;
+    }
+
+    @Override
+    public long getLong() {
+        MajorType majorType = currentScalarType();
+        switch (majorType) {
+            case UnsignedInteger:
+            case SemanticTag:
+                return readUnsigned();
+            case NegativeInteger:
+                return -1 - readUnsigned();
+            default:
+                throw new WrongTypeException(offset, "Not an integer value: " + majorType);
+        }
+    }
+
+    @Override
+    public double getDouble() {
+        MajorType majorType = currentScalarType();
+        switch (majorType) {
+            case UnsignedInteger:
+            case NegativeInteger:
+                return getLong();
+            case FloatingPointOrSimple:
+                switch (Decoder.additionalInfo(head)) {
+                    case FP_VALUE_HALF_PRECISION:
+                        return Decoder.readHalfFloatValue(input, offset + 1).floatValue();
+                    case FP_VALUE_SINGLE_PRECISION:
+                        return Decoder.readSinglePrecisionFloat(input, offset + 1);
+                    case FP_VALUE_DOUBLE_PRECISION:
+                        return Decoder.readDoublePrecisionFloat(input, offset + 1);
+                }
+            default:
+                throw new WrongTypeException(offset, "Not a number value: " + majorType);
+        }
+    }
+
+    @Override
+    public boolean getBoolean() {
+        MajorType majorType = currentScalarType();
+        if (majorType == MajorType.FloatingPointOrSimple) {
+            switch (Decoder.additionalInfo(head)) {
+                case FP_VALUE_FALSE:
+                    return false;
+                case FP_VALUE_TRUE:
+                    return true;
+            }
+        }
+        throw new WrongTypeException(offset, "Not a boolean value: " + majorType);
+    }
+
+    @Override
+    public byte[] getStringBytes() {
+        MajorType majorType = currentScalarType();
+        if (majorType != MajorType.ByteString && majorType != MajorType.TextString) {
+            throw new WrongTypeException(offset, "Not a string value: " + majorType);
+        }
+        return Decoder.extractStringBytes(input, offset);
+    }
+
+    @Override
+    public String getString() {
+        return new String(getStringBytes(), UTF8);
+    }
+
+    @Override
+    public void skipChildren() {
+        if (token == CborToken.StartSequence || token == CborToken.StartDictionary) {
+            int top = depth - 1;
+            position = starts[top] + ByteSizes.byteSizeByHead(input, starts[top], head);
+            pop();
+
+        } else if (token == CborToken.SemanticTag && tagged) {
+            position = Decoder.skip(input, position);
+            tagged = false;
+        }
+    }
+
+    private MajorType currentScalarType() {
+        if (token == null || offset == -1) {
+            throw new WrongTypeException("No current data item");
+        }
+        return majorType();
+    }
+
+    private long readUnsigned() {
+        int addInfo = Decoder.additionalInfo(head);
+        switch (addInfo) {
+            case ADD_INFO_ONE_BYTE:
+                return Bytes.readUInt8(input, offset + 1);
+            case ADD_INFO_TWO_BYTES:
+                return Bytes.readUInt16(input, offset + 1);
+            case ADD_INFO_FOUR_BYTES:
+                return Bytes.readUInt32(input, offset + 1);
+            case ADD_INFO_EIGHT_BYTES:
+                long value = Bytes.readUInt64Long(input, offset + 1);
+                if (value < 0) {
+                    throw new IllegalStateException("Value larger than Long.MAX_VALUE");
+                }
+                return value;
+            default:
+                return addInfo;
+        }
+    }
+
+    private long elementLimit(boolean dictionary, short head) {
+        if (Decoder.additionalInfo(head) == ADD_INFO_INDEFINITE) {
+            return INDEFINITE;
+        }
+        if (dictionary) {
+            return ElementCounts.dictionaryElementCount(input, position) * 2;
+        }
+        return ElementCounts.sequenceElementCount(input, position);
+    }
+
+    private void push(boolean dictionary, long limit) {
+        if (depth == limits.length) {
+            int size = depth * 2;
+            dictionaries = Arrays.copyOf(dictionaries, size);
+            elements = Arrays.copyOf(elements, size);
+            limits = Arrays.copyOf(limits, size);
+            starts = Arrays.copyOf(starts, size);
+        }
+        dictionaries[depth] = dictionary;
+        elements[depth] = 0;
+        limits[depth] = limit;
+        starts[depth] = position;
+        depth++;
+        position += ByteSizes.headByteSize(input, position);
+    }
+
+    private CborToken pop() {
+        depth--;
+        offset = starts[depth];
+        head = Bytes.readUInt8(input, offset);
+        token = dictionaries[depth] ? CborToken.EndDictionary : CborToken.EndSequence;
+        return token;
+    }
+
+    private static CborToken scalarToken(MajorType majorType, short head) {
+        switch (majorType) {
+            case UnsignedInteger:
+            case NegativeInteger:
+                return CborToken.Int;
+            case ByteString:
+                return CborToken.ByteString;
+            case TextString:
+                return CborToken.TextString;
+            default:
+                int addInfo = Decoder.additionalInfo(head);
+                switch (addInfo) {
+                    case FP_VALUE_FALSE:
+                    case FP_VALUE_TRUE:
+                        return CborToken.Bool;
+                    case FP_VALUE_NULL:
+                        return CborToken.Null;
+                    case FP_VALUE_UNDEF:
+                        return CborToken.Undefined;
+                    case FP_VALUE_HALF_PRECISION:
+                    case FP_VALUE_SINGLE_PRECISION:
+                    case FP_VALUE_DOUBLE_PRECISION:
+                        return CborToken.Float;
+                    case ADD_INFO_INDEFINITE:
+                        throw new IllegalStateException("Unexpected break code");
+                    default:
+                        return CborToken.Simple;
+                }
+        }
+    }
+
+}
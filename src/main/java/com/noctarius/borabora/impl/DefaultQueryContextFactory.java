@@ -18,12 +18,17 @@ package com.noctarius.borabora.impl;
 
 import com.noctarius.borabora.Input;
 import com.noctarius.borabora.spi.codec.TagStrategy;
+import com.noctarius.borabora.spi.codec.TagStrategyTable;
+import com.noctarius.borabora.spi.io.ResourceLimits;
+import com.noctarius.borabora.spi.io.StringCache;
 import com.noctarius.borabora.spi.query.ProjectionStrategy;
 import com.noctarius.borabora.spi.query.QueryConsumer;
 import com.noctarius.borabora.spi.query.QueryContext;
 import com.noctarius.borabora.spi.query.QueryContextFactory;
+import com.noctarius.borabora.spi.query.QueryParameters;
 
 import java.util.List;
+import java.util.Objects;
 
 public class DefaultQueryContextFactory
         implements QueryContextFactory {
@@ -37,7 +42,36 @@ public class DefaultQueryContextFactory
     public QueryContext newQueryContext(Input input, QueryConsumer queryConsumer, List<TagStrategy> tagStrategies,
                                         ProjectionStrategy projectionStrategy) {
 
-        return new QueryContextImpl(input, queryConsumer, tagStrategies, projectionStrategy, this);
+        return newQueryContext(input, queryConsumer, tagStrategies, projectionStrategy, null);
+    }
+
+    @Override
+    public QueryContext newQueryContext(Input input, QueryConsumer queryConsumer, List<TagStrategy> tagStrategies,
+                                        ProjectionStrategy projectionStrategy, StringCache stringCache) {
+
+        return newQueryContext(input, queryConsumer, tagStrategies, projectionStrategy, stringCache,
+                ResourceLimits.UNLIMITED);
+    }
+
+    @Override
+    public QueryContext newQueryContext(Input input, QueryConsumer queryConsumer, List<TagStrategy> tagStrategies,
+                                        ProjectionStrategy projectionStrategy, StringCache stringCache,
+                                        ResourceLimits resourceLimits) {
+
+        return newQueryContext(input, queryConsumer, tagStrategies, projectionStrategy, stringCache, resourceLimits,
+                QueryParameters.EMPTY);
+    }
+
+    @Override
+    public QueryContext newQueryContext(Input input, QueryConsumer queryConsumer, List<TagStrategy> tagStrategies,
+                                        ProjectionStrategy projectionStrategy, StringCache stringCache,
+                                        ResourceLimits resourceLimits, QueryParameters queryParameters) {
+
+        Objects.requireNonNull(tagStrategies, "tagStrategies must not be null");
+        // Parsers pass their prebuilt table, only plain lists of external callers have to be indexed
+        TagStrategyTable tagStrategyTable = TagStrategyTable.newTagStrategyTable(tagStrategies);
+        return new QueryContextImpl(input, queryConsumer, tagStrategyTable, projectionStrategy, this, stringCache,
+                resourceLimits, queryParameters);
     }
 
 }
@@ -163,8 +163,9 @@ public final class DictionaryImpl
         Objects.requireNonNull(queryContext, "queryContext must not be null");
         Input input = queryContext.input();
         long headByteSize = ByteSizes.headByteSize(input, offset);
-        long size = ElementCounts.dictionaryElementCount(input, offset);
-        long[][] elementIndexes = Decoder.readElementIndexes(input, offset + headByteSize, size * 2);
+        long size = ElementCounts.dictionaryElementCount(input, offset, queryContext.resourceLimits());
+        queryContext.trackMaterializedElements(size * 2, offset);
+        long[][] elementIndexes = Decoder.readElementIndexes(offset + headByteSize, size * 2, queryContext);
         return new DictionaryImpl(size, elementIndexes, queryContext);
     }
 
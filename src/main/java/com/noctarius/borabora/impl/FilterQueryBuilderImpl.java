@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl;
+
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.builder.query.FilterQueryBuilder;
+import com.noctarius.borabora.builder.query.QueryTokenBuilder;
+import com.noctarius.borabora.impl.query.stages.DictionaryLookupQueryStage;
+import com.noctarius.borabora.impl.query.stages.NestedPathPredicate;
+import com.noctarius.borabora.impl.query.stages.SequenceIndexQueryStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+class FilterQueryBuilderImpl<T extends QueryTokenBuilder<T>>
+        implements FilterQueryBuilder<T> {
+
+    private final List<QueryStage> path = new ArrayList<>();
+
+    private final T queryBuilder;
+
+    FilterQueryBuilderImpl(T queryBuilder) {
+        Objects.requireNonNull(queryBuilder, "queryBuilder must not be null");
+        this.queryBuilder = queryBuilder;
+    }
+
+    @Override
+    public FilterQueryBuilder<T> dictionary(Predicate<Value> predicate) {
+        Tracer.traceInfo("FilterQueryBuilderImpl#dictionary-predicate", this);
+        Objects.requireNonNull(predicate, "predicate must not be null");
+        path.add(DictionaryLookupQueryStage.predicateMatcher(predicate));
+        return this;
+    }
+
+    @Override
+    public FilterQueryBuilder<T> dictionary(String key) {
+        Tracer.traceInfo("FilterQueryBuilderImpl#dictionary-string", this);
+        Objects.requireNonNull(key, "key must not be null");
+        path.add(DictionaryLookupQueryStage.stringMatcher(key));
+        return this;
+    }
+
+    @Override
+    public FilterQueryBuilder<T> dictionary(double key) {
+        Tracer.traceInfo("FilterQueryBuilderImpl#dictionary-double", this);
+        path.add(DictionaryLookupQueryStage.floatMatcher(key));
+        return this;
+    }
+
+    @Override
+    public FilterQueryBuilder<T> dictionary(long key) {
+        Tracer.traceInfo("FilterQueryBuilderImpl#dictionary-long", this);
+        path.add(DictionaryLookupQueryStage.intMatcher(key));
+        return this;
+    }
+
+    @Override
+    public FilterQueryBuilder<T> sequence(long index) {
+        Tracer.traceInfo("FilterQueryBuilderImpl#sequence", this);
+        if (index < 0) {
+            throw new IllegalArgumentException("index must not be negative");
+        }
+        path.add(new SequenceIndexQueryStage(index));
+        return this;
+    }
+
+    @Override
+    public T matches(Predicate<Value> predicate) {
+        Tracer.traceReturn("FilterQueryBuilderImpl#matches", this);
+        Objects.requireNonNull(predicate, "predicate must not be null");
+
+        // Without a path the filter is a plain sequence match
+        if (path.isEmpty()) {
+            return queryBuilder.sequenceMatch(predicate);
+        }
+        return queryBuilder.sequenceMatch(new NestedPathPredicate(path, predicate));
+    }
+
+}
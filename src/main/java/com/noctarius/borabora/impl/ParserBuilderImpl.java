@@ -19,11 +19,18 @@ package com.noctarius.borabora.impl;
 import com.noctarius.borabora.Parser;
 import com.noctarius.borabora.builder.ParserBuilder;
 import com.noctarius.borabora.impl.query.BTreeFactories;
+import com.noctarius.borabora.impl.query.optimizer.ParallelSequenceMatchQueryOptimizer;
+import com.noctarius.borabora.impl.query.optimizer.QueryOptimizers;
+import com.noctarius.borabora.impl.query.stages.ParallelSequenceMatcherQueryStage;
 import com.noctarius.borabora.spi.codec.TagStrategies;
 import com.noctarius.borabora.spi.codec.TagStrategy;
+import com.noctarius.borabora.spi.codec.TagStrategyTable;
+import com.noctarius.borabora.spi.io.ResourceLimits;
+import com.noctarius.borabora.spi.io.StringCache;
 import com.noctarius.borabora.spi.query.BinaryProjectionStrategy;
 import com.noctarius.borabora.spi.query.ObjectProjectionStrategy;
 import com.noctarius.borabora.spi.query.ProjectionStrategy;
+import com.noctarius.borabora.spi.query.QueryCache;
 import com.noctarius.borabora.spi.query.QueryContextFactory;
 import com.noctarius.borabora.spi.query.optimizer.QueryOptimizer;
 import com.noctarius.borabora.spi.query.optimizer.QueryOptimizerStrategyFactory;
@@ -35,6 +42,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 public final class ParserBuilderImpl
         implements ParserBuilder {
@@ -48,6 +56,18 @@ public final class ParserBuilderImpl
     private QueryPipelineFactory queryPipelineFactory = BTreeFactories.newQueryPipelineFactory();
     private QueryOptimizerStrategyFactory queryOptimizerStrategyFactory = BTreeFactories.newQueryOptimizerStrategyFactory();
 
+    private int stringCacheCapacity = -1;
+    private int stringCacheMaxStringLength = -1;
+    private int queryCacheCapacity = -1;
+    private long parallelSequenceMatchThreshold = -1;
+    private boolean defaultQueryOptimizers = true;
+
+    private int maxNestingDepth = Integer.MAX_VALUE;
+    private long maxContainerElements = Long.MAX_VALUE;
+    private long maxStringLength = Long.MAX_VALUE;
+    private long maxBytesScanned = Long.MAX_VALUE;
+    private long maxMaterializedElements = Long.MAX_VALUE;
+
     @Override
     public ParserBuilder addTagStrategy(TagStrategy tagStrategy) {
         Objects.requireNonNull(tagStrategy, "tagStrategy must not be null");
@@ -119,6 +139,12 @@ public final class ParserBuilderImpl
         return this;
     }
 
+    @Override
+    public ParserBuilder withDefaultQueryOptimizers(boolean enabled) {
+        this.defaultQueryOptimizers = enabled;
+        return this;
+    }
+
     @Override
     public ParserBuilder addQueryOptimizer(QueryOptimizer queryOptimizer) {
         Objects.requireNonNull(queryOptimizer, "queryOptimizer must not be null");
@@ -169,10 +195,121 @@ public final class ParserBuilderImpl
         return this;
     }
 
+    @Override
+    public ParserBuilder withStringCache() {
+        return withStringCache(StringCache.DEFAULT_CAPACITY, StringCache.DEFAULT_MAX_STRING_LENGTH);
+    }
+
+    @Override
+    public ParserBuilder withStringCache(int capacity, int maxStringLength) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be larger than 0");
+        }
+        if (maxStringLength < 1) {
+            throw new IllegalArgumentException("maxStringLength must be larger than 0");
+        }
+        this.stringCacheCapacity = capacity;
+        this.stringCacheMaxStringLength = maxStringLength;
+        return this;
+    }
+
+    @Override
+    public ParserBuilder withQueryCache() {
+        return withQueryCache(QueryCache.DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public ParserBuilder withQueryCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be larger than 0");
+        }
+        this.queryCacheCapacity = capacity;
+        return this;
+    }
+
+    @Override
+    public ParserBuilder withParallelSequenceMatch() {
+        return withParallelSequenceMatch(ParallelSequenceMatcherQueryStage.DEFAULT_THRESHOLD);
+    }
+
+    @Override
+    public ParserBuilder withParallelSequenceMatch(long threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        this.parallelSequenceMatchThreshold = threshold;
+        return this;
+    }
+
+    @Override
+    public ParserBuilder withMaxNestingDepth(int maxNestingDepth) {
+        if (maxNestingDepth < 1) {
+            throw new IllegalArgumentException("maxNestingDepth must be larger than 0");
+        }
+        this.maxNestingDepth = maxNestingDepth;
+        return this;
+    }
+
+    @Override
+    public ParserBuilder withMaxContainerElements(long maxContainerElements) {
+        if (maxContainerElements < 0) {
+            throw new IllegalArgumentException("maxContainerElements must not be negative");
+        }
+        this.maxContainerElements = maxContainerElements;
+        return this;
+    }
+
+    @Override
+    public ParserBuilder withMaxStringLength(long maxStringLength) {
+        if (maxStringLength < 0) {
+            throw new IllegalArgumentException("maxStringLength must not be negative");
+        }
+        this.maxStringLength = maxStringLength;
+        return this;
+    }
+
+    @Override
+    public ParserBuilder withMaxBytesScanned(long maxBytesScanned) {
+        if (maxBytesScanned < 1) {
+            throw new IllegalArgumentException("maxBytesScanned must be larger than 0");
+        }
+        this.maxBytesScanned = maxBytesScanned;
+        return this;
+    }
+
+    @Override
+    public ParserBuilder withMaxMaterializedElements(long maxMaterializedElements) {
+        if (maxMaterializedElements < 0) {
+            throw new IllegalArgumentException("maxMaterializedElements must not be negative");
+        }
+        this.maxMaterializedElements = maxMaterializedElements;
+        return this;
+    }
+
     @Override
     public Parser build() {
-        return new ParserImpl(tagStrategies, projectionStrategy, queryContextFactory, queryPipelineFactory, pipelineStageFactory,
-                queryOptimizerStrategyFactory, Collections.unmodifiableList(queryOptimizers));
+        // Every parser gets its own cache instance
+        StringCache stringCache = stringCacheCapacity == -1 ? null //
+                : StringCache.newStringCache(stringCacheCapacity, stringCacheMaxStringLength);
+        QueryCache queryCache = queryCacheCapacity == -1 ? null : QueryCache.newQueryCache(queryCacheCapacity);
+
+        ResourceLimits resourceLimits = ResourceLimits.newResourceLimits(maxNestingDepth, maxContainerElements,
+                maxStringLength, maxBytesScanned, maxMaterializedElements);
+
+        List<QueryOptimizer> queryOptimizers = new ArrayList<>(this.queryOptimizers);
+        if (parallelSequenceMatchThreshold != -1) {
+            queryOptimizers.add(new ParallelSequenceMatchQueryOptimizer(parallelSequenceMatchThreshold, ForkJoinPool.commonPool()));
+        }
+        if (defaultQueryOptimizers) {
+            queryOptimizers.addAll(QueryOptimizers.defaultQueryOptimizers());
+        }
+
+        // Index the tag strategies once, lookups by tag id are done for every semantic tag
+        TagStrategyTable tagStrategyTable = TagStrategyTable.newTagStrategyTable(tagStrategies);
+
+        return new ParserImpl(tagStrategyTable, projectionStrategy, queryContextFactory, queryPipelineFactory, pipelineStageFactory,
+                queryOptimizerStrategyFactory, Collections.unmodifiableList(queryOptimizers), stringCache,
+                queryCache, resourceLimits);
     }
 
 }
@@ -17,19 +17,26 @@
 package com.noctarius.borabora.impl;
 
 import com.noctarius.borabora.Input;
+import com.noctarius.borabora.MultiConsumer;
 import com.noctarius.borabora.Parser;
 import com.noctarius.borabora.Query;
 import com.noctarius.borabora.QueryParserException;
 import com.noctarius.borabora.Value;
 import com.noctarius.borabora.builder.query.QueryBuilder;
 import com.noctarius.borabora.builder.query.StreamQueryBuilder;
-import com.noctarius.borabora.spi.codec.TagStrategy;
+import com.noctarius.borabora.impl.query.MultiQueryPipeline;
+import com.noctarius.borabora.impl.query.ParallelStreamEvaluator;
+import com.noctarius.borabora.spi.codec.TagStrategyTable;
 import com.noctarius.borabora.spi.io.Constants;
 import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.io.ResourceLimits;
+import com.noctarius.borabora.spi.io.StringCache;
 import com.noctarius.borabora.spi.query.ProjectionStrategy;
+import com.noctarius.borabora.spi.query.QueryCache;
 import com.noctarius.borabora.spi.query.QueryConsumer;
 import com.noctarius.borabora.spi.query.QueryContext;
 import com.noctarius.borabora.spi.query.QueryContextFactory;
+import com.noctarius.borabora.spi.query.QueryParameters;
 import com.noctarius.borabora.spi.query.optimizer.QueryOptimizer;
 import com.noctarius.borabora.spi.query.optimizer.QueryOptimizerStrategy;
 import com.noctarius.borabora.spi.query.optimizer.QueryOptimizerStrategyFactory;
@@ -39,22 +46,28 @@ import com.noctarius.borabora.spi.query.pipeline.QueryPipelineFactory;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 final class ParserImpl
         implements Parser {
 
-    private final List<TagStrategy> tagStrategies;
+    private final TagStrategyTable tagStrategies;
     private final QueryContextFactory queryContextFactory;
     private final ProjectionStrategy projectionStrategy;
     private final QueryPipelineFactory queryPipelineFactory;
     private final PipelineStageFactory pipelineStageFactory;
     private final QueryOptimizerStrategyFactory queryOptimizerStrategyFactory;
     private final List<QueryOptimizer> queryOptimizers;
+    private final StringCache stringCache;
+    private final QueryCache queryCache;
+    private final ResourceLimits resourceLimits;
 
-    ParserImpl(List<TagStrategy> tagStrategies, ProjectionStrategy projectionStrategy, QueryContextFactory queryContextFactory,
+    ParserImpl(TagStrategyTable tagStrategies, ProjectionStrategy projectionStrategy, QueryContextFactory queryContextFactory,
                QueryPipelineFactory queryPipelineFactory, PipelineStageFactory pipelineStageFactory,
-               QueryOptimizerStrategyFactory queryOptimizerStrategyFactory, List<QueryOptimizer> queryOptimizers) {
+               QueryOptimizerStrategyFactory queryOptimizerStrategyFactory, List<QueryOptimizer> queryOptimizers,
+               StringCache stringCache, QueryCache queryCache, ResourceLimits resourceLimits) {
 
         Objects.requireNonNull(tagStrategies, "tagStrategies must not be null");
         Objects.requireNonNull(queryContextFactory, "queryContextFactory must not be null");
@@ -63,6 +76,7 @@ final class ParserImpl
         Objects.requireNonNull(pipelineStageFactory, "pipelineStageFactory must not be null");
         Objects.requireNonNull(queryOptimizerStrategyFactory, "queryOptimizerStrategyFactory must not be null");
         Objects.requireNonNull(queryOptimizers, "queryOptimizers must not be null");
+        Objects.requireNonNull(resourceLimits, "resourceLimits must not be null");
         this.tagStrategies = tagStrategies;
         this.queryContextFactory = queryContextFactory;
         this.projectionStrategy = projectionStrategy;
@@ -70,6 +84,9 @@ final class ParserImpl
         this.pipelineStageFactory = pipelineStageFactory;
         this.queryOptimizerStrategyFactory = queryOptimizerStrategyFactory;
         this.queryOptimizers = queryOptimizers;
+        this.stringCache = stringCache;
+        this.queryCache = queryCache;
+        this.resourceLimits = resourceLimits;
     }
 
     @Override
@@ -95,7 +112,8 @@ final class ParserImpl
     @Override
     public Value read(Input input, long offset) {
         Objects.requireNonNull(input, "input must not be null");
-        QueryContext queryContext = newQueryContext(input, Constants.EMPTY_QUERY_CONSUMER, projectionStrategy);
+        QueryContext queryContext = newQueryContext(input, Constants.EMPTY_QUERY_CONSUMER, projectionStrategy,
+                QueryParameters.EMPTY);
         return Decoder.readValue(offset, queryContext);
     }
 
@@ -112,6 +130,56 @@ final class ParserImpl
         read(input, prepareQuery(query), consumer, true);
     }
 
+    @Override
+    public void readAll(Input input, List<Query> queries, MultiConsumer consumer) {
+        Objects.requireNonNull(input, "input must not be null");
+        Objects.requireNonNull(queries, "queries must not be null");
+        Objects.requireNonNull(consumer, "consumer must not be null");
+
+        // Walk the input once for all queries sharing the same navigation steps
+        MultiQueryPipeline multiQueryPipeline = MultiQueryPipeline.newMultiQueryPipeline(queries);
+        QueryConsumer queryConsumer = (value) -> {
+            consumer.accept(multiQueryPipeline.currentQueryIndex(), value);
+            return true;
+        };
+        multiQueryPipeline.evaluate(newQueryContext(input, queryConsumer, projectionStrategy, QueryParameters.EMPTY));
+
+        // Parameterized queries need their own query context
+        for (int i = 0; i < queries.size(); i++) {
+            Query query = queries.get(i);
+            if (MultiQueryPipeline.excluded(query)) {
+                int queryIndex = i;
+                read(input, query, value -> consumer.accept(queryIndex, value), true);
+            }
+        }
+    }
+
+    @Override
+    public void readParallel(Input input, Query query, Consumer<Value> consumer, boolean ordered) {
+        readParallel(input, query, consumer, ForkJoinPool.commonPool(), ordered);
+    }
+
+    @Override
+    public void readParallel(Input input, Query query, Consumer<Value> consumer, Executor executor, boolean ordered) {
+        Objects.requireNonNull(input, "input must not be null");
+        Objects.requireNonNull(query, "query must not be null");
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        Objects.requireNonNull(executor, "executor must not be null");
+        checkQueryParameters(query);
+
+        QueryParameters queryParameters = query.queryParameters();
+        ParallelStreamEvaluator parallelStreamEvaluator = ParallelStreamEvaluator
+                .newParallelStreamEvaluator(query.newQueryPipeline(),
+                        (queryConsumer) -> newQueryContext(input, queryConsumer, projectionStrategy, queryParameters));
+
+        // Only multi stream queries can be split up
+        if (parallelStreamEvaluator == null) {
+            read(input, query, consumer, true);
+            return;
+        }
+        parallelStreamEvaluator.evaluate(consumer, executor, ordered);
+    }
+
     @Override
     public byte[] extract(Input input, Query query) {
         Objects.requireNonNull(input, "input must not be null");
@@ -136,6 +204,24 @@ final class ParserImpl
     @Override
     public Query prepareQuery(String query) {
         Objects.requireNonNull(query, "query must not be null");
+        if (queryCache != null) {
+            return queryCache.get(query, this::parseQuery);
+        }
+        return parseQuery(query);
+    }
+
+    @Override
+    public QueryCache queryCache() {
+        return queryCache;
+    }
+
+    @Override
+    public StreamQueryBuilder newQueryBuilder() {
+        QueryOptimizerStrategy queryOptimizerStrategy = queryOptimizerStrategyFactory.newQueryOptimizerStrategy(queryOptimizers);
+        return new QueryBuilderImpl(queryOptimizerStrategy, pipelineStageFactory, queryPipelineFactory);
+    }
+
+    private Query parseQuery(String query) {
         try {
             QueryBuilder queryBuilder = newQueryBuilder();
             QueryParser.parse(query, queryBuilder, tagStrategies);
@@ -146,27 +232,31 @@ final class ParserImpl
         }
     }
 
-    @Override
-    public StreamQueryBuilder newQueryBuilder() {
-        QueryOptimizerStrategy queryOptimizerStrategy = queryOptimizerStrategyFactory.newQueryOptimizerStrategy(queryOptimizers);
-        return new QueryBuilderImpl(queryOptimizerStrategy, pipelineStageFactory, queryPipelineFactory);
-    }
-
     private void read(Input input, Query query, Consumer<Value> consumer, boolean multiConsumer) {
         Objects.requireNonNull(input, "input must not be null");
         Objects.requireNonNull(query, "query must not be null");
         Objects.requireNonNull(consumer, "consumer must not be null");
+        checkQueryParameters(query);
         QueryConsumer queryConsumer = bridgeConsumer(consumer, multiConsumer);
         evaluate(query, input, queryConsumer, projectionStrategy);
     }
 
-    private QueryContext newQueryContext(Input input, QueryConsumer queryConsumer, ProjectionStrategy projectionStrategy) {
-        return queryContextFactory.newQueryContext(input, queryConsumer, tagStrategies, projectionStrategy);
+    private void checkQueryParameters(Query query) {
+        if (query.queryParameters().size() < query.parameterCount()) {
+            throw new IllegalStateException("Query parameters are not bound, use Query#bind");
+        }
+    }
+
+    private QueryContext newQueryContext(Input input, QueryConsumer queryConsumer, ProjectionStrategy projectionStrategy,
+                                         QueryParameters queryParameters) {
+
+        return queryContextFactory.newQueryContext(input, queryConsumer, tagStrategies, projectionStrategy, stringCache,
+                resourceLimits, queryParameters);
     }
 
     private void evaluate(Query query, Input input, QueryConsumer queryConsumer, ProjectionStrategy projectionStrategy) {
         QueryPipeline queryPipeline = query.newQueryPipeline();
-        QueryContext queryContext = newQueryContext(input, queryConsumer, projectionStrategy);
+        QueryContext queryContext = newQueryContext(input, queryConsumer, projectionStrategy, query.queryParameters());
 
         queryPipeline.evaluate(queryContext);
     }
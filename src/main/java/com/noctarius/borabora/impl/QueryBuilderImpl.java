@@ -19,6 +19,7 @@ package com.noctarius.borabora.impl;
 import com.noctarius.borabora.Query;
 import com.noctarius.borabora.Value;
 import com.noctarius.borabora.builder.query.DictionaryQueryBuilder;
+import com.noctarius.borabora.builder.query.FilterQueryBuilder;
 import com.noctarius.borabora.builder.query.QueryBuilder;
 import com.noctarius.borabora.builder.query.SequenceQueryBuilder;
 import com.noctarius.borabora.builder.query.StreamQueryBuilder;
@@ -32,6 +33,7 @@ import com.noctarius.borabora.impl.query.stages.PrepareSelectionQueryStage;
 import com.noctarius.borabora.impl.query.stages.SingleStreamElementQueryStage;
 import com.noctarius.borabora.spi.query.TypeSpec;
 import com.noctarius.borabora.spi.query.optimizer.QueryOptimizerStrategy;
+import com.noctarius.borabora.spi.query.pipeline.ParameterizedQueryStage;
 import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
 import com.noctarius.borabora.spi.query.pipeline.PipelineStageFactory;
 import com.noctarius.borabora.spi.query.pipeline.QueryPipeline;
@@ -114,7 +116,10 @@ final class QueryBuilderImpl
         QueryPipeline queryPipeline = queryPipelineFactory
                 .newQueryPipeline(rootPipelineStage, pipelineStageFactory, queryOptimizerStrategy);
 
-        return new QueryImpl(queryPipeline);
+        // Collect the placeholders, bound later by Query#bind
+        ParameterizedQueryStage[] parameterStages = collectParameterStages(rootPipelineStage);
+
+        return new QueryImpl(queryPipeline, parameterStages);
     }
 
     @Override
@@ -132,6 +137,20 @@ final class QueryBuilderImpl
         return this;
     }
 
+    @Override
+    public QueryBuilder parallelSequenceMatch(Predicate<Value> predicate) {
+        Tracer.traceInfo("QueryBuilderImpl#parallelSequenceMatch", this);
+        Objects.requireNonNull(predicate, "predicate must not be null");
+        parallelSequenceMatch0(predicate);
+        return this;
+    }
+
+    @Override
+    public FilterQueryBuilder<QueryBuilder> sequenceFilter() {
+        Tracer.traceCall("QueryBuilderImpl#sequenceFilter", this);
+        return new FilterQueryBuilderImpl<>(this);
+    }
+
     @Override
     public QueryBuilder dictionary(Predicate<Value> predicate) {
         Tracer.traceInfo("QueryBuilderImpl#dictionary", this);
@@ -178,6 +197,75 @@ final class QueryBuilderImpl
         return this;
     }
 
+    @Override
+    public QueryBuilder filter(Predicate<Value> predicate) {
+        Tracer.traceInfo("QueryBuilderImpl#filter", this);
+        Objects.requireNonNull(predicate, "predicate must not be null");
+        filter0(predicate);
+        return this;
+    }
+
+    @Override
+    public QueryBuilder sequenceParameter(int parameterIndex) {
+        Tracer.traceInfo("QueryBuilderImpl#sequenceParameter", this);
+        sequenceParameter0(parameterIndex);
+        return this;
+    }
+
+    @Override
+    public QueryBuilder dictionaryParameter(int parameterIndex) {
+        Tracer.traceInfo("QueryBuilderImpl#dictionaryParameter", this);
+        dictionaryParameter0(parameterIndex);
+        return this;
+    }
+
+    @Override
+    public QueryBuilder embeddedCbor() {
+        Tracer.traceInfo("QueryBuilderImpl#embeddedCbor", this);
+        embeddedCbor0();
+        return this;
+    }
+
+    private ParameterizedQueryStage[] collectParameterStages(PipelineStage rootPipelineStage) {
+        List<ParameterizedQueryStage> parameterStages = new ArrayList<>();
+        collectParameterStages(rootPipelineStage, parameterStages);
+
+        int parameterCount = 0;
+        for (ParameterizedQueryStage parameterStage : parameterStages) {
+            parameterCount = Math.max(parameterCount, parameterStage.parameterIndex());
+        }
+
+        ParameterizedQueryStage[] parameterStagesByIndex = new ParameterizedQueryStage[parameterCount];
+        for (ParameterizedQueryStage parameterStage : parameterStages) {
+            int index = parameterStage.parameterIndex() - 1;
+            ParameterizedQueryStage existing = parameterStagesByIndex[index];
+            if (existing != null && existing.getClass() != parameterStage.getClass()) {
+                throw new IllegalStateException(
+                        "Query parameter $" + parameterStage.parameterIndex() + " is used by incompatible query stages");
+            }
+            parameterStagesByIndex[index] = parameterStage;
+        }
+        for (int i = 0; i < parameterStagesByIndex.length; i++) {
+            // Gaps would leave the skipped placeholders unvalidated
+            if (parameterStagesByIndex[i] == null) {
+                throw new IllegalStateException("Query parameter $" + (i + 1) + " is not used, query parameters "
+                        + "must be numbered contiguously starting at $1");
+            }
+        }
+        return parameterStagesByIndex;
+    }
+
+    private void collectParameterStages(PipelineStage pipelineStage, List<ParameterizedQueryStage> parameterStages) {
+        if (pipelineStage == PipelineStage.NIL) {
+            return;
+        }
+        if (pipelineStage.stage() instanceof ParameterizedQueryStage) {
+            parameterStages.add((ParameterizedQueryStage) pipelineStage.stage());
+        }
+        collectParameterStages(pipelineStage.left(), parameterStages);
+        collectParameterStages(pipelineStage.right(), parameterStages);
+    }
+
     private void fixConsumers(QueryBuilderNode node) {
         if (node.childrenCount() > 0) {
             node.forEachChild(this::fixConsumers);
@@ -23,12 +23,17 @@ import com.noctarius.borabora.ValueType;
 import com.noctarius.borabora.ValueTypes;
 import com.noctarius.borabora.spi.codec.TagDecoder;
 import com.noctarius.borabora.spi.codec.TagStrategy;
+import com.noctarius.borabora.spi.codec.TagStrategyTable;
 import com.noctarius.borabora.spi.io.ByteSizes;
 import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.io.HeadTables;
+import com.noctarius.borabora.spi.io.ResourceLimits;
+import com.noctarius.borabora.spi.io.StringCache;
 import com.noctarius.borabora.spi.query.ProjectionStrategy;
 import com.noctarius.borabora.spi.query.QueryConsumer;
 import com.noctarius.borabora.spi.query.QueryContext;
 import com.noctarius.borabora.spi.query.QueryContextFactory;
+import com.noctarius.borabora.spi.query.QueryParameters;
 
 import java.util.Deque;
 import java.util.LinkedList;
@@ -38,29 +43,40 @@ import java.util.Objects;
 final class QueryContextImpl
         implements QueryContext {
 
-    private final List<TagStrategy> tagStrategies;
+    private final TagStrategyTable tagStrategies;
     private final QueryConsumer queryConsumer;
     private final QueryContextFactory queryContextFactory;
     private final ProjectionStrategy projectionStrategy;
+    private final StringCache stringCache;
+    private final ResourceLimits resourceLimits;
+    private final QueryParameters queryParameters;
     private final Input input;
 
     // Queries are inherently thread-safe!
     private Deque<Object> stack;
     private long offset;
+    private long bytesScanned;
+    private long materializedElements;
 
-    QueryContextImpl(Input input, QueryConsumer queryConsumer, List<TagStrategy> tagStrategies,
-                     ProjectionStrategy projectionStrategy, QueryContextFactory queryContextFactory) {
+    QueryContextImpl(Input input, QueryConsumer queryConsumer, TagStrategyTable tagStrategies,
+                     ProjectionStrategy projectionStrategy, QueryContextFactory queryContextFactory,
+                     StringCache stringCache, ResourceLimits resourceLimits, QueryParameters queryParameters) {
 
         Objects.requireNonNull(input, "input must not be null");
         Objects.requireNonNull(queryConsumer, "queryConsumer must not be null");
         Objects.requireNonNull(tagStrategies, "tagStrategies must not be null");
         Objects.requireNonNull(projectionStrategy, "projectionStrategy must not be null");
         Objects.requireNonNull(queryContextFactory, "queryContextFactory must not be null");
+        Objects.requireNonNull(resourceLimits, "resourceLimits must not be null");
+        Objects.requireNonNull(queryParameters, "queryParameters must not be null");
         this.input = input;
         this.queryConsumer = queryConsumer;
         this.tagStrategies = tagStrategies;
         this.projectionStrategy = projectionStrategy;
         this.queryContextFactory = queryContextFactory;
+        this.stringCache = stringCache;
+        this.resourceLimits = resourceLimits;
+        this.queryParameters = queryParameters;
     }
 
     @Override
@@ -81,16 +97,26 @@ final class QueryContextImpl
     @Override
     public ValueType valueType(long offset) {
         short head = Decoder.readUInt8(input, offset);
-        if (MajorType.SemanticTag == MajorType.findMajorType(head)) {
-            for (TagStrategy tagStrategy : tagStrategies) {
-                ValueType valueType = tagStrategy.valueType(input, offset);
+        if (MajorType.SemanticTag == HeadTables.majorType(head)) {
+            TagStrategy tagStrategy = tagStrategies.tagStrategy(Decoder.readSemanticTagId(input, offset));
+            if (tagStrategy != null) {
+                ValueType valueType = tagStrategy.valueType();
+                if (valueType != null) {
+                    return valueType;
+                }
+                return tagStrategy.valueType(input, offset);
+            }
+
+            // Strategies not bound to a single tag id
+            for (int i = 0; i < tagStrategies.size(); i++) {
+                ValueType valueType = tagStrategies.get(i).valueType(input, offset);
                 if (valueType != ValueTypes.Unknown) {
                     return valueType;
                 }
             }
             return ValueTypes.Unknown;
         }
-        return ValueTypes.valueType(input, offset);
+        return HeadTables.valueType(head);
     }
 
     @Override
@@ -108,6 +134,33 @@ final class QueryContextImpl
         return queryContextFactory;
     }
 
+    @Override
+    public StringCache stringCache() {
+        return stringCache;
+    }
+
+    @Override
+    public ResourceLimits resourceLimits() {
+        return resourceLimits;
+    }
+
+    @Override
+    public QueryParameters queryParameters() {
+        return queryParameters;
+    }
+
+    @Override
+    public void trackBytesScanned(long bytes, long offset) {
+        bytesScanned += bytes;
+        resourceLimits.checkBytesScanned(bytesScanned, offset);
+    }
+
+    @Override
+    public void trackMaterializedElements(long elements, long offset) {
+        materializedElements += elements;
+        resourceLimits.checkMaterializedElements(materializedElements, offset);
+    }
+
     @Override
     public boolean consume(long offset) {
         return queryConsumer.accept(offset, this);
@@ -156,6 +209,14 @@ final class QueryContextImpl
     }
 
     private <S, V> TagStrategy<S, V> findProcessor(long offset) {
+        if (MajorType.SemanticTag == Decoder.getMajorType(offset, input)) {
+            TagStrategy tagStrategy = tagStrategies.tagStrategy(Decoder.readSemanticTagId(input, offset));
+            if (tagStrategy != null) {
+                return (TagStrategy<S, V>) tagStrategy;
+            }
+        }
+
+        // Strategies not bound to a single tag id
         for (int i = 0; i < tagStrategies.size(); i++) {
             TagStrategy tagStrategy = tagStrategies.get(i);
             if (tagStrategy.handles(input, offset)) {
@@ -163,8 +163,9 @@ public final class SequenceImpl
         Objects.requireNonNull(queryContext, "queryContext must not be null");
         Input input = queryContext.input();
         long headByteSize = ByteSizes.headByteSize(input, offset);
-        long size = ElementCounts.sequenceElementCount(input, offset);
-        long[][] elementIndexes = Decoder.readElementIndexes(input, offset + headByteSize, size);
+        long size = ElementCounts.sequenceElementCount(input, offset, queryContext.resourceLimits());
+        queryContext.trackMaterializedElements(size, offset);
+        long[][] elementIndexes = Decoder.readElementIndexes(offset + headByteSize, size, queryContext);
         return new SequenceImpl(size, elementIndexes, queryContext);
     }
 
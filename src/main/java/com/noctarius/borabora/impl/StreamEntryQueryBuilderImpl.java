@@ -19,6 +19,7 @@ package com.noctarius.borabora.impl;
 import com.noctarius.borabora.Value;
 import com.noctarius.borabora.builder.query.DictionaryQueryBuilder;
 import com.noctarius.borabora.builder.query.EntryQueryBuilder;
+import com.noctarius.borabora.builder.query.FilterQueryBuilder;
 import com.noctarius.borabora.builder.query.SequenceQueryBuilder;
 import com.noctarius.borabora.builder.query.StreamEntryQueryBuilder;
 import com.noctarius.borabora.impl.query.stages.AsDictionaryProjectionQueryStage;
@@ -81,6 +82,14 @@ class StreamEntryQueryBuilderImpl<T>
         return this;
     }
 
+    @Override
+    public EntryQueryBuilder<T> parallelSequenceMatch(Predicate<Value> predicate) {
+        Tracer.traceInfo("StreamEntryQueryBuilderImpl#parallelSequenceMatch", this);
+        Objects.requireNonNull(predicate, "predicate must not be null");
+        parallelSequenceMatch0(predicate);
+        return this;
+    }
+
     @Override
     public EntryQueryBuilder<T> sequence(long index) {
         Tracer.traceInfo("StreamEntryQueryBuilderImpl#sequence", this);
@@ -88,6 +97,12 @@ class StreamEntryQueryBuilderImpl<T>
         return this;
     }
 
+    @Override
+    public FilterQueryBuilder<EntryQueryBuilder<T>> sequenceFilter() {
+        Tracer.traceCall("StreamEntryQueryBuilderImpl#sequenceFilter", this);
+        return new FilterQueryBuilderImpl<>(this);
+    }
+
     @Override
     public EntryQueryBuilder<T> dictionary(Predicate<Value> predicate) {
         Tracer.traceInfo("StreamEntryQueryBuilderImpl#dictionary", this);
@@ -134,4 +149,33 @@ class StreamEntryQueryBuilderImpl<T>
         return this;
     }
 
+    @Override
+    public EntryQueryBuilder<T> filter(Predicate<Value> predicate) {
+        Tracer.traceInfo("StreamEntryQueryBuilderImpl#filter", this);
+        Objects.requireNonNull(predicate, "predicate must not be null");
+        filter0(predicate);
+        return this;
+    }
+
+    @Override
+    public EntryQueryBuilder<T> sequenceParameter(int parameterIndex) {
+        Tracer.traceInfo("StreamEntryQueryBuilderImpl#sequenceParameter", this);
+        sequenceParameter0(parameterIndex);
+        return this;
+    }
+
+    @Override
+    public EntryQueryBuilder<T> dictionaryParameter(int parameterIndex) {
+        Tracer.traceInfo("StreamEntryQueryBuilderImpl#dictionaryParameter", this);
+        dictionaryParameter0(parameterIndex);
+        return this;
+    }
+
+    @Override
+    public EntryQueryBuilder<T> embeddedCbor() {
+        Tracer.traceInfo("StreamEntryQueryBuilderImpl#embeddedCbor", this);
+        embeddedCbor0();
+        return this;
+    }
+
 }
@@ -40,6 +40,25 @@ public final class BTreeFactories {
         };
     }
 
+    /**
+     * Returns a {@link QueryPipelineFactory} which, after optimization, flattens the pipeline
+     * stage tree into an array based instruction list. The instructions are executed by a loop
+     * with an explicit frame stack instead of mutually recursive visit calls, which keeps the
+     * stack usage of long sibling chains, like large projections, constant. The result is
+     * equivalent to the interpreting pipeline created by {@link #newQueryPipelineFactory()}.
+     *
+     * @return the iterative query pipeline factory
+     */
+    public static QueryPipelineFactory newIterativeQueryPipelineFactory() {
+        return (rootPipelineStage, pipelineStageFactory, queryOptimizerStrategy) -> {
+            // Apply query optimizers
+            rootPipelineStage = queryOptimizerStrategy.optimizeQuery(rootPipelineStage, pipelineStageFactory);
+
+            // Flatten and build query pipeline
+            return new QueryPipelineImpl(IterativePipelineStage.flatten(rootPipelineStage));
+        };
+    }
+
     public static PipelineStageFactory newPipelineStageFactory() {
         return BTreePipelineStage::new;
     }
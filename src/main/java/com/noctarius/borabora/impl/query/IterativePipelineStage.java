@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query;
+
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.impl.query.stages.BaseQueryStage;
+import com.noctarius.borabora.impl.query.stages.ConsumerQueryStage;
+import com.noctarius.borabora.impl.query.stages.DictionaryLookupQueryStage;
+import com.noctarius.borabora.impl.query.stages.SequenceIndexQueryStage;
+import com.noctarius.borabora.impl.query.stages.SequencePathQueryStage;
+import com.noctarius.borabora.impl.query.stages.TypeMatcherQueryStage;
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import static com.noctarius.borabora.spi.io.Constants.OFFSET_CODE_NULL;
+
+/**
+ * The <tt>IterativePipelineStage</tt> is a view onto a single instruction of a pipeline stage
+ * tree which was flattened into arrays. Siblings are evaluated by a loop instead of recursive
+ * calls and the common built-in navigation stages (base, dictionary lookup, sequence index,
+ * type matcher and consumer) descend into their children by pushing a frame onto an explicit
+ * stack. All other stages are evaluated by calling {@link QueryStage#evaluate(PipelineStage,
+ * PipelineStage, QueryContext)}, their calls to {@link #visitChildren(QueryContext)} start a
+ * new loop for the children.
+ * <p>Frames are kept in a per-thread stack shared by all programs, nested loops push their frames
+ * on top of the frames of the calling loop. Executing a program therefore does not allocate.</p>
+ */
+final class IterativePipelineStage
+        implements PipelineStage {
+
+    private static final byte OP_NONE = 0;
+    private static final byte OP_BASE = 1;
+    private static final byte OP_DICTIONARY_LOOKUP = 2;
+    private static final byte OP_SEQUENCE_INDEX = 3;
+    private static final byte OP_TYPE_MATCH = 4;
+    private static final byte OP_CONSUME = 5;
+    private static final byte OP_GENERIC = 6;
+
+    private static final int NO_INSTRUCTION = -1;
+
+    private static final ThreadLocal<FrameStack> FRAME_STACKS = ThreadLocal.withInitial(FrameStack::new);
+
+    private final Program program;
+    private final int index;
+
+    private IterativePipelineStage(Program program, int index) {
+        this.program = program;
+        this.index = index;
+    }
+
+    @Override
+    public VisitResult visit(PipelineStage previousPipelineStage, QueryContext queryContext) {
+        return program.execute(index, previousPipelineStage, queryContext);
+    }
+
+    @Override
+    public VisitResult visitChildren(QueryContext queryContext) {
+        int left = program.lefts[index];
+        if (left != NO_INSTRUCTION) {
+            return program.execute(left, this, queryContext);
+        }
+        return VisitResult.Continue;
+    }
+
+    @Override
+    public QueryStage stage() {
+        return program.stages[index];
+    }
+
+    @Override
+    public PipelineStage left() {
+        return program.pipelineStage(program.lefts[index]);
+    }
+
+    @Override
+    public PipelineStage right() {
+        return program.pipelineStage(program.rights[index]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IterativePipelineStage)) {
+            return false;
+        }
+
+        IterativePipelineStage that = (IterativePipelineStage) o;
+        return BTreePipelineStage.treeEquals(this, that);
+    }
+
+    @Override
+    public int hashCode() {
+        QueryStage stage = stage();
+        int result = left().hashCode();
+        result = 31 * result + right().hashCode();
+        result = 31 * result + (stage != null ? stage.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "IterativePipelineStage{stage=" + stage() + ", left=" + left() + ", right=" + right() + '}';
+    }
+
+    /**
+     * Flattens the given pipeline stage tree into an instruction list and returns the pipeline
+     * stage of the root instruction. The structure of the tree (children and siblings) is
+     * retained.
+     *
+     * @param pipelineStage the (optimized) root pipeline stage to flatten
+     * @return the flattened root pipeline stage
+     */
+    static PipelineStage flatten(PipelineStage pipelineStage) {
+        Objects.requireNonNull(pipelineStage, "pipelineStage must not be null");
+        if (pipelineStage == NIL) {
+            return NIL;
+        }
+        return new Program(pipelineStage).pipelineStage(0);
+    }
+
+    private static final class Program {
+
+        private final byte[] opcodes;
+        private final int[] lefts;
+        private final int[] rights;
+        private final QueryStage[] stages;
+        private final Object[] operands;
+        private final IterativePipelineStage[] pipelineStages;
+        private final int maxDepth;
+
+        private Program(PipelineStage rootPipelineStage) {
+            // Collect all pipeline stages breadth first, the root stage becomes instruction 0
+            List<PipelineStage> nodes = new ArrayList<>();
+            Map<PipelineStage, Integer> indexes = new IdentityHashMap<>();
+            nodes.add(rootPipelineStage);
+            indexes.put(rootPipelineStage, 0);
+            for (int i = 0; i < nodes.size(); i++) {
+                PipelineStage node = nodes.get(i);
+                for (PipelineStage next : new PipelineStage[]{node.left(), node.right()}) {
+                    if (next != NIL && !indexes.containsKey(next)) {
+                        indexes.put(next, nodes.size());
+                        nodes.add(next);
+                    }
+                }
+            }
+
+            int size = nodes.size();
+            this.opcodes = new byte[size];
+            this.lefts = new int[size];
+            this.rights = new int[size];
+            this.stages = new QueryStage[size];
+            this.operands = new Object[size];
+            this.pipelineStages = new IterativePipelineStage[size];
+
+            // Frames are only pushed when descending into children
+            int[] depths = new int[size];
+            int maxDepth = 0;
+            for (int i = 0; i < size; i++) {
+                PipelineStage node = nodes.get(i);
+                QueryStage stage = node.stage();
+                stages[i] = stage;
+                lefts[i] = node.left() == NIL ? NO_INSTRUCTION : indexes.get(node.left());
+                rights[i] = node.right() == NIL ? NO_INSTRUCTION : indexes.get(node.right());
+                pipelineStages[i] = new IterativePipelineStage(this, i);
+                compile(i, stage);
+
+                if (lefts[i] != NO_INSTRUCTION) {
+                    depths[lefts[i]] = depths[i] + 1;
+                    maxDepth = Math.max(maxDepth, depths[i] + 1);
+                }
+                if (rights[i] != NO_INSTRUCTION) {
+                    depths[rights[i]] = depths[i];
+                }
+            }
+            this.maxDepth = maxDepth;
+        }
+
+        private void compile(int index, QueryStage stage) {
+            if (stage == null) {
+                opcodes[index] = OP_NONE;
+                return;
+            }
+
+            // Only exact class matches are inlined, subclasses might return VisitResult.Loop
+            Class<?> stageClass = stage.getClass();
+            if (stageClass == BaseQueryStage.class) {
+                opcodes[index] = OP_BASE;
+            } else if (stageClass == DictionaryLookupQueryStage.class) {
+                opcodes[index] = OP_DICTIONARY_LOOKUP;
+                operands[index] = ((DictionaryLookupQueryStage) stage).predicate();
+            } else if (stageClass == SequenceIndexQueryStage.class) {
+                opcodes[index] = OP_SEQUENCE_INDEX;
+                operands[index] = new long[]{((SequenceIndexQueryStage) stage).sequenceIndex()};
+            } else if (stageClass == SequencePathQueryStage.class) {
+                opcodes[index] = OP_SEQUENCE_INDEX;
+                operands[index] = ((SequencePathQueryStage) stage).sequenceIndexes();
+            } else if (stageClass == TypeMatcherQueryStage.class) {
+                opcodes[index] = OP_TYPE_MATCH;
+            } else if (stageClass == ConsumerQueryStage.class) {
+                opcodes[index] = OP_CONSUME;
+            } else {
+                opcodes[index] = OP_GENERIC;
+            }
+        }
+
+        private PipelineStage pipelineStage(int index) {
+            return index == NO_INSTRUCTION ? NIL : pipelineStages[index];
+        }
+
+        private VisitResult execute(int index, PipelineStage previousPipelineStage, QueryContext queryContext) {
+            if (maxDepth == 0) {
+                return execute(index, previousPipelineStage, queryContext, null, 0);
+            }
+
+            // Reserve the frames of this loop, nested loops reserve theirs above
+            FrameStack frameStack = FRAME_STACKS.get();
+            int base = frameStack.reserve(maxDepth);
+            try {
+                return execute(index, previousPipelineStage, queryContext, frameStack, base);
+            } finally {
+                frameStack.top = base;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private VisitResult execute(int index, PipelineStage previousPipelineStage, QueryContext queryContext,
+                                    FrameStack frameStack, int base) {
+
+            int depth = base;
+
+            while (true) {
+                // A null result descends into the children of the current instruction
+                VisitResult visitResult;
+                switch (opcodes[index]) {
+                    case OP_NONE:
+                        visitResult = VisitResult.Continue;
+                        break;
+
+                    case OP_BASE: {
+                        long offset = queryContext.offset();
+                        long dataOffset = BaseQueryStage.dataOffset(queryContext.input(), offset);
+                        if (dataOffset != offset) {
+                            queryContext.offset(dataOffset);
+                        }
+                        visitResult = null;
+                        break;
+                    }
+
+                    case OP_DICTIONARY_LOOKUP: {
+                        Predicate<Value> predicate = (Predicate<Value>) operands[index];
+                        long offset = DictionaryLookupQueryStage.find(predicate, queryContext);
+                        queryContext.offset(offset);
+                        visitResult = offset == OFFSET_CODE_NULL ? VisitResult.Break : null;
+                        break;
+                    }
+
+                    case OP_SEQUENCE_INDEX: {
+                        long[] sequenceIndexes = (long[]) operands[index];
+                        visitResult = null;
+                        for (long sequenceIndex : sequenceIndexes) {
+                            long offset = SequenceIndexQueryStage.element(sequenceIndex, queryContext);
+                            queryContext.offset(offset);
+                            if (offset == OFFSET_CODE_NULL) {
+                                visitResult = VisitResult.Break;
+                                break;
+                            }
+                        }
+                        break;
+                    }
+
+                    case OP_TYPE_MATCH:
+                        visitResult = ((TypeMatcherQueryStage) stages[index]).matches(queryContext) ? null : VisitResult.Break;
+                        break;
+
+                    case OP_CONSUME:
+                        visitResult = queryContext.consume(queryContext.offset()) ? VisitResult.Continue : VisitResult.Break;
+                        break;
+
+                    default: {
+                        QueryStage stage = stages[index];
+                        PipelineStage pipelineStage = pipelineStages[index];
+                        do {
+                            visitResult = stage.evaluate(previousPipelineStage, pipelineStage, queryContext);
+                        } while (visitResult == VisitResult.Loop);
+                    }
+                }
+
+                if (visitResult == null) {
+                    int left = lefts[index];
+                    if (left != NO_INSTRUCTION) {
+                        // Push a frame and continue with the first child, nested loops may have grown the stack
+                        frameStack.frames[depth++] = index;
+                        previousPipelineStage = pipelineStages[index];
+                        index = left;
+                        continue;
+                    }
+                    visitResult = VisitResult.Continue;
+                }
+
+                // Continue with the next sibling, if none left pop frames until a parent has one
+                while (true) {
+                    // Stop any further execution
+                    if (visitResult == VisitResult.Exit) {
+                        return visitResult;
+                    }
+
+                    int right = rights[index];
+                    if (right != NO_INSTRUCTION) {
+                        previousPipelineStage = pipelineStages[index];
+                        index = right;
+                        break;
+                    }
+
+                    if (depth == base) {
+                        return visitResult;
+                    }
+                    index = frameStack.frames[--depth];
+                }
+            }
+        }
+    }
+
+    private static final class FrameStack {
+        private int[] frames = new int[64];
+        private int top;
+
+        private int reserve(int size) {
+            int base = top;
+            if (base + size > frames.length) {
+                frames = Arrays.copyOf(frames, Math.max(frames.length * 2, base + size));
+            }
+            top = base + size;
+            return base;
+        }
+    }
+
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query;
+
+import com.noctarius.borabora.Query;
+import com.noctarius.borabora.impl.query.stages.BaseQueryStage;
+import com.noctarius.borabora.impl.query.stages.DictionaryLookupQueryStage;
+import com.noctarius.borabora.impl.query.stages.EmbeddedCborQueryStage;
+import com.noctarius.borabora.impl.query.stages.FusedQueryStage;
+import com.noctarius.borabora.impl.query.stages.SequenceIndexQueryStage;
+import com.noctarius.borabora.impl.query.stages.SingleStreamElementQueryStage;
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryPipeline;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static com.noctarius.borabora.spi.query.pipeline.PipelineStage.NIL;
+
+/**
+ * The <tt>MultiQueryPipeline</tt> evaluates multiple queries in a single pass over the same input.
+ * The pipelines of the queries are merged into a prefix trie, pure navigation stages (query base,
+ * stream element, dictionary key and sequence index lookups, embedded CBOR) which are common to
+ * multiple queries are evaluated only once. Whenever the queries diverge, the offset is restored
+ * for every branch. The remaining stages of each query are executed unchanged, and
+ * {@link #currentQueryIndex()} tells the consumer which query a value belongs to.
+ * <p>Queries which are not built by the default query pipeline factory are evaluated as a whole
+ * and parameterized queries are excluded, see {@link #excluded(Query)}.</p>
+ * <p>Instances are stateful and must only be used for a single evaluation at a time.</p>
+ */
+public final class MultiQueryPipeline
+        implements QueryPipeline {
+
+    private final PipelineStage rootPipelineStage;
+
+    private int currentQueryIndex = -1;
+
+    private MultiQueryPipeline(List<Query> queries) {
+        TrieNode root = new TrieNode(null);
+        for (int queryIndex = 0; queryIndex < queries.size(); queryIndex++) {
+            Query query = queries.get(queryIndex);
+            Objects.requireNonNull(query, "queries must not contain null");
+            if (!excluded(query)) {
+                insert(root, queryIndex, query.newQueryPipeline());
+            }
+        }
+        this.rootPipelineStage = root.build(NIL);
+    }
+
+    /**
+     * Returns the index of the query the currently consumed value belongs to.
+     *
+     * @return the index of the current query
+     */
+    public int currentQueryIndex() {
+        return currentQueryIndex;
+    }
+
+    @Override
+    public void evaluate(QueryContext queryContext) {
+        rootPipelineStage.visit(NIL, queryContext);
+    }
+
+    @Override
+    public String printQueryGraph() {
+        return PipelineStagePrinter.printTree(rootPipelineStage);
+    }
+
+    @Override
+    public String toString() {
+        return "MultiQueryPipeline{rootPipelineStage=" + rootPipelineStage + '}';
+    }
+
+    private void insert(TrieNode root, int queryIndex, QueryPipeline queryPipeline) {
+        // Foreign pipelines cannot be split up and are evaluated as a whole
+        if (!(queryPipeline instanceof QueryPipelineImpl)) {
+            root.routes.add(new Route(queryIndex, NIL, queryPipeline));
+            return;
+        }
+
+        // Walk down the shareable prefix of the query
+        TrieNode node = root;
+        PipelineStage pipelineStage = split(((QueryPipelineImpl) queryPipeline).rootPipelineStage());
+        while (pipelineStage != NIL && pipelineStage.right() == NIL && shareable(pipelineStage.stage())) {
+            node = node.child(pipelineStage.stage());
+            pipelineStage = split(pipelineStage.left());
+        }
+        node.routes.add(new Route(queryIndex, pipelineStage, null));
+    }
+
+    private static PipelineStage split(PipelineStage pipelineStage) {
+        // Fused stages are split up again to share their navigation steps
+        if (!(pipelineStage.stage() instanceof FusedQueryStage)) {
+            return pipelineStage;
+        }
+
+        List<QueryStage> fusedStages = ((FusedQueryStage) pipelineStage.stage()).fusedStages();
+        PipelineStage chain = pipelineStage.left();
+        for (int i = fusedStages.size() - 1; i >= 0; i--) {
+            PipelineStage right = i == 0 ? pipelineStage.right() : NIL;
+            chain = new BTreePipelineStage(chain, right, fusedStages.get(i));
+        }
+        return chain;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the given query cannot be evaluated as part of a
+     * <tt>MultiQueryPipeline</tt>. Parameterized queries need their own query context to carry
+     * the bound parameters.
+     *
+     * @param query the query to test
+     * @return true if the query must be evaluated separately, otherwise false
+     */
+    public static boolean excluded(Query query) {
+        return query.parameterCount() > 0;
+    }
+
+    /**
+     * Returns a new <tt>MultiQueryPipeline</tt> instance merging the given queries. Queries
+     * {@link #excluded(Query)} are skipped.
+     *
+     * @param queries the queries to merge
+     * @return the new MultiQueryPipeline instance
+     */
+    public static MultiQueryPipeline newMultiQueryPipeline(List<Query> queries) {
+        Objects.requireNonNull(queries, "queries must not be null");
+        return new MultiQueryPipeline(queries);
+    }
+
+    private static boolean shareable(QueryStage stage) {
+        if (stage == null) {
+            return false;
+        }
+        // Only exact class matches, subclasses might change the semantics
+        Class<?> stageClass = stage.getClass();
+        return stageClass == BaseQueryStage.class //
+                || stageClass == SingleStreamElementQueryStage.class //
+                || stageClass == SequenceIndexQueryStage.class //
+                || stageClass == EmbeddedCborQueryStage.class //
+                || stageClass == DictionaryLookupQueryStage.class;
+    }
+
+    private static boolean sameStage(QueryStage stage, QueryStage other) {
+        if (stage == other) {
+            return true;
+        }
+        if (stage.getClass() != other.getClass()) {
+            return false;
+        }
+        // Predicate based lookups cannot be compared reliably
+        if (stage instanceof DictionaryLookupQueryStage) {
+            Object key = ((DictionaryLookupQueryStage) stage).key();
+            return key != null && key.equals(((DictionaryLookupQueryStage) other).key());
+        }
+        return stage.equals(other);
+    }
+
+    private final class TrieNode {
+        private final QueryStage stage;
+        private final List<TrieNode> children = new ArrayList<>();
+        private final List<Route> routes = new ArrayList<>();
+
+        private TrieNode(QueryStage stage) {
+            this.stage = stage;
+        }
+
+        private TrieNode child(QueryStage stage) {
+            for (TrieNode child : children) {
+                if (sameStage(child.stage, stage)) {
+                    return child;
+                }
+            }
+            TrieNode child = new TrieNode(stage);
+            children.add(child);
+            return child;
+        }
+
+        private PipelineStage build(PipelineStage right) {
+            // Link the branches back to front, routes are visited after the shared children
+            PipelineStage left = NIL;
+            for (int i = routes.size() - 1; i >= 0; i--) {
+                left = routes.get(i).build(left);
+            }
+            for (int i = children.size() - 1; i >= 0; i--) {
+                left = children.get(i).build(left);
+            }
+            return new ForkPipelineStage(left, right, stage);
+        }
+    }
+
+    private final class Route {
+        private final int queryIndex;
+        private final PipelineStage pipelineStage;
+        private final QueryPipeline queryPipeline;
+
+        private Route(int queryIndex, PipelineStage pipelineStage, QueryPipeline queryPipeline) {
+            this.queryIndex = queryIndex;
+            this.pipelineStage = pipelineStage;
+            this.queryPipeline = queryPipeline;
+        }
+
+        private PipelineStage build(PipelineStage right) {
+            return new RoutePipelineStage(pipelineStage, right, new RouteQueryStage(queryIndex, queryPipeline));
+        }
+    }
+
+    private final class RouteQueryStage
+            implements QueryStage {
+
+        private final int queryIndex;
+        private final QueryPipeline queryPipeline;
+
+        private RouteQueryStage(int queryIndex, QueryPipeline queryPipeline) {
+            this.queryIndex = queryIndex;
+            this.queryPipeline = queryPipeline;
+        }
+
+        @Override
+        public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage,
+                                    QueryContext queryContext) {
+
+            currentQueryIndex = queryIndex;
+            if (queryPipeline != null) {
+                queryPipeline.evaluate(queryContext);
+                return VisitResult.Continue;
+            }
+            return pipelineStage.visitChildren(queryContext);
+        }
+
+        @Override
+        public String toString() {
+            return "QUERY[ " + queryIndex + " ]";
+        }
+    }
+
+    /**
+     * A branch of the trie, siblings are visited by the parent stage, each of them starting at the
+     * same offset.
+     */
+    private static final class ForkPipelineStage
+            implements PipelineStage {
+
+        private final PipelineStage left;
+        private final PipelineStage right;
+        private final QueryStage stage;
+
+        private ForkPipelineStage(PipelineStage left, PipelineStage right, QueryStage stage) {
+            this.left = left;
+            this.right = right;
+            this.stage = stage;
+        }
+
+        @Override
+        public VisitResult visit(PipelineStage previousPipelineStage, QueryContext queryContext) {
+            if (stage == null) {
+                return visitChildren(queryContext);
+            }
+            return stage.evaluate(previousPipelineStage, this, queryContext);
+        }
+
+        @Override
+        public VisitResult visitChildren(QueryContext queryContext) {
+            long offset = queryContext.offset();
+            for (PipelineStage child = left; child != NIL; child = child.right()) {
+                queryContext.offset(offset);
+                if (child.visit(this, queryContext) == VisitResult.Exit) {
+                    return VisitResult.Exit;
+                }
+            }
+            return VisitResult.Continue;
+        }
+
+        @Override
+        public QueryStage stage() {
+            return stage;
+        }
+
+        @Override
+        public PipelineStage left() {
+            return left;
+        }
+
+        @Override
+        public PipelineStage right() {
+            return right;
+        }
+
+        @Override
+        public String toString() {
+            return "ForkPipelineStage{stage=" + stage + ", left=" + left + ", right=" + right + '}';
+        }
+    }
+
+    /**
+     * The entry into the unshared remainder of a query, the remainder is evaluated unchanged.
+     */
+    private static final class RoutePipelineStage
+            implements PipelineStage {
+
+        private final PipelineStage left;
+        private final PipelineStage right;
+        private final QueryStage stage;
+
+        private RoutePipelineStage(PipelineStage left, PipelineStage right, QueryStage stage) {
+            this.left = left;
+            this.right = right;
+            this.stage = stage;
+        }
+
+        @Override
+        public VisitResult visit(PipelineStage previousPipelineStage, QueryContext queryContext) {
+            return stage.evaluate(previousPipelineStage, this, queryContext);
+        }
+
+        @Override
+        public VisitResult visitChildren(QueryContext queryContext) {
+            if (left != NIL) {
+                return left.visit(this, queryContext);
+            }
+            return VisitResult.Continue;
+        }
+
+        @Override
+        public QueryStage stage() {
+            return stage;
+        }
+
+        @Override
+        public PipelineStage left() {
+            return left;
+        }
+
+        @Override
+        public PipelineStage right() {
+            return right;
+        }
+
+        @Override
+        public String toString() {
+            return "RoutePipelineStage{stage=" + stage + ", left=" + left + ", right=" + right + '}';
+        }
+    }
+
+}
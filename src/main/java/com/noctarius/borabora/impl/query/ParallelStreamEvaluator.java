@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.impl.query.stages.BaseQueryStage;
+import com.noctarius.borabora.impl.query.stages.MultiStreamElementQueryStage;
+import com.noctarius.borabora.spi.io.Constants;
+import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.query.QueryConsumer;
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryPipeline;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.noctarius.borabora.spi.query.pipeline.PipelineStage.NIL;
+
+/**
+ * The <tt>ParallelStreamEvaluator</tt> evaluates multi stream queries (<tt>$</tt>) in parallel. A
+ * boundary-discovery pass on the calling thread skips over the top-level stream elements and
+ * partitions the stream into ranges of up to {@value #RANGE_ELEMENTS} elements or
+ * {@value #RANGE_BYTES} bytes. Ranges are handed to the {@link Executor} while the discovery pass
+ * proceeds, each one being evaluated with its own {@link QueryContext}. The number of ranges in
+ * flight is bounded to a small multiple of the executor's parallelism.
+ * <p>In ordered mode the values of a range are buffered and passed to the consumer on the calling
+ * thread, in stream order. Otherwise values are passed from the executing threads as soon as they
+ * are found and the consumer must be thread-safe.</p>
+ * <p>If the evaluation of an element stops the stream in ordered mode, values of later elements are
+ * dropped, even if their ranges were already evaluated. In unordered mode stopping is best-effort,
+ * other threads may still pass values of later elements until they observe the stop. If the
+ * evaluation fails, all ranges in flight are awaited before the exception is rethrown, no value is
+ * passed to the consumer afterwards.</p>
+ * <p>Resource limits are applied per range, the discovery pass is accounted separately.</p>
+ */
+public final class ParallelStreamEvaluator {
+
+    static final int RANGE_ELEMENTS = 1024;
+    static final long RANGE_BYTES = 1024 * 1024;
+
+    private static final int RANGES_PER_THREAD = 4;
+
+    private final PipelineStage streamPipelineStage;
+    private final Function<QueryConsumer, QueryContext> queryContextFactory;
+
+    private ParallelStreamEvaluator(PipelineStage streamPipelineStage,
+                                    Function<QueryConsumer, QueryContext> queryContextFactory) {
+
+        this.streamPipelineStage = streamPipelineStage;
+        this.queryContextFactory = queryContextFactory;
+    }
+
+    /**
+     * Evaluates the query against the input of the created query contexts. The method returns
+     * after all values have been passed to the given <tt>consumer</tt>. If the evaluation of a range
+     * fails, no further ranges are started and the exception is rethrown.
+     *
+     * @param consumer the consumer to pass the matched values to
+     * @param executor the executor to evaluate the ranges on
+     * @param ordered  true to pass values in stream order on the calling thread, otherwise false
+     */
+    public void evaluate(Consumer<Value> consumer, Executor executor, boolean ordered) {
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        Objects.requireNonNull(executor, "executor must not be null");
+
+        QueryContext queryContext = queryContextFactory.apply(Constants.EMPTY_QUERY_CONSUMER);
+        Input input = queryContext.input();
+
+        int maxRangesInFlight = parallelism(executor) * RANGES_PER_THREAD;
+        Deque<Range> rangesInFlight = new ArrayDeque<>();
+        Evaluation evaluation = new Evaluation();
+        try {
+            long offset = BaseQueryStage.dataOffset(input, queryContext.offset());
+            while (!evaluation.stopped(offset) && input.offsetValid(offset)) {
+                long startOffset = offset;
+                int elements = 0;
+                do {
+                    offset = Decoder.skip(offset, queryContext);
+                } while (++elements < RANGE_ELEMENTS && offset - startOffset < RANGE_BYTES && input.offsetValid(offset));
+
+                long endOffset = offset;
+                rangesInFlight.add(new Range(startOffset, CompletableFuture.supplyAsync(
+                        () -> evaluateRange(startOffset, endOffset, consumer, ordered, evaluation), executor)));
+
+                if (rangesInFlight.size() >= maxRangesInFlight) {
+                    deliver(rangesInFlight.poll(), consumer, evaluation);
+                }
+            }
+
+            while (!rangesInFlight.isEmpty()) {
+                deliver(rangesInFlight.poll(), consumer, evaluation);
+            }
+
+        } catch (RuntimeException | Error e) {
+            evaluation.failed = true;
+            // Running ranges observe the failure at their next element, wait for them to not pass
+            // values to the consumer after returning
+            awaitQuietly(rangesInFlight);
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a new <tt>ParallelStreamEvaluator</tt> for the given query pipeline. If the pipeline
+     * does not start with a multi stream stage (<tt>$</tt>), nothing can be parallelized and
+     * <tt>null</tt> is returned.
+     *
+     * @param queryPipeline       the query pipeline to evaluate
+     * @param queryContextFactory the factory creating a query context for a given query consumer
+     * @return the new parallel evaluator or null if the query cannot be evaluated in parallel
+     */
+    public static ParallelStreamEvaluator newParallelStreamEvaluator(QueryPipeline queryPipeline,
+                                                                     Function<QueryConsumer, QueryContext> queryContextFactory) {
+
+        Objects.requireNonNull(queryPipeline, "queryPipeline must not be null");
+        Objects.requireNonNull(queryContextFactory, "queryContextFactory must not be null");
+        PipelineStage streamPipelineStage = streamPipelineStage(queryPipeline);
+        return streamPipelineStage == null ? null : new ParallelStreamEvaluator(streamPipelineStage, queryContextFactory);
+    }
+
+    private List<Value> evaluateRange(long startOffset, long endOffset, Consumer<Value> consumer, boolean ordered,
+                                      Evaluation evaluation) {
+
+        List<Value> values = ordered ? new ArrayList<>() : null;
+        long[] elementOffset = {startOffset};
+        QueryContext queryContext = queryContextFactory.apply((value) -> {
+            if (ordered) {
+                values.add(value);
+            } else if (!evaluation.stopped(elementOffset[0])) {
+                consumer.accept(value);
+            }
+            return true;
+        });
+
+        long offset = startOffset;
+        while (offset < endOffset && !evaluation.stopped(offset)) {
+            elementOffset[0] = offset;
+            queryContext.offset(offset);
+            VisitResult visitResult = MultiStreamElementQueryStage.visitElement(streamPipelineStage, queryContext);
+            if (visitResult == VisitResult.Exit || visitResult == VisitResult.Break) {
+                evaluation.stopAt(offset);
+                break;
+            }
+            offset = Decoder.skip(offset, queryContext);
+        }
+        return values;
+    }
+
+    private static void deliver(Range range, Consumer<Value> consumer, Evaluation evaluation) {
+        List<Value> values;
+        try {
+            values = range.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+
+        // Ranges after the element which stopped the stream were evaluated speculatively
+        if (values != null && !evaluation.stopped(range.startOffset)) {
+            values.forEach(consumer);
+        }
+    }
+
+    private static void awaitQuietly(Deque<Range> rangesInFlight) {
+        for (Range range : rangesInFlight) {
+            try {
+                range.future.join();
+            } catch (CompletionException | CancellationException e) {
+                // Only the first failure is reported
+            }
+        }
+    }
+
+    private static int parallelism(Executor executor) {
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static PipelineStage streamPipelineStage(QueryPipeline queryPipeline) {
+        if (!(queryPipeline instanceof QueryPipelineImpl)) {
+            return null;
+        }
+
+        PipelineStage rootPipelineStage = ((QueryPipelineImpl) queryPipeline).rootPipelineStage();
+        if (!(rootPipelineStage.stage() instanceof BaseQueryStage) || rootPipelineStage.right() != NIL) {
+            return null;
+        }
+
+        PipelineStage streamPipelineStage = rootPipelineStage.left();
+        if (streamPipelineStage == NIL || streamPipelineStage.right() != NIL
+                || !(streamPipelineStage.stage() instanceof MultiStreamElementQueryStage)) {
+            return null;
+        }
+        return streamPipelineStage;
+    }
+
+    private static final class Range {
+        private final long startOffset;
+        private final CompletableFuture<List<Value>> future;
+
+        private Range(long startOffset, CompletableFuture<List<Value>> future) {
+            this.startOffset = startOffset;
+            this.future = future;
+        }
+    }
+
+    private static final class Evaluation {
+        // Offset of the first element which stopped the stream
+        private final AtomicLong stopOffset = new AtomicLong(Long.MAX_VALUE);
+        private volatile boolean failed;
+
+        private boolean stopped(long offset) {
+            return failed || offset > stopOffset.get();
+        }
+
+        private void stopAt(long offset) {
+            stopOffset.accumulateAndGet(offset, Math::min);
+        }
+    }
+
+}
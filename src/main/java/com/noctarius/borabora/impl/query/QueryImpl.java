@@ -17,18 +17,40 @@
 package com.noctarius.borabora.impl.query;
 
 import com.noctarius.borabora.Query;
+import com.noctarius.borabora.spi.query.QueryParameters;
+import com.noctarius.borabora.spi.query.pipeline.ParameterizedQueryStage;
 import com.noctarius.borabora.spi.query.pipeline.QueryPipeline;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 public final class QueryImpl
         implements Query {
 
+    private static final ParameterizedQueryStage[] NO_PARAMETER_STAGES = new ParameterizedQueryStage[0];
+
     private final QueryPipeline queryPipeline;
+    private final ParameterizedQueryStage[] parameterStages;
+    private final QueryParameters queryParameters;
+    private final Object[] arguments;
 
     public QueryImpl(QueryPipeline queryPipeline) {
+        this(queryPipeline, NO_PARAMETER_STAGES);
+    }
+
+    public QueryImpl(QueryPipeline queryPipeline, ParameterizedQueryStage[] parameterStages) {
+        this(queryPipeline, parameterStages, QueryParameters.EMPTY, null);
+    }
+
+    private QueryImpl(QueryPipeline queryPipeline, ParameterizedQueryStage[] parameterStages,
+                      QueryParameters queryParameters, Object[] arguments) {
+
         Objects.requireNonNull(queryPipeline, "queryPipeline must not be null");
+        Objects.requireNonNull(parameterStages, "parameterStages must not be null");
         this.queryPipeline = queryPipeline;
+        this.parameterStages = parameterStages;
+        this.queryParameters = queryParameters;
+        this.arguments = arguments;
     }
 
     @Override
@@ -42,19 +64,55 @@ public final class QueryImpl
 
         QueryImpl query = (QueryImpl) o;
 
-        return queryPipeline.equals(query.queryPipeline);
+        return queryPipeline.equals(query.queryPipeline) && Arrays.equals(arguments, query.arguments);
     }
 
     @Override
     public int hashCode() {
-        return queryPipeline.hashCode();
+        return 31 * queryPipeline.hashCode() + Arrays.hashCode(arguments);
     }
 
     @Override
     public String toString() {
+        if (arguments != null) {
+            return "Query{" + "queryPipeline=" + queryPipeline + ", arguments=" + Arrays.toString(arguments) + '}';
+        }
         return "Query{" + "queryPipeline=" + queryPipeline + '}';
     }
 
+    @Override
+    public int parameterCount() {
+        return parameterStages.length;
+    }
+
+    @Override
+    public Query bind(Object... arguments) {
+        Objects.requireNonNull(arguments, "arguments must not be null");
+        if (arguments.length != parameterStages.length) {
+            throw new IllegalArgumentException(
+                    "Query expects " + parameterStages.length + " parameters but " + arguments.length + " were given");
+        }
+
+        if (arguments.length == 0) {
+            // Nothing to bind, keep the query equal to the unbound one
+            return new QueryImpl(queryPipeline, parameterStages);
+        }
+
+        // Prepare the arguments once, e.g. key matchers, to be shared by all executions
+        Object[] values = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            values[i] = parameterStages[i].bindParameter(arguments[i]);
+        }
+
+        QueryParameters queryParameters = QueryParameters.newQueryParameters(values);
+        return new QueryImpl(queryPipeline, parameterStages, queryParameters, arguments.clone());
+    }
+
+    @Override
+    public QueryParameters queryParameters() {
+        return queryParameters;
+    }
+
     @Override
     public QueryPipeline newQueryPipeline() {
         return queryPipeline;
@@ -39,6 +39,10 @@ class QueryPipelineImpl
         rootPipelineStage.visit(NIL, queryContext);
     }
 
+    PipelineStage rootPipelineStage() {
+        return rootPipelineStage;
+    }
+
     @Override
     public String printQueryGraph() {
         return PipelineStagePrinter.printTree(rootPipelineStage);
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.optimizer;
+
+import com.noctarius.borabora.impl.query.stages.ParallelSequenceMatcherQueryStage;
+import com.noctarius.borabora.impl.query.stages.SequenceMatcherQueryStage;
+import com.noctarius.borabora.spi.query.optimizer.QueryOptimizer;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStageFactory;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+import static com.noctarius.borabora.spi.query.pipeline.PipelineStage.NIL;
+
+/**
+ * The <tt>ParallelSequenceMatchQueryOptimizer</tt> replaces all {@link SequenceMatcherQueryStage}s
+ * of a query with {@link ParallelSequenceMatcherQueryStage}s, which test the elements of sequences
+ * of at least <tt>threshold</tt> elements concurrently on the given {@link Executor}.
+ */
+public final class ParallelSequenceMatchQueryOptimizer
+        implements QueryOptimizer {
+
+    private final long threshold;
+    private final Executor executor;
+
+    public ParallelSequenceMatchQueryOptimizer(long threshold, Executor executor) {
+        Objects.requireNonNull(executor, "executor must not be null");
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        this.threshold = threshold;
+        this.executor = executor;
+    }
+
+    @Override
+    public PipelineStage optimize(PipelineStage rootPipelineStage, PipelineStageFactory pipelineStageFactory) {
+        if (rootPipelineStage == NIL) {
+            return NIL;
+        }
+
+        PipelineStage left = optimize(rootPipelineStage.left(), pipelineStageFactory);
+        PipelineStage right = optimize(rootPipelineStage.right(), pipelineStageFactory);
+
+        QueryStage stage = rootPipelineStage.stage();
+        if (stage != null && stage.getClass() == SequenceMatcherQueryStage.class) {
+            stage = new ParallelSequenceMatcherQueryStage(((SequenceMatcherQueryStage) stage).predicate(), threshold, executor);
+        }
+
+        if (left == rootPipelineStage.left() && right == rootPipelineStage.right() && stage == rootPipelineStage.stage()) {
+            return rootPipelineStage;
+        }
+        return pipelineStageFactory.newPipelineStage(left, right, stage);
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelSequenceMatchQueryOptimizer{threshold=" + threshold + '}';
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.optimizer;
+
+import com.noctarius.borabora.spi.query.optimizer.QueryOptimizer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The <tt>QueryOptimizers</tt> class provides the built-in set of {@link QueryOptimizer}s, which
+ * is applied to all queries unless disabled by
+ * {@link com.noctarius.borabora.builder.ParserBuilder#withDefaultQueryOptimizers(boolean)}.
+ */
+public final class QueryOptimizers {
+
+    private static final List<QueryOptimizer> DEFAULT_QUERY_OPTIMIZERS = Collections.unmodifiableList(
+            Arrays.asList(RedundantTypeCheckQueryOptimizer.INSTANCE, StageFusionQueryOptimizer.INSTANCE));
+
+    private QueryOptimizers() {
+    }
+
+    /**
+     * Returns the built-in {@link QueryOptimizer}s in the order they are applied: redundant type
+     * matches are removed first, afterwards chains of stages are fused.
+     *
+     * @return the built-in query optimizers
+     */
+    public static List<QueryOptimizer> defaultQueryOptimizers() {
+        return DEFAULT_QUERY_OPTIMIZERS;
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.optimizer;
+
+import com.noctarius.borabora.impl.query.stages.TypeMatcherQueryStage;
+import com.noctarius.borabora.spi.query.optimizer.QueryOptimizer;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStageFactory;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+
+import static com.noctarius.borabora.impl.query.optimizer.StageFusionQueryOptimizer.is;
+import static com.noctarius.borabora.impl.query.optimizer.StageFusionQueryOptimizer.onlyChild;
+import static com.noctarius.borabora.spi.query.pipeline.PipelineStage.NIL;
+
+/**
+ * The <tt>RedundantTypeCheckQueryOptimizer</tt> removes type matches which are implied by the
+ * directly preceding type match, like <tt>-&gt;int-&gt;?number</tt>. Whenever an element passes
+ * the first type match, it also passes the second one, no matter if the type is required or not.
+ */
+public final class RedundantTypeCheckQueryOptimizer
+        implements QueryOptimizer {
+
+    public static final QueryOptimizer INSTANCE = new RedundantTypeCheckQueryOptimizer();
+
+    private RedundantTypeCheckQueryOptimizer() {
+    }
+
+    @Override
+    public PipelineStage optimize(PipelineStage rootPipelineStage, PipelineStageFactory pipelineStageFactory) {
+        if (rootPipelineStage == NIL) {
+            return NIL;
+        }
+
+        PipelineStage left = optimize(rootPipelineStage.left(), pipelineStageFactory);
+        PipelineStage right = optimize(rootPipelineStage.right(), pipelineStageFactory);
+        QueryStage stage = rootPipelineStage.stage();
+
+        if (is(stage, TypeMatcherQueryStage.class)) {
+            TypeMatcherQueryStage typeMatcherQueryStage = (TypeMatcherQueryStage) stage;
+            while (onlyChild(left) && is(left.stage(), TypeMatcherQueryStage.class) //
+                    && implies(typeMatcherQueryStage, (TypeMatcherQueryStage) left.stage())) {
+                left = left.left();
+            }
+        }
+
+        if (left == rootPipelineStage.left() && right == rootPipelineStage.right()) {
+            return rootPipelineStage;
+        }
+        return pipelineStageFactory.newPipelineStage(left, right, stage);
+    }
+
+    @Override
+    public String toString() {
+        return "RedundantTypeCheckQueryOptimizer";
+    }
+
+    private static boolean implies(TypeMatcherQueryStage first, TypeMatcherQueryStage second) {
+        return first.typeSpec().matches(second.typeSpec());
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.optimizer;
+
+import com.noctarius.borabora.impl.query.stages.ConsumerQueryStage;
+import com.noctarius.borabora.impl.query.stages.DictionaryLookupQueryStage;
+import com.noctarius.borabora.impl.query.stages.FusedDictionaryLookupQueryStage;
+import com.noctarius.borabora.impl.query.stages.SequenceIndexQueryStage;
+import com.noctarius.borabora.impl.query.stages.SequencePathQueryStage;
+import com.noctarius.borabora.impl.query.stages.TypeMatcherQueryStage;
+import com.noctarius.borabora.spi.query.optimizer.QueryOptimizer;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStageFactory;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+
+import static com.noctarius.borabora.spi.query.pipeline.PipelineStage.NIL;
+
+/**
+ * The <tt>StageFusionQueryOptimizer</tt> replaces linear chains of stages with a single fused
+ * stage, to save the pipeline traversal between the stages:
+ * <ul>
+ * <li>a dictionary lookup, followed by an optional type match, which directly consumes the
+ * found value is replaced by a {@link FusedDictionaryLookupQueryStage}</li>
+ * <li>consecutive sequence index lookups are replaced by a {@link SequencePathQueryStage}</li>
+ * </ul>
+ * <p>Only stages of the built-in types are fused, subclasses are kept as is.</p>
+ */
+public final class StageFusionQueryOptimizer
+        implements QueryOptimizer {
+
+    public static final QueryOptimizer INSTANCE = new StageFusionQueryOptimizer();
+
+    private StageFusionQueryOptimizer() {
+    }
+
+    @Override
+    public PipelineStage optimize(PipelineStage rootPipelineStage, PipelineStageFactory pipelineStageFactory) {
+        if (rootPipelineStage == NIL) {
+            return NIL;
+        }
+
+        // Fuse bottom up, chains of children are already fused
+        PipelineStage left = optimize(rootPipelineStage.left(), pipelineStageFactory);
+        PipelineStage right = optimize(rootPipelineStage.right(), pipelineStageFactory);
+        QueryStage stage = rootPipelineStage.stage();
+
+        if (is(stage, DictionaryLookupQueryStage.class)) {
+            DictionaryLookupQueryStage dictionaryLookupQueryStage = (DictionaryLookupQueryStage) stage;
+            PipelineStage child = left;
+            TypeMatcherQueryStage typeMatcherQueryStage = null;
+            if (onlyChild(child) && is(child.stage(), TypeMatcherQueryStage.class)) {
+                typeMatcherQueryStage = (TypeMatcherQueryStage) child.stage();
+                child = child.left();
+            }
+
+            if (onlyChild(child) && child.left() == NIL && is(child.stage(), ConsumerQueryStage.class)) {
+                QueryStage fusedStage = typeMatcherQueryStage == null //
+                        ? new FusedDictionaryLookupQueryStage(dictionaryLookupQueryStage)
+                        : new FusedDictionaryLookupQueryStage(dictionaryLookupQueryStage, typeMatcherQueryStage);
+                return pipelineStageFactory.newPipelineStage(NIL, right, fusedStage);
+            }
+        }
+
+        if (is(stage, SequenceIndexQueryStage.class) && onlyChild(left)) {
+            long sequenceIndex = ((SequenceIndexQueryStage) stage).sequenceIndex();
+            QueryStage childStage = left.stage();
+
+            long[] sequenceIndexes = null;
+            if (is(childStage, SequenceIndexQueryStage.class)) {
+                sequenceIndexes = new long[]{sequenceIndex, ((SequenceIndexQueryStage) childStage).sequenceIndex()};
+
+            } else if (is(childStage, SequencePathQueryStage.class)) {
+                long[] childIndexes = ((SequencePathQueryStage) childStage).sequenceIndexes();
+                sequenceIndexes = new long[childIndexes.length + 1];
+                sequenceIndexes[0] = sequenceIndex;
+                System.arraycopy(childIndexes, 0, sequenceIndexes, 1, childIndexes.length);
+            }
+
+            if (sequenceIndexes != null) {
+                return pipelineStageFactory.newPipelineStage(left.left(), right, new SequencePathQueryStage(sequenceIndexes));
+            }
+        }
+
+        if (left == rootPipelineStage.left() && right == rootPipelineStage.right()) {
+            return rootPipelineStage;
+        }
+        return pipelineStageFactory.newPipelineStage(left, right, stage);
+    }
+
+    @Override
+    public String toString() {
+        return "StageFusionQueryOptimizer";
+    }
+
+    static boolean onlyChild(PipelineStage pipelineStage) {
+        return pipelineStage != NIL && pipelineStage.right() == NIL;
+    }
+
+    static boolean is(QueryStage queryStage, Class<? extends QueryStage> type) {
+        return queryStage != null && queryStage.getClass() == type;
+    }
+
+}
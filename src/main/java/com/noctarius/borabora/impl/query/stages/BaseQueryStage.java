@@ -37,9 +37,24 @@ public class BaseQueryStage
 
     @Override
     public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage, QueryContext queryContext) {
-        Input input = queryContext.input();
         long offset = queryContext.offset();
+        long dataOffset = dataOffset(queryContext.input(), offset);
+        if (dataOffset != offset) {
+            queryContext.offset(dataOffset);
+        }
+
+        return pipelineStage.visitChildren(queryContext);
+    }
 
+    /**
+     * Returns the offset of the first data item, skipping a self-described CBOR header (tag 55799)
+     * at the given <tt>offset</tt> if available.
+     *
+     * @param input  the input to read from
+     * @param offset the offset of the first item
+     * @return the offset of the first data item
+     */
+    public static long dataOffset(Input input, long offset) {
         // Is the first item a semantic tag?
         short head = Decoder.readUInt8(input, offset);
         MajorType majorType = MajorType.findMajorType(head);
@@ -48,11 +63,9 @@ public class BaseQueryStage
             if (tagType.intValue() == TAG_MAGIC_CBOR_HEADER) {
                 // Seems like so skip the header and handle as normal CBOR encoded data
                 offset += ByteSizes.headByteSize(input, offset);
-                queryContext.offset(offset);
             }
         }
-
-        return pipelineStage.visitChildren(queryContext);
+        return offset;
     }
 
     @Override
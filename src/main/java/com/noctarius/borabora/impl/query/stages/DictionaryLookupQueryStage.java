@@ -37,15 +37,47 @@ public class DictionaryLookupQueryStage
 
     protected final Predicate<Value> predicate;
 
+    // Lambda predicates cannot be compared reliably, the key (if known) identifies the lookup
+    private final Object key;
+
     protected DictionaryLookupQueryStage(Predicate<Value> predicate) {
+        this(predicate, null);
+    }
+
+    private DictionaryLookupQueryStage(Predicate<Value> predicate, Object key) {
         Objects.requireNonNull(predicate, "predicate must not be null");
         this.predicate = predicate;
+        this.key = key;
     }
 
     @Override
     public final VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage,
                                       QueryContext queryContext) {
 
+        return lookup(predicate, pipelineStage, queryContext);
+    }
+
+    static VisitResult lookup(Predicate<Value> predicate, PipelineStage pipelineStage, QueryContext queryContext) {
+        long offset = find(predicate, queryContext);
+        queryContext.offset(offset);
+        if (offset == Constants.OFFSET_CODE_NULL) {
+            return VisitResult.Break;
+        }
+
+        return pipelineStage.visitChildren(queryContext);
+    }
+
+    /**
+     * Returns the offset of the value whose key matches <tt>predicate</tt> in the dictionary at the
+     * current offset of the <tt>queryContext</tt> or {@link Constants#OFFSET_CODE_NULL} if no key
+     * matches. The current offset is not changed.
+     *
+     * @param predicate    the key predicate
+     * @param queryContext the current query context
+     * @return the offset of the value, otherwise OFFSET_CODE_NULL
+     * @throws WrongTypeException if the current element is not a dictionary
+     */
+    public static long find(Predicate<Value> predicate, QueryContext queryContext) {
         Input input = queryContext.input();
         long offset = queryContext.offset();
 
@@ -56,15 +88,26 @@ public class DictionaryLookupQueryStage
         }
 
         // Execute the key lookup
-        offset = Decoder.findByDictionaryKey(predicate, offset, queryContext);
-        if (offset == Constants.OFFSET_CODE_NULL) {
-            queryContext.offset(offset);
-            return VisitResult.Break;
-        }
+        return Decoder.findByDictionaryKey(predicate, offset, queryContext);
+    }
 
-        queryContext.offset(offset);
+    /**
+     * Returns the predicate the dictionary keys are matched against.
+     *
+     * @return the key predicate
+     */
+    public Predicate<Value> predicate() {
+        return predicate;
+    }
 
-        return pipelineStage.visitChildren(queryContext);
+    /**
+     * Returns the key of this lookup if the stage was created by one of the key based factory
+     * methods, otherwise <tt>null</tt>.
+     *
+     * @return the lookup key if available, otherwise null
+     */
+    public Object key() {
+        return key;
     }
 
     @Override
@@ -78,12 +121,17 @@ public class DictionaryLookupQueryStage
 
         DictionaryLookupQueryStage that = (DictionaryLookupQueryStage) o;
 
+        // Keyed and predicate-only stages are never equal, otherwise equals wouldn't be transitive
+        if (key != null || that.key != null) {
+            return key != null && that.key != null && key.equals(that.key);
+        }
         return EqualsSupport.equals(predicate, that.predicate);
     }
 
     @Override
     public int hashCode() {
-        return predicate.hashCode();
+        // Must be consistent with equals, which compares keys if available
+        return key != null ? key.hashCode() : predicate.hashCode();
     }
 
     @Override
@@ -93,15 +141,15 @@ public class DictionaryLookupQueryStage
 
     public static DictionaryLookupQueryStage stringMatcher(String key) {
         Objects.requireNonNull(key, "key must not be null");
-        return new DictionaryLookupQueryStage(Predicates.matchString(key));
+        return new DictionaryLookupQueryStage(Predicates.matchString(key), key);
     }
 
     public static DictionaryLookupQueryStage intMatcher(long key) {
-        return new DictionaryLookupQueryStage(Predicates.matchInt(key));
+        return new DictionaryLookupQueryStage(Predicates.matchInt(key), key);
     }
 
     public static DictionaryLookupQueryStage floatMatcher(double key) {
-        return new DictionaryLookupQueryStage(Predicates.matchFloat(key));
+        return new DictionaryLookupQueryStage(Predicates.matchFloat(key), key);
     }
 
     public static DictionaryLookupQueryStage predicateMatcher(Predicate<Value> predicate) {
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.Predicates;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.pipeline.ParameterizedQueryStage;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+
+import java.util.function.Predicate;
+
+public class DictionaryParameterLookupQueryStage
+        implements ParameterizedQueryStage {
+
+    private final int parameterIndex;
+
+    public DictionaryParameterLookupQueryStage(int parameterIndex) {
+        if (parameterIndex < 1) {
+            throw new IllegalArgumentException("parameterIndex must be larger than 0");
+        }
+        this.parameterIndex = parameterIndex;
+    }
+
+    @Override
+    public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage, QueryContext queryContext) {
+        Predicate<Value> predicate = queryContext.queryParameters().parameter(parameterIndex);
+        return DictionaryLookupQueryStage.lookup(predicate, pipelineStage, queryContext);
+    }
+
+    @Override
+    public int parameterIndex() {
+        return parameterIndex;
+    }
+
+    @Override
+    public Object bindParameter(Object argument) {
+        if (argument instanceof String) {
+            return Predicates.matchString((String) argument);
+        }
+        if (argument instanceof Long || argument instanceof Integer //
+                || argument instanceof Short || argument instanceof Byte) {
+
+            return Predicates.matchInt(((Number) argument).longValue());
+        }
+        if (argument instanceof Double || argument instanceof Float) {
+            return Predicates.matchFloat(((Number) argument).doubleValue());
+        }
+        if (argument instanceof Predicate) {
+            return argument;
+        }
+        throw new IllegalArgumentException("Query parameter $" + parameterIndex + " must be a string, integer, "
+                + "floating point number or predicate, found: " + argument);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DictionaryParameterLookupQueryStage)) {
+            return false;
+        }
+
+        DictionaryParameterLookupQueryStage that = (DictionaryParameterLookupQueryStage) o;
+
+        return parameterIndex == that.parameterIndex;
+    }
+
+    @Override
+    public int hashCode() {
+        return parameterIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "DIC_LOOKUP[ $" + parameterIndex + " ]";
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.WrongTypeException;
+import com.noctarius.borabora.spi.io.ByteSizes;
+import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+
+import static com.noctarius.borabora.spi.io.Constants.ADD_INFO_INDEFINITE;
+import static com.noctarius.borabora.spi.io.Constants.OFFSET_CODE_NULL;
+import static com.noctarius.borabora.spi.io.Constants.TAG_ENCCBOR;
+
+public class EmbeddedCborQueryStage
+        implements QueryStage {
+
+    public static final QueryStage INSTANCE = new EmbeddedCborQueryStage();
+
+    protected EmbeddedCborQueryStage() {
+    }
+
+    @Override
+    public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage, QueryContext queryContext) {
+        Input input = queryContext.input();
+        long offset = queryContext.offset();
+
+        short head = Decoder.readUInt8(input, offset);
+        MajorType majorType = MajorType.findMajorType(head);
+        if (majorType != MajorType.SemanticTag || Decoder.readSemanticTagId(input, offset) != TAG_ENCCBOR) {
+            throw new WrongTypeException(offset, "Encountered " + majorType + " when embedded CBOR was expected");
+        }
+
+        // Move offset to the wrapping bytestring
+        offset += ByteSizes.headByteSize(input, offset);
+        head = Decoder.readUInt8(input, offset);
+        majorType = MajorType.findMajorType(head);
+        if (majorType != MajorType.ByteString) {
+            throw new WrongTypeException(offset, "Encountered " + majorType + " when a bytestring was expected");
+        }
+
+        // Chunks are not contiguous and cannot be read in place
+        if (Decoder.additionalInfo(head) == ADD_INFO_INDEFINITE) {
+            throw new WrongTypeException(offset, "Embedded CBOR in indefinite length bytestrings is not supported");
+        }
+
+        if (ByteSizes.stringDataSize(input, offset) == 0) {
+            queryContext.offset(OFFSET_CODE_NULL);
+            return VisitResult.Break;
+        }
+
+        // The embedded data item is part of the same input, continue at the payload's offset
+        queryContext.offset(offset + ByteSizes.headByteSize(input, offset));
+        return pipelineStage.visitChildren(queryContext);
+    }
+
+    @Override
+    public String toString() {
+        return "EMBEDDED_CBOR";
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+
+import java.util.Objects;
+
+import static com.noctarius.borabora.spi.io.Constants.OFFSET_CODE_NULL;
+
+/**
+ * The <tt>FusedDictionaryLookupQueryStage</tt> replaces a dictionary lookup, followed by an
+ * optional type match, which directly consumes the found value.
+ */
+public class FusedDictionaryLookupQueryStage
+        extends FusedQueryStage {
+
+    private final DictionaryLookupQueryStage dictionaryLookupQueryStage;
+    private final TypeMatcherQueryStage typeMatcherQueryStage;
+
+    public FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage dictionaryLookupQueryStage) {
+        super(requireNonNull(dictionaryLookupQueryStage), ConsumerQueryStage.INSTANCE);
+        this.dictionaryLookupQueryStage = dictionaryLookupQueryStage;
+        this.typeMatcherQueryStage = null;
+    }
+
+    public FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage dictionaryLookupQueryStage,
+                                           TypeMatcherQueryStage typeMatcherQueryStage) {
+
+        super(requireNonNull(dictionaryLookupQueryStage), requireNonNull(typeMatcherQueryStage),
+                ConsumerQueryStage.INSTANCE);
+        this.dictionaryLookupQueryStage = dictionaryLookupQueryStage;
+        this.typeMatcherQueryStage = typeMatcherQueryStage;
+    }
+
+    @Override
+    public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage, QueryContext queryContext) {
+        long offset = DictionaryLookupQueryStage.find(dictionaryLookupQueryStage.predicate, queryContext);
+        queryContext.offset(offset);
+        if (offset == OFFSET_CODE_NULL) {
+            return VisitResult.Break;
+        }
+
+        if (typeMatcherQueryStage != null && !typeMatcherQueryStage.matches(queryContext)) {
+            return VisitResult.Break;
+        }
+
+        // Consume the value
+        if (!queryContext.consume(offset)) {
+            return VisitResult.Break;
+        }
+        return VisitResult.Continue;
+    }
+
+    private static <T extends QueryStage> T requireNonNull(T queryStage) {
+        return Objects.requireNonNull(queryStage, "queryStage must not be null");
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The <tt>FusedQueryStage</tt> is the base class of stages replacing a linear chain of stages,
+ * created by the built-in query optimizers. The result of the evaluation is the same as for the
+ * original chain but without visiting every single stage. {@link #fusedStages()} returns the
+ * original chain, for example to split the stage up again.
+ */
+public abstract class FusedQueryStage
+        implements QueryStage {
+
+    private final List<QueryStage> fusedStages;
+
+    protected FusedQueryStage(QueryStage... fusedStages) {
+        this.fusedStages = Collections.unmodifiableList(Arrays.asList(fusedStages));
+    }
+
+    /**
+     * Returns the chain of stages replaced by this stage, in the order of the original pipeline.
+     *
+     * @return the chain of fused stages
+     */
+    public final List<QueryStage> fusedStages() {
+        return fusedStages;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        FusedQueryStage that = (FusedQueryStage) o;
+
+        return fusedStages.equals(that.fusedStages);
+    }
+
+    @Override
+    public int hashCode() {
+        return fusedStages.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return fusedStages.stream().map(String::valueOf).collect(Collectors.joining(" -> ", "FUSED[ ", " ]"));
+    }
+
+}
@@ -40,24 +40,13 @@ public class MultiStreamElementQueryStage
 
         do {
             // Visit children
-            VisitResult visitResult = pipelineStage.visitChildren(queryContext);
-            if (visitResult == VisitResult.Exit) {
+            VisitResult visitResult = visitElement(pipelineStage, queryContext);
+            if (visitResult == VisitResult.Exit || visitResult == VisitResult.Break) {
                 return visitResult;
             }
 
-            if (visitResult == VisitResult.Break) {
-                long itemOffset = queryContext.offset();
-                if (itemOffset == OFFSET_CODE_NULL) {
-                    if (!queryContext.consume(itemOffset)) {
-                        return VisitResult.Break;
-                    }
-                } else {
-                    return visitResult;
-                }
-            }
-
             // Skip the whole item
-            offset = Decoder.skip(input, offset);
+            offset = Decoder.skip(offset, queryContext);
             queryContext.offset(offset);
 
         } while (input.offsetValid(offset));
@@ -65,6 +54,31 @@ public class MultiStreamElementQueryStage
         return VisitResult.Continue;
     }
 
+    /**
+     * Visits the children of the given <tt>pipelineStage</tt> for the stream element at the current
+     * offset of the <tt>queryContext</tt>. Non-matching elements are consumed as <tt>null</tt>.
+     * {@link VisitResult#Break} or {@link VisitResult#Exit} are returned if the evaluation of the
+     * stream must stop, otherwise {@link VisitResult#Continue}.
+     *
+     * @param pipelineStage the pipeline stage of the stream element stage
+     * @param queryContext  the query context positioned at the stream element
+     * @return the visit result of the stream element
+     */
+    public static VisitResult visitElement(PipelineStage pipelineStage, QueryContext queryContext) {
+        VisitResult visitResult = pipelineStage.visitChildren(queryContext);
+        if (visitResult == VisitResult.Exit) {
+            return visitResult;
+        }
+
+        if (visitResult == VisitResult.Break) {
+            long itemOffset = queryContext.offset();
+            if (itemOffset != OFFSET_CODE_NULL || !queryContext.consume(itemOffset)) {
+                return VisitResult.Break;
+            }
+        }
+        return VisitResult.Continue;
+    }
+
     @Override
     public String toString() {
         return "ANY_STREAM_INDEX";
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.Dictionary;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.Sequence;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.ValueType;
+import com.noctarius.borabora.spi.EqualsSupport;
+import com.noctarius.borabora.spi.RelocatableStreamValue;
+import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.QueryContextAware;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import static com.noctarius.borabora.spi.io.Constants.OFFSET_CODE_NULL;
+
+/**
+ * The <tt>NestedPathPredicate</tt> matches a sequence element by a nested path of dictionary
+ * lookups and sequence indexes inside of the element. The path is evaluated in place by the
+ * lookup functions of {@link DictionaryLookupQueryStage} and {@link SequenceIndexQueryStage},
+ * starting at the element's offset, and the value found at the path is matched against the
+ * given predicate. If the tested value is a {@link RelocatableStreamValue}, as passed by the
+ * sequence matchers, it is relocated to the dictionary keys along the path and to the found
+ * value for the test and back afterwards, which keeps scanning large sequences free of
+ * allocations. Elements missing the path or of a different type than expected by the path
+ * never match.
+ */
+public final class NestedPathPredicate
+        implements Predicate<Value> {
+
+    private final List<QueryStage> path;
+    private final Predicate<Value> predicate;
+
+    // The path split into per element arrays, a null key marks a sequence index
+    private final Predicate<Value>[] keys;
+    private final long[] indexes;
+
+    @SuppressWarnings("unchecked")
+    public NestedPathPredicate(List<QueryStage> path, Predicate<Value> predicate) {
+        Objects.requireNonNull(path, "path must not be null");
+        Objects.requireNonNull(predicate, "predicate must not be null");
+        for (QueryStage queryStage : path) {
+            if (queryStage.getClass() != DictionaryLookupQueryStage.class
+                    && queryStage.getClass() != SequenceIndexQueryStage.class) {
+                throw new IllegalArgumentException("Illegal path element: " + queryStage);
+            }
+        }
+        this.path = Collections.unmodifiableList(new ArrayList<>(path));
+        this.predicate = predicate;
+        this.keys = new Predicate[path.size()];
+        this.indexes = new long[path.size()];
+        for (int i = 0; i < keys.length; i++) {
+            QueryStage queryStage = this.path.get(i);
+            if (queryStage instanceof DictionaryLookupQueryStage) {
+                keys[i] = ((DictionaryLookupQueryStage) queryStage).predicate();
+            } else {
+                indexes[i] = ((SequenceIndexQueryStage) queryStage).sequenceIndex();
+            }
+        }
+    }
+
+    /**
+     * Returns the path of dictionary lookups and sequence indexes evaluated against each element.
+     *
+     * @return the path inside of the element
+     */
+    public List<QueryStage> path() {
+        return path;
+    }
+
+    /**
+     * Returns the predicate the value found at the path is matched against.
+     *
+     * @return the value predicate
+     */
+    public Predicate<Value> predicate() {
+        return predicate;
+    }
+
+    @Override
+    public boolean test(Value value) {
+        if (!(value instanceof QueryContextAware)) {
+            return testObjectValue(value);
+        }
+
+        QueryContext queryContext = ((QueryContextAware) value).queryContext();
+
+        // Values of other types are only tested using a new instance
+        if (!(value instanceof RelocatableStreamValue)) {
+            return testStreamValue(value.offset(), new RelocatableStreamValue(), queryContext);
+        }
+
+        RelocatableStreamValue streamValue = (RelocatableStreamValue) value;
+        MajorType elementMajorType = streamValue.majorType();
+        ValueType elementValueType = streamValue.valueType();
+        long elementOffset = streamValue.offset();
+        try {
+            return testStreamValue(elementOffset, streamValue, queryContext);
+
+        } finally {
+            streamValue.relocate(queryContext, elementMajorType, elementValueType, elementOffset);
+        }
+    }
+
+    private boolean testStreamValue(long elementOffset, RelocatableStreamValue streamValue, QueryContext queryContext) {
+        long offset = queryContext.offset();
+        try {
+            long target = find(elementOffset, streamValue, queryContext);
+            if (target == OFFSET_CODE_NULL) {
+                return false;
+            }
+
+            MajorType majorType = MajorType.findMajorType(Decoder.readUInt8(queryContext.input(), target));
+            ValueType valueType = queryContext.valueType(target);
+            streamValue.relocate(queryContext, majorType, valueType, target);
+            return predicate.test(streamValue);
+
+        } finally {
+            queryContext.offset(offset);
+        }
+    }
+
+    private long find(long offset, RelocatableStreamValue streamValue, QueryContext queryContext) {
+        Input input = queryContext.input();
+        for (int i = 0; i < keys.length; i++) {
+            MajorType majorType = MajorType.findMajorType(Decoder.readUInt8(input, offset));
+
+            Predicate<Value> key = keys[i];
+            if (key != null) {
+                if (majorType != MajorType.Dictionary) {
+                    return OFFSET_CODE_NULL;
+                }
+                offset = Decoder.findByDictionaryKey(key, offset, queryContext, streamValue);
+
+            } else {
+                if (majorType != MajorType.Sequence) {
+                    return OFFSET_CODE_NULL;
+                }
+                queryContext.offset(offset);
+                offset = SequenceIndexQueryStage.element(indexes[i], queryContext);
+            }
+
+            if (offset == OFFSET_CODE_NULL) {
+                return OFFSET_CODE_NULL;
+            }
+        }
+        return offset;
+    }
+
+    private boolean testObjectValue(Value value) {
+        for (int i = 0; i < keys.length; i++) {
+            if (value == null) {
+                return false;
+            }
+
+            Predicate<Value> key = keys[i];
+            if (key != null) {
+                if (value.majorType() != MajorType.Dictionary) {
+                    return false;
+                }
+                Dictionary dictionary = value.dictionary();
+                value = dictionary.get(key);
+
+            } else {
+                long sequenceIndex = indexes[i];
+                if (value.majorType() != MajorType.Sequence) {
+                    return false;
+                }
+                Sequence sequence = value.sequence();
+                value = sequenceIndex < sequence.size() ? sequence.get(sequenceIndex) : null;
+            }
+        }
+        return value != null && predicate.test(value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NestedPathPredicate)) {
+            return false;
+        }
+
+        NestedPathPredicate that = (NestedPathPredicate) o;
+        return path.equals(that.path) && EqualsSupport.equals(predicate, that.predicate);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = path.hashCode();
+        result = 31 * result + predicate.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PATH" + path + " -> " + predicate;
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.ValueType;
+import com.noctarius.borabora.spi.EqualsSupport;
+import com.noctarius.borabora.spi.RelocatableStreamValue;
+import com.noctarius.borabora.spi.io.ByteSizes;
+import com.noctarius.borabora.spi.io.Constants;
+import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.QueryContextFactory;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * The <tt>ParallelSequenceMatcherQueryStage</tt> tests the elements of large sequences against
+ * the predicate concurrently. While skipping over the sequence, a checkpoint (the offset of the
+ * first element) is recorded for every range of elements, and the range is handed to the
+ * {@link Executor} right away. Every range is tested using its own {@link QueryContext}, the
+ * matches are merged in sequence order and the children of the stage are visited on the calling
+ * thread.
+ * <p>Sequences with less than <tt>threshold</tt> elements, or elements fitting into a single
+ * range, are matched sequentially. The predicate must be thread-safe.</p>
+ */
+public class ParallelSequenceMatcherQueryStage
+        implements QueryStage {
+
+    public static final long DEFAULT_THRESHOLD = 65536;
+
+    static final int MIN_RANGE_ELEMENTS = 1024;
+
+    private static final int RANGES_PER_THREAD = 4;
+
+    private final Predicate<Value> predicate;
+    private final long threshold;
+    private final Executor executor;
+
+    public ParallelSequenceMatcherQueryStage(Predicate<Value> predicate) {
+        this(predicate, 0, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSequenceMatcherQueryStage(Predicate<Value> predicate, long threshold, Executor executor) {
+        Objects.requireNonNull(predicate, "predicate must not be null");
+        Objects.requireNonNull(executor, "executor must not be null");
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        this.predicate = predicate;
+        this.threshold = threshold;
+        this.executor = executor;
+    }
+
+    @Override
+    public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage, QueryContext queryContext) {
+        long elementCount = SequenceMatcherQueryStage.elementCount(queryContext);
+
+        long rangeElements = Math.max(MIN_RANGE_ELEMENTS, elementCount / (parallelism(executor) * RANGES_PER_THREAD));
+        if (elementCount < threshold || elementCount <= rangeElements) {
+            return SequenceMatcherQueryStage.match(predicate, elementCount, pipelineStage, queryContext);
+        }
+
+        Input input = queryContext.input();
+        long offset = queryContext.offset();
+
+        // Skip sequence header and make element 1 accessible
+        offset += ByteSizes.headByteSize(input, offset);
+
+        // Record a checkpoint per range and start testing while skipping over the sequence
+        AtomicBoolean stop = new AtomicBoolean();
+        List<CompletableFuture<long[]>> ranges = new ArrayList<>();
+        try {
+            for (long index = 0; index < elementCount; index += rangeElements) {
+                long startOffset = offset;
+                int count = (int) Math.min(rangeElements, elementCount - index);
+                ranges.add(CompletableFuture.supplyAsync(() -> matchRange(queryContext, startOffset, count, stop), executor));
+
+                for (int i = 0; i < count; i++) {
+                    offset = Decoder.skip(offset, queryContext);
+                }
+            }
+
+            // Merge matches in sequence order
+            for (CompletableFuture<long[]> range : ranges) {
+                for (long match : join(range)) {
+                    queryContext.offset(match);
+                    VisitResult visitResult = pipelineStage.visitChildren(queryContext);
+                    if (visitResult == VisitResult.Break || visitResult == VisitResult.Exit) {
+                        stop.set(true);
+                        return visitResult;
+                    }
+                }
+            }
+            return VisitResult.Continue;
+
+        } catch (RuntimeException | Error e) {
+            stop.set(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the predicate elements of the sequence are tested against.
+     *
+     * @return the predicate of this stage
+     */
+    public Predicate<Value> predicate() {
+        return predicate;
+    }
+
+    /**
+     * Returns the minimum number of sequence elements to test the elements concurrently.
+     *
+     * @return the minimum number of elements to test concurrently
+     */
+    public long threshold() {
+        return threshold;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ParallelSequenceMatcherQueryStage)) {
+            return false;
+        }
+
+        ParallelSequenceMatcherQueryStage that = (ParallelSequenceMatcherQueryStage) o;
+
+        if (threshold != that.threshold) {
+            return false;
+        }
+        if (!executor.equals(that.executor)) {
+            return false;
+        }
+        return EqualsSupport.equals(predicate, that.predicate);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = predicate.hashCode();
+        result = 31 * result + (int) (threshold ^ (threshold >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PARALLEL_SEQ_MATCH[ " + predicate + " ]";
+    }
+
+    private long[] matchRange(QueryContext queryContext, long offset, int count, AtomicBoolean stop) {
+        // Query contexts are not thread-safe, every range needs its own
+        QueryContextFactory queryContextFactory = queryContext.queryContextFactory();
+        QueryContext rangeQueryContext = queryContextFactory
+                .newQueryContext(queryContext.input(), Constants.EMPTY_QUERY_CONSUMER, queryContext.tagStrategies(),
+                        queryContext.projectionStrategy(), queryContext.stringCache(), queryContext.resourceLimits(),
+                        queryContext.queryParameters());
+
+        Input input = rangeQueryContext.input();
+        long[] matches = new long[16];
+        int size = 0;
+
+        RelocatableStreamValue streamValue = new RelocatableStreamValue();
+        for (int i = 0; i < count && !stop.get(); i++) {
+            short itemHead = Decoder.readUInt8(input, offset);
+            MajorType itemMajorType = MajorType.findMajorType(itemHead);
+            ValueType itemValueType = rangeQueryContext.valueType(offset);
+            streamValue.relocate(rangeQueryContext, itemMajorType, itemValueType, offset);
+
+            if (predicate.test(streamValue)) {
+                if (size == matches.length) {
+                    matches = Arrays.copyOf(matches, size * 2);
+                }
+                matches[size++] = offset;
+            }
+            offset = Decoder.skip(offset, rangeQueryContext);
+        }
+        return Arrays.copyOf(matches, size);
+    }
+
+    private static long[] join(CompletableFuture<long[]> range) {
+        try {
+            return range.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static int parallelism(Executor executor) {
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+}
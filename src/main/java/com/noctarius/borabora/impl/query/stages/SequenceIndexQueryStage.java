@@ -43,6 +43,30 @@ public class SequenceIndexQueryStage
 
     @Override
     public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage, QueryContext queryContext) {
+        return index(sequenceIndex, pipelineStage, queryContext);
+    }
+
+    static VisitResult index(long sequenceIndex, PipelineStage pipelineStage, QueryContext queryContext) {
+        long offset = element(sequenceIndex, queryContext);
+        queryContext.offset(offset);
+        if (offset == OFFSET_CODE_NULL) {
+            return VisitResult.Break;
+        }
+
+        return pipelineStage.visitChildren(queryContext);
+    }
+
+    /**
+     * Returns the offset of the element at <tt>sequenceIndex</tt> of the sequence at the current
+     * offset of the <tt>queryContext</tt> or {@link com.noctarius.borabora.spi.io.Constants#OFFSET_CODE_NULL}
+     * if the sequence has less elements. The current offset is not changed.
+     *
+     * @param sequenceIndex the index of the element
+     * @param queryContext  the current query context
+     * @return the offset of the element, otherwise OFFSET_CODE_NULL
+     * @throws WrongTypeException if the current element is not a sequence
+     */
+    public static long element(long sequenceIndex, QueryContext queryContext) {
         Input input = queryContext.input();
         long offset = queryContext.offset();
 
@@ -54,10 +78,9 @@ public class SequenceIndexQueryStage
         }
 
         // Sequences need head skipped
-        long elementCount = ElementCounts.elementCountByMajorType(majorType, input, offset);
+        long elementCount = ElementCounts.elementCountByMajorType(majorType, input, offset, queryContext.resourceLimits());
         if (elementCount <= sequenceIndex) {
-            queryContext.offset(OFFSET_CODE_NULL);
-            return VisitResult.Break;
+            return OFFSET_CODE_NULL;
         }
 
         // Element access
@@ -65,16 +88,22 @@ public class SequenceIndexQueryStage
         offset += headByteSize;
 
         // Skip items until sequenceIndex
-        offset = skip(input, offset);
-        queryContext.offset(offset);
+        return skip(sequenceIndex, offset, queryContext);
+    }
 
-        return pipelineStage.visitChildren(queryContext);
+    /**
+     * Returns the index of the sequence element selected by this stage.
+     *
+     * @return the sequence index
+     */
+    public long sequenceIndex() {
+        return sequenceIndex;
     }
 
-    private long skip(Input input, long offset) {
+    private static long skip(long sequenceIndex, long offset, QueryContext queryContext) {
         // Skip unnecessary objects
         for (int i = 0; i < sequenceIndex; i++) {
-            offset = Decoder.skip(input, offset);
+            offset = Decoder.skip(offset, queryContext);
         }
         return offset;
     }
@@ -46,6 +46,20 @@ public class SequenceMatcherQueryStage
 
     @Override
     public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage, QueryContext queryContext) {
+        long elementCount = elementCount(queryContext);
+        return match(predicate, elementCount, pipelineStage, queryContext);
+    }
+
+    /**
+     * Returns the predicate elements of the sequence are tested against.
+     *
+     * @return the predicate of this stage
+     */
+    public Predicate<Value> predicate() {
+        return predicate;
+    }
+
+    static long elementCount(QueryContext queryContext) {
         Input input = queryContext.input();
         long offset = queryContext.offset();
 
@@ -57,7 +71,14 @@ public class SequenceMatcherQueryStage
             throw new WrongTypeException(offset, "Encountered " + majorType + " when a sequence was expected");
         }
 
-        long elementCount = ElementCounts.sequenceElementCount(input, offset);
+        return ElementCounts.sequenceElementCount(input, offset, queryContext.resourceLimits());
+    }
+
+    static VisitResult match(Predicate<Value> predicate, long elementCount, PipelineStage pipelineStage,
+                             QueryContext queryContext) {
+
+        Input input = queryContext.input();
+        long offset = queryContext.offset();
 
         // Skip sequence header and make element 1 accessible
         offset += ByteSizes.headByteSize(input, offset);
@@ -78,7 +99,7 @@ public class SequenceMatcherQueryStage
                     return visitResult;
                 }
             }
-            offset += Decoder.length(input, itemMajorType, offset);
+            offset = Decoder.skip(offset, queryContext);
         }
 
         return VisitResult.Continue;
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.pipeline.ParameterizedQueryStage;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+
+public class SequenceParameterIndexQueryStage
+        implements ParameterizedQueryStage {
+
+    private final int parameterIndex;
+
+    public SequenceParameterIndexQueryStage(int parameterIndex) {
+        if (parameterIndex < 1) {
+            throw new IllegalArgumentException("parameterIndex must be larger than 0");
+        }
+        this.parameterIndex = parameterIndex;
+    }
+
+    @Override
+    public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage, QueryContext queryContext) {
+        long sequenceIndex = queryContext.queryParameters().<Long>parameter(parameterIndex);
+        return SequenceIndexQueryStage.index(sequenceIndex, pipelineStage, queryContext);
+    }
+
+    @Override
+    public int parameterIndex() {
+        return parameterIndex;
+    }
+
+    @Override
+    public Object bindParameter(Object argument) {
+        if (argument instanceof Long || argument instanceof Integer //
+                || argument instanceof Short || argument instanceof Byte) {
+
+            long sequenceIndex = ((Number) argument).longValue();
+            if (sequenceIndex >= 0) {
+                return sequenceIndex;
+            }
+        }
+        throw new IllegalArgumentException("Query parameter $" + parameterIndex + " must be a non-negative integer, "
+                + "found: " + argument);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SequenceParameterIndexQueryStage)) {
+            return false;
+        }
+
+        SequenceParameterIndexQueryStage that = (SequenceParameterIndexQueryStage) o;
+
+        return parameterIndex == that.parameterIndex;
+    }
+
+    @Override
+    public int hashCode() {
+        return parameterIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "SEQ_INDEX[ $" + parameterIndex + " ]";
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+
+import static com.noctarius.borabora.spi.io.Constants.OFFSET_CODE_NULL;
+
+/**
+ * The <tt>SequencePathQueryStage</tt> replaces consecutive sequence index lookups into nested
+ * sequences, like <tt>(1)(2)</tt>, with a single stage.
+ */
+public class SequencePathQueryStage
+        extends FusedQueryStage {
+
+    private final long[] sequenceIndexes;
+
+    public SequencePathQueryStage(long... sequenceIndexes) {
+        super(sequenceIndexStages(sequenceIndexes));
+        this.sequenceIndexes = sequenceIndexes.clone();
+    }
+
+    @Override
+    public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage, QueryContext queryContext) {
+        for (long sequenceIndex : sequenceIndexes) {
+            long offset = SequenceIndexQueryStage.element(sequenceIndex, queryContext);
+            queryContext.offset(offset);
+            if (offset == OFFSET_CODE_NULL) {
+                return VisitResult.Break;
+            }
+        }
+
+        return pipelineStage.visitChildren(queryContext);
+    }
+
+    /**
+     * Returns the indexes of the nested sequence elements selected by this stage.
+     *
+     * @return the sequence indexes, outermost first
+     */
+    public long[] sequenceIndexes() {
+        return sequenceIndexes.clone();
+    }
+
+    private static QueryStage[] sequenceIndexStages(long[] sequenceIndexes) {
+        if (sequenceIndexes.length < 2) {
+            throw new IllegalArgumentException("sequenceIndexes must contain at least two indexes");
+        }
+
+        QueryStage[] queryStages = new QueryStage[sequenceIndexes.length];
+        for (int i = 0; i < sequenceIndexes.length; i++) {
+            queryStages[i] = new SequenceIndexQueryStage(sequenceIndexes[i]);
+        }
+        return queryStages;
+    }
+
+}
@@ -44,7 +44,7 @@ public class SingleStreamElementQueryStage
         // Skip unnecessary objects
         if (streamElementIndex > 0) {
             for (int i = 0; i < streamElementIndex; i++) {
-                offset = Decoder.skip(input, offset);
+                offset = Decoder.skip(offset, queryContext);
             }
         }
 
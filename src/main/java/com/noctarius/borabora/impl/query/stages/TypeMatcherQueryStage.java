@@ -45,6 +45,42 @@ public class TypeMatcherQueryStage
 
     @Override
     public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage, QueryContext queryContext) {
+        if (!matches(queryContext)) {
+            return VisitResult.Break;
+        }
+
+        return pipelineStage.visitChildren(queryContext);
+    }
+
+    /**
+     * Returns the type specification elements are matched against.
+     *
+     * @return the type specification of this stage
+     */
+    public TypeSpec typeSpec() {
+        return typeSpec;
+    }
+
+    /**
+     * Returns <tt>true</tt> if a type mismatch fails the query, otherwise <tt>false</tt> if the
+     * mismatching element is replaced by <tt>null</tt>.
+     *
+     * @return true if the type is required, otherwise false
+     */
+    public boolean required() {
+        return required;
+    }
+
+    /**
+     * Matches the element at the current offset of the <tt>queryContext</tt> against the type
+     * specification. An optional mismatch sets the current offset to
+     * {@link com.noctarius.borabora.spi.io.Constants#OFFSET_CODE_NULL}.
+     *
+     * @param queryContext the current query context
+     * @return true if the element matches, otherwise false
+     * @throws WrongTypeException if a required type does not match
+     */
+    public boolean matches(QueryContext queryContext) {
         Input input = queryContext.input();
         long offset = queryContext.offset();
 
@@ -58,10 +94,9 @@ public class TypeMatcherQueryStage
             }
 
             queryContext.offset(OFFSET_CODE_NULL);
-            return VisitResult.Break;
+            return false;
         }
-
-        return pipelineStage.visitChildren(queryContext);
+        return true;
     }
 
     @Override
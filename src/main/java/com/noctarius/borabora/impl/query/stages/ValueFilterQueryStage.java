@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.ValueType;
+import com.noctarius.borabora.spi.EqualsSupport;
+import com.noctarius.borabora.spi.RelocatableStreamValue;
+import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import static com.noctarius.borabora.spi.io.Constants.OFFSET_CODE_NULL;
+
+public class ValueFilterQueryStage
+        implements QueryStage {
+
+    private final Predicate<Value> predicate;
+
+    public ValueFilterQueryStage(Predicate<Value> predicate) {
+        Objects.requireNonNull(predicate, "predicate must not be null");
+        this.predicate = predicate;
+    }
+
+    @Override
+    public VisitResult evaluate(PipelineStage previousPipelineStage, PipelineStage pipelineStage, QueryContext queryContext) {
+        if (!matches(queryContext)) {
+            // Filtered values behave like missing values
+            queryContext.offset(OFFSET_CODE_NULL);
+            return VisitResult.Break;
+        }
+
+        return pipelineStage.visitChildren(queryContext);
+    }
+
+    /**
+     * Returns the predicate the current element is tested against.
+     *
+     * @return the predicate of this stage
+     */
+    public Predicate<Value> predicate() {
+        return predicate;
+    }
+
+    /**
+     * Tests the element at the current offset of the <tt>queryContext</tt> against the predicate.
+     * A missing element never matches.
+     *
+     * @param queryContext the current query context
+     * @return true if the element matches, otherwise false
+     */
+    public boolean matches(QueryContext queryContext) {
+        long offset = queryContext.offset();
+        if (offset == OFFSET_CODE_NULL) {
+            return false;
+        }
+
+        Input input = queryContext.input();
+        short head = Decoder.readUInt8(input, offset);
+        MajorType majorType = MajorType.findMajorType(head);
+        ValueType valueType = queryContext.valueType(offset);
+
+        RelocatableStreamValue streamValue = new RelocatableStreamValue();
+        streamValue.relocate(queryContext, majorType, valueType, offset);
+        return predicate.test(streamValue);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ValueFilterQueryStage)) {
+            return false;
+        }
+
+        ValueFilterQueryStage that = (ValueFilterQueryStage) o;
+
+        return EqualsSupport.equals(predicate, that.predicate);
+    }
+
+    @Override
+    public int hashCode() {
+        return predicate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "FILTER[ " + predicate + " ]";
+    }
+
+}
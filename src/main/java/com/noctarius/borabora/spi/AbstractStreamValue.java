@@ -23,9 +23,11 @@ import com.noctarius.borabora.Sequence;
 import com.noctarius.borabora.ValueTypes;
 import com.noctarius.borabora.spi.io.ByteSizes;
 import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.io.StringInputStream;
 import com.noctarius.borabora.spi.query.QueryContext;
 import com.noctarius.borabora.spi.query.QueryContextAware;
 
+import java.io.InputStream;
 import java.util.function.Supplier;
 
 /**
@@ -48,6 +50,18 @@ public abstract class AbstractStreamValue
                 () -> Decoder.readNumber(input(), valueType(), offset()));
     }
 
+    @Override
+    public long unscaledLong() {
+        matchValueType(valueType(), ValueTypes.Fraction);
+        return Decoder.readFractionUnscaledLong(offset(), queryContext());
+    }
+
+    @Override
+    public int scale() {
+        matchValueType(valueType(), ValueTypes.Fraction);
+        return Decoder.readFractionScale(input(), offset());
+    }
+
     @Override
     public Sequence sequence() {
         return extract(() -> matchValueType(valueType(), ValueTypes.Sequence), //
@@ -65,6 +79,17 @@ public abstract class AbstractStreamValue
         return extract(() -> matchStringValueType(valueType()), () -> Decoder.readString(input(), offset(), queryContext()));
     }
 
+    @Override
+    public CharSequence charSequence() {
+        if (MajorType.SemanticTag == majorType() && ValueTypes.ASCII == valueType()) {
+            // ASCII strings are encoded as a semantic tag and a ByteString
+            long itemOffset = offset() + ByteSizes.intByteSize(input(), offset());
+            return Decoder.readCharSequence(input(), itemOffset, true);
+        }
+        return extract(() -> matchStringValueType(valueType()), //
+                () -> Decoder.readCharSequence(input(), offset(), false));
+    }
+
     @Override
     public Boolean bool() {
         return extract(() -> matchValueType(valueType(), ValueTypes.Bool), () -> Decoder.getBooleanValue(input(), offset()));
@@ -73,7 +98,16 @@ public abstract class AbstractStreamValue
     @Override
     public byte[] bytes() {
         return extract(() -> matchMajorType(majorType(), MajorType.ByteString), //
-                () -> Decoder.extractStringBytes(input(), offset()));
+                () -> Decoder.extractStringBytes(input(), offset(), queryContext().resourceLimits()));
+    }
+
+    @Override
+    public InputStream openStream() {
+        // Null is legal for all types
+        if (Decoder.isNull(Decoder.readUInt8(input(), offset()))) {
+            return null;
+        }
+        return StringInputStream.newStringInputStream(input(), offset());
     }
 
     @Override
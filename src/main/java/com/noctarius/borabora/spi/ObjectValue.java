@@ -23,7 +23,11 @@ import com.noctarius.borabora.Sequence;
 import com.noctarius.borabora.ValueType;
 import com.noctarius.borabora.ValueTypes;
 import com.noctarius.borabora.WrongTypeException;
+import com.noctarius.borabora.spi.io.Constants;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.Objects;
 import java.util.function.Supplier;
 
@@ -82,6 +86,16 @@ public class ObjectValue
         return extract(() -> matchValueType(valueType, ValueTypes.Number), (Supplier<Number>) supplier);
     }
 
+    @Override
+    public long unscaledLong() {
+        return fraction().unscaledValue().longValueExact();
+    }
+
+    @Override
+    public int scale() {
+        return fraction().scale();
+    }
+
     @Override
     public Sequence sequence() {
         return extract(() -> matchValueType(valueType, ValueTypes.Sequence), (Supplier<Sequence>) supplier);
@@ -107,6 +121,21 @@ public class ObjectValue
         return extract(() -> matchMajorType(majorType, MajorType.ByteString), (Supplier<byte[]>) supplier);
     }
 
+    @Override
+    public InputStream openStream() {
+        Object value = supplier.get();
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof byte[]) {
+            return new ByteArrayInputStream((byte[]) value);
+        }
+        if (value instanceof String) {
+            return new ByteArrayInputStream(((String) value).getBytes(Constants.UTF8));
+        }
+        throw new WrongTypeException(offset(), "Current valueType is not a legal string value");
+    }
+
     @Override
     public byte[] raw() {
         throw new WrongTypeException(offset(), "Current valueType is not a legal raw value");
@@ -127,6 +156,10 @@ public class ObjectValue
         return null;
     }
 
+    private BigDecimal fraction() {
+        return extract(() -> matchValueType(valueType, ValueTypes.Fraction), (Supplier<BigDecimal>) supplier);
+    }
+
     @Override
     public String toString() {
         return "ObjectValue{" + "valueType=" + valueType + ", value=" + byValueType() + '}';
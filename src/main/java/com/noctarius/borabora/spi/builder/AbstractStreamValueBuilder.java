@@ -32,13 +32,11 @@ import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.time.Instant;
-import java.time.ZonedDateTime;
 import java.util.Date;
 import java.util.Objects;
 
 import static com.noctarius.borabora.spi.io.Constants.OPCODE_BREAK_MASK;
 import static com.noctarius.borabora.spi.io.Constants.TAG_ASCII_STRING;
-import static com.noctarius.borabora.spi.io.Constants.UTC;
 
 /**
  * The <tt>AbstractStreamValueBuilder</tt> class is an abstract convenience implementation of
@@ -303,8 +301,7 @@ public abstract class AbstractStreamValueBuilder<B>
             encoderContext.encodeNull();
 
         } else {
-            ZonedDateTime atUTC = instant.atZone(UTC);
-            encoderContext.encode((offset, output) -> Encoder.putDateTime(atUTC, offset, output));
+            encoderContext.encode((offset, output) -> Encoder.putDateTime(instant, offset, output));
         }
         return builder;
     }
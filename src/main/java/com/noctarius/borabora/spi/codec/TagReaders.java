@@ -52,8 +52,7 @@ enum TagReaders
     DateTime((valueType, offset, length, queryContext) -> {
         Input input = queryContext.input();
         int byteSize = ByteSizes.intByteSize(input, offset);
-        String date = Decoder.readString(input, offset + byteSize, queryContext);
-        return Decoder.parseDate(date);
+        return Decoder.readDateTime(input, offset + byteSize, queryContext);
     }),
 
     UBigNum((valueType, offset, length, queryContext) -> {
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.codec;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The <tt>TagStrategyTable</tt> is an immutable, ordered list of {@link TagStrategy} instances
+ * which additionally indexes the strategies by their semantic tag id ({@link TagStrategy#tagId()}).
+ * Small tag ids are stored in a dense array, all others in an open addressing hash table with
+ * primitive keys, therefore a lookup neither iterates the strategies nor boxes the tag id.
+ * <p>If multiple strategies announce the same tag id, the first registered one wins, which matches
+ * the order of a linear search over the list.</p>
+ */
+public final class TagStrategyTable
+        extends AbstractList<TagStrategy>
+        implements RandomAccess {
+
+    private static final int DENSE_TABLE_SIZE = 256;
+
+    private final TagStrategy[] tagStrategies;
+    private final TagStrategy[] denseTable = new TagStrategy[DENSE_TABLE_SIZE];
+    private final int[] sparseKeys;
+    private final TagStrategy[] sparseValues;
+    private final int sparseMask;
+
+    private TagStrategyTable(Collection<TagStrategy> tagStrategies) {
+        this.tagStrategies = tagStrategies.toArray(new TagStrategy[0]);
+
+        int sparseCount = 0;
+        for (TagStrategy tagStrategy : this.tagStrategies) {
+            Objects.requireNonNull(tagStrategy, "tagStrategy must not be null");
+            if (tagStrategy.tagId() >= DENSE_TABLE_SIZE) {
+                sparseCount++;
+            }
+        }
+
+        // Keep the load factor at or below 0.5
+        int sparseSize = Integer.highestOneBit(Math.max(1, sparseCount) * 2 - 1) << 1;
+        this.sparseKeys = new int[sparseSize];
+        this.sparseValues = new TagStrategy[sparseSize];
+        this.sparseMask = sparseSize - 1;
+
+        for (TagStrategy tagStrategy : this.tagStrategies) {
+            int tagId = tagStrategy.tagId();
+            if (tagId < 0) {
+                // Not indexable, only reachable by iterating the list
+                continue;
+            }
+            if (tagId < DENSE_TABLE_SIZE) {
+                if (denseTable[tagId] == null) {
+                    denseTable[tagId] = tagStrategy;
+                }
+                continue;
+            }
+            int slot = slot(tagId);
+            while (sparseValues[slot] != null && sparseKeys[slot] != tagId) {
+                slot = (slot + 1) & sparseMask;
+            }
+            if (sparseValues[slot] == null) {
+                sparseKeys[slot] = tagId;
+                sparseValues[slot] = tagStrategy;
+            }
+        }
+    }
+
+    /**
+     * Returns the first registered {@link TagStrategy} for the given semantic <tt>tagId</tt>, or
+     * <tt>null</tt> if no strategy announces this tag id.
+     *
+     * @param tagId the semantic tag id to look up
+     * @return the TagStrategy registered for the tag id, otherwise null
+     */
+    public TagStrategy tagStrategy(int tagId) {
+        if (tagId < 0) {
+            return null;
+        }
+        if (tagId < DENSE_TABLE_SIZE) {
+            return denseTable[tagId];
+        }
+        int slot = slot(tagId);
+        TagStrategy tagStrategy;
+        while ((tagStrategy = sparseValues[slot]) != null) {
+            if (sparseKeys[slot] == tagId) {
+                return tagStrategy;
+            }
+            slot = (slot + 1) & sparseMask;
+        }
+        return null;
+    }
+
+    @Override
+    public TagStrategy get(int index) {
+        return tagStrategies[index];
+    }
+
+    @Override
+    public int size() {
+        return tagStrategies.length;
+    }
+
+    private int slot(int tagId) {
+        int hash = tagId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & sparseMask;
+    }
+
+    /**
+     * Returns a <tt>TagStrategyTable</tt> for the given <tt>tagStrategies</tt>. If the given collection
+     * already is a <tt>TagStrategyTable</tt> it is returned as is.
+     *
+     * @param tagStrategies the TagStrategy instances to index, in registration order
+     * @return the TagStrategyTable instance
+     * @throws NullPointerException if tagStrategies or any of its elements is null
+     */
+    public static TagStrategyTable newTagStrategyTable(Collection<TagStrategy> tagStrategies) {
+        Objects.requireNonNull(tagStrategies, "tagStrategies must not be null");
+        if (tagStrategies instanceof TagStrategyTable) {
+            return (TagStrategyTable) tagStrategies;
+        }
+        return new TagStrategyTable(tagStrategies);
+    }
+
+}
@@ -27,7 +27,6 @@ import java.math.BigInteger;
 import java.net.URI;
 import java.sql.Timestamp;
 import java.time.Instant;
-import java.time.ZonedDateTime;
 import java.util.Date;
 
 enum TagWriters
@@ -43,9 +42,7 @@ enum TagWriters
         if (value instanceof Date) {
             value = ((Date) value).toInstant();
         }
-        Instant instant = (Instant) value;
-        ZonedDateTime zonedDateTime = instant.atZone(Constants.UTC);
-        return Encoder.putDateTime(zonedDateTime, offset, output);
+        return Encoder.putDateTime((Instant) value, offset, output);
     }),
 
     BigNum((value, offset, encoderContext) -> {
@@ -19,8 +19,13 @@ package com.noctarius.borabora.spi.io;
 import com.noctarius.borabora.Input;
 import com.noctarius.borabora.MajorType;
 
+import java.util.Arrays;
+
 public final class ByteSizes {
 
+    private static final int INITIAL_STACK_SIZE = 16;
+    private static final long INDEFINITE = -1;
+
     private ByteSizes() {
     }
 
@@ -51,118 +56,148 @@ public final class ByteSizes {
         }
     }
 
+    public static long byteSizeByHead(Input input, long offset, short head) {
+        // Integers, short strings, empty containers, floats and simple values
+        int fixedByteSize = HeadTables.fixedByteSize(head);
+        if (fixedByteSize != 0) {
+            return fixedByteSize;
+        }
+
+        switch (HeadTables.majorType(head)) {
+            case ByteString:
+            case TextString:
+                return stringByteSize(input, offset, head);
+
+            case Sequence:
+            case Dictionary:
+            case SemanticTag:
+                return nestedByteSize(input, offset, ResourceLimits.UNLIMITED);
+
+            case FloatingPointOrSimple:
+                return floatOrSimpleByteSize(input, offset, head);
+
+            default:
+                // Integers with reserved additional information
+                throw throwUnassigned();
+        }
+    }
+
+    public static long byteSize(Input input, long offset, ResourceLimits resourceLimits) {
+        short head = Bytes.readUInt8(input, offset);
+        int fixedByteSize = HeadTables.fixedByteSize(head);
+        if (fixedByteSize != 0) {
+            checkShortString(head, fixedByteSize, offset, resourceLimits);
+            return fixedByteSize;
+        }
+
+        switch (HeadTables.majorType(head)) {
+            case ByteString:
+            case TextString:
+                long byteSize = stringByteSize(input, offset, head);
+                resourceLimits.checkStringLength(byteSize - HeadTables.headByteSize(head), offset);
+                return byteSize;
+
+            case Sequence:
+            case Dictionary:
+            case SemanticTag:
+                return nestedByteSize(input, offset, resourceLimits);
+
+            case FloatingPointOrSimple:
+                return floatOrSimpleByteSize(input, offset, head);
+
+            default:
+                // Integers with reserved additional information
+                throw throwUnassigned();
+        }
+    }
+
     public static int intByteSize(Input input, long offset) {
         return headByteSize(input, offset);
     }
 
     public static long sequenceByteSize(Input input, long offset) {
-        int addInfo = Decoder.additionalInfo(input, offset);
-        if (addInfo == Constants.ADD_INFO_INDEFINITE) {
-            return indefiniteContainerByteSize(input, offset);
-        }
-
-        long elementCount = ElementCounts.sequenceElementCount(input, offset);
-        return containerByteSize(input, offset, elementCount);
+        return nestedByteSize(input, offset, ResourceLimits.UNLIMITED);
     }
 
     public static long dictionaryByteSize(Input input, long offset) {
-        int addInfo = Decoder.additionalInfo(input, offset);
-        if (addInfo == Constants.ADD_INFO_INDEFINITE) {
-            return indefiniteContainerByteSize(input, offset);
-        }
-
-        long elementCount = ElementCounts.dictionaryElementCount(input, offset);
-        return containerByteSize(input, offset, elementCount * 2);
+        return nestedByteSize(input, offset, ResourceLimits.UNLIMITED);
     }
 
     public static long semanticTagByteSize(Input input, long offset) {
-        long byteSize = ByteSizes.intByteSize(input, offset);
-        short itemHead = Bytes.readUInt8(input, offset + byteSize);
-        MajorType majorType = MajorType.findMajorType(itemHead);
-        return byteSize + Decoder.length(input, majorType, offset + byteSize);
+        return nestedByteSize(input, offset, ResourceLimits.UNLIMITED);
     }
 
     public static long floatOrSimpleByteSize(Input input, long offset) {
-        int addInfo = Decoder.additionalInfo(input, offset);
-        switch (addInfo) {
-            case Constants.ADD_INFO_ONE_BYTE:
-                return 2;
-            case Constants.ADD_INFO_TWO_BYTES:
-                return 3;
-            case Constants.ADD_INFO_FOUR_BYTES:
-                return 5;
-            case Constants.ADD_INFO_EIGHT_BYTES:
-                return 9;
-            case Constants.ADD_INFO_RESERVED_1: // Unassigned
-            case Constants.ADD_INFO_RESERVED_2: // Unassigned
-            case Constants.ADD_INFO_RESERVED_3: // Unassigned
-                throw throwUnassigned();
-            case Constants.ADD_INFO_INDEFINITE:
-                return untilBreakCode(input, offset);
-            default:
-                return 1;
-        }
+        return floatOrSimpleByteSize(input, offset, Bytes.readUInt8(input, offset));
     }
 
     public static long stringByteSize(Input input, long offset) {
-        int addInfo = Decoder.additionalInfo(input, offset);
+        return stringByteSize(input, offset, Bytes.readUInt8(input, offset));
+    }
+
+    public static long stringDataSize(Input input, long offset) {
+        short head = Bytes.readUInt8(input, offset);
+        int addInfo = Decoder.additionalInfo(head);
         switch (addInfo) {
             case Constants.ADD_INFO_ONE_BYTE:
-                return stringDataSize(input, offset) + 2;
+                return Bytes.readUInt8(input, offset + 1);
             case Constants.ADD_INFO_TWO_BYTES:
-                return stringDataSize(input, offset) + 3;
+                return Bytes.readUInt16(input, offset + 1);
             case Constants.ADD_INFO_FOUR_BYTES:
-                return stringDataSize(input, offset) + 5;
+                return Bytes.readUInt32(input, offset + 1);
             case Constants.ADD_INFO_EIGHT_BYTES:
-                throw throwString64bitUnsupported();
+                long dataSize = Bytes.readUInt64Long(input, offset + 1);
+                // Data size and header must still fit into a long
+                if (dataSize < 0 || dataSize > Long.MAX_VALUE - 9) {
+                    throw new IllegalStateException("String sizes larger Long.MAX_VALUE are not supported");
+                }
+                return dataSize;
             case Constants.ADD_INFO_RESERVED_1: // Unassigned
             case Constants.ADD_INFO_RESERVED_2: // Unassigned
             case Constants.ADD_INFO_RESERVED_3: // Unassigned
                 throw throwUnassigned();
-            case Constants.ADD_INFO_INDEFINITE:
-                return untilBreakCode(input, offset);
             default:
-                return addInfo + 1;
+                return addInfo;
         }
     }
 
-    public static long stringDataSize(Input input, long offset) {
-        int addInfo = Decoder.additionalInfo(input, offset);
+    public static int headByteSize(Input input, long offset) {
+        return headByteSize(Bytes.readUInt8(input, offset));
+    }
+
+    private static int headByteSize(short head) {
+        int headByteSize = HeadTables.headByteSize(head);
+        if (headByteSize == 0) {
+            throw throwUnassigned();
+        }
+        return headByteSize;
+    }
+
+    private static long floatOrSimpleByteSize(Input input, long offset, short head) {
+        int addInfo = Decoder.additionalInfo(head);
         switch (addInfo) {
-            case Constants.ADD_INFO_ONE_BYTE:
-                return Bytes.readUInt8(input, offset + 1);
-            case Constants.ADD_INFO_TWO_BYTES:
-                return Bytes.readUInt16(input, offset + 1);
-            case Constants.ADD_INFO_FOUR_BYTES:
-                return Bytes.readUInt32(input, offset + 1);
-            case Constants.ADD_INFO_EIGHT_BYTES:
-                throw throwString64bitUnsupported();
             case Constants.ADD_INFO_RESERVED_1: // Unassigned
             case Constants.ADD_INFO_RESERVED_2: // Unassigned
             case Constants.ADD_INFO_RESERVED_3: // Unassigned
                 throw throwUnassigned();
+            case Constants.ADD_INFO_INDEFINITE:
+                return untilBreakCode(input, offset);
             default:
-                return addInfo;
+                return headByteSize(head);
         }
     }
 
-    public static int headByteSize(Input input, long offset) {
-        int addInfo = Decoder.additionalInfo(input, offset);
+    private static long stringByteSize(Input input, long offset, short head) {
+        int addInfo = Decoder.additionalInfo(head);
         switch (addInfo) {
-            case Constants.ADD_INFO_ONE_BYTE:
-                return 2;
-            case Constants.ADD_INFO_TWO_BYTES:
-                return 3;
-            case Constants.ADD_INFO_FOUR_BYTES:
-                return 5;
-            case Constants.ADD_INFO_EIGHT_BYTES:
-                return 9;
             case Constants.ADD_INFO_RESERVED_1: // Unassigned
             case Constants.ADD_INFO_RESERVED_2: // Unassigned
             case Constants.ADD_INFO_RESERVED_3: // Unassigned
                 throw throwUnassigned();
+            case Constants.ADD_INFO_INDEFINITE:
+                return indefiniteStringByteSize(input, offset);
             default:
-                return 1;
+                return stringDataSize(input, offset) + HeadTables.headByteSize(head);
         }
     }
 
@@ -170,10 +205,6 @@ public final class ByteSizes {
         return new IllegalStateException("28|29|30 are unassigned");
     }
 
-    private static RuntimeException throwString64bitUnsupported() {
-        return new IllegalStateException("String sizes of 64bit are not yet supported");
-    }
-
     private static long untilBreakCode(Input input, long offset) {
         long start = offset;
         short uint;
@@ -183,23 +214,9 @@ public final class ByteSizes {
         return offset - start;
     }
 
-    private static long containerByteSize(Input input, long offset, long elementCount) {
-        long headByteSize = headByteSize(input, offset);
-        int addInfo = Decoder.additionalInfo(input, offset);
-
-        long position = offset + headByteSize;
-        for (long i = 0; i < elementCount; i++) {
-            short head = Bytes.readUInt8(input, position);
-            MajorType majorType = MajorType.findMajorType(head);
-            position += byteSizeByMajorType(majorType, input, position);
-        }
-        // Indefinite length? -> +1
-        return position - offset + (addInfo == 31 ? 1 : 0);
-    }
-
-    private static long indefiniteContainerByteSize(Input input, long offset) {
-        long headByteSize = ByteSizes.headByteSize(input, offset);
-        long position = offset + headByteSize;
+    private static long indefiniteStringByteSize(Input input, long offset) {
+        // Payloads may contain the break code, jump from chunk to chunk
+        long position = offset + 1;
 
         short head;
         while (true) {
@@ -207,12 +224,129 @@ public final class ByteSizes {
             if ((head & Constants.OPCODE_BREAK_MASK) == Constants.OPCODE_BREAK_MASK) {
                 break;
             }
-            MajorType majorType = MajorType.findMajorType(head);
-            position += Decoder.length(input, majorType, position);
+            position += stringByteSize(input, position, head);
         }
-
-        // Indefinite length? -> +1
         return position - offset + 1;
     }
 
+    private static long nestedByteSize(Input input, long offset, ResourceLimits resourceLimits) {
+        // Iterative skip, the stack holds the remaining items of all enclosing containers
+        long[] stack = null;
+        int depth = 0;
+
+        long position = offset;
+        long remaining = 1;
+        while (true) {
+            if (remaining == 0) {
+                if (depth == 0) {
+                    return position - offset;
+                }
+                remaining = stack[--depth];
+                continue;
+            }
+
+            short head = Bytes.readUInt8(input, position);
+            if (remaining == INDEFINITE && head == Constants.OPCODE_BREAK_MASK) {
+                position++;
+                remaining = stack[--depth];
+                continue;
+            }
+
+            int fixedByteSize = HeadTables.fixedByteSize(head);
+            if (fixedByteSize == 1) {
+                // Skip runs of small integers and simple values word-wise, the break code is never part of a run
+                int maxLength = remaining == INDEFINITE ? Integer.MAX_VALUE : (int) Math.min(remaining, Integer.MAX_VALUE);
+                int run = Math.max(1, input.scanOneByteItems(position, maxLength));
+                position += run;
+                if (remaining != INDEFINITE) {
+                    remaining -= run;
+                }
+                continue;
+            }
+
+            if (fixedByteSize != 0) {
+                checkShortString(head, fixedByteSize, position, resourceLimits);
+                position += fixedByteSize;
+                if (remaining != INDEFINITE) {
+                    remaining--;
+                }
+                continue;
+            }
+
+            switch (HeadTables.majorType(head)) {
+                case Sequence:
+                case Dictionary:
+                    long elements = containerElements(input, position, head, resourceLimits);
+                    if (remaining != INDEFINITE) {
+                        remaining--;
+                    }
+                    position += headByteSize(head);
+                    if (elements != 0) {
+                        resourceLimits.checkNestingDepth(depth + 1, position - headByteSize(head));
+                        if (stack == null) {
+                            stack = new long[INITIAL_STACK_SIZE];
+                        } else if (depth == stack.length) {
+                            stack = Arrays.copyOf(stack, depth * 2);
+                        }
+                        stack[depth++] = remaining;
+                        remaining = elements;
+                    }
+                    break;
+
+                case SemanticTag:
+                    // The tagged item is counted in place of the tag
+                    position += headByteSize(head);
+                    break;
+
+                case ByteString:
+                case TextString:
+                    long byteSize = stringByteSize(input, position, head);
+                    resourceLimits.checkStringLength(byteSize - HeadTables.headByteSize(head), position);
+                    position += byteSize;
+                    if (remaining != INDEFINITE) {
+                        remaining--;
+                    }
+                    break;
+
+                case FloatingPointOrSimple:
+                    position += floatOrSimpleByteSize(input, position, head);
+                    if (remaining != INDEFINITE) {
+                        remaining--;
+                    }
+                    break;
+
+                default:
+                    // Integers with reserved additional information
+                    throw throwUnassigned();
+            }
+        }
+    }
+
+    private static void checkShortString(short head, int fixedByteSize, long offset, ResourceLimits resourceLimits) {
+        // Only strings can exceed the limit if the fixed size is larger than the limit, no type check otherwise
+        if (fixedByteSize - 1 > resourceLimits.maxStringLength()) {
+            MajorType majorType = HeadTables.majorType(head);
+            if (majorType == MajorType.ByteString || majorType == MajorType.TextString) {
+                resourceLimits.checkStringLength(fixedByteSize - 1, offset);
+            }
+        }
+    }
+
+    private static long containerElements(Input input, long offset, short head, ResourceLimits resourceLimits) {
+        if (Decoder.additionalInfo(head) == Constants.ADD_INFO_INDEFINITE) {
+            return INDEFINITE;
+        }
+        if (HeadTables.majorType(head) == MajorType.Dictionary) {
+            long elementCount = ElementCounts.dictionaryElementCount(input, offset);
+            resourceLimits.checkContainerElements(elementCount, offset);
+            if (elementCount > Long.MAX_VALUE / 2) {
+                throw new IllegalStateException("Object sizes larger Long.MAX_VALUE are not supported");
+            }
+            return elementCount * 2;
+        }
+        long elementCount = ElementCounts.sequenceElementCount(input, offset);
+        resourceLimits.checkContainerElements(elementCount, offset);
+        return elementCount;
+    }
+
 }
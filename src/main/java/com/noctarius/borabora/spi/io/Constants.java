@@ -104,6 +104,12 @@ public interface Constants {
 
     QueryConsumer EMPTY_QUERY_CONSUMER = ((offset) -> false);
 
+    /**
+     * Strings are matched in place independent of their length, this threshold is not used anymore.
+     *
+     * @deprecated no longer used, will be removed in a future version
+     */
+    @Deprecated
     int MATCH_STRING_FAST_PATH_TRESHOLD = 1024;
 
 }
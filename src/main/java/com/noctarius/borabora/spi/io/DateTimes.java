@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.Output;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+/**
+ * The <tt>DateTimes</tt> class contains a hand-written parser and formatter for RFC 3339
+ * date-time strings (semantic tag <tt>0</tt>) working directly on the bytes of an
+ * {@link Input} or {@link Output}, without going through a
+ * {@link java.time.format.DateTimeFormatter}.
+ * <p>The parser accepts <tt>yyyy-MM-ddTHH:mm:ss[.f{1,9}](Z|&plusmn;HH:MM)</tt>. As with the
+ * previous DateTimeFormatter based implementation, the time is always read as UTC and a given
+ * offset is validated but otherwise ignored. The formatter writes
+ * <tt>yyyy-MM-ddTHH:mm:ss.SSS(Z|&plusmn;HH:MM)</tt>, the same output as
+ * {@link Constants#DATE_TIME_FRACTION_OFFSET_FORMAT}. Both only handle the years 0001 to 9999,
+ * everything else is left to the DateTimeFormatter.</p>
+ * <p>Event streams commonly carry many date-times of the same second, therefore the last seen
+ * second-resolution prefix is cached (one entry for parsing, one for formatting).</p>
+ */
+public final class DateTimes {
+
+    // "yyyy-MM-ddTHH:mm:ss"
+    private static final int PREFIX_LENGTH = 19;
+    // PREFIX_LENGTH + ".SSS"
+    private static final int MILLIS_LENGTH = PREFIX_LENGTH + 4;
+    // PREFIX_LENGTH + ".fffffffff+HH:MM"
+    private static final int MAX_LENGTH = PREFIX_LENGTH + 16;
+
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final int MAX_OFFSET_MINUTES = 18 * 60;
+    private static final long DAYS_0000_TO_1970 = 719528L;
+    // Epoch day of 0001-01-01, year 0000 is printed as year-of-era 0001 by DateTimeFormatter
+    private static final long MIN_EPOCH_DAY = -719162L;
+    // Epoch day of 9999-12-31
+    private static final long MAX_EPOCH_DAY = 2932896L;
+
+    private static final int[] NANOS_SCALE = {0, 100000000, 10000000, 1000000, 100000, 10000, 1000, 100, 10, 1};
+
+    private static volatile Prefix parsePrefix;
+    private static volatile Prefix formatPrefix;
+
+    private DateTimes() {
+    }
+
+    /**
+     * Parses the date-time string of <tt>length</tt> bytes starting at <tt>offset</tt>. If the
+     * string is not in the supported format or any field is out of range, <tt>null</tt> is
+     * returned and the caller is expected to fall back to the generic parser, which reports the
+     * actual error.
+     *
+     * @param input  the input to read from
+     * @param offset the offset of the first string byte (after the data item header)
+     * @param length the number of string bytes
+     * @return the parsed instant or null if the string isn't handled by the fast path
+     */
+    public static Instant parse(Input input, long offset, long length) {
+        if (length < PREFIX_LENGTH + 1 || length > MAX_LENGTH) {
+            return null;
+        }
+
+        long epochSecond = parsePrefix(input, offset);
+        if (epochSecond == Long.MIN_VALUE) {
+            return null;
+        }
+
+        long position = offset + PREFIX_LENGTH;
+        long end = offset + length;
+
+        int nanos = 0;
+        byte b = input.read(position);
+        if (b == '.') {
+            position++;
+            int digits = 0;
+            while (position < end && digits < 9 && isDigit(b = input.read(position))) {
+                nanos = nanos * 10 + (b - '0');
+                digits++;
+                position++;
+            }
+            if (digits == 0 || position == end) {
+                return null;
+            }
+            nanos *= NANOS_SCALE[digits];
+            b = input.read(position);
+        }
+
+        if (b == 'Z') {
+            return position + 1 == end ? Instant.ofEpochSecond(epochSecond, nanos) : null;
+        }
+        if ((b != '+' && b != '-') || position + 6 != end) {
+            return null;
+        }
+
+        // The offset is validated but ignored, the time is always read as UTC
+        int offsetHours = twoDigits(input, position + 1);
+        int offsetMinutes = twoDigits(input, position + 4);
+        if (offsetHours < 0 || offsetMinutes < 0 || offsetMinutes > 59 || input.read(position + 3) != ':' //
+                || offsetHours * 60 + offsetMinutes > MAX_OFFSET_MINUTES) {
+            return null;
+        }
+        return Instant.ofEpochSecond(epochSecond, nanos);
+    }
+
+    /**
+     * Writes the given <tt>dateTime</tt> as a text string data item (header and string bytes)
+     * to the given <tt>offset</tt>. Years outside of <tt>0001</tt> to <tt>9999</tt> and offsets
+     * with second precision are formatted through
+     * {@link Constants#DATE_TIME_FRACTION_OFFSET_FORMAT}.
+     *
+     * @param dateTime the date-time to write
+     * @param offset   the offset to write to
+     * @param output   the output to write to
+     * @return the new offset after writing
+     */
+    public static long put(ZonedDateTime dateTime, long offset, Output output) {
+        int offsetSeconds = dateTime.getOffset().getTotalSeconds();
+        long localEpochSecond = dateTime.toEpochSecond() + offsetSeconds;
+        if (offsetSeconds % 60 != 0 || !writable(localEpochSecond)) {
+            String string = dateTime.format(Constants.DATE_TIME_FRACTION_OFFSET_FORMAT);
+            return Encoder.putRaw(string.getBytes(Constants.UTF8), MajorType.TextString, offset, output);
+        }
+        return put(localEpochSecond, dateTime.getNano(), offsetSeconds, offset, output);
+    }
+
+    /**
+     * Writes the given <tt>instant</tt> in UTC as a text string data item (header and string
+     * bytes) to the given <tt>offset</tt>.
+     *
+     * @param instant the instant to write
+     * @param offset  the offset to write to
+     * @param output  the output to write to
+     * @return the new offset after writing
+     * @see #put(ZonedDateTime, long, Output)
+     */
+    public static long put(Instant instant, long offset, Output output) {
+        long epochSecond = instant.getEpochSecond();
+        if (!writable(epochSecond)) {
+            return put(instant.atZone(Constants.UTC), offset, output);
+        }
+        return put(epochSecond, instant.getNano(), 0, offset, output);
+    }
+
+    private static long put(long localEpochSecond, int nanos, int offsetSeconds, long offset, Output output) {
+        int length = offsetSeconds == 0 ? MILLIS_LENGTH + 1 : MILLIS_LENGTH + 6;
+        byte[] bytes = new byte[length];
+
+        Prefix prefix = formatPrefix;
+        if (prefix == null || prefix.epochSecond != localEpochSecond) {
+            prefix = new Prefix(localEpochSecond, formatPrefix(localEpochSecond));
+            formatPrefix = prefix;
+        }
+        System.arraycopy(prefix.bytes, 0, bytes, 0, PREFIX_LENGTH);
+
+        bytes[PREFIX_LENGTH] = '.';
+        putDigits(nanos / 1000000, 3, bytes, PREFIX_LENGTH + 1);
+
+        if (offsetSeconds == 0) {
+            bytes[MILLIS_LENGTH] = 'Z';
+        } else {
+            int offsetMinutes = Math.abs(offsetSeconds) / 60;
+            bytes[MILLIS_LENGTH] = (byte) (offsetSeconds < 0 ? '-' : '+');
+            putDigits(offsetMinutes / 60, 2, bytes, MILLIS_LENGTH + 1);
+            bytes[MILLIS_LENGTH + 3] = ':';
+            putDigits(offsetMinutes % 60, 2, bytes, MILLIS_LENGTH + 4);
+        }
+
+        offset = Encoder.encodeLengthAndValue(MajorType.TextString, length, offset, output);
+        offset += output.write(bytes, offset, length);
+        return offset;
+    }
+
+    private static long parsePrefix(Input input, long offset) {
+        Prefix prefix = parsePrefix;
+        if (prefix != null && input.equals(offset, prefix.bytes, 0, PREFIX_LENGTH)) {
+            return prefix.epochSecond;
+        }
+
+        byte[] bytes = new byte[PREFIX_LENGTH];
+        input.read(bytes, offset, PREFIX_LENGTH);
+        if (bytes[4] != '-' || bytes[7] != '-' || bytes[10] != 'T' || bytes[13] != ':' || bytes[16] != ':') {
+            return Long.MIN_VALUE;
+        }
+
+        int year = fourDigits(bytes, 0);
+        int month = twoDigits(bytes, 5);
+        int day = twoDigits(bytes, 8);
+        int hour = twoDigits(bytes, 11);
+        int minute = twoDigits(bytes, 14);
+        int second = twoDigits(bytes, 17);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) //
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+
+        long epochSecond = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+        parsePrefix = new Prefix(epochSecond, bytes);
+        return epochSecond;
+    }
+
+    private static byte[] formatPrefix(long epochSecond) {
+        long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+
+        // Civil date from epoch day, same algorithm as LocalDate::ofEpochDay for years >= 1
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60;
+        long yearEst = (400 * zeroDay + 591) / 146097;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        int marchDoy0 = (int) doyEst;
+        int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+        int month = (marchMonth0 + 2) % 12 + 1;
+        int day = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+        int year = (int) (yearEst + marchMonth0 / 10);
+
+        byte[] bytes = new byte[PREFIX_LENGTH];
+        putDigits(year, 4, bytes, 0);
+        bytes[4] = '-';
+        putDigits(month, 2, bytes, 5);
+        bytes[7] = '-';
+        putDigits(day, 2, bytes, 8);
+        bytes[10] = 'T';
+        putDigits(secondOfDay / 3600, 2, bytes, 11);
+        bytes[13] = ':';
+        putDigits(secondOfDay / 60 % 60, 2, bytes, 14);
+        bytes[16] = ':';
+        putDigits(secondOfDay % 60, 2, bytes, 17);
+        return bytes;
+    }
+
+    private static boolean writable(long localEpochSecond) {
+        long epochDay = Math.floorDiv(localEpochSecond, SECONDS_PER_DAY);
+        return epochDay >= MIN_EPOCH_DAY && epochDay <= MAX_EPOCH_DAY;
+    }
+
+    private static long epochDay(int year, int month, int day) {
+        // Same algorithm as LocalDate::toEpochDay for years >= 1
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12 + day - 1;
+        if (month > 2) {
+            total -= isLeapYear(year) ? 1 : 2;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static void putDigits(int value, int digits, byte[] bytes, int index) {
+        for (int i = index + digits - 1; i >= index; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static int fourDigits(byte[] bytes, int index) {
+        int high = twoDigits(bytes, index);
+        int low = twoDigits(bytes, index + 2);
+        return high < 0 || low < 0 ? -1 : high * 100 + low;
+    }
+
+    private static int twoDigits(byte[] bytes, int index) {
+        return twoDigits(bytes[index], bytes[index + 1]);
+    }
+
+    private static int twoDigits(Input input, long offset) {
+        return twoDigits(input.read(offset), input.read(offset + 1));
+    }
+
+    private static int twoDigits(byte high, byte low) {
+        if (!isDigit(high) || !isDigit(low)) {
+            return -1;
+        }
+        return (high - '0') * 10 + (low - '0');
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static final class Prefix {
+        private final long epochSecond;
+        private final byte[] bytes;
+
+        private Prefix(long epochSecond, byte[] bytes) {
+            this.epochSecond = epochSecond;
+            this.bytes = bytes;
+        }
+    }
+
+}
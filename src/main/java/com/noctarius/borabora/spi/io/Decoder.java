@@ -20,6 +20,7 @@ import com.noctarius.borabora.Dictionary;
 import com.noctarius.borabora.HalfPrecisionFloat;
 import com.noctarius.borabora.Input;
 import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.NoSuchByteException;
 import com.noctarius.borabora.Sequence;
 import com.noctarius.borabora.Value;
 import com.noctarius.borabora.ValueType;
@@ -34,6 +35,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.Charset;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
@@ -44,15 +46,42 @@ import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 public final class Decoder
         implements Constants {
 
+    // Some VMs reserve header words in arrays
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
     private Decoder() {
     }
 
     public static int readSemanticTagId(Input input, long offset) {
-        Number tagType = Decoder.readUint(input, offset);
-        if (tagType instanceof BigInteger || tagType.longValue() > Integer.MAX_VALUE) {
+        // Read the tag id without boxing, it is requested for every semantic tag
+        int addInfo = additionalInfo(input, offset);
+        long tagId;
+        switch (addInfo) {
+            case ADD_INFO_ONE_BYTE:
+                return Bytes.readUInt8(input, offset + 1);
+            case ADD_INFO_TWO_BYTES:
+                return Bytes.readUInt16(input, offset + 1);
+            case ADD_INFO_FOUR_BYTES:
+                tagId = Bytes.readUInt32(input, offset + 1);
+                break;
+            case ADD_INFO_EIGHT_BYTES:
+                // Negative values are larger than Long.MAX_VALUE
+                tagId = Bytes.readUInt64Long(input, offset + 1);
+                if (tagId < 0) {
+                    tagId = Long.MAX_VALUE;
+                }
+                break;
+            case ADD_INFO_RESERVED_1:
+            case ADD_INFO_RESERVED_2:
+            case ADD_INFO_RESERVED_3:
+                throw new IllegalStateException("28|29|30 are unassigned");
+            default:
+                return addInfo;
+        }
+        if (tagId > Integer.MAX_VALUE) {
             throw new IllegalStateException("No tag id larger Integer.MAX_VALUE implemented");
         }
-        return tagType.intValue();
+        return (int) tagId;
     }
 
     public static short readUInt8(Input input, long offset) {
@@ -125,6 +154,55 @@ public final class Decoder
         }
     }
 
+    /**
+     * Reads the argument of the integer data item at <tt>offset</tt> without boxing. The argument
+     * is returned as an unsigned 64 bit value, meaning arguments above {@link Long#MAX_VALUE}
+     * are negative. For negative integers the encoded value is <tt>-1 - argument</tt>.
+     *
+     * @param input  the input to read from
+     * @param offset the offset of the integer data item
+     * @return the unsigned argument of the integer data item
+     */
+    public static long readIntArgument(Input input, long offset) {
+        short head = Bytes.readUInt8(input, offset);
+        int byteSize = ByteSizes.intByteSize(input, offset);
+        switch (byteSize) {
+            case 2:
+                return Bytes.readUInt8(input, offset + 1);
+            case 3:
+                return Bytes.readUInt16(input, offset + 1);
+            case 5:
+                return Bytes.readUInt32(input, offset + 1);
+            case 9:
+                return Bytes.readUInt64Long(input, offset + 1);
+            default:
+                return head & ADDITIONAL_INFORMATION_MASK;
+        }
+    }
+
+    /**
+     * Reads the half, single or double precision floating point data item at <tt>offset</tt>
+     * without boxing.
+     *
+     * @param input  the input to read from
+     * @param offset the offset of the floating point data item
+     * @return the value of the floating point data item
+     * @throws IllegalStateException if the data item is not a floating point value
+     */
+    public static double readDouble(Input input, long offset) {
+        int addInfo = additionalInfo(input, offset);
+        switch (addInfo) {
+            case FP_VALUE_HALF_PRECISION:
+                return HalfPrecision.toFloat(Bytes.readUInt16(input, offset + 1));
+            case FP_VALUE_SINGLE_PRECISION:
+                return readSinglePrecisionFloat(input, offset + 1);
+            case FP_VALUE_DOUBLE_PRECISION:
+                return readDoublePrecisionFloat(input, offset + 1);
+            default:
+                throw new IllegalStateException("Additional Info '" + addInfo + "' is not a floating point value");
+        }
+    }
+
     public static Number readNumber(Input input, ValueType valueType, long offset) {
         if (valueType.matches(ValueTypes.Float)) {
             return readFloat(input, offset);
@@ -152,6 +230,10 @@ public final class Decoder
         return readString0(input, offset, queryContext);
     }
 
+    public static CharSequence readCharSequence(Input input, long offset, boolean ascii) {
+        return StreamCharSequence.newCharSequence(input, offset, ascii);
+    }
+
     public static Sequence readSequence(long offset, QueryContext queryContext) {
         return SequenceImpl.readSequence(offset, queryContext);
     }
@@ -161,28 +243,22 @@ public final class Decoder
     }
 
     public static long length(Input input, MajorType majorType, long offset) {
-        switch (majorType) {
-            case UnsignedInteger:
-            case NegativeInteger:
-                return ByteSizes.intByteSize(input, offset);
-            case ByteString:
-            case TextString:
-                return ByteSizes.stringByteSize(input, offset);
-            case Sequence:
-                return ByteSizes.sequenceByteSize(input, offset);
-            case Dictionary:
-                return ByteSizes.dictionaryByteSize(input, offset);
-            case SemanticTag:
-                return ByteSizes.semanticTagByteSize(input, offset);
-            case FloatingPointOrSimple:
-                return ByteSizes.floatOrSimpleByteSize(input, offset);
+        if (MajorType.Unknown == majorType) {
+            throw new IllegalStateException("Illegal MajorType requested");
         }
-        throw new IllegalStateException("Illegal MajorType requested");
+        short head = Bytes.readUInt8(input, offset);
+        return ByteSizes.byteSizeByHead(input, offset, head);
     }
 
     public static long skip(Input input, long offset) {
-        MajorType majorType = getMajorType(offset, input);
-        return skip(input, majorType, offset);
+        short head = Bytes.readUInt8(input, offset);
+        return offset + ByteSizes.byteSizeByHead(input, offset, head);
+    }
+
+    public static long skip(long offset, QueryContext queryContext) {
+        long position = offset + ByteSizes.byteSize(queryContext.input(), offset, queryContext.resourceLimits());
+        queryContext.trackBytesScanned(position - offset, offset);
+        return position;
     }
 
     public static long skip(Input input, MajorType majorType, long offset) {
@@ -191,12 +267,7 @@ public final class Decoder
     }
 
     public static boolean isNull(short head) {
-        MajorType majorType = MajorType.findMajorType(head);
-        if (MajorType.FloatingPointOrSimple != majorType) {
-            return false;
-        }
-        int addInfo = head & ADDITIONAL_INFORMATION_MASK;
-        return addInfo == FP_VALUE_NULL;
+        return ValueTypes.Null == HeadTables.valueType(head);
     }
 
     public static boolean getBooleanValue(Input input, long offset) {
@@ -230,31 +301,27 @@ public final class Decoder
     public static BigDecimal readFraction(long offset, QueryContext queryContext) {
         Input input = queryContext.input();
 
-        // Skip semantic tag header
-        offset += ByteSizes.headByteSize(input, offset);
-        // Verify sequence header
-        short sequenceHead = readUInt8(input, offset);
-        if (sequenceHead != DECIMAL_FRACTION_TWO_ELEMENT_SEQUENCE_HEAD) {
-            throw new IllegalArgumentException("Cannot read fraction, wrong data element");
-        }
-        // If ok skip sequence head
-        offset++;
-
         // Read scale (always int) and skip the scale element
-        int scale = readInt(input, offset).intValue();
-        offset = skip(input, offset);
+        long position = fractionScaleOffset(input, offset);
+        int scale = (int) readLong(input, position);
+        position = skip(input, position);
+
+        // Unscaled part fits into a long, no BigInteger necessary
+        if (isLongMantissa(input, position)) {
+            return BigDecimal.valueOf(readLongMantissa(input, position), scale);
+        }
 
         // Read unscaled part, normally int, can be BigInteger
         Number unscaledValue;
 
         // If this is a UBigNum or NBigNum, unwrap it
-        short itemHead = readUInt8(input, offset);
+        short itemHead = readUInt8(input, position);
         if (MajorType.findMajorType(itemHead) == MajorType.SemanticTag) {
-            ValueType valueType = queryContext.valueType(offset);
-            unscaledValue = queryContext.applyDecoder(offset, MajorType.SemanticTag, valueType);
+            ValueType valueType = queryContext.valueType(position);
+            unscaledValue = queryContext.applyDecoder(position, MajorType.SemanticTag, valueType);
 
         } else {
-            unscaledValue = readInt(input, offset);
+            unscaledValue = readInt(input, position);
         }
 
         BigInteger unscaled;
@@ -268,9 +335,29 @@ public final class Decoder
         return new BigDecimal(unscaled, scale);
     }
 
+    public static int readFractionScale(Input input, long offset) {
+        return (int) readLong(input, fractionScaleOffset(input, offset));
+    }
+
+    public static long readFractionUnscaledLong(long offset, QueryContext queryContext) {
+        Input input = queryContext.input();
+        long position = skip(input, fractionScaleOffset(input, offset));
+        if (isLongMantissa(input, position)) {
+            return readLongMantissa(input, position);
+        }
+        // Throws ArithmeticException since the unscaled value doesn't fit into a long
+        return readFraction(offset, queryContext).unscaledValue().longValueExact();
+    }
+
     public static long findByDictionaryKey(Predicate<Value> predicate, long offset, QueryContext queryContext) {
-        // Search for key element
-        long position = findByPredicate(predicate, offset, queryContext);
+        return findByDictionaryKey(predicate, offset, queryContext, new RelocatableStreamValue());
+    }
+
+    public static long findByDictionaryKey(Predicate<Value> predicate, long offset, QueryContext queryContext,
+                                           RelocatableStreamValue streamValue) {
+
+        // Search for key element, the stream value is relocated to each key
+        long position = findByPredicate(predicate, offset, queryContext, streamValue);
         if (position == OFFSET_CODE_NULL) {
             return OFFSET_CODE_NULL;
         }
@@ -301,23 +388,30 @@ public final class Decoder
     }
 
     public static byte[] readRaw(Input input, MajorType majorType, long offset) {
-        long length = length(input, majorType, offset);
-        // Cannot be larger than Integer.MAX_VALUE as this is checked in Decoder
-        byte[] data = new byte[(int) length];
+        int length = checkArraySize(length(input, majorType, offset));
+        byte[] data = new byte[length];
         input.read(data, offset, (int) length);
         return data;
     }
 
     public static byte[] extractStringBytes(Input input, long offset) {
+        return extractStringBytes(input, offset, ResourceLimits.UNLIMITED);
+    }
+
+    public static byte[] extractStringBytes(Input input, long offset, ResourceLimits resourceLimits) {
         int headByteSize = ByteSizes.headByteSize(input, offset);
         int addInfo = additionalInfo(input, offset);
 
         try {
             if (addInfo == ADD_INFO_INDEFINITE) {
+                long start = offset;
                 offset += headByteSize;
                 ByteArrayOutputStream baos = new ByteArrayOutputStream();
                 do {
                     int itemHeadByteSize = ByteSizes.headByteSize(input, offset);
+                    long length = baos.size() + ByteSizes.stringDataSize(input, offset);
+                    resourceLimits.checkStringLength(length, start);
+                    checkArraySize(length);
                     byte[] data = extractStringBytes(input, offset, itemHeadByteSize);
                     offset += (itemHeadByteSize + data.length);
                     baos.write(data);
@@ -328,12 +422,12 @@ public final class Decoder
             throw new RuntimeException("Failed to collect data", e);
         }
 
+        resourceLimits.checkStringLength(ByteSizes.stringDataSize(input, offset), offset);
         return extractStringBytes(input, offset, headByteSize);
     }
 
     private static byte[] extractStringBytes(Input input, long offset, int headByteSize) {
-        // Cannot be larger than Integer.MAX_VALUE as this is checked in Decoder
-        int dataSize = (int) ByteSizes.stringDataSize(input, offset);
+        int dataSize = checkArraySize(ByteSizes.stringDataSize(input, offset));
         if (dataSize == 0) {
             return EMPTY_BYTE_ARRAY;
         }
@@ -342,7 +436,25 @@ public final class Decoder
         return bytes;
     }
 
+    public static Instant readDateTime(Input input, long offset, QueryContext queryContext) {
+        short head = Bytes.readUInt8(input, offset);
+        if (MajorType.findMajorType(head) == MajorType.TextString && additionalInfo(head) != ADD_INFO_INDEFINITE) {
+            long dataSize = ByteSizes.stringDataSize(input, offset);
+            Instant instant = DateTimes.parse(input, offset + ByteSizes.headByteSize(input, offset), dataSize);
+            if (instant != null) {
+                return instant;
+            }
+        }
+        return parseDate(readString(input, offset, queryContext));
+    }
+
     public static Instant parseDate(String date) {
+        byte[] bytes = date.getBytes(ASCII);
+        Instant instant = DateTimes.parse(Input.fromByteArray(bytes), 0, bytes.length);
+        if (instant != null) {
+            return instant;
+        }
+
         boolean fraction = false;
         boolean offset = true;
         if (date.indexOf(".") > -1) {
@@ -360,6 +472,32 @@ public final class Decoder
     }
 
     public static long[][] readElementIndexes(Input input, long offset, long elementSize) {
+        checkElementsAvailable(input, offset, elementSize);
+
+        int baseSize = (int) (elementSize / Integer.MAX_VALUE) + 1;
+        long[][] elementIndexes = new long[baseSize][];
+
+        long position = offset;
+        long remainingElements = elementSize;
+        for (int base = 0; base < baseSize; base++) {
+            int remain = (int) Math.min(Integer.MAX_VALUE, remainingElements);
+            elementIndexes[base] = new long[remain];
+            for (int elIndex = 0; elIndex < remain; elIndex++) {
+                // Store element position
+                elementIndexes[base][elIndex] = position;
+
+                // Skip elements content to next element
+                position = skip(input, position);
+            }
+            remainingElements -= remain;
+        }
+        return elementIndexes;
+    }
+
+    public static long[][] readElementIndexes(long offset, long elementSize, QueryContext queryContext) {
+        Input input = queryContext.input();
+        checkElementsAvailable(input, offset, elementSize);
+
         int baseSize = (int) (elementSize / Integer.MAX_VALUE) + 1;
         long[][] elementIndexes = new long[baseSize][];
 
@@ -373,55 +511,64 @@ public final class Decoder
                 elementIndexes[base][elIndex] = position;
 
                 // Skip elements content to next element
-                MajorType majorType = getMajorType(position, input);
-                position += length(input, majorType, position);
+                position = skip(position, queryContext);
             }
+            remainingElements -= remain;
         }
         return elementIndexes;
     }
 
-    private static long findByPredicate(Predicate<Value> predicate, long offset, QueryContext queryContext) {
+    private static int checkArraySize(long size) {
+        // Strings with 64 bit lengths can only be streamed, see Value::openStream
+        if (size > MAX_ARRAY_SIZE) {
+            throw new IllegalStateException("Data size of " + size + " bytes is too large to be materialized");
+        }
+        return (int) size;
+    }
+
+    private static void checkElementsAvailable(Input input, long offset, long elementSize) {
+        // Every element takes at least one byte, reject bogus headers before allocating the index
+        if (elementSize > 0 && !input.offsetValid(offset + elementSize - 1)) {
+            throw new NoSuchByteException(offset, "Element count " + elementSize + " exceeds the available input");
+        }
+    }
+
+    private static long findByPredicate(Predicate<Value> predicate, long offset, QueryContext queryContext,
+                                        RelocatableStreamValue streamValue) {
+
         Input input = queryContext.input();
         long position = offset + ByteSizes.headByteSize(input, offset);
 
         // Is fixed sized?
         int addInfo = additionalInfo(input, offset);
         if (addInfo == ADD_INFO_INDEFINITE) {
-            return findByPredicateIndefinite(predicate, position, input, queryContext);
+            return findByPredicateIndefinite(predicate, position, input, queryContext, streamValue);
         }
 
-        RelocatableStreamValue streamValue = new RelocatableStreamValue();
-        long elements = ElementCounts.dictionaryElementCount(input, offset);
+        long elements = ElementCounts.dictionaryElementCount(input, offset, queryContext.resourceLimits());
         for (long i = 0; i < elements; i++) {
             MajorType majorType = getMajorType(position, input);
             if (predicateMatch(predicate, position, majorType, input, queryContext, streamValue)) {
                 return position;
             }
 
-            // Key length
-            long length = length(input, majorType, position);
-
-            // Skip over value
-            position = skip(input, position + length);
+            // Skip over key and value
+            position = skip(skip(position, queryContext), queryContext);
         }
         return OFFSET_CODE_NULL;
     }
 
-    private static long findByPredicateIndefinite(Predicate<Value> predicate, long offset, //
-                                                  Input input, QueryContext queryContext) {
+    private static long findByPredicateIndefinite(Predicate<Value> predicate, long offset, Input input, //
+                                                  QueryContext queryContext, RelocatableStreamValue streamValue) {
 
-        RelocatableStreamValue streamValue = new RelocatableStreamValue();
         do {
             MajorType majorType = getMajorType(offset, input);
             if (predicateMatch(predicate, offset, majorType, input, queryContext, streamValue)) {
                 return offset;
             }
 
-            // Key length
-            long length = length(input, majorType, offset);
-
-            // Skip over value
-            offset = skip(input, offset + length);
+            // Skip over key and value
+            offset = skip(skip(offset, queryContext), queryContext);
         } while (input.offsetValid(offset) && Bytes.readUInt8(input, offset) != OPCODE_BREAK_MASK);
         return OFFSET_CODE_NULL;
     }
@@ -434,18 +581,114 @@ public final class Decoder
         return predicate.test(streamValue);
     }
 
+    private static long fractionScaleOffset(Input input, long offset) {
+        // Skip semantic tag header
+        offset += ByteSizes.headByteSize(input, offset);
+        // Verify sequence header
+        short sequenceHead = readUInt8(input, offset);
+        if (sequenceHead != DECIMAL_FRACTION_TWO_ELEMENT_SEQUENCE_HEAD) {
+            throw new IllegalArgumentException("Cannot read fraction, wrong data element");
+        }
+        // If ok skip sequence head
+        return offset + 1;
+    }
+
+    private static boolean isLongMantissa(Input input, long offset) {
+        short head = readUInt8(input, offset);
+        switch (MajorType.findMajorType(head)) {
+            case UnsignedInteger:
+            case NegativeInteger:
+                return additionalInfo(head) != ADD_INFO_EIGHT_BYTES || Bytes.readUInt64Long(input, offset + 1) >= 0;
+
+            case SemanticTag:
+                int tagId = readSemanticTagId(input, offset);
+                if (tagId != TAG_UNSIGNED_BIGNUM && tagId != TAG_NEGATIVE_BIGNUM) {
+                    return false;
+                }
+                long position = offset + ByteSizes.headByteSize(input, offset);
+                short itemHead = readUInt8(input, position);
+                if (MajorType.findMajorType(itemHead) != MajorType.ByteString || additionalInfo(itemHead) == ADD_INFO_INDEFINITE) {
+                    return false;
+                }
+                long dataSize = ByteSizes.stringDataSize(input, position);
+                long dataOffset = position + ByteSizes.headByteSize(input, position);
+                // Leading zero bytes don't contribute to the value
+                while (dataSize > 0 && input.read(dataOffset) == 0) {
+                    dataSize--;
+                    dataOffset++;
+                }
+                return dataSize < 8 || (dataSize == 8 && input.read(dataOffset) > 0);
+
+            default:
+                return false;
+        }
+    }
+
+    private static long readLongMantissa(Input input, long offset) {
+        short head = readUInt8(input, offset);
+        if (MajorType.findMajorType(head) != MajorType.SemanticTag) {
+            return readLong(input, offset);
+        }
+
+        // Unsigned or negative bignum, the magnitude is known to fit into a long
+        int tagId = readSemanticTagId(input, offset);
+        long position = offset + ByteSizes.headByteSize(input, offset);
+        long dataSize = ByteSizes.stringDataSize(input, position);
+        long dataOffset = position + ByteSizes.headByteSize(input, position);
+        long magnitude = 0;
+        for (long i = 0; i < dataSize; i++) {
+            magnitude = (magnitude << 8) | (input.read(dataOffset + i) & 0xff);
+        }
+        return tagId == TAG_NEGATIVE_BIGNUM ? -1 - magnitude : magnitude;
+    }
+
+    private static long readLong(Input input, long offset) {
+        short head = Bytes.readUInt8(input, offset);
+        long mask = -((head & 0xff) >>> 5);
+        int byteSize = ByteSizes.intByteSize(input, offset);
+        switch (byteSize) {
+            case 2:
+                return mask ^ Bytes.readUInt8(input, offset + 1);
+            case 3:
+                return mask ^ Bytes.readUInt16(input, offset + 1);
+            case 5:
+                return mask ^ Bytes.readUInt32(input, offset + 1);
+            case 9:
+                long value = Bytes.readUInt64Long(input, offset + 1);
+                if (value < 0) {
+                    throw new ArithmeticException("Value out of long range");
+                }
+                return mask ^ value;
+            default:
+                return mask ^ (head & ADDITIONAL_INFORMATION_MASK);
+        }
+    }
+
     private static String readString0(Input input, long offset, QueryContext queryContext) {
-        byte[] bytes = extractStringBytes(input, offset);
+        // Short strings (commonly dictionary keys) are canonicalized without temporary allocations
+        StringCache stringCache = queryContext.stringCache();
+        if (stringCache != null) {
+            long dataSize = ByteSizes.stringDataSize(input, offset);
+            if (dataSize == 0) {
+                return "";
+            }
+            if (stringCache.cacheable(dataSize)) {
+                long position = offset + ByteSizes.headByteSize(input, offset);
+                return stringCache.get(input, position, (int) dataSize, stringCharset(offset, queryContext));
+            }
+        }
+
+        byte[] bytes = extractStringBytes(input, offset, queryContext.resourceLimits());
         // Empty string
         if (bytes.length == 0) {
             return "";
         }
+        return new String(bytes, stringCharset(offset, queryContext));
+    }
 
+    private static Charset stringCharset(long offset, QueryContext queryContext) {
         ValueType valueType = queryContext.valueType(offset);
-        if (ValueTypes.ASCII == valueType) {
-            return new String(bytes, ASCII);
-        }
-        return new String(bytes, UTF8);
+        return ValueTypes.ASCII == valueType ? ASCII : UTF8;
     }
 
 }
@@ -39,15 +39,42 @@ public final class ElementCounts {
         }
     }
 
+    public static long elementCountByMajorType(MajorType majorType, Input input, long offset,
+                                               ResourceLimits resourceLimits) {
+
+        switch (majorType) {
+            case Sequence:
+                return sequenceElementCount(input, offset, resourceLimits);
+
+            case Dictionary:
+                return dictionaryElementCount(input, offset, resourceLimits);
+
+            default:
+                return 1;
+        }
+    }
+
     public static long sequenceElementCount(Input input, long offset) {
-        return elementCount(input, offset, false);
+        return elementCount(input, offset, false, ResourceLimits.UNLIMITED);
+    }
+
+    public static long sequenceElementCount(Input input, long offset, ResourceLimits resourceLimits) {
+        long elementCount = elementCount(input, offset, false, resourceLimits);
+        resourceLimits.checkContainerElements(elementCount, offset);
+        return elementCount;
     }
 
     public static long dictionaryElementCount(Input input, long offset) {
-        return elementCount(input, offset, true);
+        return elementCount(input, offset, true, ResourceLimits.UNLIMITED);
     }
 
-    private static long elementCount(Input input, long offset, boolean keyValue) {
+    public static long dictionaryElementCount(Input input, long offset, ResourceLimits resourceLimits) {
+        long elementCount = elementCount(input, offset, true, resourceLimits);
+        resourceLimits.checkContainerElements(elementCount, offset);
+        return elementCount;
+    }
+
+    private static long elementCount(Input input, long offset, boolean keyValue, ResourceLimits resourceLimits) {
         int addInfo = Decoder.additionalInfo(input, offset);
         switch (addInfo) {
             case Constants.ADD_INFO_ONE_BYTE:
@@ -63,14 +90,14 @@ public final class ElementCounts {
                 }
                 return value.longValue();
             case Constants.ADD_INFO_INDEFINITE:
-                return untilBreakCode(input, offset, keyValue);
+                return untilBreakCode(input, offset, keyValue, resourceLimits);
             default:
                 return addInfo;
         }
 
     }
 
-    private static long untilBreakCode(Input input, long offset, boolean keyValue) {
+    private static long untilBreakCode(Input input, long offset, boolean keyValue, ResourceLimits resourceLimits) {
         long headByteSize = ByteSizes.headByteSize(input, offset);
         long position = offset + headByteSize;
 
@@ -81,9 +108,17 @@ public final class ElementCounts {
             if ((head & Constants.OPCODE_BREAK_MASK) == Constants.OPCODE_BREAK_MASK) {
                 break;
             }
-            MajorType majorType = MajorType.findMajorType(head);
-            position += Decoder.length(input, majorType, position);
-            elementCount++;
+            if (WordScanner.isOneByteItem(head)) {
+                // Count runs of small integers and simple values word-wise
+                int run = Math.max(1, input.scanOneByteItems(position, Integer.MAX_VALUE));
+                position += run;
+                elementCount += run;
+            } else {
+                position += ByteSizes.byteSize(input, position, resourceLimits);
+                elementCount++;
+            }
+            // Stop counting early, indefinite containers have no upfront element count
+            resourceLimits.checkContainerElements(keyValue ? elementCount >> 1 : elementCount, offset);
         }
         if (keyValue) {
             return elementCount / 2;
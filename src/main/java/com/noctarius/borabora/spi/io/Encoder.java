@@ -30,6 +30,7 @@ import com.noctarius.borabora.spi.codec.TagStrategy;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Map;
 
@@ -154,8 +155,12 @@ public final class Encoder
 
     public static long putDateTime(ZonedDateTime dateTime, long offset, Output output) {
         offset = putSemanticTag(TAG_DATE_TIME, offset, output);
-        String string = dateTime.format(DATE_TIME_FRACTION_OFFSET_FORMAT);
-        return putRaw(string.getBytes(UTF8), MajorType.TextString, offset, output);
+        return DateTimes.put(dateTime, offset, output);
+    }
+
+    public static long putDateTime(Instant instant, long offset, Output output) {
+        offset = putSemanticTag(TAG_DATE_TIME, offset, output);
+        return DateTimes.put(instant, offset, output);
     }
 
     public static long putTimestamp(long timestamp, long offset, Output output) {
@@ -164,10 +169,20 @@ public final class Encoder
     }
 
     public static long putFraction(BigDecimal value, long offset, Output output) {
-        offset = putSemanticTag(TAG_FRACTION, offset, output);
-        offset = encodeLengthAndValue(MajorType.Sequence, 2, offset, output);
         int scale = value.scale();
         BigInteger unscaledValue = value.unscaledValue();
+        if (unscaledValue.bitLength() < Long.SIZE) {
+            return putFraction(unscaledValue.longValue(), scale, offset, output);
+        }
+        offset = putSemanticTag(TAG_FRACTION, offset, output);
+        offset = encodeLengthAndValue(MajorType.Sequence, 2, offset, output);
+        offset = putNumber(scale, offset, output);
+        return putNumber(unscaledValue, offset, output);
+    }
+
+    public static long putFraction(long unscaledValue, int scale, long offset, Output output) {
+        offset = putSemanticTag(TAG_FRACTION, offset, output);
+        offset = encodeLengthAndValue(MajorType.Sequence, 2, offset, output);
         offset = putNumber(scale, offset, output);
         return putNumber(unscaledValue, offset, output);
     }
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * The <tt>FrameDecoder</tt> is a resumable, non-blocking state machine to find the boundaries of
+ * top-level CBOR data items in a stream received in arbitrary fragments. Chunks are fed as they
+ * arrive, the decoder keeps the nesting and the pending head argument or string payload across
+ * calls and therefore processes every byte exactly once. String payloads are skipped in bulk.
+ * <p>Whenever a top-level data item is complete, the registered listener is called with the
+ * absolute stream offset directly after the item, which is the start of the next one.</p>
+ * <p>The FrameDecoder is <b>not</b> thread-safe. If malformed data is found an
+ * {@link IllegalStateException} is thrown and the decoder must be {@link #reset()} before reuse.</p>
+ */
+public final class FrameDecoder {
+
+    private static final int INITIAL_STACK_SIZE = 16;
+    private static final int SCRATCH_SIZE = 512;
+    private static final long INDEFINITE = -1;
+    private static final int BREAK_CODE = 0xFF;
+
+    private static final int STATE_HEAD = 0;
+    private static final int STATE_ARGUMENT = 1;
+    private static final int STATE_PAYLOAD = 2;
+
+    private final LongConsumer frameListener;
+
+    // Remaining data items per open container, INDEFINITE until a break code
+    private long[] remaining = new long[INITIAL_STACK_SIZE];
+    private int depth;
+
+    private int state;
+    private int majorType;
+    private int argumentBytes;
+    private long argument;
+    private long payload;
+    private boolean tagged;
+
+    private long position;
+    private long frames;
+
+    private byte[] scratch;
+
+    private FrameDecoder(LongConsumer frameListener) {
+        this.frameListener = frameListener;
+    }
+
+    /**
+     * Feeds the next chunk of the stream into the decoder.
+     *
+     * @param bytes  the array containing the chunk
+     * @param from   the start of the chunk inside the array
+     * @param length the length of the chunk
+     * @throws IllegalStateException is thrown whenever malformed data was found
+     */
+    public void feed(byte[] bytes, int from, int length) {
+        Objects.requireNonNull(bytes, "bytes must not be null");
+        if (from < 0 || length < 0 || from + length > bytes.length) {
+            throw new IndexOutOfBoundsException("from: " + from + ", length: " + length);
+        }
+
+        int index = from;
+        int end = from + length;
+        while (index < end) {
+            switch (state) {
+                case STATE_HEAD:
+                    position++;
+                    head(bytes[index++] & 0xFF);
+                    break;
+
+                case STATE_ARGUMENT:
+                    position++;
+                    argument = (argument << 8) | (bytes[index++] & 0xFF);
+                    if (--argumentBytes == 0) {
+                        argumentComplete();
+                    }
+                    break;
+
+                default:
+                    // Skip as much of the string payload as available
+                    int skip = (int) Math.min(payload, end - index);
+                    index += skip;
+                    position += skip;
+                    payload -= skip;
+                    if (payload == 0) {
+                        state = STATE_HEAD;
+                        itemComplete();
+                    }
+            }
+        }
+    }
+
+    /**
+     * Feeds all remaining bytes of the given <tt>buffer</tt> into the decoder. The buffer's position
+     * is moved to its limit.
+     *
+     * @param buffer the buffer containing the chunk
+     * @throws IllegalStateException is thrown whenever malformed data was found
+     */
+    public void feed(ByteBuffer buffer) {
+        Objects.requireNonNull(buffer, "buffer must not be null");
+        if (buffer.hasArray()) {
+            feed(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+            return;
+        }
+
+        if (scratch == null) {
+            scratch = new byte[SCRATCH_SIZE];
+        }
+        while (buffer.hasRemaining()) {
+            int length = Math.min(scratch.length, buffer.remaining());
+            buffer.get(scratch, 0, length);
+            feed(scratch, 0, length);
+        }
+    }
+
+    /**
+     * Returns the number of bytes fed into the decoder since creation or the last reset.
+     *
+     * @return the number of bytes fed
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Returns the number of complete top-level data items found.
+     *
+     * @return the number of complete top-level data items
+     */
+    public long frames() {
+        return frames;
+    }
+
+    /**
+     * Returns the nesting depth of the currently incomplete data item.
+     *
+     * @return the current nesting depth
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns <tt>true</tt> if all bytes fed so far belong to complete top-level data items,
+     * otherwise <tt>false</tt>.
+     *
+     * @return true if the decoder is at a frame boundary, otherwise false
+     */
+    public boolean atFrameBoundary() {
+        return depth == 0 && state == STATE_HEAD && !tagged;
+    }
+
+    /**
+     * Resets the decoder to its initial state. Position and frame count start over at <tt>0</tt>.
+     */
+    public void reset() {
+        depth = 0;
+        state = STATE_HEAD;
+        argumentBytes = 0;
+        argument = 0;
+        payload = 0;
+        tagged = false;
+        position = 0;
+        frames = 0;
+    }
+
+    private void head(int head) {
+        if (head == BREAK_CODE) {
+            breakCode();
+            return;
+        }
+
+        int majorType = head >>> 5;
+        int addInfo = head & Constants.ADDITIONAL_INFORMATION_MASK;
+        if (majorType != Constants.MT_SEMANTIC_TAG) {
+            tagged = false;
+        }
+
+        this.majorType = majorType;
+        if (addInfo < Constants.ADD_INFO_ONE_BYTE) {
+            argument = addInfo;
+            argumentComplete();
+
+        } else if (addInfo <= Constants.ADD_INFO_EIGHT_BYTES) {
+            argument = 0;
+            argumentBytes = 1 << (addInfo - Constants.ADD_INFO_ONE_BYTE);
+            state = STATE_ARGUMENT;
+
+        } else if (addInfo == Constants.ADD_INFO_INDEFINITE) {
+            switch (majorType) {
+                case Constants.MT_BYTESTRING:
+                case Constants.MT_TEXTSTRING:
+                case Constants.MT_SEQUENCE:
+                case Constants.MT_DICTIONARY:
+                    push(INDEFINITE);
+                    break;
+                default:
+                    throw new IllegalStateException("Indefinite length not allowed for major type " + majorType);
+            }
+
+        } else {
+            throw new IllegalStateException("28|29|30 are unassigned");
+        }
+    }
+
+    private void argumentComplete() {
+        state = STATE_HEAD;
+        switch (majorType) {
+            case Constants.MT_BYTESTRING:
+            case Constants.MT_TEXTSTRING:
+                checkLength(argument);
+                if (argument == 0) {
+                    itemComplete();
+                } else {
+                    payload = argument;
+                    state = STATE_PAYLOAD;
+                }
+                break;
+
+            case Constants.MT_SEQUENCE:
+                checkLength(argument);
+                container(argument);
+                break;
+
+            case Constants.MT_DICTIONARY:
+                checkLength(argument);
+                if (argument > Long.MAX_VALUE / 2) {
+                    throw new IllegalStateException("Object sizes larger Long.MAX_VALUE are not supported");
+                }
+                container(argument * 2);
+                break;
+
+            case Constants.MT_SEMANTIC_TAG:
+                // The tagged data item follows
+                tagged = true;
+                break;
+
+            default:
+                itemComplete();
+        }
+    }
+
+    private void breakCode() {
+        if (depth == 0 || remaining[depth - 1] != INDEFINITE || tagged) {
+            throw new IllegalStateException("Unexpected break code at offset " + (position - 1));
+        }
+        depth--;
+        itemComplete();
+    }
+
+    private void container(long elements) {
+        if (elements == 0) {
+            itemComplete();
+        } else {
+            push(elements);
+        }
+    }
+
+    private void push(long elements) {
+        if (depth == remaining.length) {
+            remaining = Arrays.copyOf(remaining, depth * 2);
+        }
+        remaining[depth++] = elements;
+    }
+
+    private void itemComplete() {
+        while (depth > 0) {
+            int top = depth - 1;
+            if (remaining[top] == INDEFINITE || --remaining[top] > 0) {
+                return;
+            }
+            // Definite container complete, counts as an item of its parent
+            depth--;
+        }
+        frames++;
+        frameListener.accept(position);
+    }
+
+    private static void checkLength(long length) {
+        if (length < 0) {
+            throw new IllegalStateException("Object sizes larger Long.MAX_VALUE are not supported");
+        }
+    }
+
+    /**
+     * Creates a new <tt>FrameDecoder</tt> instance which calls the given <tt>frameListener</tt>
+     * with the end offset (exclusive) of every complete top-level data item.
+     *
+     * @param frameListener the listener to notify on complete top-level data items
+     * @return a new FrameDecoder instance
+     * @throws NullPointerException if frameListener is null
+     */
+    public static FrameDecoder newFrameDecoder(LongConsumer frameListener) {
+        Objects.requireNonNull(frameListener, "frameListener must not be null");
+        return new FrameDecoder(frameListener);
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.ValueTypes;
+
+/**
+ * The <tt>HeadTables</tt> class contains precomputed lookup tables for all 256 possible head bytes
+ * of CBOR data items. Each table is indexed by the unsigned head byte and answers the most common
+ * questions (major type, head byte size, fixed byte size, base value type) with a single array
+ * access instead of repeatedly masking and switching over the same head byte.
+ */
+public final class HeadTables {
+
+    private static final int TABLE_SIZE = 256;
+
+    private static final MajorType[] MAJOR_TYPES = new MajorType[TABLE_SIZE];
+    private static final ValueTypes[] VALUE_TYPES = new ValueTypes[TABLE_SIZE];
+    private static final byte[] HEAD_BYTE_SIZES = new byte[TABLE_SIZE];
+    private static final byte[] FIXED_BYTE_SIZES = new byte[TABLE_SIZE];
+
+    static {
+        MajorType[] majorTypes = MajorType.values();
+        for (int head = 0; head < TABLE_SIZE; head++) {
+            MajorType majorType = majorTypes[head >>> 5];
+            int addInfo = head & Constants.ADDITIONAL_INFORMATION_MASK;
+
+            int headByteSize = headByteSize(addInfo);
+            MAJOR_TYPES[head] = majorType;
+            VALUE_TYPES[head] = valueType(majorType, addInfo);
+            HEAD_BYTE_SIZES[head] = (byte) headByteSize;
+            FIXED_BYTE_SIZES[head] = (byte) fixedByteSize(majorType, addInfo, headByteSize);
+        }
+    }
+
+    private HeadTables() {
+    }
+
+    /**
+     * Returns the {@link MajorType} of the given head byte.
+     *
+     * @param head the head byte
+     * @return the MajorType of the head byte
+     */
+    public static MajorType majorType(short head) {
+        return MAJOR_TYPES[head & 0xFF];
+    }
+
+    /**
+     * Returns the base {@link ValueTypes} of the given head byte. Semantic tags cannot be resolved
+     * based on the head byte and are returned as {@link ValueTypes#Unknown}.
+     *
+     * @param head the head byte
+     * @return the base ValueType of the head byte
+     */
+    public static ValueTypes valueType(short head) {
+        return VALUE_TYPES[head & 0xFF];
+    }
+
+    /**
+     * Returns the number of bytes of the head, including the head byte and the following length or
+     * value bytes. For reserved additional information values (<tt>28</tt>, <tt>29</tt>, <tt>30</tt>)
+     * <tt>0</tt> is returned.
+     *
+     * @param head the head byte
+     * @return the number of bytes of the head, or 0 if reserved
+     */
+    public static int headByteSize(short head) {
+        return HEAD_BYTE_SIZES[head & 0xFF];
+    }
+
+    /**
+     * Returns the overall number of bytes of the data item if it can be calculated from the head byte
+     * alone (integers, short strings, empty containers, floats and simple values), otherwise
+     * <tt>0</tt> is returned.
+     *
+     * @param head the head byte
+     * @return the number of bytes of the data item, or 0 if it depends on further data
+     */
+    public static int fixedByteSize(short head) {
+        return FIXED_BYTE_SIZES[head & 0xFF];
+    }
+
+    private static int headByteSize(int addInfo) {
+        switch (addInfo) {
+            case Constants.ADD_INFO_ONE_BYTE:
+                return 2;
+            case Constants.ADD_INFO_TWO_BYTES:
+                return 3;
+            case Constants.ADD_INFO_FOUR_BYTES:
+                return 5;
+            case Constants.ADD_INFO_EIGHT_BYTES:
+                return 9;
+            case Constants.ADD_INFO_RESERVED_1: // Unassigned
+            case Constants.ADD_INFO_RESERVED_2: // Unassigned
+            case Constants.ADD_INFO_RESERVED_3: // Unassigned
+                return 0;
+            default:
+                return 1;
+        }
+    }
+
+    private static int fixedByteSize(MajorType majorType, int addInfo, int headByteSize) {
+        switch (majorType) {
+            case UnsignedInteger:
+            case NegativeInteger:
+                return headByteSize;
+            case ByteString:
+            case TextString:
+                return addInfo < Constants.ADD_INFO_ONE_BYTE ? 1 + addInfo : 0;
+            case Sequence:
+            case Dictionary:
+                return addInfo == 0 ? 1 : 0;
+            case FloatingPointOrSimple:
+                return addInfo < Constants.ADD_INFO_RESERVED_1 ? headByteSize : 0;
+            default:
+                return 0;
+        }
+    }
+
+    private static ValueTypes valueType(MajorType majorType, int addInfo) {
+        switch (majorType) {
+            case UnsignedInteger:
+                return ValueTypes.UInt;
+            case NegativeInteger:
+                return ValueTypes.NInt;
+            case ByteString:
+                return ValueTypes.ByteString;
+            case TextString:
+                return ValueTypes.TextString;
+            case Sequence:
+                return ValueTypes.Sequence;
+            case Dictionary:
+                return ValueTypes.Dictionary;
+            case FloatingPointOrSimple:
+                switch (addInfo) {
+                    case Constants.FP_VALUE_NULL:
+                        return ValueTypes.Null;
+                    case Constants.FP_VALUE_TRUE:
+                    case Constants.FP_VALUE_FALSE:
+                        return ValueTypes.Bool;
+                    case Constants.FP_VALUE_UNDEF:
+                        return ValueTypes.Undefined;
+                    default:
+                        return ValueTypes.Float;
+                }
+            default: // Always a semantic tag
+                return ValueTypes.Unknown;
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.ResourceLimitExceededException;
+
+/**
+ * The <tt>ResourceLimits</tt> class defines upper bounds to protect a parser from hostile
+ * inputs, such as headers claiming billions of elements or deeply nested containers. All
+ * checks are simple comparisons and throw a {@link ResourceLimitExceededException} when a
+ * limit is exceeded. Instances are immutable and can be shared between threads.
+ */
+public final class ResourceLimits {
+
+    /**
+     * The <tt>UNLIMITED</tt> instance does not restrict any resource.
+     */
+    public static final ResourceLimits UNLIMITED = new ResourceLimits( //
+            Integer.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final int maxNestingDepth;
+    private final long maxContainerElements;
+    private final long maxStringLength;
+    private final long maxBytesScanned;
+    private final long maxMaterializedElements;
+
+    private ResourceLimits(int maxNestingDepth, long maxContainerElements, long maxStringLength, long maxBytesScanned,
+                           long maxMaterializedElements) {
+
+        this.maxNestingDepth = maxNestingDepth;
+        this.maxContainerElements = maxContainerElements;
+        this.maxStringLength = maxStringLength;
+        this.maxBytesScanned = maxBytesScanned;
+        this.maxMaterializedElements = maxMaterializedElements;
+    }
+
+    /**
+     * Returns the maximum number of nested sequences and dictionaries.
+     *
+     * @return the maximum nesting depth
+     */
+    public int maxNestingDepth() {
+        return maxNestingDepth;
+    }
+
+    /**
+     * Returns the maximum number of elements (or key-value pairs) of a single container.
+     *
+     * @return the maximum container element count
+     */
+    public long maxContainerElements() {
+        return maxContainerElements;
+    }
+
+    /**
+     * Returns the maximum number of payload bytes of a single string.
+     *
+     * @return the maximum string length
+     */
+    public long maxStringLength() {
+        return maxStringLength;
+    }
+
+    /**
+     * Returns the maximum number of bytes a single query may skip over.
+     *
+     * @return the maximum bytes scanned per query
+     */
+    public long maxBytesScanned() {
+        return maxBytesScanned;
+    }
+
+    /**
+     * Returns the maximum number of container elements a single query may materialize.
+     *
+     * @return the maximum materialized elements per query
+     */
+    public long maxMaterializedElements() {
+        return maxMaterializedElements;
+    }
+
+    public void checkNestingDepth(int nestingDepth, long offset) {
+        if (nestingDepth > maxNestingDepth) {
+            throw exceeded(offset, "Nesting depth", maxNestingDepth);
+        }
+    }
+
+    public void checkContainerElements(long elements, long offset) {
+        if (elements > maxContainerElements) {
+            throw exceeded(offset, "Container element count", maxContainerElements);
+        }
+    }
+
+    public void checkStringLength(long length, long offset) {
+        if (length > maxStringLength) {
+            throw exceeded(offset, "String length", maxStringLength);
+        }
+    }
+
+    public void checkBytesScanned(long bytesScanned, long offset) {
+        if (bytesScanned > maxBytesScanned) {
+            throw exceeded(offset, "Scanned bytes", maxBytesScanned);
+        }
+    }
+
+    public void checkMaterializedElements(long elements, long offset) {
+        if (elements > maxMaterializedElements) {
+            throw exceeded(offset, "Materialized element count", maxMaterializedElements);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceLimits{" + "maxNestingDepth=" + maxNestingDepth + ", maxContainerElements=" + maxContainerElements
+                + ", maxStringLength=" + maxStringLength + ", maxBytesScanned=" + maxBytesScanned
+                + ", maxMaterializedElements=" + maxMaterializedElements + '}';
+    }
+
+    /**
+     * Returns a new <tt>ResourceLimits</tt> instance with the given bounds. Use
+     * {@link Integer#MAX_VALUE} or {@link Long#MAX_VALUE} to not restrict a single resource.
+     *
+     * @param maxNestingDepth         the maximum nesting depth, must be positive
+     * @param maxContainerElements    the maximum element count of a single container, must not be negative
+     * @param maxStringLength         the maximum payload length of a single string, must not be negative
+     * @param maxBytesScanned         the maximum bytes scanned per query, must be positive
+     * @param maxMaterializedElements the maximum materialized elements per query, must not be negative
+     * @return a new ResourceLimits instance
+     * @throws IllegalArgumentException if one of the bounds is out of range
+     */
+    public static ResourceLimits newResourceLimits(int maxNestingDepth, long maxContainerElements, long maxStringLength,
+                                                   long maxBytesScanned, long maxMaterializedElements) {
+
+        checkArgument(maxNestingDepth > 0, "maxNestingDepth must be positive");
+        checkArgument(maxContainerElements >= 0, "maxContainerElements must not be negative");
+        checkArgument(maxStringLength >= 0, "maxStringLength must not be negative");
+        checkArgument(maxBytesScanned > 0, "maxBytesScanned must be positive");
+        checkArgument(maxMaterializedElements >= 0, "maxMaterializedElements must not be negative");
+        return new ResourceLimits(maxNestingDepth, maxContainerElements, maxStringLength, maxBytesScanned,
+                maxMaterializedElements);
+    }
+
+    private static void checkArgument(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static ResourceLimitExceededException exceeded(long offset, String resource, long limit) {
+        return new ResourceLimitExceededException(offset, resource + " exceeds the limit of " + limit);
+    }
+
+}
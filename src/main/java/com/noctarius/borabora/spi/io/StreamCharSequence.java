@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.MajorType;
+
+import static com.noctarius.borabora.spi.io.Constants.ADD_INFO_INDEFINITE;
+import static com.noctarius.borabora.spi.io.Constants.OPCODE_BREAK_MASK;
+
+/**
+ * The <tt>StreamCharSequence</tt> is a lazy {@link CharSequence} view over a string's data bytes
+ * inside an {@link Input}. Characters are decoded directly from the stream on access, bytes are
+ * never copied out. ASCII only strings are accessed in O(1), for other UTF-8 strings a sparse index
+ * (char index to byte position) is built on first access. Indefinite length strings, as well as
+ * sequences of ASCII strings, are handled by mapping the logical byte positions to the chunks
+ * inside the stream.
+ */
+final class StreamCharSequence
+        implements CharSequence {
+
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+    // Number of characters between two index checkpoints
+    private static final int INDEX_STRIDE = 32;
+
+    private final Input input;
+    private final long[] chunkOffsets;
+    private final long[] chunkPositions;
+    private final long byteLength;
+
+    private volatile CharIndex charIndex;
+
+    private StreamCharSequence(Input input, long[] chunkOffsets, long[] chunkPositions, long byteLength, boolean ascii) {
+        this.input = input;
+        this.chunkOffsets = chunkOffsets;
+        this.chunkPositions = chunkPositions;
+        this.byteLength = byteLength;
+        if (ascii) {
+            this.charIndex = new CharIndex(checkLength(byteLength), true, null, null);
+        }
+    }
+
+    @Override
+    public int length() {
+        return charIndex().length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        CharIndex charIndex = charIndex();
+        if (index < 0 || index >= charIndex.length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+
+        if (charIndex.ascii) {
+            byte b = readByte(index);
+            return b < 0 ? REPLACEMENT_CHARACTER : (char) b;
+        }
+
+        // Find the nearest checkpoint and walk from there
+        int checkpoint = index / INDEX_STRIDE;
+        if (charIndex.charIndexes[checkpoint] > index) {
+            checkpoint--;
+        }
+
+        int charPosition = charIndex.charIndexes[checkpoint];
+        long bytePosition = charIndex.bytePositions[checkpoint];
+        while (true) {
+            int codePoint = decodeCodePoint(bytePosition);
+            int charCount = Character.charCount(codePoint);
+            if (index < charPosition + charCount) {
+                if (charCount == 1) {
+                    return (char) codePoint;
+                }
+                return index == charPosition ? Character.highSurrogate(codePoint) : Character.lowSurrogate(codePoint);
+            }
+            charPosition += charCount;
+            bytePosition += codePointByteSize(bytePosition);
+        }
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new StringIndexOutOfBoundsException("start: " + start + ", end: " + end);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            sb.append(charAt(i));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        CharIndex charIndex = charIndex();
+        char[] chars = new char[charIndex.length];
+        if (charIndex.ascii) {
+            for (int i = 0; i < chars.length; i++) {
+                byte b = readByte(i);
+                chars[i] = b < 0 ? REPLACEMENT_CHARACTER : (char) b;
+            }
+        } else {
+            int charPosition = 0;
+            long bytePosition = 0;
+            while (bytePosition < byteLength) {
+                int codePoint = decodeCodePoint(bytePosition);
+                charPosition += Character.toChars(codePoint, chars, charPosition);
+                bytePosition += codePointByteSize(bytePosition);
+            }
+        }
+        return new String(chars);
+    }
+
+    private CharIndex charIndex() {
+        CharIndex charIndex = this.charIndex;
+        if (charIndex == null) {
+            charIndex = buildCharIndex();
+            this.charIndex = charIndex;
+        }
+        return charIndex;
+    }
+
+    private CharIndex buildCharIndex() {
+        // Most strings are ASCII only, no index necessary
+        boolean ascii = true;
+        for (long i = 0; i < byteLength; i++) {
+            if (readByte(i) < 0) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            return new CharIndex(checkLength(byteLength), true, null, null);
+        }
+
+        int checkpoints = checkLength(byteLength / INDEX_STRIDE + 1);
+        int[] charIndexes = new int[checkpoints];
+        long[] bytePositions = new long[checkpoints];
+
+        int checkpoint = 1;
+        int charPosition = 0;
+        long bytePosition = 0;
+        while (bytePosition < byteLength) {
+            // Record a checkpoint for the code point which crosses the next stride
+            if (charPosition >= checkpoint * INDEX_STRIDE) {
+                charIndexes[checkpoint] = charPosition;
+                bytePositions[checkpoint] = bytePosition;
+                checkpoint++;
+            }
+            charPosition += Character.charCount(decodeCodePoint(bytePosition));
+            bytePosition += codePointByteSize(bytePosition);
+        }
+        return new CharIndex(charPosition, false, charIndexes, bytePositions);
+    }
+
+    private int decodeCodePoint(long position) {
+        int b0 = readByte(position) & 0xFF;
+        int byteSize = codePointByteSize(position);
+        switch (byteSize) {
+            case 1:
+                return b0 < 0x80 ? b0 : REPLACEMENT_CHARACTER;
+            case 2:
+                return ((b0 & 0x1F) << 6) | (readByte(position + 1) & 0x3F);
+            case 3:
+                return ((b0 & 0x0F) << 12) | ((readByte(position + 1) & 0x3F) << 6) //
+                        | (readByte(position + 2) & 0x3F);
+            default:
+                int codePoint = ((b0 & 0x07) << 18) | ((readByte(position + 1) & 0x3F) << 12) //
+                        | ((readByte(position + 2) & 0x3F) << 6) | (readByte(position + 3) & 0x3F);
+                return Character.isValidCodePoint(codePoint) ? codePoint : REPLACEMENT_CHARACTER;
+        }
+    }
+
+    private int codePointByteSize(long position) {
+        int b0 = readByte(position) & 0xFF;
+        int byteSize;
+        if (b0 < 0xC0) {
+            // ASCII or illegal continuation byte
+            return 1;
+        } else if (b0 < 0xE0) {
+            byteSize = 2;
+        } else if (b0 < 0xF0) {
+            byteSize = 3;
+        } else if (b0 < 0xF8) {
+            byteSize = 4;
+        } else {
+            return 1;
+        }
+
+        // Malformed or truncated sequences are replaced byte by byte
+        if (position + byteSize > byteLength) {
+            return 1;
+        }
+        for (int i = 1; i < byteSize; i++) {
+            if ((readByte(position + i) & 0xC0) != 0x80) {
+                return 1;
+            }
+        }
+        return byteSize;
+    }
+
+    private byte readByte(long position) {
+        if (chunkOffsets.length == 1) {
+            return input.read(chunkOffsets[0] + position);
+        }
+
+        // Binary search the chunk containing the position
+        int low = 0;
+        int high = chunkPositions.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunkPositions[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return input.read(chunkOffsets[low] + position - chunkPositions[low]);
+    }
+
+    private static int checkLength(long length) {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("CharSequence length larger than Integer.MAX_VALUE");
+        }
+        return (int) length;
+    }
+
+    static CharSequence newCharSequence(Input input, long offset, boolean ascii) {
+        MajorType majorType = Decoder.getMajorType(offset, input);
+        int addInfo = Decoder.additionalInfo(input, offset);
+        if (majorType != MajorType.Sequence && addInfo != ADD_INFO_INDEFINITE) {
+            long dataSize = ByteSizes.stringDataSize(input, offset);
+            long dataOffset = offset + ByteSizes.headByteSize(input, offset);
+            return new StreamCharSequence(input, new long[]{dataOffset}, new long[]{0}, dataSize, ascii);
+        }
+
+        // Indefinite strings and sequences of ASCII strings are made of chunks
+        long elements = addInfo == ADD_INFO_INDEFINITE ? -1 : ElementCounts.sequenceElementCount(input, offset);
+        long start = offset + ByteSizes.headByteSize(input, offset);
+
+        // Count chunks first to prevent growing arrays
+        int chunks = 0;
+        long position = start;
+        while (hasNextChunk(input, position, chunks, elements)) {
+            long chunkOffset = chunkOffset(input, position);
+            position = chunkOffset + ByteSizes.stringByteSize(input, chunkOffset);
+            chunks++;
+        }
+
+        long[] chunkOffsets = new long[Math.max(1, chunks)];
+        long[] chunkPositions = new long[Math.max(1, chunks)];
+        long byteLength = 0;
+        position = start;
+        for (int i = 0; i < chunks; i++) {
+            long chunkOffset = chunkOffset(input, position);
+            long dataSize = ByteSizes.stringDataSize(input, chunkOffset);
+            chunkOffsets[i] = chunkOffset + ByteSizes.headByteSize(input, chunkOffset);
+            chunkPositions[i] = byteLength;
+            byteLength += dataSize;
+            position = chunkOffsets[i] + dataSize;
+        }
+        return new StreamCharSequence(input, chunkOffsets, chunkPositions, byteLength, ascii);
+    }
+
+    private static boolean hasNextChunk(Input input, long position, int chunks, long elements) {
+        if (elements == -1) {
+            return (Decoder.readUInt8(input, position) & OPCODE_BREAK_MASK) != OPCODE_BREAK_MASK;
+        }
+        return chunks < elements;
+    }
+
+    private static long chunkOffset(Input input, long position) {
+        // Elements of ASCII string sequences are semantic tagged themselves
+        if (Decoder.getMajorType(position, input) == MajorType.SemanticTag) {
+            return position + ByteSizes.intByteSize(input, position);
+        }
+        return position;
+    }
+
+    private static final class CharIndex {
+        private final int length;
+        private final boolean ascii;
+        private final int[] charIndexes;
+        private final long[] bytePositions;
+
+        private CharIndex(int length, boolean ascii, int[] charIndexes, long[] bytePositions) {
+            this.length = length;
+            this.ascii = ascii;
+            this.charIndexes = charIndexes;
+            this.bytePositions = bytePositions;
+        }
+    }
+
+}
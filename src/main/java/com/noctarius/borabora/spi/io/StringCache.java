@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.Input;
+
+import java.nio.charset.Charset;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The <tt>StringCache</tt> class maps the raw bytes of short strings (commonly dictionary keys) to
+ * a canonical {@link String} instance. The cache is bounded by a fixed number of slots and
+ * lock-free. Each slot holds a single immutable entry, colliding strings simply replace each other.
+ * The hash of a string is calculated directly from the {@link Input}, therefore cache hits neither
+ * allocate a temporary byte-array nor a new String instance.
+ * <p>A <tt>StringCache</tt> is fully thread-safe and meant to be shared by all queries executed by
+ * the same {@link com.noctarius.borabora.Parser} instance.</p>
+ */
+public final class StringCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_STRING_LENGTH = 64;
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int maxStringLength;
+    private final int mask;
+
+    private StringCache(int capacity, int maxStringLength) {
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.maxStringLength = maxStringLength;
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns <tt>true</tt> if strings of the given data length (in bytes) are cached, otherwise
+     * <tt>false</tt>.
+     *
+     * @param length the string's data length in bytes
+     * @return true if strings of the given length are cached, otherwise false
+     */
+    public boolean cacheable(long length) {
+        return length <= maxStringLength;
+    }
+
+    /**
+     * Returns the canonical {@link String} instance for the <tt>length</tt> bytes starting at the
+     * given <tt>offset</tt>. If no such string is cached yet, the bytes are decoded using the given
+     * <tt>charset</tt> and the result is stored in the cache.
+     *
+     * @param input   the input to read from
+     * @param offset  the offset of the first data byte of the string
+     * @param length  the data length of the string in bytes
+     * @param charset the charset to decode the string with on a cache miss
+     * @return the canonical String instance
+     */
+    public String get(Input input, long offset, int length, Charset charset) {
+        int hash = hash(input, offset, length);
+        int index = hash & mask;
+
+        Entry entry = entries.get(index);
+        if (entry != null && entry.hash == hash && entry.bytes.length == length //
+                && input.equals(offset, entry.bytes, 0, length)) {
+            return entry.value;
+        }
+
+        byte[] bytes = new byte[length];
+        input.read(bytes, offset, length);
+        String value = new String(bytes, charset);
+        entries.lazySet(index, new Entry(hash, bytes, value));
+        return value;
+    }
+
+    /**
+     * Returns the canonical {@link String} instance equal to the given <tt>value</tt>. If no such
+     * string is cached yet, the given value is stored in the cache and returned. Only ASCII only
+     * strings are interned, all other values are returned as is.
+     *
+     * @param value the value to intern
+     * @return the canonical String instance
+     */
+    public String intern(String value) {
+        Objects.requireNonNull(value, "value must not be null");
+        int length = value.length();
+        if (!cacheable(length)) {
+            return value;
+        }
+
+        // For ASCII only strings the characters equal the UTF-8 bytes
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c > 0x7F) {
+                return value;
+            }
+            hash = 31 * hash + c;
+        }
+        hash = spread(hash);
+        int index = hash & mask;
+
+        Entry entry = entries.get(index);
+        if (entry != null && entry.hash == hash && entry.value.equals(value)) {
+            return entry.value;
+        }
+
+        entries.lazySet(index, new Entry(hash, value.getBytes(Constants.ASCII), value));
+        return value;
+    }
+
+    /**
+     * Returns a new <tt>StringCache</tt> instance with {@link #DEFAULT_CAPACITY} slots caching strings
+     * up to {@link #DEFAULT_MAX_STRING_LENGTH} bytes.
+     *
+     * @return the new StringCache instance
+     */
+    public static StringCache newStringCache() {
+        return newStringCache(DEFAULT_CAPACITY, DEFAULT_MAX_STRING_LENGTH);
+    }
+
+    /**
+     * Returns a new <tt>StringCache</tt> instance with the given number of slots (<tt>capacity</tt>),
+     * caching strings up to <tt>maxStringLength</tt> bytes. The capacity is rounded up to the next
+     * power of two.
+     *
+     * @param capacity        the number of slots
+     * @param maxStringLength the maximum data length of cached strings in bytes
+     * @return the new StringCache instance
+     * @throws IllegalArgumentException if capacity or maxStringLength are less than 1
+     */
+    public static StringCache newStringCache(int capacity, int maxStringLength) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        if (maxStringLength < 1) {
+            throw new IllegalArgumentException("maxStringLength must be larger than 0");
+        }
+        int slots = Integer.highestOneBit(capacity);
+        if (slots < capacity) {
+            slots <<= 1;
+        }
+        return new StringCache(slots, maxStringLength);
+    }
+
+    private static int hash(Input input, long offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + (input.read(offset + i) & 0xFF);
+        }
+        return spread(hash);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry {
+        private final int hash;
+        private final byte[] bytes;
+        private final String value;
+
+        private Entry(int hash, byte[] bytes, String value) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.value = value;
+        }
+    }
+
+}
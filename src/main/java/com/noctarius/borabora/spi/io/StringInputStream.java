@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.WrongTypeException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * The <tt>StringInputStream</tt> reads the payload of a ByteString or TextString directly from
+ * the underlying {@link Input}, chunks of indefinite length strings are read one after another.
+ * Payloads are never copied into an intermediate buffer as a whole, therefore strings of any
+ * length, up to 64 bit, can be read with constant memory.
+ * <p>Instances are not thread-safe, closing the stream has no effect on the underlying input.</p>
+ */
+public final class StringInputStream
+        extends InputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Input input;
+    private final boolean indefinite;
+
+    private long position;
+    private long remaining;
+    private boolean finished;
+    private byte[] buffer;
+
+    private StringInputStream(Input input, long offset) {
+        this.input = input;
+        this.indefinite = Decoder.additionalInfo(input, offset) == Constants.ADD_INFO_INDEFINITE;
+        if (indefinite) {
+            this.position = offset + 1;
+        } else {
+            this.remaining = ByteSizes.stringDataSize(input, offset);
+            this.position = offset + ByteSizes.headByteSize(input, offset);
+        }
+    }
+
+    @Override
+    public int read()
+            throws IOException {
+
+        if (!nextChunk()) {
+            return -1;
+        }
+        remaining--;
+        return input.read(position++) & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len)
+            throws IOException {
+
+        Objects.requireNonNull(bytes, "bytes must not be null");
+        if (off < 0 || len < 0 || len > bytes.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+
+        int length = (int) Math.min(len, remaining);
+        if (off == 0) {
+            input.read(bytes, position, length);
+        } else {
+            // Input only reads to the start of a byte-array
+            length = Math.min(length, BUFFER_SIZE);
+            byte[] buffer = buffer();
+            input.read(buffer, position, length);
+            System.arraycopy(buffer, 0, bytes, off, length);
+        }
+        position += length;
+        remaining -= length;
+        return length;
+    }
+
+    @Override
+    public long skip(long n)
+            throws IOException {
+
+        long skipped = 0;
+        while (skipped < n && nextChunk()) {
+            long length = Math.min(n - skipped, remaining);
+            position += length;
+            remaining -= length;
+            skipped += length;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available()
+            throws IOException {
+
+        return (int) Math.min(Integer.MAX_VALUE, remaining);
+    }
+
+    private boolean nextChunk() {
+        while (remaining == 0) {
+            if (!indefinite || finished) {
+                return false;
+            }
+            short head = Decoder.readUInt8(input, position);
+            if ((head & Constants.OPCODE_BREAK_MASK) == Constants.OPCODE_BREAK_MASK) {
+                finished = true;
+                return false;
+            }
+            // Chunks are always definite length strings
+            remaining = ByteSizes.stringDataSize(input, position);
+            position += ByteSizes.headByteSize(input, position);
+        }
+        return true;
+    }
+
+    private byte[] buffer() {
+        if (buffer == null) {
+            buffer = new byte[BUFFER_SIZE];
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a new <tt>StringInputStream</tt> reading the payload of the ByteString or TextString
+     * at the given <tt>offset</tt>. If the data item is not a string a {@link WrongTypeException}
+     * is thrown.
+     *
+     * @param input  the input to read from
+     * @param offset the offset of the string's header
+     * @return a new StringInputStream instance
+     * @throws WrongTypeException if the data item is neither a ByteString nor a TextString
+     */
+    public static StringInputStream newStringInputStream(Input input, long offset) {
+        Objects.requireNonNull(input, "input must not be null");
+        MajorType majorType = MajorType.findMajorType(Decoder.readUInt8(input, offset));
+        if (majorType != MajorType.ByteString && majorType != MajorType.TextString) {
+            throw new WrongTypeException(offset, "Encountered " + majorType + " when a string was expected");
+        }
+        return new StringInputStream(input, offset);
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+/**
+ * The <tt>WordScanner</tt> class contains SIMD-within-a-register (SWAR) helpers to test eight
+ * head bytes at once, packed into a <tt>long</tt> in big-endian order (the first byte being the
+ * most significant one). It is used by {@link com.noctarius.borabora.Input} implementations to
+ * skip runs of single byte data items.
+ */
+public final class WordScanner {
+
+    /**
+     * The number of bytes tested at once.
+     */
+    public static final int WORD_SIZE = 8;
+
+    // Bit 6 of every byte, tests the upper three bits (major type)
+    private static final long MAJOR_TYPE_MASK = 0x4040404040404040L;
+
+    // Bit 3 of every byte, tests for additional information >= 24
+    private static final long ADD_INFO_MASK = 0x0808080808080808L;
+
+    private WordScanner() {
+    }
+
+    /**
+     * Returns a mask which has at least one bit set in every byte of <tt>word</tt> that is not a
+     * small integer or simple value (major type 0, 1 or 7 with additional information below
+     * <tt>24</tt>). A result of <tt>0</tt> means all eight bytes are single byte data items.
+     * Marked bytes may still be single byte data items (empty strings and containers), which
+     * must be tested using {@link #isOneByteItem(short)}.
+     *
+     * @param word the eight head bytes in big-endian order
+     * @return the mask of bytes which are not small integers or simple values
+     */
+    public static long nonSmallItems(long word) {
+        // Major type 0 (000), 1 (001) or 7 (111): bit 7 equals bit 6 and bit 6 implies bit 5
+        long majorType = (((word >>> 1) ^ word) | (word & ~(word << 1))) & MAJOR_TYPE_MASK;
+        // Additional information >= 24: bit 4 and bit 3 are set
+        long addInfo = (word >>> 1) & word & ADD_INFO_MASK;
+        return majorType | addInfo;
+    }
+
+    /**
+     * Returns the index of the first marked byte (from the most significant side) of a non-zero
+     * <tt>mask</tt> as returned by {@link #nonSmallItems(long)}.
+     *
+     * @param mask the non-zero mask
+     * @return the index of the first marked byte
+     */
+    public static int firstMarkedByte(long mask) {
+        return Long.numberOfLeadingZeros(mask) >>> 3;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the given head byte forms a complete data item of exactly one byte,
+     * otherwise <tt>false</tt>.
+     *
+     * @param head the head byte
+     * @return true if the head byte is a complete single byte data item, otherwise false
+     */
+    public static boolean isOneByteItem(short head) {
+        return HeadTables.fixedByteSize(head) == 1;
+    }
+
+}
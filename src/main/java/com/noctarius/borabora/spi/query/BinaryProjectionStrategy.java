@@ -60,7 +60,8 @@ public class BinaryProjectionStrategy
 
         QueryContextFactory queryContextFactory = queryContext.queryContextFactory();
         QueryContext newQueryContext = queryContextFactory.newQueryContext(input, EMPTY_QUERY_CONSUMER, //
-                queryContext.tagStrategies(), queryContext.projectionStrategy());
+                queryContext.tagStrategies(), queryContext.projectionStrategy(), queryContext.stringCache(),
+                queryContext.resourceLimits());
 
         ValueType valueType = newQueryContext.valueType(0);
         Value value = new StreamValue(majorType, valueType, 0, newQueryContext);
@@ -24,6 +24,7 @@ import com.noctarius.borabora.ValueTypes;
 import com.noctarius.borabora.spi.ObjectValue;
 import com.noctarius.borabora.spi.StreamableIterable;
 import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.io.StringCache;
 import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
 
 import java.util.ArrayList;
@@ -74,6 +75,10 @@ public class ObjectProjectionStrategy
 
     @Override
     public void putDictionaryKey(String key, QueryContext queryContext) {
+        StringCache stringCache = queryContext.stringCache();
+        if (stringCache != null) {
+            key = stringCache.intern(key);
+        }
         Value keyValue = new ObjectValue(MajorType.TextString, ValueTypes.TextString, key);
         queryContext.queryStackPush(keyValue);
     }
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.query;
+
+import com.noctarius.borabora.Query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The <tt>QueryCache</tt> class is a size-bounded cache of prepared {@link Query} instances, keyed by
+ * their query string. When the cache is full, the least recently used query is evicted.
+ * <p>The cache is split into up to {@value #MAX_SEGMENTS} segments by the hash of the query string,
+ * each of them an access-ordered map guarded by its own lock. Hits and misses therefore only contend
+ * with lookups of the same segment and eviction is a constant time removal of the segment's eldest
+ * entry. Recency is tracked per segment, which makes the eviction order an approximation of a global
+ * LRU order for caches large enough to be segmented. Cache misses prepare the query outside of any
+ * lock.</p>
+ * <p>A <tt>QueryCache</tt> is fully thread-safe and meant to be shared by all queries executed by
+ * the same {@link com.noctarius.borabora.Parser} instance.</p>
+ */
+public final class QueryCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Segment[] segments;
+    private final int capacity;
+
+    private QueryCache(int capacity) {
+        this.capacity = capacity;
+
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 * MIN_SEGMENT_CAPACITY <= capacity) {
+            segmentCount <<= 1;
+        }
+        // Distribute the capacity, the sum of all segment capacities is exactly the cache capacity
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * Returns the cached {@link Query} instance for the given <tt>query</tt> string. If no such query is
+     * cached yet, the query is prepared using the given <tt>queryPreparer</tt> and the result is stored
+     * in the cache. Exceptions thrown by the preparer are passed through and nothing is cached.
+     *
+     * @param query         the query string
+     * @param queryPreparer the function to prepare the query string on a cache miss
+     * @return the cached or newly prepared Query instance
+     */
+    public Query get(String query, Function<String, Query> queryPreparer) {
+        Objects.requireNonNull(query, "query must not be null");
+        Objects.requireNonNull(queryPreparer, "queryPreparer must not be null");
+
+        Segment segment = segment(query);
+        Query cached;
+        synchronized (segment) {
+            cached = segment.get(query);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        Query prepared = queryPreparer.apply(query);
+        Objects.requireNonNull(prepared, "queryPreparer must not return null");
+
+        synchronized (segment) {
+            // Concurrently prepared by another thread, return the cached instance
+            Query existing = segment.putIfAbsent(query, prepared);
+            return existing != null ? existing : prepared;
+        }
+    }
+
+    /**
+     * Returns the maximum number of cached queries.
+     *
+     * @return the maximum number of cached queries
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the current number of cached queries.
+     *
+     * @return the current number of cached queries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups which had to prepare the query.
+     *
+     * @return the number of cache misses
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of queries evicted due to the size bound.
+     *
+     * @return the number of evictions
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Removes all cached queries. The statistics are retained.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCache{capacity=" + capacity + ", size=" + size() + ", hits=" + hits() + ", misses=" + misses()
+                + ", evictions=" + evictions() + '}';
+    }
+
+    private Segment segment(String query) {
+        int hash = query.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * Returns a new <tt>QueryCache</tt> instance caching up to {@link #DEFAULT_CAPACITY} queries.
+     *
+     * @return the new QueryCache instance
+     */
+    public static QueryCache newQueryCache() {
+        return newQueryCache(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns a new <tt>QueryCache</tt> instance caching up to <tt>capacity</tt> queries.
+     *
+     * @param capacity the maximum number of cached queries
+     * @return the new QueryCache instance
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public static QueryCache newQueryCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be larger than 0");
+        }
+        return new QueryCache(capacity);
+    }
+
+    private final class Segment
+            extends LinkedHashMap<String, Query> {
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Query> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+}
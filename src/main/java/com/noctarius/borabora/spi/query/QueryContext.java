@@ -21,6 +21,8 @@ import com.noctarius.borabora.MajorType;
 import com.noctarius.borabora.Value;
 import com.noctarius.borabora.ValueType;
 import com.noctarius.borabora.spi.codec.TagStrategy;
+import com.noctarius.borabora.spi.io.ResourceLimits;
+import com.noctarius.borabora.spi.io.StringCache;
 
 import java.util.List;
 
@@ -52,4 +54,22 @@ public interface QueryContext {
 
     QueryContextFactory queryContextFactory();
 
+    default StringCache stringCache() {
+        return null;
+    }
+
+    default ResourceLimits resourceLimits() {
+        return ResourceLimits.UNLIMITED;
+    }
+
+    default QueryParameters queryParameters() {
+        return QueryParameters.EMPTY;
+    }
+
+    default void trackBytesScanned(long bytes, long offset) {
+    }
+
+    default void trackMaterializedElements(long elements, long offset) {
+    }
+
 }
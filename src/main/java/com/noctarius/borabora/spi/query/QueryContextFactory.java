@@ -18,6 +18,8 @@ package com.noctarius.borabora.spi.query;
 
 import com.noctarius.borabora.Input;
 import com.noctarius.borabora.spi.codec.TagStrategy;
+import com.noctarius.borabora.spi.io.ResourceLimits;
+import com.noctarius.borabora.spi.io.StringCache;
 
 import java.util.List;
 
@@ -26,4 +28,24 @@ public interface QueryContextFactory {
     QueryContext newQueryContext(Input input, QueryConsumer queryConsumer, List<TagStrategy> tagStrategies,
                                  ProjectionStrategy projectionStrategy);
 
+    default QueryContext newQueryContext(Input input, QueryConsumer queryConsumer, List<TagStrategy> tagStrategies,
+                                         ProjectionStrategy projectionStrategy, StringCache stringCache) {
+
+        return newQueryContext(input, queryConsumer, tagStrategies, projectionStrategy);
+    }
+
+    default QueryContext newQueryContext(Input input, QueryConsumer queryConsumer, List<TagStrategy> tagStrategies,
+                                         ProjectionStrategy projectionStrategy, StringCache stringCache,
+                                         ResourceLimits resourceLimits) {
+
+        return newQueryContext(input, queryConsumer, tagStrategies, projectionStrategy, stringCache);
+    }
+
+    default QueryContext newQueryContext(Input input, QueryConsumer queryConsumer, List<TagStrategy> tagStrategies,
+                                         ProjectionStrategy projectionStrategy, StringCache stringCache,
+                                         ResourceLimits resourceLimits, QueryParameters queryParameters) {
+
+        return newQueryContext(input, queryConsumer, tagStrategies, projectionStrategy, stringCache, resourceLimits);
+    }
+
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.query;
+
+import java.util.Objects;
+
+/**
+ * The <tt>QueryParameters</tt> class holds the bound values of the placeholders (<tt>$1</tt>,
+ * <tt>$2</tt>, ...) of a parameterized {@link com.noctarius.borabora.Query}. Values are stored in
+ * the form prepared by the {@link com.noctarius.borabora.spi.query.pipeline.ParameterizedQueryStage}
+ * referring to the placeholder, e.g. a pre-built key matcher, and are retrieved by the query stages
+ * through {@link QueryContext#queryParameters()} at execution time.
+ * <p>Instances are immutable and therefore thread-safe.</p>
+ */
+public final class QueryParameters {
+
+    /**
+     * An empty set of query parameters used for queries without placeholders.
+     */
+    public static final QueryParameters EMPTY = new QueryParameters(new Object[0]);
+
+    private final Object[] values;
+
+    private QueryParameters(Object[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Returns the number of bound parameters.
+     *
+     * @return the number of bound parameters
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the bound value of the placeholder with the given 1-based <tt>parameterIndex</tt>.
+     *
+     * @param parameterIndex the 1-based index of the placeholder
+     * @param <T>            the type of the bound value
+     * @return the bound value
+     * @throws IllegalStateException if the parameter is not bound
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T parameter(int parameterIndex) {
+        if (parameterIndex < 1 || parameterIndex > values.length) {
+            throw new IllegalStateException("Query parameter $" + parameterIndex + " is not bound");
+        }
+        return (T) values[parameterIndex - 1];
+    }
+
+    /**
+     * Returns a new <tt>QueryParameters</tt> instance holding the given prepared values, the first
+     * element is bound to placeholder <tt>$1</tt>.
+     *
+     * @param values the prepared values
+     * @return the new QueryParameters instance
+     */
+    public static QueryParameters newQueryParameters(Object... values) {
+        Objects.requireNonNull(values, "values must not be null");
+        return values.length == 0 ? EMPTY : new QueryParameters(values.clone());
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.query.pipeline;
+
+/**
+ * The <tt>ParameterizedQueryStage</tt> interface is implemented by {@link QueryStage}s referring to a
+ * placeholder (<tt>$1</tt>, <tt>$2</tt>, ...) of a parameterized query. When the query is bound, the
+ * stage prepares the given argument once, e.g. into a key matcher, which is then shared by all
+ * executions of the bound query.
+ */
+public interface ParameterizedQueryStage
+        extends QueryStage {
+
+    /**
+     * Returns the 1-based index of the placeholder this stage refers to.
+     *
+     * @return the 1-based index of the placeholder
+     */
+    int parameterIndex();
+
+    /**
+     * Prepares the given <tt>argument</tt> to be used by this stage at execution time.
+     *
+     * @param argument the argument bound to the placeholder
+     * @return the prepared value
+     * @throws IllegalArgumentException if the argument is not supported by this stage
+     */
+    Object bindParameter(Object argument);
+
+}
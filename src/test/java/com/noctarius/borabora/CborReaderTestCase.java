@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CborReaderTestCase
+        extends AbstractTestCase {
+
+    @Test
+    public void test_dictionary_with_sequence() {
+        // {"a": 1, "b": [2, 3]}
+        CborReader reader = reader("0xa26161016162820203");
+        assertEquals(CborToken.StartDictionary, reader.next());
+        assertEquals(1, reader.depth());
+        assertEquals(CborToken.Key, reader.next());
+        assertEquals(MajorType.TextString, reader.majorType());
+        assertEquals("a", reader.getString());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(1, reader.getLong());
+        assertEquals(CborToken.Key, reader.next());
+        assertEquals("b", reader.getString());
+        assertEquals(CborToken.StartSequence, reader.next());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(2, reader.getLong());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(3, reader.getLong());
+        assertEquals(CborToken.EndSequence, reader.next());
+        assertEquals(CborToken.EndDictionary, reader.next());
+        assertEquals(0, reader.depth());
+        assertNull(reader.next());
+        assertNull(reader.currentToken());
+    }
+
+    @Test
+    public void test_indefinite_containers() {
+        // {_ "a": 1, "b": [_ 2, 3]}
+        CborReader reader = reader("0xbf61610161629f0203ffff");
+        assertEquals(CborToken.StartDictionary, reader.next());
+        assertEquals(CborToken.Key, reader.next());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(CborToken.Key, reader.next());
+        assertEquals(CborToken.StartSequence, reader.next());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(CborToken.EndSequence, reader.next());
+        assertEquals(CborToken.EndDictionary, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void test_nested_indefinite_sequences() {
+        // [_ [_ ], [_ 1]]
+        CborReader reader = reader("0x9f9fff9f01ffff");
+        assertEquals(CborToken.StartSequence, reader.next());
+        assertEquals(CborToken.StartSequence, reader.next());
+        assertEquals(CborToken.EndSequence, reader.next());
+        assertEquals(CborToken.StartSequence, reader.next());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(CborToken.EndSequence, reader.next());
+        assertEquals(CborToken.EndSequence, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void test_skip_children_definite() {
+        // [[1, [2, 3]], 4]
+        CborReader reader = reader("0x82820182020304");
+        assertEquals(CborToken.StartSequence, reader.next());
+        assertEquals(CborToken.StartSequence, reader.next());
+        reader.skipChildren();
+        assertEquals(CborToken.EndSequence, reader.currentToken());
+        assertEquals(1, reader.depth());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(4, reader.getLong());
+        assertEquals(CborToken.EndSequence, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void test_skip_children_indefinite() {
+        // [_ 1, [2, 3], [_ 4, 5]], 6
+        CborReader reader = reader("0x9f018202039f0405ffff06");
+        assertEquals(CborToken.StartSequence, reader.next());
+        reader.skipChildren();
+        assertEquals(CborToken.EndSequence, reader.currentToken());
+        assertEquals(0, reader.depth());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(6, reader.getLong());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void test_skip_children_scalar() {
+        CborReader reader = reader("0x0102");
+        assertEquals(CborToken.Int, reader.next());
+        reader.skipChildren();
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(2, reader.getLong());
+    }
+
+    @Test
+    public void test_semantic_tag() {
+        // 1(1363896240), 0
+        CborReader reader = reader("0xc11a514b67b000");
+        assertEquals(CborToken.SemanticTag, reader.next());
+        assertEquals(1, reader.getLong());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(1363896240, reader.getLong());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(0, reader.getLong());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void test_semantic_tag_skip_children() {
+        CborReader reader = reader("0xc11a514b67b000");
+        assertEquals(CborToken.SemanticTag, reader.next());
+        reader.skipChildren();
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(0, reader.getLong());
+    }
+
+    @Test
+    public void test_tagged_dictionary_key() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer.newWriter().newGraphBuilder(Output.toOutputStream(baos)) //
+              .putDictionary(1).putEntry().putString("foo").putString("bar").endEntry().endDictionary().finishStream();
+
+        CborReader reader = Parser.newReader(Input.fromByteArray(baos.toByteArray()));
+        assertEquals(CborToken.StartDictionary, reader.next());
+        assertEquals(CborToken.SemanticTag, reader.next());
+        assertEquals(CborToken.Key, reader.next());
+        assertEquals("foo", reader.getString());
+        assertEquals(CborToken.SemanticTag, reader.next());
+        assertEquals(CborToken.ByteString, reader.next());
+        assertEquals("bar", reader.getString());
+        assertEquals(CborToken.EndDictionary, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void test_integers() {
+        CborReader reader = reader("0x173903e73b7fffffffffffffff");
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(23, reader.getLong());
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(-1000, reader.getLong());
+        assertEquals(-1000d, reader.getDouble(), 0d);
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(Long.MIN_VALUE, reader.getLong());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fail_integer_too_large() {
+        CborReader reader = reader("0x1bffffffffffffffff");
+        reader.next();
+        reader.getLong();
+    }
+
+    @Test
+    public void test_floats() {
+        CborReader reader = reader("0xf93e00fa47c35000fb3ff199999999999a");
+        assertEquals(CborToken.Float, reader.next());
+        assertEquals(1.5d, reader.getDouble(), 0d);
+        assertEquals(CborToken.Float, reader.next());
+        assertEquals(100000.0d, reader.getDouble(), 0d);
+        assertEquals(CborToken.Float, reader.next());
+        assertEquals(1.1d, reader.getDouble(), 0d);
+    }
+
+    @Test
+    public void test_simple_values() {
+        CborReader reader = reader("0xf5f4f6f7f0");
+        assertEquals(CborToken.Bool, reader.next());
+        assertTrue(reader.getBoolean());
+        assertEquals(CborToken.Bool, reader.next());
+        assertFalse(reader.getBoolean());
+        assertEquals(CborToken.Null, reader.next());
+        assertEquals(CborToken.Undefined, reader.next());
+        assertEquals(CborToken.Simple, reader.next());
+    }
+
+    @Test
+    public void test_strings() {
+        CborReader reader = reader("0x4401020304" + "7f657374726561646d696e67ff");
+        assertEquals(CborToken.ByteString, reader.next());
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, reader.getStringBytes());
+        assertEquals(CborToken.TextString, reader.next());
+        assertEquals("streaming", reader.getString());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void test_offsets() {
+        CborReader reader = reader("0x8201190100");
+        reader.next();
+        assertEquals(0, reader.offset());
+        reader.next();
+        assertEquals(1, reader.offset());
+        reader.next();
+        assertEquals(2, reader.offset());
+        assertEquals(256, reader.getLong());
+        reader.next();
+        assertEquals(0, reader.offset());
+        assertEquals(MajorType.Sequence, reader.majorType());
+    }
+
+    @Test
+    public void test_deep_nesting() {
+        StringBuilder sb = new StringBuilder("0x");
+        for (int i = 0; i < 100; i++) {
+            sb.append("81");
+        }
+        sb.append("01");
+        CborReader reader = reader(sb.toString());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(CborToken.StartSequence, reader.next());
+        }
+        assertEquals(CborToken.Int, reader.next());
+        assertEquals(100, reader.depth());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(CborToken.EndSequence, reader.next());
+        }
+        assertNull(reader.next());
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_getlong_on_string() {
+        CborReader reader = reader("0x6161");
+        reader.next();
+        reader.getLong();
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_getboolean_on_int() {
+        CborReader reader = reader("0x01");
+        reader.next();
+        reader.getBoolean();
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_getstring_before_next() {
+        reader("0x6161").getString();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fail_unexpected_break_code() {
+        reader("0xff").next();
+    }
+
+    private static CborReader reader(String hex) {
+        return Parser.newReader(Input.fromByteArray(hexToBytes(hex)));
+    }
+
+}
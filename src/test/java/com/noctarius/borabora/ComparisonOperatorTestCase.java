@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ComparisonOperatorTestCase {
+
+    @Test
+    public void test_fromsymbol() {
+        for (ComparisonOperator operator : ComparisonOperator.values()) {
+            assertSame(operator, ComparisonOperator.fromSymbol(operator.symbol()));
+        }
+        assertEquals(ComparisonOperator.GreaterThanOrEqual, ComparisonOperator.fromSymbol(">="));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_fromsymbol_unknown() {
+        ComparisonOperator.fromSymbol("!=");
+    }
+
+    @Test
+    public void test_test() {
+        assertTrue(ComparisonOperator.Equal.test(0));
+        assertFalse(ComparisonOperator.Equal.test(1));
+        assertTrue(ComparisonOperator.GreaterThan.test(1));
+        assertFalse(ComparisonOperator.GreaterThan.test(0));
+        assertTrue(ComparisonOperator.GreaterThanOrEqual.test(0));
+        assertFalse(ComparisonOperator.GreaterThanOrEqual.test(-1));
+        assertTrue(ComparisonOperator.LessThan.test(-1));
+        assertFalse(ComparisonOperator.LessThan.test(0));
+        assertTrue(ComparisonOperator.LessThanOrEqual.test(0));
+        assertFalse(ComparisonOperator.LessThanOrEqual.test(1));
+    }
+
+}
@@ -17,6 +17,7 @@
 package com.noctarius.borabora;
 
 import com.noctarius.borabora.spi.io.CompositeBuffer;
+import com.noctarius.borabora.spi.io.WordScanner;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -153,4 +154,80 @@ public class InputTestCase
         assertFalse(input.offsetValid(1));
     }
 
+    @Test
+    public void test_equals_match() {
+        byte[] data = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+        Input input = function.apply(data);
+        assertTrue(input.equals(0, data, 0, data.length));
+    }
+
+    @Test
+    public void test_equals_mismatch() {
+        byte[] data = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+        Input input = function.apply(data);
+
+        byte[] word = data.clone();
+        word[3] = 0;
+        assertFalse(input.equals(0, word, 0, word.length));
+
+        byte[] tail = data.clone();
+        tail[10] = 0;
+        assertFalse(input.equals(0, tail, 0, tail.length));
+    }
+
+    @Test
+    public void test_equals_subrange() {
+        byte[] data = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+        Input input = function.apply(data);
+        byte[] expected = new byte[]{0, 0, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+        assertTrue(input.equals(2, expected, 2, 9));
+        assertFalse(input.equals(1, expected, 2, 9));
+        assertTrue(input.equals(12, expected, 0, 0));
+    }
+
+    @Test(expected = NoSuchByteException.class)
+    public void test_equals_length_larger_than_readable_data() {
+        byte[] data = new byte[2];
+        Input input = function.apply(data);
+        input.equals(1, new byte[2], 0, 2);
+    }
+
+    @Test(expected = NoSuchByteException.class)
+    public void test_equals_length_larger_than_comparable_data() {
+        byte[] data = new byte[2];
+        Input input = function.apply(data);
+        input.equals(0, new byte[2], 1, 2);
+    }
+
+    @Test(expected = NoSuchByteException.class)
+    public void test_equals_offset_less_than_zero() {
+        byte[] data = new byte[2];
+        Input input = function.apply(data);
+        input.equals(-1, new byte[2], 0, 1);
+    }
+
+    @Test
+    public void test_scan_one_byte_items() {
+        for (int head = 0; head < 256; head++) {
+            for (int position = 0; position < 17; position++) {
+                byte[] data = new byte[17];
+                data[position] = (byte) head;
+                Input input = function.apply(data);
+                int expected = WordScanner.isOneByteItem((short) head) ? data.length : position;
+                assertEquals("head: " + head + ", position: " + position, expected, input.scanOneByteItems(0, 100));
+            }
+        }
+    }
+
+    @Test
+    public void test_scan_one_byte_items_limits() {
+        byte[] data = new byte[20];
+        Input input = function.apply(data);
+        assertEquals(20, input.scanOneByteItems(0, Integer.MAX_VALUE));
+        assertEquals(11, input.scanOneByteItems(0, 11));
+        assertEquals(17, input.scanOneByteItems(3, 100));
+        assertEquals(0, input.scanOneByteItems(20, 100));
+        assertEquals(0, input.scanOneByteItems(0, 0));
+    }
+
 }
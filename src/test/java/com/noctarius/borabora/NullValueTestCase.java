@@ -36,6 +36,7 @@ public class NullValueTestCase {
         assertNull(nullValue.dictionary());
         assertNull(nullValue.string());
         assertNull(nullValue.bool());
+        assertNull(nullValue.openStream());
         assertNull(nullValue.byValueType());
         assertArrayEquals(new byte[0], nullValue.raw());
         assertEquals(-1, nullValue.offset());
@@ -43,4 +44,14 @@ public class NullValueTestCase {
         assertEquals("Null{ null }", nullValue.asString());
     }
 
+    @Test(expected = WrongTypeException.class)
+    public void fail_null_value_unscaledlong() {
+        new NullValue().unscaledLong();
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_null_value_scale() {
+        new NullValue().scale();
+    }
+
 }
@@ -19,10 +19,19 @@ package com.noctarius.borabora;
 import com.noctarius.borabora.spi.ObjectValue;
 import org.junit.Test;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.function.Predicate;
 
+import static com.noctarius.borabora.ComparisonOperator.Equal;
+import static com.noctarius.borabora.ComparisonOperator.GreaterThan;
+import static com.noctarius.borabora.ComparisonOperator.GreaterThanOrEqual;
+import static com.noctarius.borabora.ComparisonOperator.LessThan;
+import static com.noctarius.borabora.ComparisonOperator.LessThanOrEqual;
 import static com.noctarius.borabora.Predicates.any;
+import static com.noctarius.borabora.Predicates.compareFloat;
+import static com.noctarius.borabora.Predicates.compareInt;
+import static com.noctarius.borabora.Predicates.compareString;
 import static com.noctarius.borabora.Predicates.matchFloat;
 import static com.noctarius.borabora.Predicates.matchInt;
 import static com.noctarius.borabora.Predicates.matchString;
@@ -170,6 +179,65 @@ public class PredicatesTestCase
         assertFalse(predicate.test(utf8_diff_length));
     }
 
+    @Test
+    public void test_matchstring_raw_bytestring() {
+        Predicate<Value> predicate = matchString("foo");
+
+        // 0x43 => ByteString, length 3
+        assertTrue(predicate.test(asStreamValue(new byte[]{0x43, 'f', 'o', 'o'})));
+        assertFalse(predicate.test(asStreamValue(new byte[]{0x43, 'f', 'o', 'x'})));
+        assertFalse(predicate.test(asStreamValue(new byte[]{0x44, 'f', 'o', 'o', 'o'})));
+    }
+
+    @Test
+    public void test_matchstring_raw_textstring() {
+        Predicate<Value> predicate = matchString("foo");
+
+        // 0x63 => TextString, length 3
+        assertTrue(predicate.test(asStreamValue(new byte[]{0x63, 'f', 'o', 'o'})));
+        assertFalse(predicate.test(asStreamValue(new byte[]{0x63, 'o', 'o', 'f'})));
+    }
+
+    @Test
+    public void test_matchstring_indefinite_string() {
+        Predicate<Value> predicate = matchString("foobar");
+
+        // 0x7f => indefinite TextString, chunks "foo" and "bar", 0xff => break
+        byte[] data = new byte[]{0x7f, 0x63, 'f', 'o', 'o', 0x63, 'b', 'a', 'r', (byte) 0xff};
+        assertTrue(predicate.test(asStreamValue(data)));
+
+        byte[] mismatch = new byte[]{0x7f, 0x63, 'f', 'o', 'o', 0x63, 'b', 'a', 'z', (byte) 0xff};
+        assertFalse(predicate.test(asStreamValue(mismatch)));
+
+        byte[] shorter = new byte[]{0x7f, 0x63, 'f', 'o', 'o', (byte) 0xff};
+        assertFalse(predicate.test(asStreamValue(shorter)));
+
+        byte[] longer = new byte[]{0x7f, 0x63, 'f', 'o', 'o', 0x64, 'b', 'a', 'r', 'z', (byte) 0xff};
+        assertFalse(predicate.test(asStreamValue(longer)));
+    }
+
+    @Test
+    public void test_matchignorecase_streamvalue() {
+        Predicate<Value> predicate = matchStringIgnoreCase("FoO");
+
+        assertTrue(predicate.test(asStreamValue("foo")));
+        assertTrue(predicate.test(asStreamValue("FOO")));
+        assertFalse(predicate.test(asStreamValue("fo")));
+        assertFalse(predicate.test(asStreamValue("fooo")));
+        assertFalse(predicate.test(asStreamValue("fox")));
+        assertTrue(predicate.test(asStreamValue(new byte[]{0x63, 'f', 'O', 'o'})));
+    }
+
+    @Test
+    public void test_matchignorecase_streamvalue_multibyte_casefolding() {
+        // U+212A (Kelvin sign) equals 'k' ignoring case but is encoded using 3 bytes
+        Predicate<Value> predicate = matchStringIgnoreCase("k");
+        assertTrue(predicate.test(asStreamValue("\u212A")));
+
+        Predicate<Value> predicate2 = matchStringIgnoreCase("äöü");
+        assertTrue(predicate2.test(asStreamValue("ÄÖÜ")));
+    }
+
     @Test
     public void test_matchstring_nonstring() {
         Predicate<Value> predicate = matchString("foo");
@@ -263,4 +331,103 @@ public class PredicatesTestCase
         assertTrue(predicate.test(value3));
     }
 
+    @Test
+    public void test_compareint_streamvalue() {
+        assertTrue(compareInt(GreaterThanOrEqual, 18).test(asStreamValue(gb -> gb.putNumber(18))));
+        assertFalse(compareInt(GreaterThan, 18).test(asStreamValue(gb -> gb.putNumber(18))));
+        assertTrue(compareInt(LessThan, 18).test(asStreamValue(gb -> gb.putNumber(17))));
+        assertTrue(compareInt(Equal, 100000).test(asStreamValue(gb -> gb.putNumber(100000))));
+        assertTrue(compareInt(LessThanOrEqual, -1000).test(asStreamValue(gb -> gb.putNumber(-1000))));
+        assertFalse(compareInt(LessThan, -1000).test(asStreamValue(gb -> gb.putNumber(-1000))));
+        assertTrue(compareInt(GreaterThan, -1).test(asStreamValue(gb -> gb.putNumber(0))));
+        assertTrue(compareInt(LessThan, 0).test(asStreamValue(gb -> gb.putNumber(-1))));
+    }
+
+    @Test
+    public void test_compareint_streamvalue_64bit_arguments() {
+        // 18446744073709551615 (uint64 max) and -18446744073709551616 (nint64 min)
+        Value max = asStreamValue(hexToBytes("0x1bffffffffffffffff"));
+        Value min = asStreamValue(hexToBytes("0x3bffffffffffffffff"));
+        assertTrue(compareInt(GreaterThan, Long.MAX_VALUE).test(max));
+        assertTrue(compareInt(GreaterThan, -1).test(max));
+        assertTrue(compareInt(LessThan, Long.MIN_VALUE).test(min));
+        assertFalse(compareInt(Equal, -1).test(max));
+    }
+
+    @Test
+    public void test_compareint_streamvalue_float() {
+        assertTrue(compareInt(GreaterThan, 18).test(asStreamValue(gb -> gb.putNumber(18.5d))));
+        assertTrue(compareInt(Equal, 18).test(asStreamValue(gb -> gb.putNumber(18.0f))));
+        assertFalse(compareInt(GreaterThan, 18).test(asStreamValue(gb -> gb.putNumber(Double.NaN))));
+        assertFalse(compareInt(LessThanOrEqual, 18).test(asStreamValue(gb -> gb.putNumber(Double.NaN))));
+    }
+
+    @Test
+    public void test_compareint_objectvalue() {
+        Value bigNum = new ObjectValue(MajorType.SemanticTag, ValueTypes.UBigNum, new BigInteger("18446744073709551616"));
+        assertTrue(compareInt(GreaterThan, Long.MAX_VALUE).test(bigNum));
+
+        Value fraction = new ObjectValue(MajorType.SemanticTag, ValueTypes.Fraction, new BigDecimal("17.5"));
+        assertTrue(compareInt(LessThan, 18).test(fraction));
+
+        assertTrue(compareInt(Equal, 12).test(new ObjectValue(MajorType.UnsignedInteger, ValueTypes.UInt, 12)));
+        assertTrue(compareInt(GreaterThan, 12).test(new ObjectValue(MajorType.FloatingPointOrSimple, ValueTypes.Float, 12.5f)));
+    }
+
+    @Test
+    public void test_compareint_nonnumber() {
+        assertFalse(compareInt(Equal, 1).test(Value.NULL_VALUE));
+        assertFalse(compareInt(LessThan, 1).test(asStreamValue("foo")));
+        assertFalse(compareInt(LessThan, 1).test(asStreamValue(gb -> gb.putBoolean(true))));
+    }
+
+    @Test
+    public void test_comparefloat_streamvalue() {
+        assertTrue(compareFloat(GreaterThan, 18.4d).test(asStreamValue(gb -> gb.putNumber(18.5d))));
+        assertTrue(compareFloat(LessThan, 18.4d).test(asStreamValue(gb -> gb.putNumber(18))));
+        assertTrue(compareFloat(GreaterThan, -1.5d).test(asStreamValue(gb -> gb.putNumber(-1))));
+        assertTrue(compareFloat(LessThan, -1.5d).test(asStreamValue(gb -> gb.putNumber(-2))));
+        assertTrue(compareFloat(Equal, 0d).test(asStreamValue(gb -> gb.putNumber(-0.0d))));
+        assertTrue(compareFloat(GreaterThan, 1.8e19d).test(asStreamValue(hexToBytes("0x1bffffffffffffffff"))));
+        assertFalse(compareFloat(Equal, Double.NaN).test(asStreamValue(gb -> gb.putNumber(Double.NaN))));
+    }
+
+    @Test
+    public void test_comparefloat_objectvalue() {
+        Value value = new ObjectValue(MajorType.FloatingPointOrSimple, ValueTypes.Float, HalfPrecisionFloat.valueOf(1.5f));
+        assertTrue(compareFloat(GreaterThanOrEqual, 1.5d).test(value));
+        assertFalse(compareFloat(Equal, 1d).test(Value.NULL_VALUE));
+    }
+
+    @Test
+    public void test_comparestring_streamvalue() {
+        assertTrue(compareString(Equal, "active").test(asStreamValue("active")));
+        assertTrue(compareString(LessThan, "b").test(asStreamValue("a")));
+        assertTrue(compareString(LessThan, "ab").test(asStreamValue("a")));
+        assertTrue(compareString(GreaterThan, "a").test(asStreamValue("ab")));
+        assertTrue(compareString(GreaterThanOrEqual, "z").test(asStreamValue("ä")));
+        assertFalse(compareString(Equal, "a").test(asStreamValue(gb -> gb.putNumber(1))));
+    }
+
+    @Test
+    public void test_comparestring_code_point_order() {
+        // U+FF61 sorts before U+1F600 by code point, but not by UTF-16 char
+        assertTrue(compareString(LessThan, "\uD83D\uDE00").test(asStreamValue("\uFF61")));
+    }
+
+    @Test
+    public void test_comparestring_indefinite_string() {
+        // 0x7f => indefinite TextString, chunks "foo" and "bar", 0xff => break
+        byte[] data = new byte[]{0x7f, 0x63, 'f', 'o', 'o', 0x63, 'b', 'a', 'r', (byte) 0xff};
+        assertTrue(compareString(Equal, "foobar").test(asStreamValue(data)));
+        assertTrue(compareString(GreaterThan, "foo").test(asStreamValue(data)));
+    }
+
+    @Test
+    public void test_comparestring_objectvalue() {
+        Value value = new ObjectValue(MajorType.TextString, ValueTypes.TextString, "foo");
+        assertTrue(compareString(LessThanOrEqual, "foo").test(value));
+        assertFalse(compareString(LessThan, "foo").test(value));
+    }
+
 }
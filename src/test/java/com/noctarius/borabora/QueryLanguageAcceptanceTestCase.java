@@ -20,8 +20,6 @@ import com.noctarius.borabora.spi.query.TypeSpecs;
 import org.junit.Ignore;
 import org.junit.Test;
 
-import static com.noctarius.borabora.Predicates.matchString;
-
 public class QueryLanguageAcceptanceTestCase
         extends AbstractTestCase {
 
@@ -141,49 +139,49 @@ public class QueryLanguageAcceptanceTestCase
 
     @Test
     public void test_dictionary_access_string() {
-        Query query = parser.newQueryBuilder().dictionary(matchString("test")).build();
+        Query query = parser.newQueryBuilder().dictionary("test").build();
         evaluate(query, "#{'test'}");
     }
 
     @Test
     public void test_stream_dictionary_access_string() {
-        Query query = parser.newQueryBuilder().stream(1).dictionary(matchString("test")).build();
+        Query query = parser.newQueryBuilder().stream(1).dictionary("test").build();
         evaluate(query, "#1{'test'}");
     }
 
     @Test
     public void test_dictionary_access_uint() {
-        Query query = parser.newQueryBuilder().dictionary(Predicates.matchInt(123)).build();
+        Query query = parser.newQueryBuilder().dictionary(123).build();
         evaluate(query, "#{123}");
     }
 
     @Test
     public void test_dictionary_access_nint() {
-        Query query = parser.newQueryBuilder().dictionary(Predicates.matchInt(-123)).build();
+        Query query = parser.newQueryBuilder().dictionary(-123).build();
         evaluate(query, "#{-123}");
     }
 
     @Test
     public void test_dictionary_access_ufloat() {
-        Query query = parser.newQueryBuilder().dictionary(Predicates.matchFloat(123.0)).build();
+        Query query = parser.newQueryBuilder().dictionary(123.0).build();
         evaluate(query, "#{123.0}");
     }
 
     @Test
     public void test_stream_dictionary_access_ufloat() {
-        Query query = parser.newQueryBuilder().stream(1).dictionary(Predicates.matchFloat(123.0)).build();
+        Query query = parser.newQueryBuilder().stream(1).dictionary(123.0).build();
         evaluate(query, "#1{123.0}");
     }
 
     @Test
     public void test_dictionary_access_nfloar() {
-        Query query = parser.newQueryBuilder().dictionary(Predicates.matchFloat(-123.0)).build();
+        Query query = parser.newQueryBuilder().dictionary(-123.0).build();
         evaluate(query, "#{-123.0}");
     }
 
     @Test
     public void test_stream_dictionary_access_nfloar() {
-        Query query = parser.newQueryBuilder().stream(1).dictionary(Predicates.matchFloat(-123.0)).build();
+        Query query = parser.newQueryBuilder().stream(1).dictionary(-123.0).build();
         evaluate(query, "#1{-123.0}");
     }
 
@@ -387,8 +385,8 @@ public class QueryLanguageAcceptanceTestCase
     @Test
     public void test_dictionary_select_dictionary_lookup() {
         Query query = parser.newQueryBuilder().asDictionary() //
-                            .putEntry("a").stream(0).dictionary(matchString("foo")).endEntry() //
-                            .putEntry("b").stream(1).dictionary(matchString("foo")).endEntry() //
+                            .putEntry("a").stream(0).dictionary("foo").endEntry() //
+                            .putEntry("b").stream(1).dictionary("foo").endEntry() //
                             .endDictionary().build();
         evaluate(query, "(a: #{'foo'}, b: #1{'foo'})");
     }
@@ -699,6 +697,25 @@ public class QueryLanguageAcceptanceTestCase
         evaluate(query, "$(?)");
     }
 
+    @Test
+    public void test_embedded_cbor() {
+        Query query = parser.newQueryBuilder().dictionary("payload").embeddedCbor().sequence(1).build();
+        evaluate(query, "#{'payload'}->>(1)");
+
+        query = parser.newQueryBuilder().embeddedCbor().embeddedCbor().build();
+        evaluate(query, "#->>->>");
+    }
+
+    @Test
+    public void test_parameters() {
+        Query query = parser.newQueryBuilder().dictionaryParameter(1).sequenceParameter(2).build();
+        evaluate(query, "#{$1}($2)");
+
+        query = parser.newQueryBuilder().stream(1).sequenceParameter(1).dictionary("a") //
+                      .dictionaryParameter(2).dictionaryParameter(2).build();
+        evaluate(query, "#1($1){'a'}{$2}{$2}");
+    }
+
     @Test
     public void test_match_any_stream_element() {
         Query query = parser.newQueryBuilder().multiStream().build();
@@ -23,6 +23,8 @@ import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import static java.util.Arrays.asList;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 
@@ -183,4 +185,176 @@ public class QueryLanguageTestCase
         assertEqualsNumber(2, value.number());
     }
 
+    @Test
+    public void test_embedded_cbor() {
+        // {"id": 1, "payload": 24(h'a1626964d81843820102')}, the payload embeds {"id": 24(h'820102')}
+        Input input = Input.fromByteArray(hexToBytes("0xa262696401677061796c6f6164d8184aa1626964d81843820102"));
+        Parser parser = Parser.newParser();
+
+        Value value = parser.read(input, "#{'payload'}->>{'id'}->>(1)");
+        assertEquals(2, value.number().intValue());
+
+        Value embedded = parser.read(input, "#{'payload'}->>");
+        assertEquals(MajorType.Dictionary, embedded.majorType());
+        assertEquals(1, embedded.dictionary().size());
+    }
+
+    @Test
+    public void test_parameterized_query() {
+        // {"a": [1, 2], "b": [3, 4]}
+        Input input = Input.fromByteArray(hexToBytes("0xa261618201026162820304"));
+        Parser parser = Parser.newBuilder().withQueryCache().build();
+
+        Query query = parser.prepareQuery("#{$1}($2)");
+        assertEquals(2, query.parameterCount());
+        assertEquals(2, parser.read(input, query.bind("a", 1)).number().intValue());
+        assertEquals(3, parser.read(input, query.bind("b", 0)).number().intValue());
+
+        // Rebinding replaces all arguments and shares the prepared query
+        Query bound = query.bind("a", 0);
+        assertEquals(4, parser.read(input, bound.bind("b", 1)).number().intValue());
+        assertSame(query, parser.prepareQuery("#{$1}($2)"));
+        assertEquals(query.bind("a", 0), bound);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fail_parameterized_query_unbound() {
+        Parser parser = Parser.newParser();
+        parser.read(Input.fromByteArray(hexToBytes("0xa1616101")), "#{$1}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_parameterized_query_argument_count() {
+        Parser.newParser().prepareQuery("#{$1}").bind("a", "b");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_unparameterized_query_bind() {
+        Parser.newParser().prepareQuery("#{'a'}").bind("a");
+    }
+
+    @Test(expected = QueryParserException.class)
+    public void fail_parameterized_query_incompatible_usage() {
+        Parser.newParser().prepareQuery("#{$1}($1)");
+    }
+
+    @Test(expected = QueryParserException.class)
+    public void fail_parameterized_query_non_contiguous() {
+        Parser.newParser().prepareQuery("#{$2}");
+    }
+
+    @Test
+    public void test_unparameterized_query_bind_empty() {
+        Query query = Parser.newParser().prepareQuery("#{'a'}");
+        Query bound = query.bind();
+        assertEquals(query, bound);
+        assertEquals(query.hashCode(), bound.hashCode());
+    }
+
+    @Test
+    public void test_sequence_match_comparison() {
+        // [5, -3, 18, 18.5, "active", "b", true]
+        Input input = Input.fromByteArray(hexToBytes("0x87052212fb4032800000000000666163746976656162f5"));
+        Parser parser = Parser.newParser();
+
+        assertEquals(asList("18", "18.5"), readNumbers(parser, input, "#(? >= 18)"));
+        assertEquals(asList("18.5"), readNumbers(parser, input, "#(?>18)"));
+        assertEquals(asList("-3"), readNumbers(parser, input, "#(?<0)"));
+        assertEquals(asList("-3"), readNumbers(parser, input, "#(?<=-3)"));
+        assertEquals(asList("5", "-3"), readNumbers(parser, input, "#(?<18.0)"));
+        assertEquals(asList("18"), readNumbers(parser, input, "#(?==18)"));
+        assertEquals(asList("active"), readStrings(parser, input, "#(?=='active')"));
+        assertEquals(asList("b"), readStrings(parser, input, "#(?>'active')"));
+    }
+
+    @Test
+    public void test_sequence_match_nested_filter() {
+        // [{"status": "active", "age": 30, "tags": ["x"]}, {"status": "idle", "age": 17}, "str",
+        //  {"status": "active", "age": 10, "tags": []}]
+        Input input = Input.fromByteArray(hexToBytes("0x84a3667374617475736661637469766563616765181e6474616773816178a2667374617475736469646c65636167651163737472a36673746174757366616374697665636167650a647461677380"));
+        Parser parser = Parser.newParser();
+
+        assertEquals(asList("30", "10"), readNumbers(parser, input, "#(?{'status'} == 'active'){'age'}"));
+        assertEquals(asList("30", "17"), readNumbers(parser, input, "#(?{'age'} >= 17){'age'}"));
+        assertEquals(asList("30", "10"), readNumbers(parser, input, "#(?{'tags'}){'age'}"));
+        assertEquals(asList("30"), readNumbers(parser, input, "#(?{'tags'}(0)){'age'}"));
+        assertEquals(asList("30"), readNumbers(parser, input, "#(?{'tags'}(0) == 'x'){'age'}"));
+        assertEquals(asList(), readNumbers(parser, input, "#(?{'missing'}){'age'}"));
+    }
+
+    @Test
+    public void test_sequence_match_nested_filter_builder() {
+        Input input = Input.fromByteArray(hexToBytes("0x84a3667374617475736661637469766563616765181e6474616773816178a2667374617475736469646c65636167651163737472a36673746174757366616374697665636167650a647461677380"));
+        Parser parser = Parser.newParser();
+
+        Query query = parser.newQueryBuilder().stream(0).sequenceFilter().dictionary("status")
+                            .matches(Predicates.matchString("active")).dictionary("age").build();
+        assertEquals(asList("30", "10"), readNumbers(parser, input, query));
+        assertEquals(parser.prepareQuery("#(?)"), parser.newQueryBuilder().stream(0).sequenceFilter() //
+                                                        .matches(Predicates.any()).build());
+    }
+
+    @Test(expected = QueryParserException.class)
+    public void fail_sequence_match_nested_filter_parameter() {
+        Parser.newParser().prepareQuery("#(?{$1} == 1)");
+    }
+
+    @Test(expected = QueryParserException.class)
+    public void fail_sequence_match_comparison_without_value() {
+        Parser.newParser().prepareQuery("#(?>=)");
+    }
+
+    @Test(expected = QueryParserException.class)
+    public void fail_sequence_match_comparison_without_match() {
+        Parser.newParser().prepareQuery("#(>=1)");
+    }
+
+    @Test
+    public void test_lookup_comparison() {
+        // {"ts": 100, "s": "active"}, [5, "b"]
+        Input input = Input.fromByteArray(hexToBytes("0xa262747318646173666163746976658205616162"));
+        Parser parser = Parser.newParser();
+
+        assertEquals(asList("100"), readNumbers(parser, input, "#{'ts'} < 1690000000"));
+        assertEquals(asList(), readNumbers(parser, input, "#{'ts'} >= 1690000000"));
+        assertEquals(asList(), readNumbers(parser, input, "#{'missing'} < 1690000000"));
+        assertEquals(asList("active"), readStrings(parser, input, "#{'s'} == 'active'"));
+        assertEquals(asList("100"), readNumbers(parser, input, "#{'ts'}>99->int"));
+        assertEquals(asList("5"), readNumbers(parser, input, "#1(0) > 1"));
+        assertEquals(asList(), readStrings(parser, input, "#1(1) < 'a'"));
+    }
+
+    @Test
+    public void test_lookup_comparison_projection() {
+        // {"ts": 100, "s": "active"}
+        Input input = Input.fromByteArray(hexToBytes("0xa26274731864617366616374697665"));
+        Parser parser = Parser.newParser();
+
+        Value value = parser.read(input, "(a: #{'ts'} > 99, b: #{'ts'} > 100)");
+        Dictionary dictionary = value.dictionary();
+        assertEquals(100, dictionary.get(Predicates.matchString("a")).number().intValue());
+        assertEquals(Value.NULL_VALUE, dictionary.get(Predicates.matchString("b")));
+    }
+
+    @Test(expected = QueryParserException.class)
+    public void fail_lookup_comparison_without_value() {
+        Parser.newParser().prepareQuery("#{'ts'} <");
+    }
+
+    private static List<String> readNumbers(Parser parser, Input input, String query) {
+        return readNumbers(parser, input, parser.prepareQuery(query));
+    }
+
+    private static List<String> readNumbers(Parser parser, Input input, Query query) {
+        List<String> values = new ArrayList<>();
+        parser.read(input, query, value -> values.add(String.valueOf(value.number())));
+        return values;
+    }
+
+    private static List<String> readStrings(Parser parser, Input input, String query) {
+        List<String> values = new ArrayList<>();
+        parser.read(input, query, value -> values.add(value.string()));
+        return values;
+    }
+
 }
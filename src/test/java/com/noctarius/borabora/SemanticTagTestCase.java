@@ -18,6 +18,7 @@ package com.noctarius.borabora;
 
 import org.junit.Test;
 
+import java.math.BigDecimal;
 import java.net.URI;
 import java.util.Calendar;
 import java.util.TimeZone;
@@ -102,4 +103,29 @@ public class SemanticTagTestCase
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void test_semantic_tag_fraction_unscaledlong_scale() {
+        // 4([2, -12345])
+        SimplifiedTestParser parser = buildParser("0xc48202393038");
+        Value value = parser.read(parser.newQueryBuilder().build());
+
+        assertEquals(ValueTypes.Fraction, value.valueType());
+        assertEquals(-12345, value.unscaledLong());
+        assertEquals(2, value.scale());
+        assertEquals(new BigDecimal("-123.45"), value.tag());
+    }
+
+    @Test
+    public void test_object_value_fraction_unscaledlong_scale() {
+        Value value = asObjectValue(MajorType.SemanticTag, ValueTypes.Fraction, new BigDecimal("-123.45"));
+        assertEquals(-12345, value.unscaledLong());
+        assertEquals(2, value.scale());
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_semantic_tag_unscaledlong_not_a_fraction() {
+        SimplifiedTestParser parser = buildParser("0xc11a514b67b0");
+        parser.read(parser.newQueryBuilder().build()).unscaledLong();
+    }
+
 }
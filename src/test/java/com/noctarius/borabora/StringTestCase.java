@@ -119,6 +119,57 @@ public class StringTestCase
         assertEquals("efgh", value2.string());
     }
 
+    @Test
+    public void test_charsequence_indefinite_text_string() {
+        String expected = new String(hexToBytes("0xc3bce6b0b4f0908591"), UTF_8);
+        SimplifiedTestParser parser = buildParser("0x7f62c3bc63e6b0b464f0908591ff");
+        CharSequence charSequence = parser.read(parser.newQueryBuilder().build()).charSequence();
+
+        assertEquals(expected.length(), charSequence.length());
+        for (int i = 0; i < expected.length(); i++) {
+            assertEquals(expected.charAt(i), charSequence.charAt(i));
+        }
+        assertEquals(expected, charSequence.toString());
+    }
+
+    @Test
+    public void test_charsequence_ascii_string() {
+        SimplifiedTestParser parser = buildParser((sgb) -> sgb.putString("foobar"));
+        Value value = parser.read(parser.newQueryBuilder().build());
+
+        assertEquals(ValueTypes.ASCII, value.valueType());
+        CharSequence charSequence = value.charSequence();
+        assertEquals(6, charSequence.length());
+        assertEquals('b', charSequence.charAt(3));
+        assertEquals("oba", charSequence.subSequence(2, 5));
+        assertEquals("foobar", charSequence.toString());
+    }
+
+    @Test
+    public void test_charsequence_multi_indefinite_bytestreams() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Output output = Output.toOutputStream(baos);
+        Writer writer = Writer.newWriter();
+        writer.newGraphBuilder(output)
+
+              .putIndefiniteAsciiString().putString("ab").putString("cd").endIndefiniteString()
+
+              .finishStream();
+
+        Input input = Input.fromByteArray(baos.toByteArray());
+        Parser parser = Parser.newParser();
+
+        Value value = parser.read(input, parser.newQueryBuilder().stream(0).build());
+        assertEquals("abcd", value.charSequence().toString());
+        assertEquals('c', value.charSequence().charAt(2));
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_charsequence_non_string() {
+        SimplifiedTestParser parser = buildParser("0x01");
+        parser.read(parser.newQueryBuilder().build()).charSequence();
+    }
+
     private void testString(ValueType valueType, TestValue<String> testValue) {
         Input input = Input.fromByteArray(testValue.getValue2());
         Parser parser = Parser.newParser();
@@ -126,6 +177,7 @@ public class StringTestCase
 
         assertEquals(valueType, value.valueType());
         assertEquals(testValue.getValue1(), value.string());
+        assertEquals(testValue.getValue1(), value.charSequence().toString());
     }
 
 }
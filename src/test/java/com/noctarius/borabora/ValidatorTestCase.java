@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ValidatorTestCase
+        extends AbstractTestCase {
+
+    // 1, {"a": 1, "b": [_ 2, 3]}, (_ h'0102', h'03'), 1(1363896240), "streaming", [], 1.1, [[1, [2]], {}]
+    private static final String VALID = "0x01" + "a26161016162" + "9f0203ff" + "5f42010241" + "03ff" + "c11a514b67b0"
+            + "7f657374726561646d696e67ff" + "80" + "fb3ff199999999999a" + "8282018102a0";
+
+    @Test
+    public void call_constructor() {
+        callConstructor(Validator.class);
+    }
+
+    @Test
+    public void test_valid_input() {
+        ValidationResult result = validate(VALID);
+        assertTrue(result.valid());
+        assertEquals(-1, result.errorOffset());
+        assertNull(result.errorMessage());
+        assertEquals(hexToBytes(VALID).length, result.length());
+    }
+
+    @Test
+    public void test_empty_input() {
+        assertTrue(Validator.validate(Input.fromByteArray(new byte[0])).valid());
+    }
+
+    @Test
+    public void test_generated_graph() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer.newWriter().newGraphBuilder(Output.toOutputStream(baos)) //
+              .putDictionary(2) //
+              .putEntry().putString("text").putString(buildString(5000) + "ä€😀").endEntry() //
+              .putEntry().putNumber(1).putSequence().putBoolean(true).putNumber(1.5d).putString("a").endSequence().endEntry() //
+              .endDictionary().finishStream();
+        assertTrue(Validator.validate(Input.fromByteArray(baos.toByteArray())).valid());
+    }
+
+    @Test
+    public void test_deep_nesting() {
+        byte[] data = new byte[100001];
+        for (int i = 0; i < 100000; i++) {
+            data[i] = (byte) 0x9f;
+        }
+        data[100000] = 0x01;
+        ValidationResult result = Validator.validate(Input.fromByteArray(data));
+        assertFalse(result.valid());
+        assertEquals(100001, result.errorOffset());
+    }
+
+    @Test
+    public void test_utf8_sequence_crossing_buffer() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1023; i++) {
+            sb.append('a');
+        }
+        sb.append("€€");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer.newWriter().newGraphBuilder(Output.toOutputStream(baos)).putString(sb.toString()).finishStream();
+        assertTrue(Validator.validate(Input.fromByteArray(baos.toByteArray())).valid());
+    }
+
+    @Test
+    public void fail_illegal_utf8() {
+        assertError("0x6461c3a8ff", 4);
+        // Overlong encoding
+        assertError("0x62c0af", 1);
+        // Surrogate
+        assertError("0x63eda080", 1);
+        // Beyond U+10FFFF
+        assertError("0x64f4900000", 1);
+        // Truncated sequence
+        assertError("0x6261e2", 2);
+        // Sequence split over chunks
+        assertError("0x7f61c261a4ff", 2);
+    }
+
+    @Test
+    public void test_bytestring_not_utf8() {
+        assertTrue(validate("0x42c0af").valid());
+    }
+
+    @Test
+    public void fail_reserved_additional_information() {
+        assertError("0x82011c", 2);
+    }
+
+    @Test
+    public void fail_unexpected_break_code() {
+        assertError("0xff", 0);
+        assertError("0x8201ff", 2);
+        assertError("0x9fc1ff", 2);
+    }
+
+    @Test
+    public void fail_unexpected_end_of_input() {
+        assertError("0x8301", 0);
+        assertError("0x9f8201", 1);
+        assertError("0x9f01", 2);
+        assertError("0x19", 0);
+        assertError("0xc1", 1);
+    }
+
+    @Test
+    public void fail_string_length() {
+        assertError("0x4401", 0);
+        assertError("0x5bffffffffffffffff", 0);
+        assertError("0x5b7fffffffffffffff", 0);
+        assertError("0x7b7ffffffffffffff8", 0);
+    }
+
+    @Test
+    public void fail_container_length() {
+        assertError("0x9bffffffffffffffff", 0);
+        assertError("0x9b7fffffffffffffff", 0);
+        assertError("0xbb3fffffffffffffff", 0);
+        assertError("0xbb4000000000000000", 0);
+        assertError("0x9a0001000001", 0);
+    }
+
+    @Test
+    public void fail_indefinite_integer_and_tag() {
+        assertError("0x1f", 0);
+        assertError("0x3f", 0);
+        assertError("0xdf", 0);
+    }
+
+    @Test
+    public void fail_illegal_chunk() {
+        assertError("0x5f6161ff", 1);
+        assertError("0x5f01ff", 1);
+        assertError("0x7f7fffff", 1);
+    }
+
+    @Test
+    public void fail_dictionary_missing_value() {
+        assertError("0xbf6161ff", 3);
+        assertTrue(validate("0xbf616101ff").valid());
+    }
+
+    @Test
+    public void fail_illegal_simple_value() {
+        assertError("0xf818", 0);
+        assertTrue(validate("0xf820").valid());
+    }
+
+    @Test
+    public void test_result_tostring() {
+        assertEquals("ValidationResult{valid=true, length=1}", validate("0x01").toString());
+        assertEquals("ValidationResult{valid=false, errorOffset=0, errorMessage='Unexpected break code'}",
+                validate("0xff").toString());
+    }
+
+    private static ValidationResult validate(String hex) {
+        return Validator.validate(Input.fromByteArray(hexToBytes(hex)));
+    }
+
+    private static void assertError(String hex, long errorOffset) {
+        ValidationResult result = validate(hex);
+        assertFalse(hex, result.valid());
+        assertEquals(hex + ": " + result.errorMessage(), errorOffset, result.errorOffset());
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora;
+
+import com.noctarius.borabora.spi.ObjectValue;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ValueDefaultsTestCase {
+
+    @Test
+    public void test_charsequence() {
+        Value value = new ForwardingValue(new ObjectValue(MajorType.TextString, ValueTypes.TextString, "foo"));
+        assertEquals("foo", value.charSequence().toString());
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_charsequence_wrong_type() {
+        new ForwardingValue(new ObjectValue(MajorType.UnsignedInteger, ValueTypes.UInt, 1)).charSequence();
+    }
+
+    @Test
+    public void test_unscaledlong_scale() {
+        BigDecimal fraction = new BigDecimal("-123.45");
+        Value value = new ForwardingValue(new ObjectValue(MajorType.SemanticTag, ValueTypes.Fraction, fraction));
+        assertEquals(-12345L, value.unscaledLong());
+        assertEquals(2, value.scale());
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_unscaledlong_wrong_type() {
+        new ForwardingValue(new ObjectValue(MajorType.UnsignedInteger, ValueTypes.UInt, 1)).unscaledLong();
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_scale_wrong_type() {
+        new ForwardingValue(new ObjectValue(MajorType.UnsignedInteger, ValueTypes.UInt, 1)).scale();
+    }
+
+    @Test
+    public void test_openstream()
+            throws Exception {
+
+        byte[] bytes = {1, 2, 3};
+        Value byteString = new ForwardingValue(new ObjectValue(MajorType.ByteString, ValueTypes.ByteString, bytes));
+        Value textString = new ForwardingValue(new ObjectValue(MajorType.TextString, ValueTypes.TextString, "\u00e4b"));
+        assertArrayEquals(bytes, readFully(byteString.openStream()));
+        assertArrayEquals("\u00e4b".getBytes(StandardCharsets.UTF_8), readFully(textString.openStream()));
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_openstream_wrong_type() {
+        new ForwardingValue(new ObjectValue(MajorType.UnsignedInteger, ValueTypes.UInt, 1)).openStream();
+    }
+
+    private static byte[] readFully(InputStream inputStream)
+            throws IOException {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        int b;
+        while ((b = inputStream.read()) != -1) {
+            baos.write(b);
+        }
+        return baos.toByteArray();
+    }
+
+    // Implements only the abstract methods, like third-party values written against older versions
+    private static final class ForwardingValue
+            implements Value {
+
+        private final Value value;
+
+        private ForwardingValue(Value value) {
+            this.value = value;
+        }
+
+        @Override
+        public MajorType majorType() {
+            return value.majorType();
+        }
+
+        @Override
+        public ValueType valueType() {
+            return value.valueType();
+        }
+
+        @Override
+        public <V> V tag() {
+            return value.tag();
+        }
+
+        @Override
+        public Number number() {
+            return value.number();
+        }
+
+        @Override
+        public Sequence sequence() {
+            return value.sequence();
+        }
+
+        @Override
+        public Dictionary dictionary() {
+            return value.dictionary();
+        }
+
+        @Override
+        public String string() {
+            return value.string();
+        }
+
+        @Override
+        public Boolean bool() {
+            return value.bool();
+        }
+
+        @Override
+        public byte[] bytes() {
+            return value.bytes();
+        }
+
+        @Override
+        public byte[] raw() {
+            return value.raw();
+        }
+
+        @Override
+        public <V> V byValueType() {
+            return value.byValueType();
+        }
+
+        @Override
+        public long offset() {
+            return value.offset();
+        }
+
+        @Override
+        public Input input() {
+            return value.input();
+        }
+
+        @Override
+        public String asString() {
+            return value.asString();
+        }
+
+        @Override
+        public String toString() {
+            return value.toString();
+        }
+    }
+
+}
@@ -19,10 +19,13 @@ package com.noctarius.borabora.impl;
 import com.noctarius.borabora.Input;
 import com.noctarius.borabora.Parser;
 import com.noctarius.borabora.builder.ParserBuilder;
+import com.noctarius.borabora.impl.query.optimizer.QueryOptimizers;
 import com.noctarius.borabora.spi.codec.TagStrategy;
+import com.noctarius.borabora.spi.io.StringCache;
 import com.noctarius.borabora.spi.query.BinaryProjectionStrategy;
 import com.noctarius.borabora.spi.query.ObjectProjectionStrategy;
 import com.noctarius.borabora.spi.query.ProjectionStrategy;
+import com.noctarius.borabora.spi.query.QueryCache;
 import com.noctarius.borabora.spi.query.QueryConsumer;
 import com.noctarius.borabora.spi.query.QueryContext;
 import com.noctarius.borabora.spi.query.QueryContextFactory;
@@ -47,6 +50,9 @@ import static com.noctarius.borabora.impl.WriterBuilderTestCase.TBF_2;
 import static com.noctarius.borabora.impl.WriterBuilderTestCase.TBF_3;
 import static com.noctarius.borabora.impl.WriterBuilderTestCase.TBF_4;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class ParserBuilderTestCase {
@@ -96,7 +102,7 @@ public class ParserBuilderTestCase {
 
     @Test
     public void test_addqueryoptimizer_single() {
-        ParserBuilder parserBuilder = new ParserBuilderImpl();
+        ParserBuilder parserBuilder = new ParserBuilderImpl().withDefaultQueryOptimizers(false);
         parserBuilder.addQueryOptimizer(QO_1);
         Parser parser = parserBuilder.build();
         List<QueryOptimizer> queryOptimizers = extractQueryOptimizers(parser);
@@ -106,7 +112,7 @@ public class ParserBuilderTestCase {
 
     @Test
     public void test_addqueryoptimizer_prevent_double_registration() {
-        ParserBuilder parserBuilder = new ParserBuilderImpl();
+        ParserBuilder parserBuilder = new ParserBuilderImpl().withDefaultQueryOptimizers(false);
         parserBuilder.addQueryOptimizer(QO_1);
         parserBuilder.addQueryOptimizer(QO_1);
         Parser parser = parserBuilder.build();
@@ -117,7 +123,7 @@ public class ParserBuilderTestCase {
 
     @Test
     public void test_addqueryoptimizer_double() {
-        ParserBuilder parserBuilder = new ParserBuilderImpl();
+        ParserBuilder parserBuilder = new ParserBuilderImpl().withDefaultQueryOptimizers(false);
         parserBuilder.addQueryOptimizers(QO_1, QO_2);
         Parser parser = parserBuilder.build();
         List<QueryOptimizer> queryOptimizers = extractQueryOptimizers(parser);
@@ -129,7 +135,7 @@ public class ParserBuilderTestCase {
 
     @Test
     public void test_addqueryoptimizer_array() {
-        ParserBuilder parserBuilder = new ParserBuilderImpl();
+        ParserBuilder parserBuilder = new ParserBuilderImpl().withDefaultQueryOptimizers(false);
         parserBuilder.addQueryOptimizers(QO_1, QO_2, QO_3, QO_4);
         Parser parser = parserBuilder.build();
         List<QueryOptimizer> queryOptimizers = extractQueryOptimizers(parser);
@@ -143,7 +149,7 @@ public class ParserBuilderTestCase {
 
     @Test
     public void test_addqueryoptimizer_iterable() {
-        ParserBuilder parserBuilder = new ParserBuilderImpl();
+        ParserBuilder parserBuilder = new ParserBuilderImpl().withDefaultQueryOptimizers(false);
         parserBuilder.addQueryOptimizers(Stream.of(QO_1, QO_2, QO_3, QO_4).collect(Collectors.toList()));
         Parser parser = parserBuilder.build();
         List<QueryOptimizer> queryOptimizers = extractQueryOptimizers(parser);
@@ -155,6 +161,21 @@ public class ParserBuilderTestCase {
         assertEquals(QO_4, iterator.next());
     }
 
+    @Test
+    public void test_default_query_optimizers() {
+        Parser parser = new ParserBuilderImpl().addQueryOptimizer(QO_1).build();
+        List<QueryOptimizer> queryOptimizers = extractQueryOptimizers(parser);
+        assertEquals(3, queryOptimizers.size());
+        assertEquals(QO_1, queryOptimizers.get(0));
+        assertEquals(QueryOptimizers.defaultQueryOptimizers(), queryOptimizers.subList(1, 3));
+    }
+
+    @Test
+    public void test_default_query_optimizers_disabled() {
+        Parser parser = new ParserBuilderImpl().withDefaultQueryOptimizers(false).build();
+        assertTrue(extractQueryOptimizers(parser).isEmpty());
+    }
+
     @Test
     public void test_addtagstrategy_single() {
         ParserBuilder parserBuilder = new ParserBuilderImpl();
@@ -236,6 +257,88 @@ public class ParserBuilderTestCase {
         assertEquals(ObjectProjectionStrategy.INSTANCE, extractProjectionStrategy(parser));
     }
 
+    @Test
+    public void test_withoutstringcache() {
+        ParserBuilder parserBuilder = new ParserBuilderImpl();
+        Parser parser = parserBuilder.build();
+        assertNull(extractStringCache(parser));
+    }
+
+    @Test
+    public void test_withstringcache() {
+        ParserBuilder parserBuilder = new ParserBuilderImpl();
+        parserBuilder.withStringCache();
+        Parser parser1 = parserBuilder.build();
+        Parser parser2 = parserBuilder.build();
+        assertNotNull(extractStringCache(parser1));
+        assertNotSame(extractStringCache(parser1), extractStringCache(parser2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_withstringcache_illegal_capacity() {
+        new ParserBuilderImpl().withStringCache(0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_withstringcache_illegal_maxstringlength() {
+        new ParserBuilderImpl().withStringCache(10, 0);
+    }
+
+    @Test
+    public void test_withoutquerycache() {
+        assertNull(new ParserBuilderImpl().build().queryCache());
+    }
+
+    @Test
+    public void test_withquerycache() {
+        ParserBuilder parserBuilder = new ParserBuilderImpl();
+        parserBuilder.withQueryCache();
+        Parser parser1 = parserBuilder.build();
+        Parser parser2 = parserBuilder.build();
+        assertEquals(QueryCache.DEFAULT_CAPACITY, parser1.queryCache().capacity());
+        assertNotSame(parser1.queryCache(), parser2.queryCache());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_withquerycache_illegal_capacity() {
+        new ParserBuilderImpl().withQueryCache(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_withmaxnestingdepth_illegal() {
+        new ParserBuilderImpl().withMaxNestingDepth(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_withmaxcontainerelements_illegal() {
+        new ParserBuilderImpl().withMaxContainerElements(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_withmaxstringlength_illegal() {
+        new ParserBuilderImpl().withMaxStringLength(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_withmaxbytesscanned_illegal() {
+        new ParserBuilderImpl().withMaxBytesScanned(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_withmaxmaterializedelements_illegal() {
+        new ParserBuilderImpl().withMaxMaterializedElements(-1);
+    }
+
+    private StringCache extractStringCache(Parser parser) {
+        try {
+            Field field = ParserImpl.class.getDeclaredField("stringCache");
+            field.setAccessible(true);
+            return (StringCache) field.get(parser);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private PipelineStageFactory extractPipelineStageFactory(Parser parser) {
         try {
             Field field = ParserImpl.class.getDeclaredField("pipelineStageFactory");
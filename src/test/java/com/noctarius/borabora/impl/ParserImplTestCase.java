@@ -22,6 +22,9 @@ import com.noctarius.borabora.Parser;
 import com.noctarius.borabora.Query;
 import com.noctarius.borabora.QueryParserException;
 import com.noctarius.borabora.Value;
+import com.noctarius.borabora.spi.codec.TagStrategyTable;
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.QueryContextFactory;
 import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
 import com.noctarius.borabora.spi.query.pipeline.PipelineStageFactory;
 import org.junit.Test;
@@ -31,6 +34,8 @@ import java.util.List;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -151,4 +156,24 @@ public class ParserImplTestCase
         assertArrayEquals(expected2, actual2);
     }
 
+    @Test
+    public void test_query_contexts_share_tag_strategy_table() {
+        List<QueryContext> queryContexts = new ArrayList<>();
+        QueryContextFactory queryContextFactory = (input, queryConsumer, tagStrategies, projectionStrategy) -> {
+            QueryContext queryContext = DefaultQueryContextFactory.INSTANCE
+                    .newQueryContext(input, queryConsumer, tagStrategies, projectionStrategy);
+            queryContexts.add(queryContext);
+            return queryContext;
+        };
+
+        Parser parser = Parser.newBuilder().withQueryContextFactory(queryContextFactory).build();
+        Input input = Input.fromByteArray(new byte[]{(byte) 0x1});
+        parser.read(input, "#");
+        parser.read(input, "#");
+
+        assertEquals(2, queryContexts.size());
+        assertTrue(queryContexts.get(0).tagStrategies() instanceof TagStrategyTable);
+        assertSame(queryContexts.get(0).tagStrategies(), queryContexts.get(1).tagStrategies());
+    }
+
 }
@@ -21,6 +21,7 @@ import com.noctarius.borabora.Input;
 import com.noctarius.borabora.MajorType;
 import com.noctarius.borabora.Output;
 import com.noctarius.borabora.spi.io.ByteSizes;
+import com.noctarius.borabora.spi.io.Decoder;
 import com.noctarius.borabora.spi.io.Encoder;
 import org.junit.Test;
 
@@ -36,6 +37,49 @@ public class ByteSizesTestCase
         callConstructor(ByteSizes.class);
     }
 
+    @Test
+    public void test_deeply_nested_definite() {
+        // [[[...[1]...]]], 100000 levels
+        int depth = 100000;
+        byte[] data = new byte[depth + 1];
+        for (int i = 0; i < depth; i++) {
+            data[i] = (byte) 0x81;
+        }
+        data[depth] = 0x01;
+        Input input = Input.fromByteArray(data);
+        assertEquals(data.length, ByteSizes.sequenceByteSize(input, 0));
+        assertEquals(data.length, Decoder.length(input, MajorType.Sequence, 0));
+    }
+
+    @Test
+    public void test_deeply_nested_indefinite_with_tags() {
+        // [_ 1({_ 1: [_ ... ]}) ...], 10000 levels
+        int depth = 10000;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (int i = 0; i < depth; i++) {
+            baos.write(0x9f);
+            baos.write(0xc1);
+            baos.write(0xbf);
+            baos.write(0x01);
+        }
+        baos.write(0x80);
+        for (int i = 0; i < depth; i++) {
+            baos.write(0xff);
+            baos.write(0xff);
+        }
+        byte[] data = baos.toByteArray();
+        Input input = Input.fromByteArray(data);
+        assertEquals(data.length, Decoder.skip(input, 0));
+    }
+
+    @Test
+    public void test_mixed_container_sizes() {
+        // {"a": [1, 2, h'ff'], 1(-1000): {_ "b": null}, "c": [_ 1.5, 1000000]}, 1
+        Input input = Input.fromByteArray(hexToBytes("0xa36161830102 41ff c13903e7 bf6162f6ff 6163 9ff93e001a000f4240ff 01" //
+                .replace(" ", "")));
+        assertEquals(29, ByteSizes.dictionaryByteSize(input, 0));
+    }
+
     @Test
     public void test_bytesizebymajortype_unsignedinteger() {
         Input input = input(MajorType.UnsignedInteger);
@@ -116,9 +160,15 @@ public class ByteSizesTestCase
         assertEquals(4294967300L, ByteSizes.stringByteSize(input, 0));
     }
 
-    @Test(expected = IllegalStateException.class)
+    @Test
     public void test_stringsize_64bit() {
-        Input input = Input.fromByteArray(new byte[]{27});
+        Input input = Input.fromByteArray(new byte[]{27, 0, 0, 0, 1, 0, 0, 0, 0});
+        assertEquals(4294967305L, ByteSizes.stringByteSize(input, 0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_stringsize_64bit_too_large() {
+        Input input = Input.fromByteArray(new byte[]{27, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0});
         ByteSizes.stringByteSize(input, 0);
     }
 
@@ -171,9 +221,17 @@ public class ByteSizesTestCase
         assertEquals(4294967295L, ByteSizes.stringDataSize(input, 0));
     }
 
-    @Test(expected = IllegalStateException.class)
+    @Test
     public void test_datasize_64bit() {
-        Input input = Input.fromByteArray(new byte[]{27});
+        Input input = Input.fromByteArray(new byte[]{27, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff, //
+                (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xf6});
+        assertEquals(Long.MAX_VALUE - 9, ByteSizes.stringDataSize(input, 0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_datasize_64bit_too_large() {
+        Input input = Input.fromByteArray(new byte[]{27, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff, //
+                (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xf7});
         ByteSizes.stringDataSize(input, 0);
     }
 
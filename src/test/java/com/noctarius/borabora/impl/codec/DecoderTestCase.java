@@ -109,6 +109,57 @@ public class DecoderTestCase
         assertEquals(BigDecimal.valueOf(12.0d), fraction);
     }
 
+    @Test
+    public void test_readfraction_long_unscaled() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Encoder.putFraction(new BigDecimal("-1234567890.12345678"), 0, Output.toOutputStream(baos));
+
+        Input input = Input.fromByteArray(baos.toByteArray());
+        assertEquals(new BigDecimal("-1234567890.12345678"), Decoder.readFraction(0, newQueryContext(input)));
+        assertEquals(-123456789012345678L, Decoder.readFractionUnscaledLong(0, newQueryContext(input)));
+        assertEquals(8, Decoder.readFractionScale(input, 0));
+    }
+
+    @Test
+    public void test_readfraction_negative_biginteger_unscaled() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Output output = Output.toOutputStream(baos);
+
+        long offset = Encoder.encodeLengthAndValue(MajorType.SemanticTag, Constants.TAG_FRACTION, 0, output);
+        offset = Encoder.encodeLengthAndValue(MajorType.Sequence, 2, offset, output);
+        offset = Encoder.encodeLengthAndValue(MajorType.UnsignedInteger, 2, offset, output);
+        Encoder.putBigInteger(BigInteger.valueOf(-12345), offset, output);
+
+        Input input = Input.fromByteArray(baos.toByteArray());
+        assertEquals(new BigDecimal("-123.45"), Decoder.readFraction(0, newQueryContext(input)));
+        assertEquals(-12345, Decoder.readFractionUnscaledLong(0, newQueryContext(input)));
+    }
+
+    @Test
+    public void test_readfraction_biginteger_unscaled_larger_long() {
+        BigInteger unscaled = BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Output output = Output.toOutputStream(baos);
+
+        long offset = Encoder.encodeLengthAndValue(MajorType.SemanticTag, Constants.TAG_FRACTION, 0, output);
+        offset = Encoder.encodeLengthAndValue(MajorType.Sequence, 2, offset, output);
+        offset = Encoder.encodeLengthAndValue(MajorType.UnsignedInteger, 3, offset, output);
+        Encoder.putBigInteger(unscaled, offset, output);
+
+        Input input = Input.fromByteArray(baos.toByteArray());
+        assertEquals(new BigDecimal(unscaled, 3), Decoder.readFraction(0, newQueryContext(input)));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void fail_readfractionunscaledlong_larger_long() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Encoder.putFraction(new BigDecimal("92233720368547758.08"), 0, Output.toOutputStream(baos));
+
+        Input input = Input.fromByteArray(baos.toByteArray());
+        Decoder.readFractionUnscaledLong(0, newQueryContext(input));
+    }
+
     @Test(expected = IllegalStateException.class)
     public void fail_calculate_length_illegal_major_type() {
         Decoder.length(null, MajorType.Unknown, 0);
@@ -213,4 +264,27 @@ public class DecoderTestCase
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void test_readintargument() {
+        assertEquals(10, Decoder.readIntArgument(Input.fromByteArray(hexToBytes("0x0a")), 0));
+        assertEquals(100, Decoder.readIntArgument(Input.fromByteArray(hexToBytes("0x1864")), 0));
+        assertEquals(1000, Decoder.readIntArgument(Input.fromByteArray(hexToBytes("0x1903e8")), 0));
+        assertEquals(1000000, Decoder.readIntArgument(Input.fromByteArray(hexToBytes("0x1a000f4240")), 0));
+        assertEquals(-1, Decoder.readIntArgument(Input.fromByteArray(hexToBytes("0x1bffffffffffffffff")), 0));
+        // -1000 is encoded as argument 999
+        assertEquals(999, Decoder.readIntArgument(Input.fromByteArray(hexToBytes("0x3903e7")), 0));
+    }
+
+    @Test
+    public void test_readdouble() {
+        assertEquals(1.5d, Decoder.readDouble(Input.fromByteArray(hexToBytes("0xf93e00")), 0), 0d);
+        assertEquals(100000.0d, Decoder.readDouble(Input.fromByteArray(hexToBytes("0xfa47c35000")), 0), 0d);
+        assertEquals(1.1d, Decoder.readDouble(Input.fromByteArray(hexToBytes("0xfb3ff199999999999a")), 0), 0d);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fail_readdouble_simple_value() {
+        Decoder.readDouble(Input.fromByteArray(hexToBytes("0xf5")), 0);
+    }
+
 }
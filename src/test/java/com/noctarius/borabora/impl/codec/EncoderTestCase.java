@@ -22,7 +22,9 @@ import com.noctarius.borabora.Output;
 import com.noctarius.borabora.spi.io.Encoder;
 import org.junit.Test;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
 
 import static org.junit.Assert.assertArrayEquals;
 
@@ -34,6 +36,23 @@ public class EncoderTestCase
         callConstructor(Encoder.class);
     }
 
+    @Test
+    public void test_put_fraction_long_equals_bigdecimal() {
+        byte[] expected = new byte[12];
+        Encoder.putFraction(new BigDecimal("-1234567.89"), 0, Output.toByteArray(expected));
+        byte[] result = new byte[12];
+        Encoder.putFraction(-123456789L, 2, 0, Output.toByteArray(result));
+        assertArrayEquals(expected, result);
+        assertArrayEquals(hexToBytes("0xc482023a075bcd14"), Arrays.copyOf(result, 8));
+    }
+
+    @Test
+    public void test_put_fraction_bigdecimal_larger_long() {
+        byte[] result = new byte[12];
+        Encoder.putFraction(new BigDecimal("184467440737095516.15"), 0, Output.toByteArray(result));
+        assertArrayEquals(hexToBytes("0xc482021bffffffffffffffff"), result);
+    }
+
     @Test
     public void test_put_boolean_value_true() {
         byte[] result = new byte[1];
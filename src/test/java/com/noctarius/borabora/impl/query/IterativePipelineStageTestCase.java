@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Output;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.Writer;
+import com.noctarius.borabora.impl.query.stages.ConsumerQueryStage;
+import com.noctarius.borabora.impl.query.stages.SequenceIndexQueryStage;
+import com.noctarius.borabora.spi.query.pipeline.PipelineStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.noctarius.borabora.spi.query.pipeline.PipelineStage.NIL;
+import static com.noctarius.borabora.spi.query.pipeline.QueryStage.QUERY_BASE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IterativePipelineStageTestCase
+        extends AbstractTestCase {
+
+    @Test
+    public void test_flatten_nil() {
+        assertSame(NIL, IterativePipelineStage.flatten(NIL));
+    }
+
+    @Test
+    public void test_flatten_retains_tree() {
+        PipelineStage sibling = new BTreePipelineStage(NIL, NIL, ConsumerQueryStage.INSTANCE);
+        PipelineStage child = new BTreePipelineStage(NIL, sibling, new SequenceIndexQueryStage(0));
+        PipelineStage root = new BTreePipelineStage(child, NIL, QUERY_BASE);
+
+        PipelineStage flattened = IterativePipelineStage.flatten(root);
+        assertTrue(BTreePipelineStage.treeEquals(root, flattened));
+        assertEquals(PipelineStagePrinter.printTree(root), PipelineStagePrinter.printTree(flattened));
+        assertSame(flattened.left(), flattened.left());
+        assertSame(NIL, flattened.right());
+    }
+
+    @Test
+    public void test_visit_stage_null() {
+        PipelineStage pipelineStage = IterativePipelineStage.flatten(new BTreePipelineStage(NIL, NIL, null));
+        assertEquals(VisitResult.Continue, pipelineStage.visit(NIL, newQueryContext()));
+    }
+
+    @Test
+    public void test_visit_stage_loop() {
+        int[] executed = new int[1];
+        QueryStage queryStage = (previousPipelineStage, pipelineStage, pipelineContext) -> {
+            executed[0]++;
+            return executed[0] == 2 ? VisitResult.Continue : VisitResult.Loop;
+        };
+        PipelineStage pipelineStage = IterativePipelineStage.flatten(new BTreePipelineStage(NIL, NIL, queryStage));
+        assertEquals(VisitResult.Continue, pipelineStage.visit(NIL, newQueryContext()));
+        assertEquals(2, executed[0]);
+    }
+
+    @Test
+    public void test_visit_stage_exit_skips_siblings() {
+        int[] executed = new int[1];
+        QueryStage exit = (previousPipelineStage, pipelineStage, pipelineContext) -> VisitResult.Exit;
+        QueryStage counter = (previousPipelineStage, pipelineStage, pipelineContext) -> {
+            executed[0]++;
+            return VisitResult.Continue;
+        };
+        PipelineStage parentSibling = new BTreePipelineStage(NIL, NIL, counter);
+        PipelineStage sibling = new BTreePipelineStage(NIL, NIL, counter);
+        PipelineStage child = new BTreePipelineStage(NIL, sibling, exit);
+        PipelineStage root = new BTreePipelineStage(child, parentSibling, QUERY_BASE);
+
+        assertEquals(VisitResult.Exit, IterativePipelineStage.flatten(root).visit(NIL, newQueryContext(input())));
+        assertEquals(VisitResult.Exit, root.visit(NIL, newQueryContext(input())));
+        assertEquals(0, executed[0]);
+    }
+
+    @Test
+    public void test_visit_previous_pipeline_stage() {
+        List<QueryStage> previous = new ArrayList<>();
+        QueryStage recorder = (previousPipelineStage, pipelineStage, pipelineContext) -> {
+            previous.add(previousPipelineStage.stage());
+            return pipelineStage.visitChildren(pipelineContext);
+        };
+        PipelineStage grandChild = new BTreePipelineStage(NIL, NIL, recorder);
+        PipelineStage sibling = new BTreePipelineStage(grandChild, NIL, recorder);
+        PipelineStage child = new BTreePipelineStage(NIL, sibling, recorder);
+        PipelineStage root = new BTreePipelineStage(child, NIL, QUERY_BASE);
+
+        root.visit(NIL, newQueryContext(input()));
+        List<QueryStage> expected = new ArrayList<>(previous);
+        previous.clear();
+
+        IterativePipelineStage.flatten(root).visit(NIL, newQueryContext(input()));
+        assertEquals(expected, previous);
+        assertEquals(3, previous.size());
+    }
+
+    @Test
+    public void test_visit_long_sibling_chain() {
+        int[] executed = new int[1];
+        QueryStage counter = (previousPipelineStage, pipelineStage, pipelineContext) -> {
+            executed[0]++;
+            return VisitResult.Continue;
+        };
+        PipelineStage pipelineStage = NIL;
+        for (int i = 0; i < 100000; i++) {
+            pipelineStage = new BTreePipelineStage(NIL, pipelineStage, counter);
+        }
+        PipelineStage root = new BTreePipelineStage(pipelineStage, NIL, QUERY_BASE);
+
+        assertEquals(VisitResult.Continue, IterativePipelineStage.flatten(root).visit(NIL, newQueryContext(input())));
+        assertEquals(100000, executed[0]);
+    }
+
+    @Test
+    public void test_visit_nested_loops_reuse_frames() {
+        int[] executed = new int[1];
+        QueryStage nested = (previousPipelineStage, pipelineStage, pipelineContext) -> {
+            executed[0]++;
+            return pipelineStage.visitChildren(pipelineContext);
+        };
+        QueryStage failing = (previousPipelineStage, pipelineStage, pipelineContext) -> {
+            throw new IllegalStateException("failing");
+        };
+        PipelineStage pipelineStage = NIL;
+        for (int i = 0; i < 200; i++) {
+            PipelineStage base = new BTreePipelineStage(pipelineStage, NIL, QUERY_BASE);
+            pipelineStage = new BTreePipelineStage(base, NIL, nested);
+        }
+        PipelineStage root = IterativePipelineStage.flatten(new BTreePipelineStage(pipelineStage, NIL, QUERY_BASE));
+        PipelineStage broken = IterativePipelineStage
+                .flatten(new BTreePipelineStage(new BTreePipelineStage(NIL, NIL, failing), NIL, QUERY_BASE));
+
+        assertEquals(VisitResult.Continue, root.visit(NIL, newQueryContext(input())));
+        assertEquals(200, executed[0]);
+
+        // Frames of a failed execution must be released
+        try {
+            broken.visit(NIL, newQueryContext(input()));
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals("failing", e.getMessage());
+        }
+        assertEquals(VisitResult.Continue, root.visit(NIL, newQueryContext(input())));
+        assertEquals(400, executed[0]);
+    }
+
+    @Test
+    public void test_visitchildren_left_nil() {
+        QueryStage queryStage = (previousPipelineStage, pipelineStage, pipelineContext) -> VisitResult.Exit;
+        PipelineStage pipelineStage = IterativePipelineStage.flatten(new BTreePipelineStage(NIL, NIL, queryStage));
+        assertEquals(VisitResult.Continue, pipelineStage.visitChildren(newQueryContext()));
+    }
+
+    @Test
+    public void test_equals_hashcode_tostring() {
+        PipelineStage ps1 = IterativePipelineStage.flatten(new BTreePipelineStage(NIL, NIL, QUERY_BASE));
+        PipelineStage ps2 = IterativePipelineStage.flatten(new BTreePipelineStage(NIL, NIL, null));
+        PipelineStage ps3 = IterativePipelineStage.flatten(new BTreePipelineStage(NIL, NIL, QUERY_BASE));
+
+        assertTrue(ps1.equals(ps1));
+        assertTrue(ps1.equals(ps3));
+        assertFalse(ps1.equals(ps2));
+        assertFalse(ps1.equals(new BTreePipelineStage(NIL, NIL, QUERY_BASE)));
+        assertEquals(ps1.hashCode(), ps3.hashCode());
+        assertNotEquals(ps1.hashCode(), ps2.hashCode());
+        assertEquals("IterativePipelineStage{stage=QUERY_BASE, left=NIL, right=NIL}", ps1.toString());
+    }
+
+    @Test
+    public void test_iterative_pipeline_matches_interpreter() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer.newWriter().newGraphBuilder(Output.toOutputStream(baos)) //
+              .putDictionary(2) //
+              .putEntry().putString("a").putSequence(3).putNumber(1).putNumber(2) //
+              .putDictionary(1).putEntry().putString("b").putString("x").endEntry().endDictionary() //
+              .endSequence().endEntry() //
+              .putEntry().putString("c").putNumber(1.5d).endEntry() //
+              .endDictionary() //
+              .putNumber(3).putString("foo").finishStream();
+        Input input = Input.fromByteArray(baos.toByteArray());
+
+        Parser interpreter = Parser.newParser();
+        Parser iterative = Parser.newBuilder() //
+                                 .withQueryPipelineFactory(BTreeFactories.newIterativeQueryPipelineFactory()).build();
+        Parser unoptimized = Parser.newBuilder().withDefaultQueryOptimizers(false) //
+                                   .withQueryPipelineFactory(BTreeFactories.newIterativeQueryPipelineFactory()).build();
+
+        String[] queries = {"$", "#", "#2", "#{'a'}", "#{'a'}(1)", "#{'a'}(2){'b'}", "#{'a'}(5)", "#{'c'}->float",
+                            "#{'c'}->?int", "#{'missing'}", "$->?uint", "(x: #{'c'}, y: #1)", "(#{'c'}, #2)",
+                            "#{'a'}(?)", "(x: #{'a'}(2){'b'}, y: (#{'a'}(0), #{'missing'}))"};
+
+        for (String query : queries) {
+            List<Object> expected = read(interpreter, input, query);
+            assertEquals(query, expected, read(iterative, input, query));
+            assertEquals(query, expected, read(unoptimized, input, query));
+        }
+    }
+
+    private static Input input() {
+        return Input.fromByteArray(hexToBytes("0x01"));
+    }
+
+    private static List<Object> read(Parser parser, Input input, String query) {
+        List<Object> values = new ArrayList<>();
+        parser.read(input, parser.prepareQuery(query), value -> values.add(String.valueOf(value)));
+        return values;
+    }
+
+}
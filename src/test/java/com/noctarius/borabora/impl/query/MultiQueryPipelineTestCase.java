@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Output;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.Predicates;
+import com.noctarius.borabora.Query;
+import com.noctarius.borabora.Writer;
+import com.noctarius.borabora.spi.query.pipeline.QueryPipeline;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MultiQueryPipelineTestCase
+        extends AbstractTestCase {
+
+    private static final String[] QUERIES = {"#{'a'}(0)", "#{'a'}(1)", "#{'a'}(2){'b'}", "#{'a'}", "#{'c'}->float",
+                                             "#{'c'}->?int", "#{'missing'}", "#{'a'}(7)", "$", "$->?uint", "#1", "#2",
+                                             "(x: #{'c'}, y: #1)", "(#{'c'}, #{'a'}(1))", "#{'a'}(?)", "#{1}", "#{1.0}"};
+
+    private final Input input = input();
+
+    @Test
+    public void test_readall_matches_read() {
+        Parser parser = Parser.newParser();
+        assertReadAllMatchesRead(parser, prepare(parser, QUERIES));
+    }
+
+    @Test
+    public void test_readall_iterative_pipeline() {
+        Parser parser = Parser.newBuilder() //
+                              .withQueryPipelineFactory(BTreeFactories.newIterativeQueryPipelineFactory()).build();
+        assertReadAllMatchesRead(parser, prepare(parser, QUERIES));
+    }
+
+    @Test
+    public void test_readall_foreign_query_pipeline() {
+        Parser parser = Parser.newParser();
+        Query query = parser.prepareQuery("#{'a'}(1)");
+        QueryPipeline queryPipeline = query.newQueryPipeline();
+        Query foreign = new QueryImpl(new QueryPipeline() {
+            @Override
+            public void evaluate(com.noctarius.borabora.spi.query.QueryContext queryContext) {
+                queryPipeline.evaluate(queryContext);
+            }
+
+            @Override
+            public String printQueryGraph() {
+                return queryPipeline.printQueryGraph();
+            }
+        });
+        assertReadAllMatchesRead(parser, Arrays.asList(query, foreign, parser.prepareQuery("#{'c'}")));
+    }
+
+    @Test
+    public void test_readall_parameterized_queries() {
+        Parser parser = Parser.newParser();
+        Query query = parser.prepareQuery("#{$1}($2)");
+        List<Query> queries = Arrays.asList(query.bind("a", 0), parser.prepareQuery("#{'c'}"), query.bind("a", 1));
+        assertReadAllMatchesRead(parser, queries);
+    }
+
+    @Test
+    public void test_readall_empty() {
+        List<String> results = new ArrayList<>();
+        Parser.newParser().readAll(input, Collections.emptyList(), (index, value) -> results.add(index + "=" + value));
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void test_shared_prefix() {
+        Parser parser = Parser.newParser();
+        MultiQueryPipeline multiQueryPipeline = MultiQueryPipeline
+                .newMultiQueryPipeline(prepare(parser, "#{'a'}(0)", "#{'a'}(1)", "#{'a'}(1){'b'}", "#{'c'}"));
+
+        String graph = multiQueryPipeline.printQueryGraph();
+        assertEquals(1, occurrences(graph, "QUERY_BASE"));
+        assertEquals(1, occurrences(graph, "STREAM_INDEX[ 0 ]"));
+        assertEquals(3, occurrences(graph, "DIC_LOOKUP"));
+        assertEquals(1, occurrences(graph, "SEQ_INDEX[ 1 ]"));
+        assertEquals(4, occurrences(graph, "QUERY["));
+    }
+
+    @Test
+    public void test_predicate_lookups_not_shared() {
+        Parser parser = Parser.newParser();
+        List<Query> queries = Arrays.asList(parser.newQueryBuilder().dictionary(Predicates.matchString("a")).build(),
+                parser.newQueryBuilder().dictionary(Predicates.matchString("c")).build());
+
+        String graph = MultiQueryPipeline.newMultiQueryPipeline(queries).printQueryGraph();
+        assertEquals(2, occurrences(graph, "DIC_LOOKUP"));
+        assertReadAllMatchesRead(parser, queries);
+    }
+
+    @Test
+    public void test_excluded() {
+        Parser parser = Parser.newParser();
+        assertTrue(MultiQueryPipeline.excluded(parser.prepareQuery("#{$1}")));
+        assertFalse(MultiQueryPipeline.excluded(parser.prepareQuery("#{'a'}")));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void fail_null_query() {
+        MultiQueryPipeline.newMultiQueryPipeline(Collections.singletonList(null));
+    }
+
+    private void assertReadAllMatchesRead(Parser parser, List<Query> queries) {
+        List<List<String>> expected = new ArrayList<>();
+        List<List<String>> actual = new ArrayList<>();
+        for (Query query : queries) {
+            List<String> values = new ArrayList<>();
+            parser.read(input, query, value -> values.add(String.valueOf(value)));
+            expected.add(values);
+            actual.add(new ArrayList<>());
+        }
+
+        parser.readAll(input, queries, (queryIndex, value) -> actual.get(queryIndex).add(String.valueOf(value)));
+        assertEquals(expected, actual);
+    }
+
+    private static List<Query> prepare(Parser parser, String... queries) {
+        List<Query> prepared = new ArrayList<>();
+        for (String query : queries) {
+            prepared.add(parser.prepareQuery(query));
+        }
+        return prepared;
+    }
+
+    private static int occurrences(String graph, String token) {
+        int count = 0;
+        for (int index = graph.indexOf(token); index != -1; index = graph.indexOf(token, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static Input input() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer.newWriter().newGraphBuilder(Output.toOutputStream(baos)) //
+              .putDictionary(4) //
+              .putEntry().putString("a").putSequence(3).putNumber(1).putNumber(2) //
+              .putDictionary(1).putEntry().putString("b").putString("x").endEntry().endDictionary() //
+              .endSequence().endEntry() //
+              .putEntry().putString("c").putNumber(1.5d).endEntry() //
+              .putEntry().putNumber(1).putString("int").endEntry() //
+              .putEntry().putNumber(1.0d).putString("float").endEntry() //
+              .endDictionary() //
+              .putNumber(3).putString("foo").finishStream();
+        return Input.fromByteArray(baos.toByteArray());
+    }
+
+}
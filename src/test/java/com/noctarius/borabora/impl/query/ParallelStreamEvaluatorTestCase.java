@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Output;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.Query;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.WrongTypeException;
+import com.noctarius.borabora.Writer;
+import com.noctarius.borabora.builder.encoder.GraphBuilder;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelStreamEvaluatorTestCase
+        extends AbstractTestCase {
+
+    private static final int ELEMENTS = ParallelStreamEvaluator.RANGE_ELEMENTS * 5 + 17;
+
+    private final Parser parser = Parser.newParser();
+    private final Input input = Input.fromByteArray(records(ELEMENTS));
+
+    @Test
+    public void test_ordered() {
+        for (String query : new String[]{"$", "${'id'}", "${'tags'}(1)", "${'missing'}", "${'id'}->?string"}) {
+            assertEquals(query, read(input, query), readParallel(input, query, true));
+        }
+    }
+
+    @Test
+    public void test_unordered() {
+        List<String> expected = read(input, "${'id'}");
+        List<String> actual = readParallel(input, "${'id'}", false);
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+        assertEquals(ELEMENTS, actual.size());
+    }
+
+    @Test
+    public void test_custom_executor() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Query query = parser.prepareQuery("${'id'}");
+            List<String> values = new ArrayList<>();
+            parser.readParallel(input, query, value -> values.add(String.valueOf(value)), executor, true);
+            assertEquals(read(input, "${'id'}"), values);
+
+            List<String> synchronizedValues = Collections.synchronizedList(new ArrayList<>());
+            parser.readParallel(input, query, value -> synchronizedValues.add(String.valueOf(value)), executor, false);
+            assertEquals(ELEMENTS, synchronizedValues.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_caller_runs_executor() {
+        List<String> values = new ArrayList<>();
+        parser.readParallel(input, parser.prepareQuery("${'id'}"), value -> values.add(String.valueOf(value)), Runnable::run,
+                false);
+        assertEquals(read(input, "${'id'}"), values);
+    }
+
+    @Test
+    public void test_self_described_cbor() {
+        byte[] records = records(10);
+        byte[] data = new byte[records.length + 3];
+        data[0] = (byte) 0xd9;
+        data[1] = (byte) 0xd9;
+        data[2] = (byte) 0xf7;
+        System.arraycopy(records, 0, data, 3, records.length);
+        Input input = Input.fromByteArray(data);
+        assertEquals(read(input, "${'id'}"), readParallel(input, "${'id'}", true));
+    }
+
+    @Test
+    public void test_parameterized_query() {
+        Query query = parser.prepareQuery("${$1}").bind("id");
+        List<String> values = new ArrayList<>();
+        parser.readParallel(input, query, value -> values.add(String.valueOf(value)), true);
+        assertEquals(read(input, "${'id'}"), values);
+    }
+
+    @Test
+    public void test_not_parallelizable() {
+        assertNull(newEvaluator("#{'id'}"));
+        assertNull(newEvaluator("(a: #{'id'})"));
+        assertNotNull(newEvaluator("${'id'}"));
+        assertEquals(read(input, "#3{'id'}"), readParallel(input, "#3{'id'}", true));
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_wrong_type() {
+        readParallel(input, "${'id'}->string", true);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fail_unbound_query() {
+        parser.readParallel(input, parser.prepareQuery("${$1}"), value -> {
+        }, true);
+    }
+
+    @Test
+    public void fail_consumer_no_values_after_failure()
+            throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicInteger calls = new AtomicInteger();
+        int callsAtFailure = -1;
+        try {
+            parser.readParallel(input, parser.prepareQuery("${'id'}"), value -> {
+                if (calls.incrementAndGet() == 100) {
+                    throw new IllegalStateException("consumer failed");
+                }
+            }, executor, false);
+        } catch (IllegalStateException e) {
+            callsAtFailure = calls.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertTrue(callsAtFailure >= 100);
+        assertEquals(callsAtFailure, calls.get());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void fail_null_executor() {
+        parser.readParallel(input, parser.prepareQuery("$"), value -> {
+        }, null, true);
+    }
+
+    private ParallelStreamEvaluator newEvaluator(String query) {
+        return ParallelStreamEvaluator.newParallelStreamEvaluator(parser.prepareQuery(query).newQueryPipeline(),
+                queryConsumer -> null);
+    }
+
+    private List<String> read(Input input, String query) {
+        List<String> values = new ArrayList<>();
+        parser.read(input, query, value -> values.add(String.valueOf(value)));
+        return values;
+    }
+
+    private List<String> readParallel(Input input, String query, boolean ordered) {
+        List<String> values = Collections.synchronizedList(new ArrayList<>());
+        parser.readParallel(input, parser.prepareQuery(query), (Value value) -> values.add(String.valueOf(value)), ordered);
+        return values;
+    }
+
+    private static byte[] records(int count) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        GraphBuilder graphBuilder = Writer.newWriter().newGraphBuilder(Output.toOutputStream(baos));
+        for (int i = 0; i < count; i++) {
+            graphBuilder.putDictionary(2) //
+                        .putEntry().putString("id").putNumber(i).endEntry() //
+                        .putEntry().putString("tags").putSequence(2).putString("t" + i).putNumber(i % 7).endSequence()
+                        .endEntry() //
+                        .endDictionary();
+        }
+        graphBuilder.finishStream();
+        return baos.toByteArray();
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.optimizer;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.WrongTypeException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RedundantTypeCheckQueryOptimizerTestCase
+        extends AbstractTestCase {
+
+    private final Parser parser = Parser.newParser();
+
+    @Test
+    public void test_tostring() {
+        assertEquals("RedundantTypeCheckQueryOptimizer", RedundantTypeCheckQueryOptimizer.INSTANCE.toString());
+    }
+
+    @Test
+    public void test_implied_type_check_removed() {
+        assertEquals(1, typeMatches("#->uint->?number"));
+        assertEquals(1, typeMatches("#->?uint->number->?uint"));
+        assertEquals(1, typeMatches("#->?int->int"));
+    }
+
+    @Test
+    public void test_non_implied_type_check_kept() {
+        assertEquals(2, typeMatches("#->?number->uint"));
+        assertEquals(2, typeMatches("#->uint->?string"));
+    }
+
+    @Test
+    public void test_results_unchanged() {
+        Input input = Input.fromByteArray(hexToBytes("0x01"));
+        assertEquals(1, parser.read(input, "#->uint->?number").number().intValue());
+        assertEquals(1, parser.read(input, "#->?number->uint").number().intValue());
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_required_type_check_kept() {
+        parser.read(Input.fromByteArray(hexToBytes("0x20")), "#->?number->uint");
+    }
+
+    private int typeMatches(String query) {
+        String graph = parser.prepareQuery(query).newQueryPipeline().printQueryGraph();
+        return graph.split("TYPE_MATCH", -1).length - 1;
+    }
+
+}
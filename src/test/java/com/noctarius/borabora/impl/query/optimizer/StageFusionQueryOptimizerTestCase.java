@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.optimizer;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Output;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.Query;
+import com.noctarius.borabora.Writer;
+import com.noctarius.borabora.impl.query.BTreeFactories;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StageFusionQueryOptimizerTestCase
+        extends AbstractTestCase {
+
+    private static final List<String> QUERIES = Arrays
+            .asList("#{'a'}", "#{'a'}->?int", "#{'a'}->?string", "#{'b'}(1)(0)", "#{'b'}(1)(1)", "#{'b'}(1)(5)", "#{'b'}(0)",
+                    "#{'missing'}", "#{'c'}{'d'}", "$", "${'a'}", "(x: #{'a'}, y: #{'b'}(1)(0))", "#{'b'}(?)",
+                    "#{'a'}->?uint->?number");
+
+    private final Parser parser = Parser.newParser();
+    private final Parser unoptimized = Parser.newBuilder().withDefaultQueryOptimizers(false).build();
+
+    @Test
+    public void test_tostring() {
+        assertEquals("StageFusionQueryOptimizer", StageFusionQueryOptimizer.INSTANCE.toString());
+    }
+
+    @Test
+    public void test_fuse_dictionary_lookup() {
+        assertTrue(graph("#{'a'}").contains("FUSED[ DIC_LOOKUP"));
+        assertTrue(graph("#{'a'}->?int").contains("-> TYPE_MATCH[ type=Int, optional=true ] -> CONSUME ]"));
+        assertTrue(graph("#{'c'}{'d'}").contains("FUSED[ DIC_LOOKUP"));
+        assertFalse(graph("#{'b'}(0)").contains("FUSED[ DIC_LOOKUP"));
+    }
+
+    @Test
+    public void test_fuse_sequence_indexes() {
+        assertTrue(graph("#(0)(1)(2)").contains("FUSED[ SEQ_INDEX[ 0 ] -> SEQ_INDEX[ 1 ] -> SEQ_INDEX[ 2 ] ]"));
+        assertFalse(graph("#(0){'a'}").contains("FUSED[ SEQ_INDEX"));
+    }
+
+    @Test
+    public void test_parameters_not_fused() {
+        assertFalse(graph("#{$1}").contains("FUSED"));
+        assertFalse(graph("#($1)($2)").contains("FUSED"));
+    }
+
+    @Test
+    public void test_results_unchanged() {
+        Input input = input();
+        for (String query : QUERIES) {
+            assertEquals(query, read(unoptimized, input, query), read(parser, input, query));
+        }
+    }
+
+    @Test
+    public void test_results_unchanged_iterative() {
+        Parser parser = Parser.newBuilder().withQueryPipelineFactory(BTreeFactories.newIterativeQueryPipelineFactory()).build();
+        Input input = input();
+        for (String query : QUERIES) {
+            assertEquals(query, read(unoptimized, input, query), read(parser, input, query));
+        }
+    }
+
+    @Test
+    public void test_readall_shares_fused_lookups() {
+        Input input = input();
+        List<Query> queries = Arrays.asList(parser.prepareQuery("#{'a'}"), parser.prepareQuery("#{'b'}(1)(0)"));
+        List<String> values = new ArrayList<>();
+        parser.readAll(input, queries, (queryIndex, value) -> values.add(queryIndex + "=" + value.number()));
+        assertEquals(Arrays.asList("0=1", "1=2"), values);
+    }
+
+    private String graph(String query) {
+        return parser.prepareQuery(query).newQueryPipeline().printQueryGraph();
+    }
+
+    private static List<String> read(Parser parser, Input input, String query) {
+        List<String> values = new ArrayList<>();
+        parser.read(input, query, value -> values.add(String.valueOf(value)));
+        return values;
+    }
+
+    private static Input input() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer.newWriter().newGraphBuilder(Output.toOutputStream(baos)) //
+              .putDictionary(3) //
+              .putEntry().putString("a").putNumber(1).endEntry() //
+              .putEntry().putString("b").putSequence(2).putNumber(5) //
+              .putSequence(2).putNumber(2).putNumber(3).endSequence().endSequence().endEntry() //
+              .putEntry().putString("c").putDictionary(1) //
+              .putEntry().putString("d").putString("e").endEntry().endDictionary().endEntry() //
+              .endDictionary() //
+              .putDictionary(1).putEntry().putString("a").putString("x").endEntry().endDictionary() //
+              .finishStream();
+        return Input.fromByteArray(baos.toByteArray());
+    }
+
+}
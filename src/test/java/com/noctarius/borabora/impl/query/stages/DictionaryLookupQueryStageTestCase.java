@@ -97,6 +97,23 @@ public class DictionaryLookupQueryStageTestCase
         assertTrue(qs1.equals(qs3));
     }
 
+    @Test
+    public void test_equals_keys() {
+        assertEquals(DictionaryLookupQueryStage.stringMatcher("a"), DictionaryLookupQueryStage.stringMatcher("a"));
+        assertEquals(DictionaryLookupQueryStage.stringMatcher("a").hashCode(),
+                DictionaryLookupQueryStage.stringMatcher("a").hashCode());
+        assertEquals(DictionaryLookupQueryStage.intMatcher(1).hashCode(), DictionaryLookupQueryStage.intMatcher(1).hashCode());
+        assertNotEquals(DictionaryLookupQueryStage.stringMatcher("a"), DictionaryLookupQueryStage.stringMatcher("b"));
+        assertNotEquals(DictionaryLookupQueryStage.intMatcher(1), DictionaryLookupQueryStage.floatMatcher(1.0));
+        assertNotEquals(DictionaryLookupQueryStage.stringMatcher("a"), new DictionaryLookupQueryStage(VALUE_PREDICATE));
+
+        // Keyed stages never equal predicate-only stages, even when sharing the predicate
+        DictionaryLookupQueryStage keyed = DictionaryLookupQueryStage.stringMatcher("a");
+        DictionaryLookupQueryStage predicateOnly = new DictionaryLookupQueryStage(keyed.predicate());
+        assertNotEquals(keyed, predicateOnly);
+        assertNotEquals(predicateOnly, keyed);
+    }
+
     @Test
     public void test_hashcode() {
         QueryStage qs1 = new DictionaryLookupQueryStage(VALUE_PREDICATE);
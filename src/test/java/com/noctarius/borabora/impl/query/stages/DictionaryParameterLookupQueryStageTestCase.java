@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.Predicates;
+import com.noctarius.borabora.Query;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.spi.query.pipeline.ParameterizedQueryStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import org.junit.Test;
+
+import java.util.function.Predicate;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class DictionaryParameterLookupQueryStageTestCase
+        extends AbstractQueryStageTestCase {
+
+    @Test
+    public void test_tostring() {
+        QueryStage queryStage = new DictionaryParameterLookupQueryStage(1);
+        assertEquals("DIC_LOOKUP[ $1 ]", queryStage.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_create_illegal_parameterindex() {
+        new DictionaryParameterLookupQueryStage(0);
+    }
+
+    @Test
+    public void test_bindparameter() {
+        ParameterizedQueryStage queryStage = new DictionaryParameterLookupQueryStage(1);
+        assertEquals(1, queryStage.parameterIndex());
+        assertTrue(queryStage.bindParameter("a") instanceof Predicate);
+        assertTrue(queryStage.bindParameter(1) instanceof Predicate);
+        assertTrue(queryStage.bindParameter(1L) instanceof Predicate);
+        assertTrue(queryStage.bindParameter(1.5d) instanceof Predicate);
+        Predicate<Value> predicate = Predicates.any();
+        assertSame(predicate, queryStage.bindParameter(predicate));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_bindparameter_illegal_argument() {
+        new DictionaryParameterLookupQueryStage(1).bindParameter(new Object());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_bindparameter_null() {
+        new DictionaryParameterLookupQueryStage(1).bindParameter(null);
+    }
+
+    @Test
+    public void test_evaluate_bound_keys() {
+        // {"a": 1, 2: "b", 1.5: true}
+        Input input = Input.fromByteArray(hexToBytes("0xa3616101026162f93e00f5"));
+        Parser parser = Parser.newParser();
+        Query query = parser.newQueryBuilder().dictionaryParameter(1).build();
+
+        assertEqualsNumber(1, parser.read(input, query.bind("a")).number());
+        assertEquals("b", parser.read(input, query.bind(2)).string());
+        assertTrue(parser.read(input, query.bind(1.5d)).bool());
+        assertSame(Value.NULL_VALUE, parser.read(input, query.bind("c")));
+    }
+
+    @Test
+    public void test_equals() {
+        QueryStage qs1 = new DictionaryParameterLookupQueryStage(1);
+        QueryStage qs2 = new DictionaryParameterLookupQueryStage(2);
+        QueryStage qs3 = new DictionaryParameterLookupQueryStage(1);
+
+        assertTrue(qs1.equals(qs1));
+        assertFalse(qs1.equals(new Object()));
+        assertFalse(qs1.equals(qs2));
+        assertTrue(qs1.equals(qs3));
+    }
+
+    @Test
+    public void test_hashcode() {
+        QueryStage qs1 = new DictionaryParameterLookupQueryStage(1);
+        QueryStage qs2 = new DictionaryParameterLookupQueryStage(2);
+        QueryStage qs3 = new DictionaryParameterLookupQueryStage(1);
+
+        assertEquals(qs1.hashCode(), qs1.hashCode());
+        assertNotEquals(qs1.hashCode(), qs2.hashCode());
+        assertEquals(qs1.hashCode(), qs3.hashCode());
+    }
+
+}
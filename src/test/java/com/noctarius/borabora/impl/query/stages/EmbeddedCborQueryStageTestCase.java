@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.WrongTypeException;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+import org.junit.Test;
+
+import static com.noctarius.borabora.spi.io.Constants.OFFSET_CODE_NULL;
+import static org.junit.Assert.assertEquals;
+
+public class EmbeddedCborQueryStageTestCase
+        extends AbstractQueryStageTestCase {
+
+    @Test
+    public void test_toString() {
+        assertEquals("EMBEDDED_CBOR", EmbeddedCborQueryStage.INSTANCE.toString());
+    }
+
+    @Test
+    public void test_evaluate() {
+        // 24(h'a16161820102'), {"a": [1, 2]} embedded
+        Input input = Input.fromByteArray(hexToBytes("0xd81846a16161820102"));
+        EvaluationResult evaluationResult = evaluate(input, EmbeddedCborQueryStage.INSTANCE);
+        assertEquals(VisitResult.Continue, evaluationResult.visitResult);
+        assertEquals(3, evaluationResult.queryContext.offset());
+    }
+
+    @Test
+    public void test_evaluate_empty_bytestring() {
+        Input input = Input.fromByteArray(hexToBytes("0xd81840"));
+        EvaluationResult evaluationResult = evaluate(input, EmbeddedCborQueryStage.INSTANCE);
+        assertEquals(VisitResult.Break, evaluationResult.visitResult);
+        assertEquals(OFFSET_CODE_NULL, evaluationResult.queryContext.offset());
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_evaluate_not_a_semantic_tag() {
+        evaluate(Input.fromByteArray(hexToBytes("0x4101")), EmbeddedCborQueryStage.INSTANCE);
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_evaluate_wrong_semantic_tag() {
+        evaluate(Input.fromByteArray(hexToBytes("0xd8204101")), EmbeddedCborQueryStage.INSTANCE);
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_evaluate_not_a_bytestring() {
+        evaluate(Input.fromByteArray(hexToBytes("0xd8186101")), EmbeddedCborQueryStage.INSTANCE);
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_evaluate_indefinite_bytestring() {
+        evaluate(Input.fromByteArray(hexToBytes("0xd8185f4101ff")), EmbeddedCborQueryStage.INSTANCE);
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.WrongTypeException;
+import com.noctarius.borabora.spi.query.TypeSpecs;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.noctarius.borabora.spi.io.Constants.OFFSET_CODE_NULL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FusedDictionaryLookupQueryStageTestCase
+        extends AbstractQueryStageTestCase {
+
+    // {"a": 1, "b": "x"}
+    private final Input input = Input.fromByteArray(hexToBytes("0xa261610161626178"));
+
+    @Test(expected = NullPointerException.class)
+    public void fail_create_null_lookup() {
+        new FusedDictionaryLookupQueryStage(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void fail_create_null_typematcher() {
+        new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("a"), null);
+    }
+
+    @Test
+    public void test_tostring() {
+        DictionaryLookupQueryStage lookup = DictionaryLookupQueryStage.intMatcher(1);
+        QueryStage queryStage = new FusedDictionaryLookupQueryStage(lookup, new TypeMatcherQueryStage(TypeSpecs.UInt, false));
+        assertEquals("FUSED[ " + lookup + " -> TYPE_MATCH[ type=UInt, optional=true ] -> CONSUME ]",
+                queryStage.toString());
+    }
+
+    @Test
+    public void test_fusedstages() {
+        DictionaryLookupQueryStage lookup = DictionaryLookupQueryStage.stringMatcher("a");
+        TypeMatcherQueryStage typeMatcher = new TypeMatcherQueryStage(TypeSpecs.UInt, true);
+        assertEquals(Arrays.asList(lookup, ConsumerQueryStage.INSTANCE),
+                new FusedDictionaryLookupQueryStage(lookup).fusedStages());
+        assertEquals(Arrays.asList(lookup, typeMatcher, ConsumerQueryStage.INSTANCE),
+                new FusedDictionaryLookupQueryStage(lookup, typeMatcher).fusedStages());
+    }
+
+    @Test
+    public void test_evaluate_found() {
+        QueryStage queryStage = new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("a"));
+        EvaluationResult evaluationResult = evaluate(input, queryStage);
+        assertEquals(VisitResult.Continue, evaluationResult.visitResult);
+        assertEquals(1, evaluationResult.values.size());
+        assertEqualsNumber(1, evaluationResult.values.get(0).number());
+    }
+
+    @Test
+    public void test_evaluate_not_found() {
+        QueryStage queryStage = new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("c"));
+        EvaluationResult evaluationResult = evaluate(input, queryStage);
+        assertEquals(VisitResult.Break, evaluationResult.visitResult);
+        assertEquals(OFFSET_CODE_NULL, evaluationResult.queryContext.offset());
+        assertEquals(0, evaluationResult.values.size());
+    }
+
+    @Test
+    public void test_evaluate_type_matching() {
+        QueryStage queryStage = new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("b"),
+                new TypeMatcherQueryStage(TypeSpecs.String, true));
+        EvaluationResult evaluationResult = evaluate(input, queryStage);
+        assertEquals(VisitResult.Continue, evaluationResult.visitResult);
+        assertEquals("x", evaluationResult.values.get(0).string());
+    }
+
+    @Test
+    public void test_evaluate_type_not_matching_optional() {
+        QueryStage queryStage = new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("b"),
+                new TypeMatcherQueryStage(TypeSpecs.UInt, false));
+        EvaluationResult evaluationResult = evaluate(input, queryStage);
+        assertEquals(VisitResult.Break, evaluationResult.visitResult);
+        assertEquals(OFFSET_CODE_NULL, evaluationResult.queryContext.offset());
+        assertEquals(0, evaluationResult.values.size());
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_evaluate_type_not_matching_required() {
+        QueryStage queryStage = new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("b"),
+                new TypeMatcherQueryStage(TypeSpecs.UInt, true));
+        evaluate(input, queryStage);
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_evaluate_no_dictionary() {
+        Input input = Input.fromByteArray(new byte[]{(byte) 0x1});
+        evaluate(input, new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("a")));
+    }
+
+    @Test
+    public void test_equals() {
+        QueryStage qs1 = new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("a"));
+        QueryStage qs2 = new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("b"));
+        QueryStage qs3 = new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("a"));
+        QueryStage qs4 = new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("a"),
+                new TypeMatcherQueryStage(TypeSpecs.UInt, false));
+
+        assertTrue(qs1.equals(qs1));
+        assertFalse(qs1.equals(null));
+        assertFalse(qs1.equals(new Object()));
+        assertFalse(qs1.equals(qs2));
+        assertTrue(qs1.equals(qs3));
+        assertFalse(qs1.equals(qs4));
+    }
+
+    @Test
+    public void test_hashcode() {
+        QueryStage qs1 = new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("a"));
+        QueryStage qs2 = new FusedDictionaryLookupQueryStage(DictionaryLookupQueryStage.stringMatcher("a"),
+                new TypeMatcherQueryStage(TypeSpecs.UInt, false));
+
+        assertEquals(qs1.hashCode(), qs1.hashCode());
+        assertNotEquals(qs1.hashCode(), qs2.hashCode());
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.Predicates;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.ValueTypes;
+import com.noctarius.borabora.spi.ObjectValue;
+import com.noctarius.borabora.spi.RelocatableStreamValue;
+import com.noctarius.borabora.spi.StreamValue;
+import com.noctarius.borabora.spi.io.Decoder;
+import com.noctarius.borabora.spi.query.QueryContext;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Predicate;
+
+import static com.noctarius.borabora.ComparisonOperator.GreaterThanOrEqual;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class NestedPathPredicateTestCase
+        extends AbstractTestCase {
+
+    // [{"status": "active", "age": 30, "tags": ["x"]}, {"status": "idle", "age": 17}, "str",
+    //  {"status": "active", "age": 10, "tags": []}]
+    private static final String ELEMENTS = "0x84a3667374617475736661637469766563616765181e6474616773816178a2667374617475736469646c65636167651163737472a36673746174757366616374697665636167650a647461677380";
+
+    private static final long[] OFFSETS = {1, 30, 48, 52};
+
+    @Test(expected = NullPointerException.class)
+    public void fail_create_null_path() {
+        new NestedPathPredicate(null, Predicates.any());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void fail_create_null_predicate() {
+        new NestedPathPredicate(Collections.emptyList(), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_create_illegal_path_element() {
+        new NestedPathPredicate(Collections.singletonList(ConsumerQueryStage.INSTANCE), Predicates.any());
+    }
+
+    @Test
+    public void test_dictionary_path() {
+        NestedPathPredicate predicate = predicate(Predicates.matchString("active"), DictionaryLookupQueryStage.stringMatcher("status"));
+        assertMatches(predicate, true, false, false, true);
+    }
+
+    @Test
+    public void test_dictionary_sequence_path() {
+        NestedPathPredicate predicate = predicate(Predicates.matchString("x"), DictionaryLookupQueryStage.stringMatcher("tags"),
+                new SequenceIndexQueryStage(0));
+        assertMatches(predicate, true, false, false, false);
+    }
+
+    @Test
+    public void test_comparison() {
+        NestedPathPredicate predicate = predicate(Predicates.compareInt(GreaterThanOrEqual, 17),
+                DictionaryLookupQueryStage.stringMatcher("age"));
+        assertMatches(predicate, true, true, false, false);
+    }
+
+    @Test
+    public void test_wrong_type_never_matches() {
+        NestedPathPredicate predicate = predicate(Predicates.any(), new SequenceIndexQueryStage(0));
+        assertMatches(predicate, false, false, false, false);
+    }
+
+    @Test
+    public void test_relocation_restored() {
+        Input input = Input.fromByteArray(hexToBytes(ELEMENTS));
+        QueryContext queryContext = newQueryContext(input);
+        queryContext.offset(OFFSETS[0]);
+
+        RelocatableStreamValue streamValue = new RelocatableStreamValue();
+        streamValue.relocate(queryContext, MajorType.Dictionary, ValueTypes.Dictionary, OFFSETS[0]);
+
+        Value[] tested = new Value[1];
+        NestedPathPredicate predicate = predicate(v -> {
+            tested[0] = v;
+            return "active".equals(v.string());
+        }, DictionaryLookupQueryStage.stringMatcher("status"));
+
+        assertTrue(predicate.test(streamValue));
+        assertSame(streamValue, tested[0]);
+        assertEquals(OFFSETS[0], streamValue.offset());
+        assertEquals(MajorType.Dictionary, streamValue.majorType());
+        assertEquals(OFFSETS[0], queryContext.offset());
+    }
+
+    @Test
+    public void test_key_lookup_reuses_streamvalue() {
+        Input input = Input.fromByteArray(hexToBytes(ELEMENTS));
+        QueryContext queryContext = newQueryContext(input);
+
+        RelocatableStreamValue streamValue = new RelocatableStreamValue();
+        streamValue.relocate(queryContext, MajorType.Dictionary, ValueTypes.Dictionary, OFFSETS[0]);
+
+        int[] keys = new int[1];
+        Predicate<Value> key = v -> {
+            assertSame(streamValue, v);
+            keys[0]++;
+            return "age".equals(v.string());
+        };
+        NestedPathPredicate predicate = predicate(Predicates.compareInt(GreaterThanOrEqual, 17),
+                DictionaryLookupQueryStage.predicateMatcher(key));
+
+        assertTrue(predicate.test(streamValue));
+        assertEquals(2, keys[0]);
+        assertEquals(OFFSETS[0], streamValue.offset());
+        assertEquals(MajorType.Dictionary, streamValue.majorType());
+    }
+
+    @Test
+    public void test_streamvalue() {
+        Input input = Input.fromByteArray(hexToBytes(ELEMENTS));
+        QueryContext queryContext = newQueryContext(input);
+        Value value = new StreamValue(MajorType.Dictionary, ValueTypes.Dictionary, OFFSETS[3], queryContext);
+
+        assertTrue(predicate(Predicates.matchString("active"), DictionaryLookupQueryStage.stringMatcher("status")).test(value));
+    }
+
+    @Test
+    public void test_objectvalue() {
+        Input input = Input.fromByteArray(hexToBytes(ELEMENTS));
+        Value sequence = new ObjectValue(MajorType.Sequence, ValueTypes.Sequence,
+                new StreamValue(MajorType.Sequence, ValueTypes.Sequence, 0, newQueryContext(input)).sequence());
+
+        NestedPathPredicate predicate = predicate(Predicates.matchString("active"), new SequenceIndexQueryStage(3),
+                DictionaryLookupQueryStage.stringMatcher("status"));
+        assertTrue(predicate.test(sequence));
+        assertFalse(predicate(Predicates.any(), new SequenceIndexQueryStage(4)).test(sequence));
+        assertFalse(predicate(Predicates.any(), DictionaryLookupQueryStage.stringMatcher("status")).test(sequence));
+        assertFalse(predicate(Predicates.any(), new SequenceIndexQueryStage(2), new SequenceIndexQueryStage(0)).test(sequence));
+    }
+
+    @Test
+    public void test_equals_hashcode_tostring() {
+        NestedPathPredicate p1 = predicate(Predicates.any(), DictionaryLookupQueryStage.stringMatcher("a"));
+        NestedPathPredicate p2 = predicate(Predicates.any(), DictionaryLookupQueryStage.stringMatcher("a"));
+        NestedPathPredicate p3 = predicate(Predicates.any(), DictionaryLookupQueryStage.stringMatcher("b"));
+
+        assertTrue(p1.equals(p1));
+        assertTrue(p1.equals(p2));
+        assertFalse(p1.equals(p3));
+        assertFalse(p1.equals(Predicates.any()));
+        assertEquals(p1.hashCode(), p2.hashCode());
+        assertNotEquals(p1, p3);
+        assertEquals("PATH" + p1.path() + " -> " + Predicates.any(), p1.toString());
+        assertEquals(1, p1.path().size());
+    }
+
+    private static NestedPathPredicate predicate(Predicate<Value> predicate, QueryStage... path) {
+        return new NestedPathPredicate(Arrays.asList(path), predicate);
+    }
+
+    private static void assertMatches(NestedPathPredicate predicate, boolean... expected) {
+        Input input = Input.fromByteArray(hexToBytes(ELEMENTS));
+        QueryContext queryContext = newQueryContext(input);
+        RelocatableStreamValue streamValue = new RelocatableStreamValue();
+        for (int i = 0; i < expected.length; i++) {
+            long offset = OFFSETS[i];
+            MajorType majorType = MajorType.findMajorType(Decoder.readUInt8(input, offset));
+            streamValue.relocate(queryContext, majorType, queryContext.valueType(offset), offset);
+            assertEquals("element " + i, expected[i], predicate.test(streamValue));
+        }
+    }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Output;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.Predicates;
+import com.noctarius.borabora.Query;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.WrongTypeException;
+import com.noctarius.borabora.Writer;
+import com.noctarius.borabora.builder.encoder.GraphBuilder;
+import com.noctarius.borabora.builder.encoder.SequenceBuilder;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelSequenceMatcherQueryStageTestCase
+        extends AbstractQueryStageTestCase {
+
+    private static final int ELEMENTS = 50000;
+
+    private static final Predicate<Value> MATCH_PREDICATE = v -> v.number().intValue() % 3 == 0;
+
+    private final Input input = Input.fromByteArray(sequence(ELEMENTS));
+
+    @Test
+    public void test_tostring() {
+        QueryStage queryStage = new ParallelSequenceMatcherQueryStage(VALUE_PREDICATE);
+        assertEquals("PARALLEL_SEQ_MATCH[ VALUE_PREDICATE ]", queryStage.toString());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void fail_create_null_predicate() {
+        new ParallelSequenceMatcherQueryStage(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void fail_create_null_executor() {
+        new ParallelSequenceMatcherQueryStage(VALUE_PREDICATE, 0, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_create_negative_threshold() {
+        new ParallelSequenceMatcherQueryStage(VALUE_PREDICATE, -1, ForkJoinPool.commonPool());
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_evaluate_no_sequence() {
+        Input input = Input.fromByteArray(new byte[]{(byte) 0x1});
+        evaluate(input, new ParallelSequenceMatcherQueryStage(VALUE_PREDICATE));
+    }
+
+    @Test
+    public void test_matches_in_order() {
+        QueryStage queryStage = new ParallelSequenceMatcherQueryStage(MATCH_PREDICATE);
+        EvaluationResult evaluationResult = evaluate(input, queryStage, ConsumerQueryStage.INSTANCE, null);
+        assertEquals(VisitResult.Continue, evaluationResult.visitResult);
+        assertMatches(evaluationResult.values);
+    }
+
+    @Test
+    public void test_matches_custom_executor() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            QueryStage queryStage = new ParallelSequenceMatcherQueryStage(MATCH_PREDICATE, 0, executor);
+            assertMatches(evaluate(input, queryStage, ConsumerQueryStage.INSTANCE, null).values);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_below_threshold() {
+        AtomicInteger calls = new AtomicInteger();
+        Thread thread = Thread.currentThread();
+        QueryStage queryStage = new ParallelSequenceMatcherQueryStage(v -> {
+            assertTrue(thread == Thread.currentThread());
+            calls.incrementAndGet();
+            return MATCH_PREDICATE.test(v);
+        }, ELEMENTS + 1, ForkJoinPool.commonPool());
+
+        assertMatches(evaluate(input, queryStage, ConsumerQueryStage.INSTANCE, null).values);
+        assertEquals(ELEMENTS, calls.get());
+    }
+
+    @Test
+    public void test_small_sequence() {
+        Input input = Input.fromByteArray(hexToBytes("0x820102"));
+        QueryStage queryStage = new ParallelSequenceMatcherQueryStage(v -> v.number().intValue() == 2);
+        EvaluationResult evaluationResult = evaluate(input, queryStage, ConsumerQueryStage.INSTANCE, null);
+        assertEquals(1, evaluationResult.values.size());
+        assertEqualsNumber(2, evaluationResult.values.get(0).number());
+    }
+
+    @Test
+    public void test_exit_from_query() {
+        QueryStage queryStage = new ParallelSequenceMatcherQueryStage(v -> true);
+        QueryStage exitStage = (previousPipelineStage, pipelineStage, queryContext) -> VisitResult.Exit;
+        EvaluationResult evaluationResult = evaluate(input, queryStage, exitStage, null);
+        assertEquals(VisitResult.Exit, evaluationResult.visitResult);
+        assertEquals(0, evaluationResult.values.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fail_predicate_exception() {
+        QueryStage queryStage = new ParallelSequenceMatcherQueryStage(v -> {
+            if (v.number().intValue() == ELEMENTS - 1) {
+                throw new IllegalStateException();
+            }
+            return false;
+        });
+        evaluate(input, queryStage, ConsumerQueryStage.INSTANCE, null);
+    }
+
+    @Test
+    public void test_query_builder() {
+        Parser parser = Parser.newParser();
+        Query query = parser.newQueryBuilder().parallelSequenceMatch(MATCH_PREDICATE).build();
+        List<Value> values = new ArrayList<>();
+        parser.read(input, query, values::add);
+        assertMatches(values);
+
+        query = parser.newQueryBuilder().multiStream().parallelSequenceMatch(Predicates.any()).build();
+        assertTrue(query.newQueryPipeline().printQueryGraph().contains("PARALLEL_SEQ_MATCH"));
+    }
+
+    @Test
+    public void test_parser_builder_threshold() {
+        Parser parser = Parser.newBuilder().withParallelSequenceMatch(ELEMENTS).build();
+        Query query = parser.prepareQuery("#(?)");
+        assertTrue(query.newQueryPipeline().printQueryGraph().contains("PARALLEL_SEQ_MATCH"));
+
+        List<Value> values = new ArrayList<>();
+        parser.read(input, parser.newQueryBuilder().sequenceMatch(MATCH_PREDICATE).build(), values::add);
+        assertMatches(values);
+
+        assertFalse(Parser.newParser().prepareQuery("#(?)").newQueryPipeline().printQueryGraph().contains("PARALLEL_SEQ_MATCH"));
+    }
+
+    @Test
+    public void test_equals() {
+        QueryStage qs1 = new ParallelSequenceMatcherQueryStage(VALUE_PREDICATE);
+        QueryStage qs2 = new ParallelSequenceMatcherQueryStage(v -> false);
+        QueryStage qs3 = new ParallelSequenceMatcherQueryStage(VALUE_PREDICATE);
+        QueryStage qs4 = new ParallelSequenceMatcherQueryStage(VALUE_PREDICATE, 10, ForkJoinPool.commonPool());
+
+        assertTrue(qs1.equals(qs1));
+        assertFalse(qs1.equals(new Object()));
+        assertFalse(qs1.equals(qs2));
+        assertTrue(qs1.equals(qs3));
+        assertFalse(qs1.equals(qs4));
+        assertFalse(qs1.equals(new SequenceMatcherQueryStage(VALUE_PREDICATE)));
+    }
+
+    @Test
+    public void test_hashcode() {
+        QueryStage qs1 = new ParallelSequenceMatcherQueryStage(VALUE_PREDICATE);
+        QueryStage qs2 = new ParallelSequenceMatcherQueryStage(v -> false);
+        QueryStage qs3 = new ParallelSequenceMatcherQueryStage(VALUE_PREDICATE);
+
+        assertEquals(qs1.hashCode(), qs1.hashCode());
+        assertNotEquals(qs1.hashCode(), qs2.hashCode());
+        assertEquals(qs1.hashCode(), qs3.hashCode());
+    }
+
+    private static void assertMatches(List<Value> values) {
+        assertEquals((ELEMENTS + 2) / 3, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEqualsNumber(i * 3, values.get(i).number());
+        }
+    }
+
+    private static byte[] sequence(int count) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        GraphBuilder graphBuilder = Writer.newWriter().newGraphBuilder(Output.toOutputStream(baos));
+        SequenceBuilder<GraphBuilder> sequenceGraphBuilder = graphBuilder.putSequence(count);
+        for (int i = 0; i < count; i++) {
+            sequenceGraphBuilder.putNumber(i);
+        }
+        sequenceGraphBuilder.endSequence().finishStream();
+        return baos.toByteArray();
+    }
+
+    private static final Predicate<Value> VALUE_PREDICATE = new Predicate<Value>() {
+        @Override
+        public boolean test(Value value) {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "VALUE_PREDICATE";
+        }
+    };
+
+}
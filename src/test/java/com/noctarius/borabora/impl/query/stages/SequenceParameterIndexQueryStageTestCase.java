@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.Query;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.spi.query.pipeline.ParameterizedQueryStage;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class SequenceParameterIndexQueryStageTestCase
+        extends AbstractQueryStageTestCase {
+
+    @Test
+    public void test_tostring() {
+        QueryStage queryStage = new SequenceParameterIndexQueryStage(2);
+        assertEquals("SEQ_INDEX[ $2 ]", queryStage.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_create_illegal_parameterindex() {
+        new SequenceParameterIndexQueryStage(0);
+    }
+
+    @Test
+    public void test_bindparameter() {
+        ParameterizedQueryStage queryStage = new SequenceParameterIndexQueryStage(2);
+        assertEquals(2, queryStage.parameterIndex());
+        assertEquals(1L, queryStage.bindParameter(1));
+        assertEquals(1L, queryStage.bindParameter(1L));
+        assertEquals(0L, queryStage.bindParameter((short) 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_bindparameter_negative() {
+        new SequenceParameterIndexQueryStage(1).bindParameter(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_bindparameter_floating_point() {
+        new SequenceParameterIndexQueryStage(1).bindParameter(1.0d);
+    }
+
+    @Test
+    public void test_evaluate_bound_indexes() {
+        Input input = Input.fromByteArray(hexToBytes("0x83010203"));
+        Parser parser = Parser.newParser();
+        Query query = parser.newQueryBuilder().sequenceParameter(1).build();
+
+        assertEqualsNumber(1, parser.read(input, query.bind(0)).number());
+        assertEqualsNumber(3, parser.read(input, query.bind(2)).number());
+        assertSame(Value.NULL_VALUE, parser.read(input, query.bind(3)));
+    }
+
+    @Test
+    public void test_equals() {
+        QueryStage qs1 = new SequenceParameterIndexQueryStage(1);
+        QueryStage qs2 = new SequenceParameterIndexQueryStage(2);
+        QueryStage qs3 = new SequenceParameterIndexQueryStage(1);
+
+        assertTrue(qs1.equals(qs1));
+        assertFalse(qs1.equals(new Object()));
+        assertFalse(qs1.equals(qs2));
+        assertTrue(qs1.equals(qs3));
+    }
+
+    @Test
+    public void test_hashcode() {
+        QueryStage qs1 = new SequenceParameterIndexQueryStage(1);
+        QueryStage qs2 = new SequenceParameterIndexQueryStage(2);
+        QueryStage qs3 = new SequenceParameterIndexQueryStage(1);
+
+        assertEquals(qs1.hashCode(), qs1.hashCode());
+        assertNotEquals(qs1.hashCode(), qs2.hashCode());
+        assertEquals(qs1.hashCode(), qs3.hashCode());
+    }
+
+}
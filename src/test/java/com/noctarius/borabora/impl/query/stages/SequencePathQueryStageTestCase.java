@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.WrongTypeException;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.noctarius.borabora.spi.io.Constants.OFFSET_CODE_NULL;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SequencePathQueryStageTestCase
+        extends AbstractQueryStageTestCase {
+
+    // [[1, [2, 3]], 4]
+    private final Input input = Input.fromByteArray(hexToBytes("0x82820182020304"));
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_create_single_index() {
+        new SequencePathQueryStage(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_create_negative_index() {
+        new SequencePathQueryStage(1, -1);
+    }
+
+    @Test
+    public void test_tostring() {
+        assertEquals("FUSED[ SEQ_INDEX[ 0 ] -> SEQ_INDEX[ 1 ] ]", new SequencePathQueryStage(0, 1).toString());
+    }
+
+    @Test
+    public void test_sequenceindexes() {
+        SequencePathQueryStage queryStage = new SequencePathQueryStage(0, 1, 2);
+        assertArrayEquals(new long[]{0, 1, 2}, queryStage.sequenceIndexes());
+        assertEquals(Arrays.asList(new SequenceIndexQueryStage(0), new SequenceIndexQueryStage(1), new SequenceIndexQueryStage(2)),
+                queryStage.fusedStages());
+    }
+
+    @Test
+    public void test_evaluate() {
+        EvaluationResult evaluationResult = evaluate(input, new SequencePathQueryStage(0, 1, 1), ConsumerQueryStage.INSTANCE,
+                null);
+        assertEquals(VisitResult.Continue, evaluationResult.visitResult);
+        assertEquals(1, evaluationResult.values.size());
+        assertEqualsNumber(3, evaluationResult.values.get(0).number());
+    }
+
+    @Test
+    public void test_evaluate_out_of_range() {
+        EvaluationResult evaluationResult = evaluate(input, new SequencePathQueryStage(0, 2), ConsumerQueryStage.INSTANCE,
+                null);
+        assertEquals(VisitResult.Break, evaluationResult.visitResult);
+        assertEquals(OFFSET_CODE_NULL, evaluationResult.queryContext.offset());
+        assertEquals(0, evaluationResult.values.size());
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_evaluate_no_sequence() {
+        evaluate(input, new SequencePathQueryStage(0, 0, 0));
+    }
+
+    @Test
+    public void test_equals() {
+        QueryStage qs1 = new SequencePathQueryStage(0, 1);
+        QueryStage qs2 = new SequencePathQueryStage(1, 0);
+        QueryStage qs3 = new SequencePathQueryStage(0, 1);
+
+        assertTrue(qs1.equals(qs1));
+        assertFalse(qs1.equals(new Object()));
+        assertFalse(qs1.equals(qs2));
+        assertTrue(qs1.equals(qs3));
+    }
+
+    @Test
+    public void test_hashcode() {
+        QueryStage qs1 = new SequencePathQueryStage(0, 1);
+        QueryStage qs2 = new SequencePathQueryStage(1, 0);
+        QueryStage qs3 = new SequencePathQueryStage(0, 1);
+
+        assertEquals(qs1.hashCode(), qs1.hashCode());
+        assertNotEquals(qs1.hashCode(), qs2.hashCode());
+        assertEquals(qs1.hashCode(), qs3.hashCode());
+    }
+
+}
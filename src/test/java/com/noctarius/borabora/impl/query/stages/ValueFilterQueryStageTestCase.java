@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.impl.query.stages;
+
+import com.noctarius.borabora.ComparisonOperator;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Predicates;
+import com.noctarius.borabora.spi.query.pipeline.QueryStage;
+import com.noctarius.borabora.spi.query.pipeline.VisitResult;
+import org.junit.Test;
+
+import static com.noctarius.borabora.spi.io.Constants.OFFSET_CODE_NULL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ValueFilterQueryStageTestCase
+        extends AbstractQueryStageTestCase {
+
+    @Test(expected = NullPointerException.class)
+    public void fail_create_valuefilterquerystage_with_null_predicate() {
+        new ValueFilterQueryStage(null);
+    }
+
+    @Test
+    public void test_evaluate_matching_value() {
+        Input input = Input.fromByteArray(new byte[]{(byte) 0x5});
+        QueryStage queryStage = new ValueFilterQueryStage(Predicates.compareInt(ComparisonOperator.GreaterThan, 1));
+        EvaluationResult evaluationResult = evaluate(input, queryStage);
+        assertEquals(VisitResult.Continue, evaluationResult.visitResult);
+        assertEquals(0, evaluationResult.queryContext.offset());
+    }
+
+    @Test
+    public void test_evaluate_mismatching_value_expected_null() {
+        Input input = Input.fromByteArray(new byte[]{(byte) 0x5});
+        QueryStage queryStage = new ValueFilterQueryStage(Predicates.compareInt(ComparisonOperator.LessThan, 1));
+        EvaluationResult evaluationResult = evaluate(input, queryStage);
+        assertEquals(VisitResult.Break, evaluationResult.visitResult);
+        assertEquals(OFFSET_CODE_NULL, evaluationResult.queryContext.offset());
+    }
+
+    @Test
+    public void test_tostring() {
+        QueryStage queryStage = new ValueFilterQueryStage(Predicates.any());
+        assertEquals("FILTER[ " + Predicates.any() + " ]", queryStage.toString());
+    }
+
+    @Test
+    public void test_equals() {
+        QueryStage qs1 = new ValueFilterQueryStage(Predicates.any());
+        QueryStage qs2 = new ValueFilterQueryStage(Predicates.any());
+
+        assertTrue(qs1.equals(qs1));
+        assertTrue(qs1.equals(qs2));
+        assertFalse(qs1.equals(new Object()));
+    }
+
+    @Test
+    public void test_hashcode() {
+        QueryStage qs1 = new ValueFilterQueryStage(Predicates.any());
+        QueryStage qs2 = new ValueFilterQueryStage(Predicates.any());
+
+        assertEquals(qs1.hashCode(), qs2.hashCode());
+    }
+
+}
@@ -25,6 +25,9 @@ import com.noctarius.borabora.ValueTypes;
 import com.noctarius.borabora.WrongTypeException;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -32,7 +35,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class ObjectValueTestCase
         extends AbstractTestCase {
@@ -94,6 +99,23 @@ public class ObjectValueTestCase
         assertEquals("bar", value2.string());
     }
 
+    @Test
+    public void test_openstream()
+            throws Exception {
+
+        Value value = new ObjectValue(MajorType.ByteString, ValueTypes.ByteString, new byte[]{1, 2});
+        assertArrayEquals(new byte[]{1, 2}, readFully(value.openStream()));
+        Value value2 = new ObjectValue(MajorType.TextString, ValueTypes.TextString, "\u00e4");
+        assertArrayEquals(new byte[]{(byte) 0xc3, (byte) 0xa4}, readFully(value2.openStream()));
+        Value value3 = new ObjectValue(MajorType.TextString, ValueTypes.TextString, null);
+        assertNull(value3.openStream());
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_openstream_not_a_string() {
+        new ObjectValue(MajorType.SemanticTag, ValueTypes.UBigNum, BigInteger.ONE).openStream();
+    }
+
     @Test
     public void test_bool() {
         Value value = new ObjectValue(MajorType.FloatingPointOrSimple, ValueTypes.Bool, Boolean.TRUE);
@@ -180,4 +202,15 @@ public class ObjectValueTestCase
         return new ObjectValue(MajorType.Dictionary, ValueTypes.Dictionary, dictionary);
     }
 
+    private static byte[] readFully(InputStream stream)
+            throws IOException {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        int b;
+        while ((b = stream.read()) != -1) {
+            baos.write(b);
+        }
+        return baos.toByteArray();
+    }
+
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.codec;
+
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.ValueTypes;
+import com.noctarius.borabora.spi.io.Constants;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TagStrategyTableTestCase {
+
+    @Test
+    public void test_builtin_lookup() {
+        TagStrategyTable table = TagStrategyTable.newTagStrategyTable(Arrays.asList(TagStrategies.values()));
+        for (TagStrategies tagStrategy : TagStrategies.values()) {
+            assertSame(tagStrategy, table.tagStrategy(tagStrategy.tagId()));
+        }
+        assertNull(table.tagStrategy(Constants.TAG_BIGFLOAT));
+        assertNull(table.tagStrategy(-1));
+        assertNull(table.tagStrategy(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void test_sparse_lookup() {
+        List<TagStrategy> tagStrategies = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tagStrategies.add(tagStrategy(1000 + i * 4096));
+        }
+        TagStrategyTable table = TagStrategyTable.newTagStrategyTable(tagStrategies);
+        assertEquals(100, table.size());
+        for (int i = 0; i < 100; i++) {
+            assertSame(tagStrategies.get(i), table.tagStrategy(1000 + i * 4096));
+            assertSame(tagStrategies.get(i), table.get(i));
+        }
+        assertNull(table.tagStrategy(1001));
+    }
+
+    @Test
+    public void test_first_registered_wins() {
+        TagStrategy first = tagStrategy(300);
+        TagStrategy second = tagStrategy(300);
+        TagStrategy dense1 = tagStrategy(10);
+        TagStrategy dense2 = tagStrategy(10);
+        TagStrategyTable table = TagStrategyTable.newTagStrategyTable(Arrays.asList(first, dense1, second, dense2));
+        assertSame(first, table.tagStrategy(300));
+        assertSame(dense1, table.tagStrategy(10));
+    }
+
+    @Test
+    public void test_table_reused() {
+        TagStrategyTable table = TagStrategyTable.newTagStrategyTable(Collections.singletonList(TagStrategies.URI));
+        assertSame(table, TagStrategyTable.newTagStrategyTable(table));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void fail_table_immutable() {
+        TagStrategyTable table = TagStrategyTable.newTagStrategyTable(Collections.singletonList(TagStrategies.URI));
+        table.add(TagStrategies.ASCII);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void fail_null_tagstrategy() {
+        TagStrategyTable.newTagStrategyTable(Collections.singletonList(null));
+    }
+
+    @Test
+    public void test_tagged_value_through_parser() {
+        Input input = Input.fromByteArray(new byte[]{(byte) 0xd8, 0x20, 0x60});
+        Parser parser = Parser.newBuilder().build();
+        Value value = parser.read(input, "#");
+        assertEquals(ValueTypes.URI, value.valueType());
+    }
+
+    private static TagStrategy tagStrategy(int tagId) {
+        TagStrategy tagStrategy = mock(TagStrategy.class);
+        when(tagStrategy.tagId()).thenReturn(tagId);
+        return tagStrategy;
+    }
+
+}
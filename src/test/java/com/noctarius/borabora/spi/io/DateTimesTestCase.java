@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Output;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DateTimesTestCase
+        extends AbstractTestCase {
+
+    @Test
+    public void call_constructor() {
+        callConstructor(DateTimes.class);
+    }
+
+    @Test
+    public void test_parse_utc() {
+        assertEquals(Instant.parse("2003-12-13T18:30:02Z"), parse("2003-12-13T18:30:02Z"));
+        assertEquals(Instant.parse("1970-01-01T00:00:00Z"), parse("1970-01-01T00:00:00Z"));
+        assertEquals(Instant.parse("1969-12-31T23:59:59Z"), parse("1969-12-31T23:59:59Z"));
+        assertEquals(Instant.parse("2000-02-29T12:00:00Z"), parse("2000-02-29T12:00:00Z"));
+        assertEquals(Instant.parse("0001-01-01T00:00:00Z"), parse("0001-01-01T00:00:00Z"));
+        assertEquals(Instant.parse("9999-12-31T23:59:59Z"), parse("9999-12-31T23:59:59Z"));
+    }
+
+    @Test
+    public void test_parse_fraction() {
+        assertEquals(Instant.parse("2003-12-13T18:30:02.250Z"), parse("2003-12-13T18:30:02.25Z"));
+        assertEquals(Instant.parse("2003-12-13T18:30:02.100Z"), parse("2003-12-13T18:30:02.1Z"));
+        assertEquals(Instant.parse("2003-12-13T18:30:02.123456789Z"), parse("2003-12-13T18:30:02.123456789Z"));
+    }
+
+    @Test
+    public void test_parse_offset_ignored() {
+        assertEquals(Instant.parse("2003-12-13T18:30:02Z"), parse("2003-12-13T18:30:02+01:00"));
+        assertEquals(Instant.parse("2003-12-13T18:30:02.250Z"), parse("2003-12-13T18:30:02.25-05:30"));
+    }
+
+    @Test
+    public void test_parse_not_handled() {
+        assertNull(parse("2003-12-13T18:30:02"));
+        assertNull(parse("2003-12-13 18:30:02Z"));
+        assertNull(parse("2003-12-13T18:30Z"));
+        assertNull(parse("2003-13-13T18:30:02Z"));
+        assertNull(parse("2003-02-29T18:30:02Z"));
+        assertNull(parse("2003-12-13T24:30:02Z"));
+        assertNull(parse("2003-12-13T18:30:60Z"));
+        assertNull(parse("2003-12-13T18:30:02.Z"));
+        assertNull(parse("2003-12-13T18:30:02.1234567891Z"));
+        assertNull(parse("2003-12-13T18:30:02+19:00"));
+        assertNull(parse("2003-12-13T18:30:02+01:60"));
+        assertNull(parse("2003-12-13T18:30:02+0100"));
+        assertNull(parse("2003-12-13T18:30:02Zx"));
+        assertNull(parse("+2003-12-13T18:30:02Z"));
+        assertNull(parse("0000-01-01T00:00:00Z"));
+    }
+
+    @Test
+    public void test_parse_cached_prefix() {
+        assertEquals(Instant.parse("2017-06-01T10:00:00.001Z"), parse("2017-06-01T10:00:00.001Z"));
+        assertEquals(Instant.parse("2017-06-01T10:00:00.002Z"), parse("2017-06-01T10:00:00.002Z"));
+        assertEquals(Instant.parse("2017-06-01T10:00:01.002Z"), parse("2017-06-01T10:00:01.002Z"));
+        assertNull(parse("2017-06-01T10:00:01+25:00"));
+    }
+
+    @Test
+    public void test_parse_matches_decoder_fallback() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            Instant instant = Instant.ofEpochSecond(random.nextInt(Integer.MAX_VALUE), random.nextInt(1000) * 1000000);
+            String date = instant.atZone(Constants.UTC).format(Constants.DATE_TIME_FRACTION_OFFSET_FORMAT);
+            assertEquals(LocalDateTime.parse(date, Constants.DATE_TIME_FRACTION_OFFSET_FORMAT).toInstant(ZoneOffset.UTC),
+                    parse(date));
+        }
+    }
+
+    @Test
+    public void test_put_instant_matches_formatter() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            long epochSecond = (long) (random.nextDouble() * 253402300799L) - 62167219200L;
+            Instant instant = Instant.ofEpochSecond(epochSecond, random.nextInt(1000000000));
+            String expected = instant.atZone(Constants.UTC).format(Constants.DATE_TIME_FRACTION_OFFSET_FORMAT);
+            assertEquals(expected, put(instant));
+        }
+    }
+
+    @Test
+    public void test_put_zoned_matches_formatter() {
+        ZonedDateTime utc = ZonedDateTime.parse("2003-12-13T18:30:02.25Z");
+        ZonedDateTime plus = ZonedDateTime.parse("2003-12-13T18:30:02.25+01:00");
+        ZonedDateTime minus = ZonedDateTime.parse("2003-12-13T18:30:02.25-05:30");
+        ZonedDateTime seconds = ZonedDateTime.of(2003, 12, 13, 18, 30, 2, 0, ZoneOffset.ofHoursMinutesSeconds(1, 0, 30));
+        ZonedDateTime largeYear = ZonedDateTime.of(10000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        ZonedDateTime negativeYear = ZonedDateTime.of(-1, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        for (ZonedDateTime dateTime : new ZonedDateTime[]{utc, plus, minus, seconds, largeYear, negativeYear}) {
+            assertEquals(dateTime.format(Constants.DATE_TIME_FRACTION_OFFSET_FORMAT), put(dateTime));
+        }
+    }
+
+    @Test
+    public void test_put_first_day_and_year_zero() {
+        Instant[] instants = {Instant.parse("0001-01-01T00:00:00Z"), Instant.parse("0001-03-01T12:30:00Z"),
+                Instant.parse("0000-01-01T00:00:00Z"), Instant.parse("0000-02-15T10:00:00Z"),
+                Instant.parse("0000-12-31T23:59:59Z")};
+
+        for (Instant instant : instants) {
+            assertEquals(instant.atZone(Constants.UTC).format(Constants.DATE_TIME_FRACTION_OFFSET_FORMAT), put(instant));
+        }
+        assertEquals("0001-01-01T00:00:00.000Z", put(Instant.parse("0001-01-01T00:00:00Z")));
+        ZonedDateTime yearZero = ZonedDateTime.of(0, 2, 15, 10, 0, 0, 0, ZoneOffset.ofHours(2));
+        assertEquals(yearZero.format(Constants.DATE_TIME_FRACTION_OFFSET_FORMAT), put(yearZero));
+    }
+
+    @Test
+    public void test_put_instant_out_of_range() {
+        Instant instant = Instant.parse("+10000-01-01T00:00:00Z");
+        assertEquals(instant.atZone(Constants.UTC).format(Constants.DATE_TIME_FRACTION_OFFSET_FORMAT), put(instant));
+    }
+
+    @Test
+    public void test_decoder_readdatetime() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Instant instant = Instant.parse("2017-06-01T10:00:00.123Z");
+        long offset = Encoder.putDateTime(instant, 0, Output.toOutputStream(baos));
+        byte[] bytes = baos.toByteArray();
+        assertEquals(bytes.length, offset);
+
+        Input input = Input.fromByteArray(bytes);
+        assertEquals(instant, Decoder.readDateTime(input, 1, newQueryContext(input)));
+    }
+
+    @Test
+    public void test_decoder_readdatetime_indefinite_string() {
+        // (_ "2003-12-13T18:30:", "02Z")
+        Input input = Input.fromByteArray(hexToBytes("0x7f71323030332d31322d31335431383a33303a6330325aff"));
+        assertEquals(Instant.parse("2003-12-13T18:30:02Z"), Decoder.readDateTime(input, 0, newQueryContext(input)));
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void fail_decoder_parsedate_fallback() {
+        Decoder.parseDate("2003-02-29T18:30:02Z");
+    }
+
+    private static Instant parse(String date) {
+        byte[] bytes = date.getBytes(Constants.ASCII);
+        return DateTimes.parse(Input.fromByteArray(bytes), 0, bytes.length);
+    }
+
+    private static String put(Object value) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Output output = Output.toOutputStream(baos);
+        long offset = value instanceof Instant //
+                ? DateTimes.put((Instant) value, 0, output) : DateTimes.put((ZonedDateTime) value, 0, output);
+        byte[] bytes = baos.toByteArray();
+        assertEquals(bytes.length, offset);
+        Input input = Input.fromByteArray(bytes);
+        return Decoder.readString(input, 0, newQueryContext(input));
+    }
+
+}
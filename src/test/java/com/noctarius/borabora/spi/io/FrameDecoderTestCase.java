@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Output;
+import com.noctarius.borabora.Writer;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FrameDecoderTestCase
+        extends AbstractTestCase {
+
+    // 1, {"a": 1, "b": [_ 2, 3]}, (_ h'0102', h'03'), 1(1363896240), "streaming", [], 1.1, [[1, [2]], {}]
+    private static final String FRAMES = "0x01" + "a26161016162" + "9f0203ff" + "5f42010241 03ff" + "c11a514b67b0"
+            + "7f657374726561646d696e67ff" + "80" + "fb3ff199999999999a" + "828201 8102a0";
+
+    @Test
+    public void test_frames_in_one_chunk() {
+        byte[] data = hexToBytes(FRAMES.replace(" ", ""));
+        List<Long> frames = new ArrayList<>();
+        FrameDecoder frameDecoder = FrameDecoder.newFrameDecoder(frames::add);
+        frameDecoder.feed(data, 0, data.length);
+        assertEquals(expectedFrames(data), frames);
+        assertEquals(8, frameDecoder.frames());
+        assertEquals(data.length, frameDecoder.position());
+        assertTrue(frameDecoder.atFrameBoundary());
+    }
+
+    @Test
+    public void test_frames_byte_by_byte() {
+        byte[] data = hexToBytes(FRAMES.replace(" ", ""));
+        List<Long> frames = new ArrayList<>();
+        FrameDecoder frameDecoder = FrameDecoder.newFrameDecoder(frames::add);
+        for (int i = 0; i < data.length; i++) {
+            frameDecoder.feed(data, i, 1);
+        }
+        assertEquals(expectedFrames(data), frames);
+    }
+
+    @Test
+    public void test_frames_random_fragments() {
+        byte[] data = hexToBytes(FRAMES.replace(" ", ""));
+        List<Long> expected = expectedFrames(data);
+        Random random = new Random(42);
+        for (int run = 0; run < 100; run++) {
+            List<Long> frames = new ArrayList<>();
+            FrameDecoder frameDecoder = FrameDecoder.newFrameDecoder(frames::add);
+            int offset = 0;
+            while (offset < data.length) {
+                int length = Math.min(data.length - offset, random.nextInt(7));
+                frameDecoder.feed(data, offset, length);
+                offset += length;
+            }
+            assertEquals(expected, frames);
+        }
+    }
+
+    @Test
+    public void test_large_string_payload_split() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer.newWriter().newGraphBuilder(Output.toOutputStream(baos)) //
+              .putSequence(2).putString(buildString(10000)).putNumber(1).endSequence().finishStream();
+        byte[] data = baos.toByteArray();
+
+        List<Long> frames = new ArrayList<>();
+        FrameDecoder frameDecoder = FrameDecoder.newFrameDecoder(frames::add);
+        frameDecoder.feed(data, 0, 5000);
+        assertFalse(frameDecoder.atFrameBoundary());
+        assertEquals(1, frameDecoder.depth());
+        assertTrue(frames.isEmpty());
+        frameDecoder.feed(data, 5000, data.length - 5000);
+        assertEquals(1, frames.size());
+        assertEquals(data.length, (long) frames.get(0));
+    }
+
+    @Test
+    public void test_bytebuffer_heap_and_direct() {
+        byte[] data = hexToBytes(FRAMES.replace(" ", ""));
+        List<Long> expected = expectedFrames(data);
+
+        List<Long> frames = new ArrayList<>();
+        FrameDecoder frameDecoder = FrameDecoder.newFrameDecoder(frames::add);
+        ByteBuffer heap = ByteBuffer.wrap(data);
+        frameDecoder.feed(heap);
+        assertEquals(expected, frames);
+        assertFalse(heap.hasRemaining());
+
+        frames.clear();
+        frameDecoder.reset();
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).flip();
+        frameDecoder.feed(direct);
+        assertEquals(expected, frames);
+        assertFalse(direct.hasRemaining());
+    }
+
+    @Test
+    public void test_deep_nesting() {
+        byte[] data = new byte[101];
+        for (int i = 0; i < 100; i++) {
+            data[i] = (byte) 0x81;
+        }
+        data[100] = 0x01;
+        List<Long> frames = new ArrayList<>();
+        FrameDecoder frameDecoder = FrameDecoder.newFrameDecoder(frames::add);
+        frameDecoder.feed(data, 0, 100);
+        assertEquals(100, frameDecoder.depth());
+        frameDecoder.feed(data, 100, 1);
+        assertEquals(1, frames.size());
+        assertEquals(0, frameDecoder.depth());
+    }
+
+    @Test
+    public void test_pending_tag_not_at_boundary() {
+        FrameDecoder frameDecoder = FrameDecoder.newFrameDecoder(offset -> {
+        });
+        frameDecoder.feed(new byte[]{(byte) 0xc1}, 0, 1);
+        assertFalse(frameDecoder.atFrameBoundary());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fail_unexpected_break_code() {
+        FrameDecoder.newFrameDecoder(offset -> {
+        }).feed(hexToBytes("0x82ff"), 0, 2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fail_break_code_after_tag() {
+        FrameDecoder.newFrameDecoder(offset -> {
+        }).feed(hexToBytes("0x9fc1ff"), 0, 3);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fail_indefinite_integer() {
+        FrameDecoder.newFrameDecoder(offset -> {
+        }).feed(hexToBytes("0x1f"), 0, 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fail_reserved_additional_info() {
+        FrameDecoder.newFrameDecoder(offset -> {
+        }).feed(hexToBytes("0x1c"), 0, 1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void fail_illegal_range() {
+        FrameDecoder.newFrameDecoder(offset -> {
+        }).feed(new byte[1], 0, 2);
+    }
+
+    private static List<Long> expectedFrames(byte[] data) {
+        Input input = Input.fromByteArray(data);
+        List<Long> frames = new ArrayList<>();
+        long offset = 0;
+        while (offset < data.length) {
+            offset = Decoder.skip(input, offset);
+            frames.add(offset);
+        }
+        return frames;
+    }
+
+}
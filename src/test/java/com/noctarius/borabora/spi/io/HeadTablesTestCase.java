@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.ValueTypes;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HeadTablesTestCase
+        extends AbstractTestCase {
+
+    @Test
+    public void call_constructor() {
+        callConstructor(HeadTables.class);
+    }
+
+    @Test
+    public void test_majortype() {
+        for (short head = 0; head < 256; head++) {
+            MajorType majorType = HeadTables.majorType(head);
+            assertEquals("head " + head, head >>> 5, majorType.typeId());
+            assertEquals("head " + head, majorType, MajorType.findMajorType(head));
+        }
+    }
+
+    @Test
+    public void test_headbytesize() {
+        for (short head = 0; head < 256; head++) {
+            int addInfo = head & Constants.ADDITIONAL_INFORMATION_MASK;
+            int expected = addInfo < 24 || addInfo == 31 ? 1 : addInfo < 28 ? 1 + (1 << (addInfo - 24)) : 0;
+            assertEquals("head " + head, expected, HeadTables.headByteSize(head));
+        }
+    }
+
+    @Test
+    public void test_fixedbytesize() {
+        assertEquals(1, HeadTables.fixedByteSize((short) 0x00));
+        assertEquals(9, HeadTables.fixedByteSize((short) 0x3b));
+        assertEquals(0, HeadTables.fixedByteSize((short) 0x1c));
+        assertEquals(4, HeadTables.fixedByteSize((short) 0x43));
+        assertEquals(0, HeadTables.fixedByteSize((short) 0x58));
+        assertEquals(0, HeadTables.fixedByteSize((short) 0x7f));
+        assertEquals(1, HeadTables.fixedByteSize((short) 0x80));
+        assertEquals(0, HeadTables.fixedByteSize((short) 0x81));
+        assertEquals(1, HeadTables.fixedByteSize((short) 0xa0));
+        assertEquals(0, HeadTables.fixedByteSize((short) 0xc0));
+        assertEquals(1, HeadTables.fixedByteSize((short) 0xf6));
+        assertEquals(3, HeadTables.fixedByteSize((short) 0xf9));
+        assertEquals(9, HeadTables.fixedByteSize((short) 0xfb));
+        assertEquals(0, HeadTables.fixedByteSize((short) 0xff));
+    }
+
+    @Test
+    public void test_valuetype() {
+        assertEquals(ValueTypes.UInt, HeadTables.valueType((short) 0x00));
+        assertEquals(ValueTypes.NInt, HeadTables.valueType((short) 0x20));
+        assertEquals(ValueTypes.ByteString, HeadTables.valueType((short) 0x40));
+        assertEquals(ValueTypes.TextString, HeadTables.valueType((short) 0x60));
+        assertEquals(ValueTypes.Sequence, HeadTables.valueType((short) 0x80));
+        assertEquals(ValueTypes.Dictionary, HeadTables.valueType((short) 0xa0));
+        assertEquals(ValueTypes.Unknown, HeadTables.valueType((short) 0xc0));
+        assertEquals(ValueTypes.Bool, HeadTables.valueType((short) 0xf4));
+        assertEquals(ValueTypes.Bool, HeadTables.valueType((short) 0xf5));
+        assertEquals(ValueTypes.Null, HeadTables.valueType((short) 0xf6));
+        assertEquals(ValueTypes.Undefined, HeadTables.valueType((short) 0xf7));
+        assertEquals(ValueTypes.Float, HeadTables.valueType((short) 0xf9));
+    }
+
+    @Test
+    public void test_negative_head_byte_masked() {
+        assertEquals(MajorType.FloatingPointOrSimple, HeadTables.majorType((short) -1));
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.MajorType;
+import com.noctarius.borabora.NoSuchByteException;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.ResourceLimitExceededException;
+import com.noctarius.borabora.Value;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ResourceLimitsTestCase
+        extends AbstractTestCase {
+
+    private static final ResourceLimits LIMITS = ResourceLimits.newResourceLimits(2, 2, 3, 10, 4);
+
+    @Test
+    public void test_unlimited() {
+        assertEquals(Integer.MAX_VALUE, ResourceLimits.UNLIMITED.maxNestingDepth());
+        assertEquals(Long.MAX_VALUE, ResourceLimits.UNLIMITED.maxContainerElements());
+        assertEquals(Long.MAX_VALUE, ResourceLimits.UNLIMITED.maxStringLength());
+        assertEquals(Long.MAX_VALUE, ResourceLimits.UNLIMITED.maxBytesScanned());
+        assertEquals(Long.MAX_VALUE, ResourceLimits.UNLIMITED.maxMaterializedElements());
+    }
+
+    @Test
+    public void test_accessors_and_tostring() {
+        assertEquals(2, LIMITS.maxNestingDepth());
+        assertEquals(2, LIMITS.maxContainerElements());
+        assertEquals(3, LIMITS.maxStringLength());
+        assertEquals(10, LIMITS.maxBytesScanned());
+        assertEquals(4, LIMITS.maxMaterializedElements());
+        assertEquals("ResourceLimits{maxNestingDepth=2, maxContainerElements=2, maxStringLength=3, maxBytesScanned=10, "
+                + "maxMaterializedElements=4}", LIMITS.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_illegal_max_nesting_depth() {
+        ResourceLimits.newResourceLimits(0, 1, 1, 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_illegal_max_container_elements() {
+        ResourceLimits.newResourceLimits(1, -1, 1, 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_illegal_max_string_length() {
+        ResourceLimits.newResourceLimits(1, 1, -1, 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_illegal_max_bytes_scanned() {
+        ResourceLimits.newResourceLimits(1, 1, 1, 0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_illegal_max_materialized_elements() {
+        ResourceLimits.newResourceLimits(1, 1, 1, 1, -1);
+    }
+
+    @Test
+    public void test_checks_within_limits() {
+        LIMITS.checkNestingDepth(2, 0);
+        LIMITS.checkContainerElements(2, 0);
+        LIMITS.checkStringLength(3, 0);
+        LIMITS.checkBytesScanned(10, 0);
+        LIMITS.checkMaterializedElements(4, 0);
+    }
+
+    @Test
+    public void fail_checks_exceeded() {
+        assertExceeded(() -> LIMITS.checkNestingDepth(3, 1), 1);
+        assertExceeded(() -> LIMITS.checkContainerElements(3, 2), 2);
+        assertExceeded(() -> LIMITS.checkStringLength(4, 3), 3);
+        assertExceeded(() -> LIMITS.checkBytesScanned(11, 4), 4);
+        assertExceeded(() -> LIMITS.checkMaterializedElements(5, 5), 5);
+    }
+
+    @Test
+    public void test_bytesize_within_limits() {
+        // [[1], "abc"]
+        Input input = Input.fromByteArray(hexToBytes("0x82810163616263"));
+        assertEquals(7, ByteSizes.byteSize(input, 0, LIMITS));
+        assertEquals(1, ByteSizes.byteSize(input, 2, ResourceLimits.newResourceLimits(1, 0, 0, 1, 0)));
+    }
+
+    @Test
+    public void fail_bytesize_nesting_depth() {
+        // [[[1]]]
+        Input input = Input.fromByteArray(hexToBytes("0x81818101"));
+        assertExceeded(() -> ByteSizes.byteSize(input, 0, LIMITS), 2);
+    }
+
+    @Test
+    public void fail_bytesize_container_elements() {
+        assertExceeded(() -> ByteSizes.byteSize(Input.fromByteArray(hexToBytes("0x8101")), 0, //
+                ResourceLimits.newResourceLimits(1, 0, 0, 1, 0)), 0);
+        // [1, {1: 2, 3: 4, 5: 6}]
+        Input input = Input.fromByteArray(hexToBytes("0x8201a3010203040506"));
+        assertExceeded(() -> ByteSizes.byteSize(input, 0, LIMITS), 2);
+    }
+
+    @Test
+    public void fail_bytesize_string_length() {
+        assertExceeded(() -> ByteSizes.byteSize(Input.fromByteArray(hexToBytes("0x6461626364")), 0, LIMITS), 0);
+        // ["abcd"]
+        assertExceeded(() -> ByteSizes.byteSize(Input.fromByteArray(hexToBytes("0x816461626364")), 0, LIMITS), 1);
+    }
+
+    @Test
+    public void fail_elementcount_indefinite() {
+        Input sequence = Input.fromByteArray(hexToBytes("0x9f010203ff"));
+        assertEquals(3, ElementCounts.sequenceElementCount(sequence, 0, ResourceLimits.UNLIMITED));
+        assertExceeded(() -> ElementCounts.sequenceElementCount(sequence, 0, LIMITS), 0);
+
+        Input dictionary = Input.fromByteArray(hexToBytes("0xbf010203040506ff"));
+        assertEquals(3, ElementCounts.elementCountByMajorType(MajorType.Dictionary, dictionary, 0, ResourceLimits.UNLIMITED));
+        assertExceeded(() -> ElementCounts.dictionaryElementCount(dictionary, 0, LIMITS), 0);
+    }
+
+    @Test
+    public void test_extractstringbytes() {
+        // (_ h'0102', h'03')
+        Input input = Input.fromByteArray(hexToBytes("0x5f42010241" + "03ff"));
+        assertArrayEquals(new byte[]{1, 2, 3}, Decoder.extractStringBytes(input, 0, LIMITS));
+        assertExceeded(() -> Decoder.extractStringBytes(input, 0, ResourceLimits.newResourceLimits(1, 0, 2, 1, 0)), 0);
+    }
+
+    @Test
+    public void fail_parser_hostile_element_count() {
+        // Sequence header claiming 2^32 elements
+        Input input = Input.fromByteArray(hexToBytes("0x9b000000010000000001"));
+        Value value = Parser.newBuilder().build().read(input, "#");
+        try {
+            value.sequence();
+            fail("NoSuchByteException expected");
+        } catch (NoSuchByteException e) {
+            assertEquals(9, e.getOffset());
+        }
+    }
+
+    @Test
+    public void fail_parser_max_container_elements() {
+        Input input = Input.fromByteArray(hexToBytes("0x83010203"));
+        Parser parser = Parser.newBuilder().withMaxContainerElements(2).build();
+        assertExceeded(() -> parser.read(input, "#(0)"), 0);
+        assertExceeded(() -> parser.read(input, "#").sequence(), 0);
+    }
+
+    @Test
+    public void fail_parser_max_nesting_depth() {
+        // [[1]], 2
+        Input input = Input.fromByteArray(hexToBytes("0x81810102"));
+        assertEquals(2, Parser.newBuilder().withMaxNestingDepth(2).build().read(input, "#1").number().intValue());
+        assertExceeded(() -> Parser.newBuilder().withMaxNestingDepth(1).build().read(input, "#1"), 1);
+    }
+
+    @Test
+    public void fail_parser_max_string_length() {
+        Input input = Input.fromByteArray(hexToBytes("0x63616263"));
+        assertEquals("abc", Parser.newBuilder().withMaxStringLength(3).build().read(input, "#").string());
+        assertExceeded(() -> Parser.newBuilder().withMaxStringLength(2).build().read(input, "#").string(), 0);
+    }
+
+    @Test
+    public void fail_parser_max_bytes_scanned() {
+        Input input = Input.fromByteArray(hexToBytes("0x0102030405"));
+        Parser parser = Parser.newBuilder().withMaxBytesScanned(3).build();
+        assertEquals(4, parser.read(input, "#3").number().intValue());
+        assertExceeded(() -> parser.read(input, "#4"), 3);
+    }
+
+    @Test
+    public void fail_parser_max_materialized_elements() {
+        Input input = Input.fromByteArray(hexToBytes("0x8301028102"));
+        Parser parser = Parser.newBuilder().withMaxMaterializedElements(3).build();
+        Value value = parser.read(input, "#");
+        assertEquals(3, value.sequence().size());
+        assertExceeded(() -> parser.read(input, "#").sequence().get(2).sequence(), 3);
+    }
+
+    private static void assertExceeded(Runnable runnable, long offset) {
+        try {
+            runnable.run();
+            fail("ResourceLimitExceededException expected");
+        } catch (ResourceLimitExceededException e) {
+            assertEquals(offset, e.getOffset());
+        }
+    }
+
+}
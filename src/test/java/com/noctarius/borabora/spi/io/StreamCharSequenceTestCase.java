@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static com.noctarius.borabora.spi.io.Constants.UTF8;
+import static org.junit.Assert.assertEquals;
+
+public class StreamCharSequenceTestCase
+        extends AbstractTestCase {
+
+    @Test
+    public void test_empty() {
+        CharSequence charSequence = charSequence(textString(""));
+        assertEquals(0, charSequence.length());
+        assertEquals("", charSequence.toString());
+    }
+
+    @Test
+    public void test_ascii() {
+        String expected = buildString(100);
+        assertCharSequence(expected, charSequence(textString(expected)));
+    }
+
+    @Test
+    public void test_utf8_index() {
+        // Mixes 1, 2, 3 and 4 byte code points to cross multiple index checkpoints
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            sb.append('a').append('ü').append('水').append("𐅑");
+        }
+        String expected = sb.toString();
+        assertCharSequence(expected, charSequence(textString(expected)));
+    }
+
+    @Test
+    public void test_utf8_surrogate_on_checkpoint() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 31; i++) {
+            sb.append('ü');
+        }
+        sb.append("𐅑").append("𐅑").append('b');
+        String expected = sb.toString();
+        assertCharSequence(expected, charSequence(textString(expected)));
+    }
+
+    @Test
+    public void test_indefinite_chunks() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(0x7f);
+        String[] chunks = {"foo", "üö", "", "水bar"};
+        StringBuilder sb = new StringBuilder();
+        for (String chunk : chunks) {
+            byte[] data = textString(chunk);
+            baos.write(data, 0, data.length);
+            sb.append(chunk);
+        }
+        baos.write(0xff);
+        assertCharSequence(sb.toString(), charSequence(baos.toByteArray()));
+    }
+
+    @Test
+    public void test_malformed_replaced() {
+        // 0x62 => TextString, length 2, truncated 2 byte sequence and a single continuation byte
+        CharSequence charSequence = charSequence(new byte[]{0x62, (byte) 0xc3, (byte) 0x80});
+        assertEquals(1, charSequence.length());
+        assertEquals('À', charSequence.charAt(0));
+
+        CharSequence malformed = charSequence(new byte[]{0x62, (byte) 0xc3, 'a'});
+        assertEquals("�a", malformed.toString());
+    }
+
+    @Test
+    public void test_ascii_hint() {
+        CharSequence charSequence = StreamCharSequence.newCharSequence(Input.fromByteArray(textString("abc")), 0, true);
+        assertCharSequence("abc", charSequence);
+    }
+
+    @Test(expected = StringIndexOutOfBoundsException.class)
+    public void fail_charat_out_of_bounds() {
+        charSequence(textString("abc")).charAt(3);
+    }
+
+    @Test(expected = StringIndexOutOfBoundsException.class)
+    public void fail_subsequence_out_of_bounds() {
+        charSequence(textString("abc")).subSequence(2, 4);
+    }
+
+    private static void assertCharSequence(String expected, CharSequence actual) {
+        assertEquals(expected.length(), actual.length());
+        for (int i = expected.length() - 1; i >= 0; i--) {
+            assertEquals("index " + i, expected.charAt(i), actual.charAt(i));
+        }
+        assertEquals(expected, actual.toString());
+        if (expected.length() > 2) {
+            assertEquals(expected.substring(1, expected.length() - 1), actual.subSequence(1, expected.length() - 1));
+        }
+    }
+
+    private static CharSequence charSequence(byte[] data) {
+        return StreamCharSequence.newCharSequence(Input.fromByteArray(data), 0, false);
+    }
+
+    private static byte[] textString(String value) {
+        byte[] data = value.getBytes(UTF8);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        if (data.length < 24) {
+            baos.write(0x60 | data.length);
+        } else if (data.length < 256) {
+            baos.write(0x78);
+            baos.write(data.length);
+        } else {
+            baos.write(0x79);
+            baos.write(data.length >>> 8);
+            baos.write(data.length & 0xff);
+        }
+        baos.write(data, 0, data.length);
+        return baos.toByteArray();
+    }
+
+}
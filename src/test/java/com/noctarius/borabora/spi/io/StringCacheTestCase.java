@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Output;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.Writer;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+
+import static com.noctarius.borabora.spi.io.Constants.UTF8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StringCacheTestCase
+        extends AbstractTestCase {
+
+    @Test
+    public void test_get_canonical_instance() {
+        StringCache stringCache = StringCache.newStringCache();
+        Input input = Input.fromByteArray("keykey".getBytes(UTF8));
+
+        String value1 = stringCache.get(input, 0, 3, UTF8);
+        String value2 = stringCache.get(input, 3, 3, UTF8);
+        assertEquals("key", value1);
+        assertSame(value1, value2);
+    }
+
+    @Test
+    public void test_get_utf8() {
+        StringCache stringCache = StringCache.newStringCache();
+        byte[] data = "äöü".getBytes(UTF8);
+        Input input = Input.fromByteArray(data);
+        assertEquals("äöü", stringCache.get(input, 0, data.length, UTF8));
+    }
+
+    @Test
+    public void test_get_collision_replaces_entry() {
+        // Single slot, every string collides
+        StringCache stringCache = StringCache.newStringCache(1, 10);
+        Input input = Input.fromByteArray("foobar".getBytes(UTF8));
+
+        String foo = stringCache.get(input, 0, 3, UTF8);
+        assertEquals("bar", stringCache.get(input, 3, 3, UTF8));
+        String foo2 = stringCache.get(input, 0, 3, UTF8);
+        assertEquals("foo", foo2);
+        assertNotSame(foo, foo2);
+    }
+
+    @Test
+    public void test_intern() {
+        StringCache stringCache = StringCache.newStringCache();
+        Input input = Input.fromByteArray("key".getBytes(UTF8));
+
+        String value = stringCache.get(input, 0, 3, UTF8);
+        assertSame(value, stringCache.intern(new String("key")));
+
+        String interned = stringCache.intern("other");
+        assertSame(interned, stringCache.intern(new String("other")));
+    }
+
+    @Test
+    public void test_intern_non_ascii() {
+        StringCache stringCache = StringCache.newStringCache();
+        String value = new String("äöü");
+        assertSame(value, stringCache.intern(value));
+        assertNotSame(value, stringCache.intern(new String("äöü")));
+    }
+
+    @Test
+    public void test_cacheable() {
+        StringCache stringCache = StringCache.newStringCache(16, 4);
+        assertTrue(stringCache.cacheable(4));
+        assertFalse(stringCache.cacheable(5));
+
+        String value = new String("large");
+        assertSame(value, stringCache.intern(value));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_newstringcache_illegal_capacity() {
+        StringCache.newStringCache(0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_newstringcache_illegal_maxstringlength() {
+        StringCache.newStringCache(10, 0);
+    }
+
+    @Test
+    public void test_parser_dictionary_keys_canonical() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer.newWriter().newGraphBuilder(Output.toOutputStream(baos)) //
+              .putDictionary(1).putEntry().putString("key").putNumber(1).endEntry().endDictionary() //
+              .putDictionary(1).putEntry().putString("key").putNumber(2).endEntry().endDictionary() //
+              .finishStream();
+
+        Input input = Input.fromByteArray(baos.toByteArray());
+        Parser parser = Parser.newBuilder().withStringCache().build();
+
+        Value value1 = parser.read(input, parser.prepareQuery("#0"));
+        Value value2 = parser.read(input, parser.prepareQuery("#1"));
+
+        Iterator<Value> keys1 = value1.dictionary().keys().iterator();
+        Iterator<Value> keys2 = value2.dictionary().keys().iterator();
+        assertSame(keys1.next().string(), keys2.next().string());
+    }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.NoSuchByteException;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.Value;
+import com.noctarius.borabora.WrongTypeException;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class StringInputStreamTestCase
+        extends AbstractTestCase {
+
+    @Test
+    public void test_definite_bytestring()
+            throws Exception {
+
+        InputStream stream = open("0x4401020304");
+        assertEquals(4, stream.available());
+        byte[] bytes = new byte[10];
+        assertEquals(4, stream.read(bytes, 0, 10));
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 0, 0, 0, 0, 0, 0}, bytes);
+        assertEquals(0, stream.available());
+        assertEquals(-1, stream.read(bytes, 0, 10));
+        assertEquals(-1, stream.read());
+    }
+
+    @Test
+    public void test_indefinite_bytestring()
+            throws Exception {
+
+        assertArrayEquals(hexToBytes("0x0102030405"), readFully(open("0x5f42010243030405ff"), 1));
+        assertArrayEquals(hexToBytes("0x0102030405"), readFully(open("0x5f42010243030405ff"), 3));
+        assertArrayEquals(hexToBytes("0xaabbccddeeff99"), readFully(open("0x5f44aabbccdd43eeff99ff"), 100));
+    }
+
+    @Test
+    public void test_read_single_bytes()
+            throws Exception {
+
+        InputStream stream = open("0x5f420102400103ff");
+        assertEquals(1, stream.read());
+        assertEquals(2, stream.read());
+        assertEquals(3, stream.read());
+        assertEquals(-1, stream.read());
+    }
+
+    @Test
+    public void test_textstring()
+            throws Exception {
+
+        assertArrayEquals("streaming".getBytes(Constants.UTF8),
+                readFully(open("0x7f657374726561646d696e67ff"), 4));
+        assertArrayEquals("ü".getBytes(Constants.UTF8), readFully(open("0x62c3bc"), 4));
+    }
+
+    @Test
+    public void test_empty()
+            throws Exception {
+
+        assertEquals(-1, open("0x40").read());
+        assertEquals(-1, open("0x5fff").read());
+        assertEquals(0, open("0x4101").read(new byte[1], 0, 0));
+    }
+
+    @Test
+    public void test_skip()
+            throws Exception {
+
+        InputStream stream = open("0x5f42010243030405ff");
+        assertEquals(3, stream.skip(3));
+        assertEquals(4, stream.read());
+        assertEquals(1, stream.skip(3));
+        assertEquals(0, stream.skip(3));
+    }
+
+    @Test
+    public void test_eight_byte_length()
+            throws Exception {
+
+        assertArrayEquals("ab".getBytes(Constants.ASCII), readFully(open("0x5b00000000000000026162"), 2));
+    }
+
+    @Test
+    public void test_64bit_string() {
+        // 3 GB TextString, the data is never materialized
+        long length = 3L * 1024 * 1024 * 1024;
+        Input input = new LargeStringInput((byte) 0x7b, length);
+        Value value = Parser.newParser().read(input, "#");
+
+        try (InputStream stream = value.openStream()) {
+            assertEquals(Integer.MAX_VALUE, stream.available());
+            assertEquals(length - 1, stream.skip(length - 1));
+            assertEquals(7, stream.read());
+            assertEquals(-1, stream.read());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fail_64bit_string_materialize() {
+        Value value = Parser.newParser().read(new LargeStringInput((byte) 0x5b, 3L * 1024 * 1024 * 1024), "#");
+        value.bytes();
+    }
+
+    @Test(expected = WrongTypeException.class)
+    public void fail_not_a_string() {
+        open("0x01");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void fail_read_illegal_range()
+            throws Exception {
+
+        open("0x4401020304").read(new byte[2], 1, 2);
+    }
+
+    private static InputStream open(String hex) {
+        return StringInputStream.newStringInputStream(Input.fromByteArray(hexToBytes(hex)), 0);
+    }
+
+    private static byte[] readFully(InputStream stream, int bufferSize)
+            throws IOException {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[bufferSize + 1];
+        int read;
+        // Read to offset 1 to test copying from the internal buffer
+        while ((read = stream.read(buffer, 1, bufferSize)) != -1) {
+            baos.write(buffer, 1, read);
+        }
+        return baos.toByteArray();
+    }
+
+    private static final class LargeStringInput
+            implements Input {
+
+        private final byte head;
+        private final long length;
+
+        private LargeStringInput(byte head, long length) {
+            this.head = head;
+            this.length = length;
+        }
+
+        @Override
+        public byte read(long offset)
+                throws NoSuchByteException {
+
+            if (!offsetValid(offset)) {
+                throw new NoSuchByteException(offset, "Offset " + offset + " outside of available data");
+            }
+            if (offset == 0) {
+                // String with eight byte length
+                return head;
+            }
+            if (offset < 9) {
+                return (byte) (length >>> ((8 - offset) * 8));
+            }
+            return offset == length + 8 ? (byte) 7 : (byte) 'a';
+        }
+
+        @Override
+        public long read(byte[] bytes, long offset, int length)
+                throws NoSuchByteException {
+
+            for (int i = 0; i < length; i++) {
+                bytes[i] = read(offset + i);
+            }
+            return length;
+        }
+
+        @Override
+        public boolean offsetValid(long offset) {
+            return offset >= 0 && offset < length + 9;
+        }
+    }
+
+}
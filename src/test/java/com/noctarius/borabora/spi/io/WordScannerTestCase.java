@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.io;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WordScannerTestCase
+        extends AbstractTestCase {
+
+    @Test
+    public void call_constructor() {
+        callConstructor(WordScanner.class);
+    }
+
+    @Test
+    public void test_nonsmallitems_every_byte_position() {
+        for (int head = 0; head < 256; head++) {
+            int majorType = head >>> 5;
+            int addInfo = head & 0x1F;
+            boolean small = (majorType == 0 || majorType == 1 || majorType == 7) && addInfo < 24;
+            for (int index = 0; index < 8; index++) {
+                long word = ((long) head) << (56 - index * 8);
+                long mask = WordScanner.nonSmallItems(word);
+                if (small) {
+                    assertEquals("head: " + head, 0, mask);
+                } else {
+                    assertEquals("head: " + head, index, WordScanner.firstMarkedByte(mask));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_firstmarkedbyte_picks_first() {
+        // 0x01, 0x02, 0x18 (marked), 0x03, 0x40 (marked), ...
+        long word = 0x0102180340000000L;
+        assertEquals(2, WordScanner.firstMarkedByte(WordScanner.nonSmallItems(word)));
+    }
+
+    @Test
+    public void test_isonebyteitem() {
+        assertEquals(true, WordScanner.isOneByteItem((short) 0x17));
+        assertEquals(false, WordScanner.isOneByteItem((short) 0x18));
+        assertEquals(true, WordScanner.isOneByteItem((short) 0x40));
+        assertEquals(true, WordScanner.isOneByteItem((short) 0xa0));
+        assertEquals(true, WordScanner.isOneByteItem((short) 0xf6));
+        assertEquals(false, WordScanner.isOneByteItem((short) 0xff));
+    }
+
+    @Test
+    public void test_indefinite_sequence_of_small_ints() {
+        // [_ 0, 1, ..., 23, 0, 1, ..., 23, "a", -1, [_ ], h'ff', true], 1
+        byte[] data = new byte[1 + 48 + 2 + 1 + 2 + 2 + 1 + 1 + 1];
+        int position = 0;
+        data[position++] = (byte) 0x9f;
+        for (int i = 0; i < 48; i++) {
+            data[position++] = (byte) (i % 24);
+        }
+        data[position++] = 0x61;
+        data[position++] = 0x61;
+        data[position++] = 0x20;
+        data[position++] = (byte) 0x9f;
+        data[position++] = (byte) 0xff;
+        data[position++] = 0x41;
+        data[position++] = (byte) 0xff;
+        data[position++] = (byte) 0xf5;
+        data[position++] = (byte) 0xff;
+        data[position] = 0x01;
+
+        Input input = Input.fromByteArray(data);
+        assertEquals(data.length - 1, ByteSizes.sequenceByteSize(input, 0));
+        assertEquals(53, ElementCounts.sequenceElementCount(input, 0));
+    }
+
+    @Test
+    public void test_definite_sequence_of_small_ints() {
+        // [0, ..., 22, 100, 0, ..., 22], 1
+        byte[] data = new byte[3 + 23 + 2 + 23 + 1];
+        int position = 0;
+        data[position++] = (byte) 0x98;
+        data[position++] = 47;
+        for (int i = 0; i < 23; i++) {
+            data[position++] = (byte) i;
+        }
+        data[position++] = 0x18;
+        data[position++] = 100;
+        for (int i = 0; i < 23; i++) {
+            data[position++] = (byte) i;
+        }
+        data[position] = 0x01;
+
+        Input input = Input.fromByteArray(data);
+        assertEquals(data.length - 2, ByteSizes.sequenceByteSize(input, 0));
+    }
+
+    @Test
+    public void test_indefinite_bytestring_containing_break_code() {
+        // (_ h'ffff', h'ff'), 1
+        Input input = Input.fromByteArray(hexToBytes("0x5f42ffff41ffff01"));
+        assertEquals(7, ByteSizes.stringByteSize(input, 0));
+    }
+
+}
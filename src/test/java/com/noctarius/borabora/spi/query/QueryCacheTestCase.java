@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2016-2018, Christoph Engelbert (aka noctarius) and
+ * contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.noctarius.borabora.spi.query;
+
+import com.noctarius.borabora.AbstractTestCase;
+import com.noctarius.borabora.Input;
+import com.noctarius.borabora.Parser;
+import com.noctarius.borabora.Query;
+import com.noctarius.borabora.QueryParserException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class QueryCacheTestCase
+        extends AbstractTestCase {
+
+    private final Parser parser = Parser.newParser();
+
+    @Test
+    public void test_hit_and_miss() {
+        QueryCache queryCache = QueryCache.newQueryCache();
+        Query query1 = queryCache.get("#{'a'}", parser::prepareQuery);
+        Query query2 = queryCache.get("#{'a'}", parser::prepareQuery);
+        assertSame(query1, query2);
+        assertEquals(1, queryCache.hits());
+        assertEquals(1, queryCache.misses());
+        assertEquals(1, queryCache.size());
+        assertEquals(QueryCache.DEFAULT_CAPACITY, queryCache.capacity());
+    }
+
+    @Test
+    public void test_evict_least_recently_used() {
+        QueryCache queryCache = QueryCache.newQueryCache(2);
+        Query query1 = queryCache.get("#0", parser::prepareQuery);
+        queryCache.get("#1", parser::prepareQuery);
+
+        // Touch #0, therefore #1 is the least recently used one
+        queryCache.get("#0", parser::prepareQuery);
+        queryCache.get("#2", parser::prepareQuery);
+
+        assertEquals(2, queryCache.size());
+        assertEquals(1, queryCache.evictions());
+        assertSame(query1, queryCache.get("#0", parser::prepareQuery));
+
+        long misses = queryCache.misses();
+        queryCache.get("#1", parser::prepareQuery);
+        assertEquals(misses + 1, queryCache.misses());
+    }
+
+    @Test
+    public void test_segmented_capacity_bound() {
+        QueryCache queryCache = QueryCache.newQueryCache(100);
+        for (int i = 0; i < 1000; i++) {
+            queryCache.get("#" + i, parser::prepareQuery);
+        }
+        assertTrue(queryCache.size() <= 100);
+        assertEquals(1000, queryCache.size() + queryCache.evictions());
+
+        // The most recently used query is never evicted
+        Query query = queryCache.get("#999", parser::prepareQuery);
+        assertEquals(1000, queryCache.misses());
+        assertSame(query, queryCache.get("#999", parser::prepareQuery));
+    }
+
+    @Test
+    public void test_clear() {
+        QueryCache queryCache = QueryCache.newQueryCache();
+        Query query = queryCache.get("#", parser::prepareQuery);
+        queryCache.clear();
+        assertEquals(0, queryCache.size());
+        assertNotSame(query, queryCache.get("#", parser::prepareQuery));
+        assertEquals(2, queryCache.misses());
+    }
+
+    @Test
+    public void test_failed_prepare_not_cached() {
+        QueryCache queryCache = QueryCache.newQueryCache();
+        for (int i = 0; i < 2; i++) {
+            try {
+                queryCache.get("#{", parser::prepareQuery);
+            } catch (QueryParserException e) {
+                // expected
+            }
+        }
+        assertEquals(0, queryCache.size());
+        assertEquals(2, queryCache.misses());
+    }
+
+    @Test
+    public void test_concurrent_access()
+            throws Exception {
+
+        QueryCache queryCache = QueryCache.newQueryCache(8);
+        AtomicInteger prepared = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executorService.submit(() -> {
+                    latch.await();
+                    for (int i = 0; i < 1000; i++) {
+                        String query = "#" + (i % 16);
+                        Query result = queryCache.get(query, q -> {
+                            prepared.incrementAndGet();
+                            return parser.prepareQuery(q);
+                        });
+                        assertEquals(parser.prepareQuery(query), result);
+                    }
+                    return null;
+                }));
+            }
+            latch.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertTrue(queryCache.size() <= 8);
+        assertEquals(4000, queryCache.hits() + queryCache.misses());
+        assertEquals(prepared.get(), queryCache.misses());
+    }
+
+    @Test
+    public void test_parser_read_uses_cache() {
+        Parser parser = Parser.newBuilder().withQueryCache(4).build();
+        Input input = Input.fromByteArray(hexToBytes("0x0102"));
+        assertEquals(1, parser.read(input, "#0").number().intValue());
+        assertEquals(1, parser.read(input, "#0").number().intValue());
+        assertEquals(1, parser.extract(input, "#1").length);
+        assertSame(parser.prepareQuery("#1"), parser.prepareQuery("#1"));
+
+        QueryCache queryCache = parser.queryCache();
+        assertEquals(4, queryCache.capacity());
+        assertEquals(2, queryCache.misses());
+        assertEquals(3, queryCache.hits());
+    }
+
+    @Test
+    public void test_tostring() {
+        QueryCache queryCache = QueryCache.newQueryCache(4);
+        queryCache.get("#", parser::prepareQuery);
+        assertEquals("QueryCache{capacity=4, size=1, hits=0, misses=1, evictions=0}", queryCache.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fail_illegal_capacity() {
+        QueryCache.newQueryCache(0);
+    }
+
+}